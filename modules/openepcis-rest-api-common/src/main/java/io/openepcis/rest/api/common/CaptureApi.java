@@ -390,7 +390,12 @@ public interface CaptureApi {
                     @Parameter(
                             name = HeaderConstants.ROLES_ALLOWED,
                             description = ParameterDescriptions.ROLES_ALLOWED,
-                            in = ParameterIn.HEADER)
+                            in = ParameterIn.HEADER),
+                    @Parameter(
+                            name = HeaderConstants.CONTENT_ENCODING,
+                            description = ParameterDescriptions.CONTENT_ENCODING,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = "gzip"))
             }
     )
     @APIResponses(
@@ -453,7 +458,8 @@ public interface CaptureApi {
                             responseCode = "413",
                             description =
                                     "The `POST` request is too large. It exceeds the limits "
-                                            + "set in `GS1-EPCIS-Capture-Limit` and/or `GS1-EPCIS-Capture-File-Size-Limit`.",
+                                            + "set in `GS1-EPCIS-Capture-Limit` and/or `GS1-EPCIS-Capture-File-Size-Limit`. "
+                                            + "For compressed requests the limit applies to the decompressed payload.",
                             content =
                             @Content(
                                     schema = @Schema(implementation = ProblemResponseBody.class),
@@ -461,11 +467,27 @@ public interface CaptureApi {
                     @APIResponse(
                             responseCode = "415",
                             description =
-                                    "The client sent data in a format that is not supported " + "by the server.",
+                                    "The client sent data in a format or `Content-Encoding` that is not supported " + "by the server.",
                             content =
                             @Content(
                                     schema = @Schema(implementation = ProblemResponseBody.class),
                                     example = ResponseBodyExamples.RESPONSE_415_UNSUPPORTED_MEDIA_TYPE)),
+                    @APIResponse(
+                            responseCode = "429",
+                            description =
+                                    "The capture request was rejected by admission control, either because the per-tenant rate "
+                                            + "limit is exhausted or because the capture pipeline is overloaded. Retry after the "
+                                            + "number of seconds given in the `Retry-After` header.",
+                            headers = {
+                                    @Header(
+                                            name = HeaderConstants.RETRY_AFTER,
+                                            description = ParameterDescriptions.RETRY_AFTER,
+                                            schema = @Schema(implementation = Integer.class))
+                            },
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_429_CAPTURE_TOO_MANY_REQUESTS)),
                     @APIResponse(
                             responseCode = "500",
                             description = "An error occurred on the backend.",
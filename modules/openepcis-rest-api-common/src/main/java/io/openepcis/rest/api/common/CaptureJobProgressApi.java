@@ -0,0 +1,118 @@
+/*
+ * Copyright 2022-2024 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.UUID;
+
+import static io.openepcis.rest.api.common.constants.ParameterConstants.*;
+
+@Tag(name = "Capture", description = "Endpoints to capture EPCIS events in bulk or individually.")
+@Path("capture")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface CaptureJobProgressApi {
+
+    @Operation(
+            summary = "Streams the progress of a capture job.",
+            description =
+                    "Instead of polling `/capture/{captureID}`, clients can subscribe to this endpoint to receive every update of "
+                            + "the capture job as a server-sent event. The first event carries the last known state of the capture job, "
+                            + "subsequent events are pushed as soon as the capture pipeline updates the job. The stream is closed by the "
+                            + "server once the capture job has finished, i.e. `finishedAt` is set.")
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "captureID",
+                            description =
+                                    "A unique value identifying a " + "capture job generated by the server.",
+                            in = ParameterIn.PATH,
+                            required = true),
+                    @Parameter(
+                            name = "GS1-EPCIS-Min",
+                            description = ParameterDescriptions.GS1_EPCIS_MIN,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = DEFAULT_EPCIS_MIN_PARAMETER_VALUE)),
+                    @Parameter(
+                            name = "GS1-EPCIS-Max",
+                            description = ParameterDescriptions.GS1_EPCIS_MAX,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = DEFAULT_EPCIS_MAX_PARAMETER_VALUE))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description =
+                                    "A stream of capture job documents. Each `data` element has the same structure as the response of "
+                                            + "`/capture/{captureID}`.",
+                            content =
+                            @Content(
+                                    mediaType = MediaType.SERVER_SENT_EVENTS,
+                                    example =
+                                            "data: {\"captureID\":\"id261378658356\",\"createdAt\":\"2021-07-21T17:32:28Z\",\"running\":true,\"success\":true,\"captureErrorBehaviour\":\"rollback\",\"errors\":[]}\n\n"
+                                                    + "data: {\"captureID\":\"id261378658356\",\"createdAt\":\"2021-07-21T17:32:28Z\",\"finishedAt\":\"2021-07-21T17:32:31Z\",\"running\":false,\"success\":true,\"captureErrorBehaviour\":\"rollback\",\"errors\":[]}\n\n")),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "403",
+                            description = "Client is unauthorized to access this resource.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_403_CLIENT_UNAUTHORIZED)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("{captureID}/progress")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<CaptureJobStatusMessage> captureIDProgress(
+            @RestPath UUID captureID);
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestQuery;
+
+import static io.openepcis.rest.api.common.constants.ParameterConstants.*;
+
+@Tag(name = "Capture", description = "Endpoints to capture EPCIS events in bulk or individually.")
+@Path("capture/jobs")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface CaptureJobSearchApi {
+
+    @Operation(
+            summary = "Returns a filtered list of capture jobs.",
+            description =
+                    "Lists capture jobs ordered by `createdAt` (newest first), optionally filtered by `running`, `success`, "
+                            + "`createdAt` range and group. Pagination is stateless: the `nextPageToken` in the `Link` header encodes "
+                            + "the sort position of the last capture job on the page, so every page costs the same as the first one "
+                            + "and tokens do not expire.")
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "running",
+                            description = ParameterDescriptions.CAPTURE_JOB_RUNNING,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "true")),
+                    @Parameter(
+                            name = "success",
+                            description = ParameterDescriptions.CAPTURE_JOB_SUCCESS,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "GE_createdAt",
+                            description = ParameterDescriptions.GE_CREATED_AT,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "2024-01-01T00:00:00Z")),
+                    @Parameter(
+                            name = "LT_createdAt",
+                            description = ParameterDescriptions.LT_CREATED_AT,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "group",
+                            description = ParameterDescriptions.CAPTURE_JOB_GROUP,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.PER_PAGE,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "nextPageToken",
+                            description = ParameterDescriptions.CAPTURE_JOB_NEXT_PAGE_TOKEN,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "GS1-EPCIS-Min",
+                            description = ParameterDescriptions.GS1_EPCIS_MIN,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = DEFAULT_EPCIS_MIN_PARAMETER_VALUE)),
+                    @Parameter(
+                            name = "GS1-EPCIS-Max",
+                            description = ParameterDescriptions.GS1_EPCIS_MAX,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = DEFAULT_EPCIS_MAX_PARAMETER_VALUE))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A list of capture job documents, see `/capture/{captureID}` for their properties.",
+                            content =
+                            @Content(
+                                    example =
+                                            "[\n"
+                                                    + "{\n"
+                                                    + "  \"captureID\": \"id9261379075\",\n"
+                                                    + "  \"createdAt\": \"2021-08-21T17:32:28Z\",\n"
+                                                    + "  \"running\": true,\n"
+                                                    + "  \"success\": true,\n"
+                                                    + "  \"captureErrorBehaviour\": \"proceed\",\n"
+                                                    + "  \"errors\": [ ]\n"
+                                                    + "}]"),
+                            headers = {
+                                    @Header(
+                                            name = "Link",
+                                            description = ParameterDescriptions.LINK,
+                                            schema = @Schema(implementation = String.class))
+                            }),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "A filter value or the `nextPageToken` is malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "403",
+                            description = "Client is unauthorized to access this resource.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_403_CLIENT_UNAUTHORIZED)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    public Uni<Response> captureJobsGet(
+            @Context SecurityIdentity securityIdentity,
+            @RestQuery Boolean running,
+            @RestQuery Boolean success,
+            @RestQuery("GE_createdAt") String geCreatedAt,
+            @RestQuery("LT_createdAt") String ltCreatedAt,
+            @RestQuery String group,
+            @Valid
+            @RestQuery
+            @DefaultValue(DEFAULT_PER_PAGE_PARAMETER_VALUE)
+            Integer perPage,
+            @RestQuery String nextPageToken,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Counts capture jobs.",
+            description =
+                    "Returns the number of capture jobs matching the same filters as `/capture/jobs` without fetching them.")
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "running",
+                            description = ParameterDescriptions.CAPTURE_JOB_RUNNING,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "success",
+                            description = ParameterDescriptions.CAPTURE_JOB_SUCCESS,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "GE_createdAt",
+                            description = ParameterDescriptions.GE_CREATED_AT,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "LT_createdAt",
+                            description = ParameterDescriptions.LT_CREATED_AT,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "group",
+                            description = ParameterDescriptions.CAPTURE_JOB_GROUP,
+                            in = ParameterIn.QUERY)
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The number of matching capture jobs.",
+                            content = @Content(example = "{\n  \"count\": 42\n}")),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "A filter value is malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("count")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    public Uni<Response> captureJobsCount(
+            @Context SecurityIdentity securityIdentity,
+            @RestQuery Boolean running,
+            @RestQuery Boolean success,
+            @RestQuery("GE_createdAt") String geCreatedAt,
+            @RestQuery("LT_createdAt") String ltCreatedAt,
+            @RestQuery String group);
+}
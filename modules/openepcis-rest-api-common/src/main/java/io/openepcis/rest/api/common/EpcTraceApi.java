@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+
+/**
+ * Traces an EPC through aggregations and transformations on the server, instead of one
+ * {@code GET /epcs/{epc}/events} round-trip per hop and per child.
+ */
+@Tag(name = "Top-level Resources")
+@Path("/")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface EpcTraceApi {
+
+    @Operation(
+            summary = "Streams the events of an EPC and of all EPCs related to it by aggregation or transformation.",
+            description = "Runs a breadth-first traversal starting at the EPC: every level looks up the events of all EPCs "
+                    + "reached so far in batches, follows `parentID`/`childEPCs` of aggregations and "
+                    + "`inputEPCList`/`outputEPCList` of transformations in the requested direction and continues with the "
+                    + "EPCs not visited yet. The EPC classes of `childQuantityList`, `inputQuantityList` and "
+                    + "`outputQuantityList` are followed like EPCs, and a transformation recorded in several events "
+                    + "sharing a `transformationID` relates the inputs of all of them to the outputs of all of them. "
+                    + "Every event is returned once, level by level. The response is an "
+                    + "`EPCISQueryDocument` written as a chunked stream, all levels are read from the same point-in-time "
+                    + "snapshot. The traversal stops expanding once `repository.epcis.trace.max-epcs` EPCs, EPC classes "
+                    + "and transformation ids have been visited.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "epc", description = "The EPC to start the trace from.", required = true, in = ParameterIn.PATH),
+                    @Parameter(
+                            name = "depth",
+                            description = ParameterDescriptions.TRACE_DEPTH,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "5")),
+                    @Parameter(
+                            name = "direction",
+                            description = ParameterDescriptions.TRACE_DIRECTION,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "down"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A streamed EPCISQueryDocument with the events of the trace."),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "The depth or direction is not supported.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "406",
+                            description = "The requested representation is not supported for streamed responses.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_406_NOT_ACCEPTABLE)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("epcs/{epc}/trace")
+    @Produces({MediaType.APPLICATION_JSON, "application/ld+json", MediaType.APPLICATION_XML, MediaType.TEXT_XML, "application/problem+json"})
+    Multi<byte[]> epcTrace(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String epc,
+            @RestQuery Integer depth,
+            @RestQuery String direction,
+            @Context HttpHeaders headers);
+}
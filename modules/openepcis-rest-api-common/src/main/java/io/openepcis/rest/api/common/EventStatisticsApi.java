@@ -0,0 +1,131 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestQuery;
+
+import java.util.List;
+
+/**
+ * Counts events and distinct EPCs on the server, instead of paging through events and
+ * deduplicating EPCs on the client.
+ */
+@Tag(name = "Events", description = "Endpoints that allow you to retrieve EPCIS events as Web resources.")
+@Path("/")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface EventStatisticsApi {
+
+    @Operation(
+            summary = "Returns the number of events and of distinct EPCs matching the filters.",
+            description = "Counts the matching events exactly and estimates the number of distinct EPCs in their "
+                    + "`epcList`, `childEPCs`, `parentID`, `inputEPCList` and `outputEPCList` with a HyperLogLog "
+                    + "cardinality aggregation, e.g. how many distinct serials passed a business location in a week. "
+                    + "Repeated requests for the same filters may be answered from a cache, see `computedAt`.")
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "EQ_bizLocation",
+                            description = ParameterDescriptions.EQ_BIZ_LOCATION,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "urn:epc:id:sgln:0614141.00888.0")),
+                    @Parameter(
+                            name = "EQ_readPoint",
+                            description = ParameterDescriptions.EQ_READ_POINT,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "urn:epc:id:sgln:0614141.00777.0")),
+                    @Parameter(
+                            name = "EQ_bizStep",
+                            description = ParameterDescriptions.EQ_BIZ_STEP,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "shipping")),
+                    @Parameter(
+                            name = "GE_eventTime",
+                            description = ParameterDescriptions.GE_EVENT_TIME,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "2025-01-06T00:00:00Z")),
+                    @Parameter(
+                            name = "LT_eventTime",
+                            description = ParameterDescriptions.LT_EVENT_TIME,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "2025-01-13T00:00:00Z")),
+                    @Parameter(
+                            name = "precisionThreshold",
+                            description = ParameterDescriptions.STATISTICS_PRECISION_THRESHOLD,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "3000"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The event count and the estimated number of distinct EPCs."),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "A filter or the precision threshold is invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("events/statistics")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    Uni<Response> eventStatistics(
+            @Context SecurityIdentity securityIdentity,
+            @RestQuery("EQ_bizLocation") List<String> bizLocations,
+            @RestQuery("EQ_readPoint") List<String> readPoints,
+            @RestQuery("EQ_bizStep") List<String> bizSteps,
+            @RestQuery("GE_eventTime") String geEventTime,
+            @RestQuery("LT_eventTime") String ltEventTime,
+            @RestQuery Integer precisionThreshold);
+}
@@ -93,6 +93,11 @@ public interface EventsApi {
                             description = ParameterDescriptions.NEXT_PAGE_TOKEN,
                             in = ParameterIn.QUERY,
                             content = @Content(example = "3A15506738749783AU6D7DENAKwM2gQRRwGritaeq")),
+                    @Parameter(
+                            name = "explain",
+                            description = ParameterDescriptions.EXPLAIN,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "false")),
                     @Parameter(
                             name = "GE_eventTime",
                             description = ParameterDescriptions.GE_EVENT_TIME,
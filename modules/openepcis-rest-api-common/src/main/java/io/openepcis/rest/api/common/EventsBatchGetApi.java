@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.openepcis.rest.api.common.model.EventBatchGetRequest;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+
+/**
+ * Returns many events by id in one request, instead of one {@code GET /events/{eventID}} per event.
+ */
+@Tag(name = "Events", description = "Endpoints that allow you to retrieve EPCIS events as Web resources.")
+@Path("/")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface EventsBatchGetApi {
+
+    @Operation(
+            summary = "Returns the events with the given ids.",
+            description = "Looks up all requested events with a single search. The found events are returned in the order "
+                    + "of the requested ids as an `EPCISQueryDocument` written as a chunked stream; the ids of events "
+                    + "which do not exist or are not visible to the caller are listed in the `missingEventIDs` property "
+                    + "of the document.")
+    @RequestBody(
+            description = ParameterDescriptions.BATCH_GET_EVENT_IDS,
+            required = true,
+            content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON,
+                    schema = @Schema(implementation = EventBatchGetRequest.class),
+                    example = "{\"eventIDs\": [\"ni:///sha-256;df7bb3c352fef055578554f09f5e2aa41782150ced7bd0b8af24dd3ccb30ba69?ver=CBV2.0\"]}"))
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A streamed EPCISQueryDocument with the found events and the ids of the missing ones."),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "No event ids were given.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "406",
+                            description = "The requested representation is not supported, batch results are JSON only.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_406_NOT_ACCEPTABLE)),
+                    @APIResponse(
+                            responseCode = "413",
+                            description = "More event ids were given than allowed per request.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_413_QUERY_SCOPE_OR_SIZE)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @POST
+    @Path("events/batch-get")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces({MediaType.APPLICATION_JSON, "application/ld+json", "application/problem+json"})
+    Multi<byte[]> eventsBatchGet(
+            @Context SecurityIdentity securityIdentity,
+            EventBatchGetRequest request,
+            @Context HttpHeaders headers);
+}
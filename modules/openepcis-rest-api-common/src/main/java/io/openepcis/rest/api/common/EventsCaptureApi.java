@@ -178,7 +178,12 @@ public interface EventsCaptureApi {
                     @Parameter(
                             name = "Roles-Allowed",
                             description = ParameterDescriptions.ROLES_ALLOWED,
-                            in = ParameterIn.HEADER)
+                            in = ParameterIn.HEADER),
+                    @Parameter(
+                            name = "Content-Encoding",
+                            description = ParameterDescriptions.CONTENT_ENCODING,
+                            in = ParameterIn.HEADER,
+                            content = @Content(example = "gzip"))
             }
     )
     @APIResponses(
@@ -270,6 +275,22 @@ public interface EventsCaptureApi {
                             @Content(
                                     schema = @Schema(implementation = ProblemResponseBody.class),
                                     example = ResponseBodyExamples.RESPONSE_415_UNSUPPORTED_MEDIA_TYPE)),
+                    @APIResponse(
+                            responseCode = "429",
+                            description =
+                                    "The capture request was rejected by admission control, either because the per-tenant rate "
+                                            + "limit is exhausted or because the capture pipeline is overloaded. Retry after the "
+                                            + "number of seconds given in the `Retry-After` header.",
+                            headers = {
+                                    @Header(
+                                            name = "Retry-After",
+                                            description = ParameterDescriptions.RETRY_AFTER,
+                                            schema = @Schema(implementation = Integer.class))
+                            },
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_429_CAPTURE_TOO_MANY_REQUESTS)),
                     @APIResponse(
                             responseCode = "500",
                             description = "A server-side error occurred",
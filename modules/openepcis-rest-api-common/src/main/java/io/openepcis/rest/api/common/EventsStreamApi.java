@@ -0,0 +1,283 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+
+import java.util.List;
+
+/**
+ * Streaming variants of the event query endpoints. The {@code EPCISQueryDocument} is written as a
+ * chunked response while events are pulled from the repository, instead of being built in memory.
+ */
+@Tag(name = "Events", description = "Endpoints that allow you to retrieve EPCIS events as Web resources.")
+@Path("/")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface EventsStreamApi {
+
+    String STREAM_DESCRIPTION =
+            "The response is an `EPCISQueryDocument` written as a chunked stream: the document header and context "
+                    + "come first, events follow in batches as they are read from the repository and the footer is "
+                    + "written last. The stream is flow controlled, the next batch is only read once the client has "
+                    + "consumed the previous one. All batches are read from the same point-in-time snapshot. If `perPage` "
+                    + "is given and more events match, the `Link` header contains the `nextPageToken` of the next page. "
+                    + "XML documents are rendered batch by batch as well and honor the `GS1-CBV-XML-Format` header.";
+
+    @Operation(
+            summary = "Streams EPCIS events matching the query string parameters.",
+            description = "Same filters as `GET /events`. " + STREAM_DESCRIPTION)
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.STREAM_PER_PAGE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "10000")),
+                    @Parameter(
+                            name = "nextPageToken",
+                            description = ParameterDescriptions.STREAM_NEXT_PAGE_TOKEN,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "fields",
+                            description = ParameterDescriptions.FIELDS,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "eventID,eventTime,epcList,bizStep")),
+                    @Parameter(
+                            name = "eventType",
+                            description = ParameterDescriptions.EVENT_TYPE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "ObjectEvent")),
+                    @Parameter(
+                            name = "GE_recordTime",
+                            description = ParameterDescriptions.GE_RECORD_TIME,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "2022-06-30T00:15:47.000-05:00"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A streamed EPCISQueryDocument.",
+                            headers = {
+                                    @Header(
+                                            name = "Link",
+                                            description = ParameterDescriptions.LINK,
+                                            schema = @Schema(implementation = String.class))
+                            }),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "A query parameter is not supported or malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "406",
+                            description = "The requested representation is not supported for streamed responses.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_406_NOT_ACCEPTABLE)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("events/stream")
+    @Produces({MediaType.APPLICATION_JSON, "application/ld+json", MediaType.APPLICATION_XML, MediaType.TEXT_XML, "application/problem+json"})
+    Multi<byte[]> eventsStream(
+            @Context SecurityIdentity securityIdentity,
+            @RestQuery MultivaluedMap<String, String> query,
+            @Context HttpHeaders headers,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Streams the EPCIS events matching a named query.",
+            description = "Same result as `GET /queries/{queryName}/events`. " + STREAM_DESCRIPTION)
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.STREAM_PER_PAGE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "10000")),
+                    @Parameter(
+                            name = "nextPageToken",
+                            description = ParameterDescriptions.STREAM_NEXT_PAGE_TOKEN,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "fields",
+                            description = ParameterDescriptions.FIELDS,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "eventID,eventTime,epcList,bizStep"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A streamed EPCISQueryDocument.",
+                            headers = {
+                                    @Header(
+                                            name = "Link",
+                                            description = ParameterDescriptions.LINK,
+                                            schema = @Schema(implementation = String.class))
+                            }),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The named query does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND)),
+                    @APIResponse(
+                            responseCode = "406",
+                            description = "The requested representation is not supported for streamed responses.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_406_NOT_ACCEPTABLE)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("queries/{queryName}/events/stream")
+    @Produces({MediaType.APPLICATION_JSON, "application/ld+json", MediaType.APPLICATION_XML, MediaType.TEXT_XML, "application/problem+json"})
+    Multi<byte[]> queryEventsStream(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestQuery Integer perPage,
+            @RestQuery String nextPageToken,
+            @RestQuery List<String> fields,
+            @Context HttpHeaders headers,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Streams the EPCIS events of a top-level resource.",
+            description = "Same result as `GET /{resource}/{value}/events`, e.g. `/bizSteps/shipping/events`. " + STREAM_DESCRIPTION)
+    @Parameters(
+            value = {
+                    @Parameter(
+                            name = "resource",
+                            description = ParameterDescriptions.TOP_LEVEL_RESOURCE,
+                            in = ParameterIn.PATH,
+                            required = true,
+                            content = @Content(example = "bizSteps")),
+                    @Parameter(
+                            name = "value",
+                            description = ParameterDescriptions.TOP_LEVEL_RESOURCE_VALUE,
+                            in = ParameterIn.PATH,
+                            required = true,
+                            content = @Content(example = "shipping")),
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.STREAM_PER_PAGE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "10000")),
+                    @Parameter(
+                            name = "nextPageToken",
+                            description = ParameterDescriptions.STREAM_NEXT_PAGE_TOKEN,
+                            in = ParameterIn.QUERY),
+                    @Parameter(
+                            name = "fields",
+                            description = ParameterDescriptions.FIELDS,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "eventID,eventTime,epcList,bizStep"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A streamed EPCISQueryDocument.",
+                            headers = {
+                                    @Header(
+                                            name = "Link",
+                                            description = ParameterDescriptions.LINK,
+                                            schema = @Schema(implementation = String.class))
+                            }),
+                    @APIResponse(
+                            responseCode = "406",
+                            description = "The requested representation is not supported for streamed responses.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_406_NOT_ACCEPTABLE)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("{resource: eventTypes|bizSteps|bizLocations|readPoints|dispositions|epcs}/{value}/events/stream")
+    @Produces({MediaType.APPLICATION_JSON, "application/ld+json", MediaType.APPLICATION_XML, MediaType.TEXT_XML, "application/problem+json"})
+    Multi<byte[]> topLevelEventsStream(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String resource,
+            @RestPath String value,
+            @RestQuery Integer perPage,
+            @RestQuery String nextPageToken,
+            @RestQuery List<String> fields,
+            @Context HttpHeaders headers,
+            @Context UriInfo uriInfo);
+}
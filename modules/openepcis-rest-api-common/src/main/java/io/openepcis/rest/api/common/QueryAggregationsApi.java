@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+
+import java.util.List;
+
+/**
+ * Server-side aggregations over the events matching a named query, so charts and dashboards need
+ * one request instead of paging through the full result.
+ */
+@Tag(name = "Queries", description = "Endpoints to create large named or anonymous queries using the EPCIS Query Language.")
+@Path("queries")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface QueryAggregationsApi {
+
+    @Operation(
+            summary = "Counts the EPCIS events matching a named query, grouped into buckets.",
+            description = "Runs the filters of the named query as an aggregation in the repository and returns one count per "
+                    + "combination of the `groupBy` dimensions, e.g. events per `bizStep` per day with "
+                    + "`groupBy=bizStep&interval=day`. No events are returned. Buckets are ordered by their key.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(
+                            name = "groupBy",
+                            description = ParameterDescriptions.AGGREGATION_GROUP_BY,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "bizStep")),
+                    @Parameter(
+                            name = "interval",
+                            description = ParameterDescriptions.AGGREGATION_INTERVAL,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "day")),
+                    @Parameter(
+                            name = "timeZone",
+                            description = ParameterDescriptions.AGGREGATION_TIME_ZONE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "UTC")),
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.AGGREGATION_PER_PAGE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "1000")),
+                    @Parameter(
+                            name = "nextPageToken",
+                            description = ParameterDescriptions.AGGREGATION_NEXT_PAGE_TOKEN,
+                            in = ParameterIn.QUERY)
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The buckets and the total number of matching events.",
+                            headers = {
+                                    @Header(
+                                            name = "Link",
+                                            description = ParameterDescriptions.LINK,
+                                            schema = @Schema(implementation = String.class))
+                            },
+                            content = @Content(example = ResponseBodyExamples.RESPONSE_200_QUERY_AGGREGATIONS)),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "A grouping parameter is not supported or malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The named query does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("{queryName}/aggregations")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    Uni<Response> queryAggregations(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestQuery List<String> groupBy,
+            @RestQuery String interval,
+            @RestQuery String timeZone,
+            @RestQuery Integer perPage,
+            @RestQuery String nextPageToken,
+            @Context UriInfo uriInfo);
+}
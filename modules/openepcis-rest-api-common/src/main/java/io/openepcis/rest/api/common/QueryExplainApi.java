@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+
+import java.util.List;
+
+/**
+ * Explains how a named query is executed, for tuning queries against large repositories. The same
+ * explanation is available for {@code GET /events} with {@code explain=true}.
+ */
+@Tag(name = "Queries", description = "Endpoints to create large named or anonymous queries using the EPCIS Query Language.")
+@Path("queries")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface QueryExplainApi {
+
+    @Operation(
+            summary = "Explains and profiles the execution of a named query.",
+            description = "Translates the named query, runs its first page with the OpenSearch profile API enabled and "
+                    + "serializes the events as the query endpoint would, without returning them. The response contains "
+                    + "the OpenSearch query as sent, the profile returned by OpenSearch and the milliseconds spent in each "
+                    + "phase: `translation`, `search`, `hydration`, `context` and `serialization`. The representation is "
+                    + "negotiated from the `GS1-*` headers as for the events of the query. Requires the `admin` role.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(
+                            name = "perPage",
+                            description = ParameterDescriptions.EXPLAIN_PER_PAGE,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "30")),
+                    @Parameter(
+                            name = "fields",
+                            description = ParameterDescriptions.FIELDS,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "eventID,eventTime,epcList"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The explanation of the query.",
+                            content = @Content(example = ResponseBodyExamples.RESPONSE_200_QUERY_EXPLAIN)),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "The named query or a parameter is not supported or malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "403",
+                            description = "The caller does not have the `admin` role.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_403_CLIENT_UNAUTHORIZED)),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The named query does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @GET
+    @Path("{queryName}/explain")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    Uni<Response> queryExplain(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestQuery Integer perPage,
+            @RestQuery List<String> fields,
+            @Context HttpHeaders headers);
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common;
+
+import io.openepcis.model.rest.ProblemResponseBody;
+import io.openepcis.rest.api.common.constants.ParameterDescriptions;
+import io.openepcis.rest.api.common.constants.ResponseBodyExamples;
+import io.openepcis.rest.api.common.filter.EPCISClientRequestFilter;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.enums.ParameterIn;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameters;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponses;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.eclipse.microprofile.rest.client.annotation.RegisterProvider;
+import org.eclipse.microprofile.rest.client.inject.RegisterRestClient;
+import org.jboss.resteasy.reactive.RestPath;
+import org.jboss.resteasy.reactive.RestQuery;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.util.List;
+
+/**
+ * Asynchronous bulk exports of the events matching a named query. The export runs server-side in
+ * parallel slices and writes gzip compressed parts to the storage service.
+ */
+@Tag(name = "Queries", description = "Endpoints to create large named or anonymous queries using the EPCIS Query Language.")
+@Path("queries")
+@RegisterRestClient(configKey = "epcis-api")
+@RegisterProvider(EPCISClientRequestFilter.class)
+public interface QueryExportsApi {
+
+    @Operation(
+            summary = "Starts an export of all EPCIS events matching a named query.",
+            description = "Instead of paging through `/queries/{queryName}/events`, the export job reads all matching events "
+                    + "from one point-in-time snapshot in parallel slices and writes them as gzip compressed parts to the "
+                    + "storage service. The response is returned immediately; the job is polled at the URL in the `Location` "
+                    + "header or followed via its `progress` stream, and lists the download links of its parts once finished.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(
+                            name = "format",
+                            description = ParameterDescriptions.EXPORT_FORMAT,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "ndjson")),
+                    @Parameter(
+                            name = "slices",
+                            description = ParameterDescriptions.EXPORT_SLICES,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "4")),
+                    @Parameter(
+                            name = "fields",
+                            description = ParameterDescriptions.FIELDS,
+                            in = ParameterIn.QUERY,
+                            content = @Content(example = "eventID,eventTime,epcList,bizStep"))
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "202",
+                            description = "The export job has been started.",
+                            headers = {
+                                    @Header(
+                                            name = "Location",
+                                            description = "URL of the export job.",
+                                            schema = @Schema(implementation = String.class))
+                            },
+                            content = @Content(schema = @Schema(implementation = ExportJob.class))),
+                    @APIResponse(
+                            responseCode = "400",
+                            description = "An export parameter is not supported or malformed.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_400_QUERY_ISSUES)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The named query does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND)),
+                    @APIResponse(
+                            responseCode = "500",
+                            description = "An error occurred on the backend.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_500_IMPLEMENTATION_EXCEPTION))
+            })
+    @POST
+    @Path("{queryName}/exports")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    Uni<Response> queryExportsPost(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestQuery String format,
+            @RestQuery Integer slices,
+            @RestQuery List<String> fields,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Returns the state of an export job.",
+            description = "Once the job has finished successfully, `parts` lists the download link of every part.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(name = "exportID", description = ParameterDescriptions.EXPORT_ID, required = true, in = ParameterIn.PATH)
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The export job.",
+                            content = @Content(
+                                    schema = @Schema(implementation = ExportJob.class),
+                                    example = ResponseBodyExamples.RESPONSE_200_EXPORT_JOB)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The export job does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND))
+            })
+    @GET
+    @Path("{queryName}/exports/{exportID}")
+    @Produces({MediaType.APPLICATION_JSON, "application/problem+json"})
+    Uni<Response> queryExportGet(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestPath String exportID,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Streams the progress of an export job.",
+            description = "Each server-sent event carries the export job as returned by `/queries/{queryName}/exports/{exportID}`. "
+                    + "The first event is the current state, further events follow whenever the job advances. The stream is "
+                    + "closed once the job has finished.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(name = "exportID", description = ParameterDescriptions.EXPORT_ID, required = true, in = ParameterIn.PATH)
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "A stream of export job documents.",
+                            content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS)),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST))
+            })
+    @GET
+    @Path("{queryName}/exports/{exportID}/progress")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    Multi<ExportJob> queryExportProgress(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestPath String exportID,
+            @Context UriInfo uriInfo);
+
+    @Operation(
+            summary = "Downloads a part of a finished export job.",
+            description = "The part is returned as stored: a gzip compressed file in the format of the export job.")
+    @Parameters(
+            value = {
+                    @Parameter(name = "queryName", description = "The name of an EPCIS event query.", required = true, in = ParameterIn.PATH),
+                    @Parameter(name = "exportID", description = ParameterDescriptions.EXPORT_ID, required = true, in = ParameterIn.PATH),
+                    @Parameter(name = "part", description = ParameterDescriptions.EXPORT_PART, required = true, in = ParameterIn.PATH)
+            }
+    )
+    @APIResponses(
+            value = {
+                    @APIResponse(
+                            responseCode = "200",
+                            description = "The gzip compressed part.",
+                            content = @Content(mediaType = "application/gzip")),
+                    @APIResponse(
+                            responseCode = "401",
+                            description = "Authorization information is missing or invalid.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_401_UNAUTHORIZED_REQUEST)),
+                    @APIResponse(
+                            responseCode = "404",
+                            description = "The export job or part does not exist.",
+                            content =
+                            @Content(
+                                    schema = @Schema(implementation = ProblemResponseBody.class),
+                                    example = ResponseBodyExamples.RESPONSE_404_RESOURCE_NOT_FOUND))
+            })
+    @GET
+    @Path("{queryName}/exports/{exportID}/parts/{part}")
+    @Produces({"application/gzip", "application/problem+json"})
+    Uni<Response> queryExportPartGet(
+            @Context SecurityIdentity securityIdentity,
+            @RestPath String queryName,
+            @RestPath String exportID,
+            @RestPath String part);
+}
@@ -22,6 +22,7 @@ public interface HeaderConstants {
   String ROLES_ALLOWED = "Roles-Allowed";
 
   String CONTENT_TYPE = "Content-Type";
+  String CONTENT_ENCODING = "Content-Encoding";
   String GS1_CBV_VERSION = CommonConstants.GS1_CBV_VERSION;
   String GS1_EPCIS_VERSION = CommonConstants.GS1_EPCIS_VERSION;
   String GS1_EPCIS_MAX = CommonConstants.GS1_EPCIS_MAX;
@@ -34,5 +35,6 @@ public interface HeaderConstants {
   String GS1_CBV_MAX = CommonConstants.GS1_CBV_MAX;
   String GS1_CBV_MIN = CommonConstants.GS1_CBV_MIN;
   String ALLOW = "Allow";
+  String RETRY_AFTER = "Retry-After";
   String GS1_EPC_FORMAT = CommonConstants.GS1_EPC_FORMAT;
 }
@@ -178,6 +178,8 @@ public interface ParameterDescriptions {
   String GS1_EPCIS_CAPTURE_FILE_SIZE_LIMIT =
       "The maximum event document length in octets (8-bit bytes) for capture operations.";
   String ALLOW = "Lists the set of methods supported by the resource.";
+  String RETRY_AFTER =
+      "Number of seconds the client should wait before retrying a capture request that was rejected by admission control.";
   String ROLES_ALLOWED =
       "Sets the event-access level based on the roles provided. Only user with the roles provided in this field may later access the event being captured";
   String EVENT_ID =
@@ -192,4 +194,70 @@ public interface ParameterDescriptions {
 
   String DISPOSITION = "";
   String CONTENT_TYPE = "";
+  String CAPTURE_JOB_RUNNING =
+      "If specified, the result will only include capture jobs whose `running` flag is equal to the specified value.";
+  String CAPTURE_JOB_SUCCESS =
+      "If specified, the result will only include capture jobs whose `success` flag is equal to the specified value.";
+  String GE_CREATED_AT =
+      "If specified, only capture jobs with `createdAt` greater than or equal to the specified value will be included in the result.";
+  String LT_CREATED_AT =
+      "If specified, only capture jobs with `createdAt` less than the specified value will be included in the result.";
+  String CAPTURE_JOB_GROUP =
+      "If specified, the result will only include capture jobs captured for the given group. Callers without the `admin` role are always restricted to their own group.";
+  String CAPTURE_JOB_NEXT_PAGE_TOKEN =
+      "Parameter to control pagination. The token is a self-contained cursor returned in the `Link` header of the previous page; it does not expire.";
+  String STREAM_PER_PAGE =
+      "Maximum number of events written to the streamed response. Events are pulled from the repository in batches and written as they arrive, so values far above the paged `perPage` limit are supported up to `repository.epcis.stream.per-page-max`.";
+  String STREAM_NEXT_PAGE_TOKEN =
+      "Parameter to control pagination. The token is an opaque, signed cursor returned in the `Link` header of the previous page. It references a point-in-time snapshot of the repository which is kept alive for `repository.epcis.point-in-time.keep-alive` after each page.";
+  String TOP_LEVEL_RESOURCE =
+      "Top-level resource to filter on, one of `eventTypes`, `bizSteps`, `bizLocations`, `readPoints`, `dispositions` or `epcs`.";
+  String TOP_LEVEL_RESOURCE_VALUE =
+      "Value of the top-level resource the streamed events must match, e.g. an event type, a business step or an EPC.";
+  String CONTENT_ENCODING =
+      "Compression applied to the request body. Supported values are `gzip` and `zstd`; if omitted, the body is read as is.\n"
+          + "The `GS1-EPCIS-Capture-File-Size-Limit` applies to the decompressed payload.";
+  String AGGREGATION_GROUP_BY =
+      "Dimensions the events are grouped by, repeated or comma separated: `eventType`, `bizStep`, `disposition`, `bizLocation`, `readPoint` and `eventTime`. "
+          + "Each bucket is one combination of values. If omitted, only the number of matching events is returned.";
+  String AGGREGATION_INTERVAL =
+      "Calendar interval of the `eventTime` histogram: `minute`, `hour`, `day`, `week`, `month`, `quarter` or `year`. "
+          + "Implies grouping by `eventTime`; defaults to `day` if `eventTime` is grouped by.";
+  String AGGREGATION_TIME_ZONE =
+      "Time zone id the `eventTime` intervals are aligned to, e.g. `Europe/Berlin`. Defaults to `UTC`.";
+  String AGGREGATION_PER_PAGE =
+      "Maximum number of buckets in the response. If more buckets follow, the `Link` header contains the `nextPageToken` of the next page.";
+  String AGGREGATION_NEXT_PAGE_TOKEN =
+      "Parameter to control pagination. The token is an opaque, signed cursor returned in the `Link` header of the previous page and is only valid for the same query and grouping.";
+  String FIELDS =
+      "Sparse fieldset: the event fields to return, repeated or comma separated, e.g. `eventID,eventTime,epcList,bizStep`. "
+          + "Nested fields are addressed with dotted paths such as `bizLocation.id`. `type` is always included. "
+          + "If omitted, complete events are returned.";
+  String EXPORT_FORMAT =
+      "Representation of the exported parts: `ndjson` (one event per line, the default), `json` (an `EPCISQueryDocument` per part) "
+          + "or `xml` (an EPCIS 2.0 XML query document per part). Every part is gzip compressed.";
+  String EXPORT_SLICES =
+      "Number of slices the repository is read with in parallel. Each slice writes its own parts. "
+          + "Defaults to `repository.epcis.export.slices` and is capped by `repository.epcis.export.max-slices`.";
+  String EXPORT_ID = "A unique value identifying an export job generated by the server.";
+  String EXPORT_PART = "File name of an export part as listed in `parts` of the export job.";
+  String EXPLAIN_PER_PAGE =
+      "Number of events the profiled search fetches and serializes, as for the `perPage` parameter of the query. "
+          + "Defaults to `repository.epcis.per-page-default`.";
+  String EXPLAIN =
+      "If `true`, the query is not answered with events but explained: the translated OpenSearch query, "
+          + "the OpenSearch profile and the time spent in each phase of the request. Requires the `admin` role.";
+  String TRACE_DEPTH =
+      "Number of hops followed from the requested EPC. Depth `0` returns the events of the EPC itself, every further level "
+          + "adds the events of the EPCs reached in the previous one. Defaults to `repository.epcis.trace.default-depth` and "
+          + "is capped by `repository.epcis.trace.max-depth`.";
+  String TRACE_DIRECTION =
+      "Relationships to follow: `down` from a parent to its `childEPCs` and from the inputs of a transformation to its outputs "
+          + "(the default), `up` from children to their `parentID` and from outputs to inputs, or `both`. EPC classes of "
+          + "quantity lists are followed like EPCs.";
+  String BATCH_GET_EVENT_IDS =
+      "The ids of the events to return, at most `repository.epcis.batch-get.max-event-ids`. Duplicates are returned once.";
+  String STATISTICS_PRECISION_THRESHOLD =
+      "Precision threshold of the distinct EPC count: counts below it are close to exact, higher counts are estimated. "
+          + "Defaults to `repository.epcis.statistics.precision-threshold`, at most `repository.epcis.statistics.max-precision-threshold`.";
 }
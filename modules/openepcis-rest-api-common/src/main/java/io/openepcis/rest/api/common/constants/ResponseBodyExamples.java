@@ -142,6 +142,12 @@ public interface ResponseBodyExamples {
                   + "  \"title\": \"Unsupported Media Type\",\n"
                   + "  \"status\": 415\n"
                   + "}";
+  String RESPONSE_429_CAPTURE_TOO_MANY_REQUESTS =
+          "{\n"
+                  + "  \"type\": \"epcisException:CaptureLimitExceededException\",\n"
+                  + "  \"title\": \"Too many capture requests\",\n"
+                  + "  \"status\": 429\n"
+                  + "}";
   String RESPONSE_500_IMPLEMENTATION_EXCEPTION =
           "{\n"
                   + "  \"type\": \"epcisException:ImplementationException\",\n"
@@ -273,4 +279,60 @@ public interface ResponseBodyExamples {
                   + "    \"ex:aCustomDisposition\",\n"
                   + "  ]\n"
                   + "}";
-}
\ No newline at end of file
+
+  String RESPONSE_200_QUERY_AGGREGATIONS =
+          "{\n"
+                  + "  \"queryName\": \"myQuery\",\n"
+                  + "  \"totalEvents\": 1520,\n"
+                  + "  \"groupBy\": [\"bizStep\", \"eventTime\"],\n"
+                  + "  \"interval\": \"day\",\n"
+                  + "  \"timeZone\": \"UTC\",\n"
+                  + "  \"buckets\": [\n"
+                  + "    { \"key\": { \"bizStep\": \"shipping\", \"eventTime\": \"2024-05-01T00:00:00.000Z\" }, \"count\": 812 },\n"
+                  + "    { \"key\": { \"bizStep\": \"receiving\", \"eventTime\": \"2024-05-01T00:00:00.000Z\" }, \"count\": 708 }\n"
+                  + "  ]\n"
+                  + "}";
+
+  String RESPONSE_200_EXPORT_JOB =
+          "{\n"
+                  + "  \"exportID\": \"0f8e2f4a-3c55-4d1e-9a57-2be0b0a5c3f1\",\n"
+                  + "  \"queryName\": \"myQuery\",\n"
+                  + "  \"format\": \"ndjson\",\n"
+                  + "  \"slices\": 4,\n"
+                  + "  \"createdAt\": \"2024-05-01T10:00:00Z\",\n"
+                  + "  \"finishedAt\": \"2024-05-01T10:03:12Z\",\n"
+                  + "  \"running\": false,\n"
+                  + "  \"success\": true,\n"
+                  + "  \"totalEvents\": 1250000,\n"
+                  + "  \"exportedEvents\": 1250000,\n"
+                  + "  \"parts\": [\n"
+                  + "    { \"name\": \"part-0-0.ndjson.gz\", \"events\": 100000, \"bytes\": 9120344, "
+                  + "\"href\": \"https://example.com/queries/myQuery/exports/0f8e2f4a-3c55-4d1e-9a57-2be0b0a5c3f1/parts/part-0-0.ndjson.gz\" }\n"
+                  + "  ],\n"
+                  + "  \"errors\": []\n"
+                  + "}";
+
+  String RESPONSE_200_QUERY_EXPLAIN =
+          "{\n"
+                  + "  \"queryName\": \"myQuery\",\n"
+                  + "  \"parameters\": { \"EQ_bizStep\": [\"shipping\"], \"GE_eventTime\": [\"2024-05-01T00:00:00Z\"] },\n"
+                  + "  \"search\": {\n"
+                  + "    \"size\": 30,\n"
+                  + "    \"query\": { \"bool\": { \"filter\": [ { \"terms\": { \"bizStep\": [\"urn:epcglobal:cbv:bizstep:shipping\", \"https://ref.gs1.org/cbv/BizStep-shipping\"] } } ] } },\n"
+                  + "    \"sort\": [ { \"eventTime\": { \"order\": \"asc\" } }, { \"_id\": { \"order\": \"asc\" } } ],\n"
+                  + "    \"profile\": true\n"
+                  + "  },\n"
+                  + "  \"profile\": { \"shards\": [ { \"id\": \"[node][epcis-event][0]\", \"searches\": [], \"aggregations\": [] } ] },\n"
+                  + "  \"took\": 42,\n"
+                  + "  \"totalHits\": 1520,\n"
+                  + "  \"events\": 30,\n"
+                  + "  \"bytes\": 48213,\n"
+                  + "  \"phases\": {\n"
+                  + "    \"translation\": 0.412,\n"
+                  + "    \"search\": 57.981,\n"
+                  + "    \"hydration\": 0.021,\n"
+                  + "    \"context\": 0.187,\n"
+                  + "    \"serialization\": 3.406\n"
+                  + "  }\n"
+                  + "}";
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.rest.api.common.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State of an asynchronous export of the events matching a named query.
+ *
+ * @param exportID unique id of the export job
+ * @param format representation of the exported parts: {@code ndjson}, {@code json} or {@code xml}
+ * @param slices number of slices the event index is read with in parallel
+ * @param totalEvents number of events to export, {@code null} until counted
+ * @param exportedEvents number of events written to finished or open parts so far
+ * @param parts the parts uploaded so far
+ */
+public record ExportJob(
+        String exportID,
+        String queryName,
+        String format,
+        int slices,
+        Instant createdAt,
+        Instant finishedAt,
+        boolean running,
+        boolean success,
+        Long totalEvents,
+        long exportedEvents,
+        List<Part> parts,
+        List<String> errors) {
+
+  /**
+   * One gzip compressed part of an export.
+   *
+   * @param name file name of the part
+   * @param events number of events in the part
+   * @param bytes compressed size of the part
+   * @param href download link of the part, only set in responses
+   */
+  public record Part(String name, long events, long bytes, String href) {
+
+    public Part withHref(final String href) {
+      return new Part(name, events, bytes, href);
+    }
+  }
+}
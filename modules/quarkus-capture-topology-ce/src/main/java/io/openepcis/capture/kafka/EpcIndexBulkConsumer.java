@@ -0,0 +1,362 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.capture.kafka;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.quarkus.logging.Log;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+/**
+ * Maintains {@code repository.epc.index} from {@code event-saved}, one poll at a time: the saved
+ * events of a poll are fetched with a single search by event id, their EPCs are deduplicated and
+ * merged in memory and applied as one bulk request of scripted upserts. A capture of a million
+ * events thus costs a few hundred index requests instead of a million. It replaces the per-event
+ * consumer on the {@code event-saved-in-epc-consumer} channel and resumes from the committed offsets
+ * of its {@code epc-consumer-group}, so no event is indexed twice on the cut-over.
+ *
+ * <p>Throughput is published as {@code epcis.epc.consumer.events} and {@code
+ * epcis.epc.consumer.upserts}, the time from a save being announced until its EPCs are indexed as
+ * {@code epcis.epc.consumer.lag}.
+ *
+ * <p>The documents keep their shape: {@code firstSeen}, {@code lastSeen} and {@code lastEventTime}
+ * are ISO-8601 date times and {@code eventCount} counts the events of an EPC. To keep the count
+ * exact when a batch is retried or redelivered after a partial failure, each document remembers
+ * in {@code eventSavedOffsets} the highest {@code event-saved} offset per partition it was updated
+ * up to and only counts batches beyond it. A batch still failing after the retries is nacked and
+ * ends up on the dead-letter topic of the channel.
+ */
+@ApplicationScoped
+public class EpcIndexBulkConsumer {
+
+  static final String EPC = "epc";
+  static final String FIRST_SEEN = "firstSeen";
+  static final String LAST_SEEN = "lastSeen";
+  static final String LAST_EVENT_TIME = "lastEventTime";
+  static final String LAST_EVENT_ID = "lastEventID";
+  static final String EVENT_COUNT = "eventCount";
+  static final String EVENT_SAVED_OFFSETS = "eventSavedOffsets";
+  static final String EVENT_COUNTS = "eventCounts";
+
+  // times are compared as epoch milliseconds, documents written before they were stored as text may hold numbers
+  static final String UPSERT =
+      """
+      long millis(def time) {
+        return time instanceof Number ? ((Number) time).longValue() : ZonedDateTime.parse(time).toInstant().toEpochMilli();
+      }
+      def source = ctx._source;
+      if (source.firstSeen == null || millis(params.firstSeen) < millis(source.firstSeen)) {
+        source.firstSeen = params.firstSeen
+      }
+      if (source.lastSeen == null || millis(params.lastSeen) > millis(source.lastSeen)) {
+        source.lastSeen = params.lastSeen
+      }
+      if (source.lastEventTime == null || millis(params.lastEventTime) > millis(source.lastEventTime)) {
+        source.lastEventTime = params.lastEventTime;
+        source.lastEventID = params.lastEventID
+      }
+      if (source.eventCount == null) { source.eventCount = 0 }
+      if (source.eventSavedOffsets == null) { source.eventSavedOffsets = [:] }
+      for (def partition : params.eventCounts.keySet()) {
+        def applied = source.eventSavedOffsets[partition];
+        def offset = params.eventSavedOffsets[partition];
+        if (applied == null || offset > applied) {
+          source.eventCount += params.eventCounts[partition];
+          source.eventSavedOffsets[partition] = offset
+        }
+      }""";
+
+  private static final int RETRY_ON_CONFLICT = 3;
+  private static final int MAX_RETRIES = 5;
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+
+  private final OpenSearchAsyncClient client;
+  private final String epcIndex;
+  private final String eventIndex;
+  private final Counter events;
+  private final Counter upserts;
+  private final Counter failures;
+  private final DistributionSummary batchSize;
+  private final Timer batchDuration;
+  private final Timer lag;
+
+  public EpcIndexBulkConsumer(
+      final OpenSearchAsyncClient client,
+      final MeterRegistry registry,
+      @ConfigProperty(name = "repository.epc.index", defaultValue = "epc") final String epcIndex,
+      @ConfigProperty(name = "repository.epcis.event.index") final String eventIndex) {
+    this.client = client;
+    this.epcIndex = epcIndex;
+    this.eventIndex = eventIndex;
+    this.events =
+        Counter.builder("epcis.epc.consumer.events")
+            .description("Saved events whose EPCs have been indexed")
+            .register(registry);
+    this.upserts =
+        Counter.builder("epcis.epc.consumer.upserts")
+            .description("EPC documents upserted, one per distinct EPC of a batch")
+            .register(registry);
+    this.failures =
+        Counter.builder("epcis.epc.consumer.failures")
+            .description("EPC upserts rejected by OpenSearch")
+            .register(registry);
+    this.batchSize =
+        DistributionSummary.builder("epcis.epc.consumer.batch.size")
+            .description("Saved events per consumed batch")
+            .register(registry);
+    this.batchDuration =
+        Timer.builder("epcis.epc.consumer.batch.duration")
+            .description("Time to fetch the events of a batch and upsert their EPCs")
+            .register(registry);
+    this.lag =
+        Timer.builder("epcis.epc.consumer.lag")
+            .description("Time from a saved event being announced until its EPCs are indexed")
+            .publishPercentileHistogram()
+            .register(registry);
+  }
+
+  @Incoming("event-saved-in-epc-consumer")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    final Set<String> eventIDs =
+        StreamSupport.stream(records.spliterator(), false)
+            .map(ConsumerRecord::value)
+            .filter(Objects::nonNull)
+            .map(EventSavedMessage::getEventID)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (eventIDs.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final long oldest =
+        StreamSupport.stream(records.spliterator(), false)
+            .mapToLong(ConsumerRecord::timestamp)
+            .filter(timestamp -> timestamp > 0)
+            .min()
+            .orElse(System.currentTimeMillis());
+    final Map<String, Integer> partitions = new LinkedHashMap<>();
+    final Map<Integer, Long> offsets = new TreeMap<>();
+    for (final ConsumerRecord<String, EventSavedMessage> record : records) {
+      if (record.value() != null && record.value().getEventID() != null) {
+        partitions.putIfAbsent(record.value().getEventID(), record.partition());
+      }
+      offsets.merge(record.partition(), record.offset(), Math::max);
+    }
+    final long started = System.nanoTime();
+    batchSize.record(eventIDs.size());
+    return fetch(eventIDs)
+        .map(found -> EpcUpsert.of(found, partitions, System.currentTimeMillis()))
+        .chain(batch -> upsert(batch, offsets))
+        .onFailure()
+        .retry()
+        .withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(30))
+        .atMost(MAX_RETRIES)
+        .invoke(
+            () -> {
+              events.increment(eventIDs.size());
+              batchDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+              lag.record(Math.max(0, System.currentTimeMillis() - oldest), TimeUnit.MILLISECONDS);
+            })
+        .onFailure()
+        .invoke(failure -> Log.errorf(failure, "unable to index the EPCs of %d saved events", eventIDs.size()));
+  }
+
+  /**
+   * @return the saved events, looking up events not yet visible to search once more after a refresh
+   */
+  private Uni<List<ObjectNode>> fetch(final Set<String> eventIDs) {
+    return find(eventIDs)
+        .chain(
+            found -> {
+              if (found.size() >= eventIDs.size()) {
+                return Uni.createFrom().item(found);
+              }
+              final Set<String> missing = new LinkedHashSet<>(eventIDs);
+              found.forEach(event -> missing.remove(event.path(EpcUpsert.EVENT_ID).asText()));
+              return Uni.createFrom()
+                  .voidItem()
+                  .onItem()
+                  .delayIt()
+                  .by(REFRESH_DELAY)
+                  .chain(() -> find(missing))
+                  .map(
+                      late -> {
+                        if (late.size() < missing.size()) {
+                          Log.warnf("%d saved events not found, their EPCs are not indexed", missing.size() - late.size());
+                        }
+                        return Stream.concat(found.stream(), late.stream()).toList();
+                      });
+            });
+  }
+
+  private Uni<List<ObjectNode>> find(final Collection<String> eventIDs) {
+    final List<String> includes =
+        Stream.concat(
+                Stream.of(EpcUpsert.EVENT_ID, EpcUpsert.EVENT_TIME, EpcUpsert.RECORD_TIME),
+                EpcUpsert.EPC_FIELDS.stream())
+            .toList();
+    final SearchRequest request =
+        SearchRequest.of(
+            s ->
+                s.index(eventIndex + "*")
+                    .size(eventIDs.size())
+                    .query(
+                        q ->
+                            q.terms(
+                                t ->
+                                    t.field(EpcUpsert.EVENT_ID)
+                                        .terms(v -> v.value(eventIDs.stream().map(FieldValue::of).toList()))))
+                    .source(src -> src.filter(f -> f.includes(includes))));
+    return call(() -> client.search(request, ObjectNode.class))
+        .map(response -> response.hits().hits().stream().map(Hit::source).filter(Objects::nonNull).toList());
+  }
+
+  /**
+   * @param offsets the highest offset of the batch per partition
+   */
+  private Uni<Void> upsert(final Collection<EpcUpsert> batch, final Map<Integer, Long> offsets) {
+    if (batch.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final List<BulkOperation> operations =
+        batch.stream()
+            .map(
+                upsert ->
+                    BulkOperation.of(
+                        o ->
+                            o.update(
+                                u ->
+                                    u.index(epcIndex)
+                                        .id(upsert.epc())
+                                        .retryOnConflict(RETRY_ON_CONFLICT)
+                                        .script(script(upsert, offsets))
+                                        .upsert(document(upsert, offsets)))))
+            .toList();
+    final BulkRequest request = BulkRequest.of(b -> b.operations(operations));
+    return call(() -> client.bulk(request)).invoke(response -> report(batch.size(), response)).replaceWithVoid();
+  }
+
+  /** Fails the batch if any upsert was rejected, retrying it is safe as the upserts are idempotent. */
+  private void report(final int size, final BulkResponse response) {
+    final long failed = response.items().stream().filter(item -> item.error() != null).count();
+    upserts.increment(size - failed);
+    if (failed > 0) {
+      failures.increment(failed);
+      final String reason =
+          response.items().stream()
+              .filter(item -> item.error() != null)
+              .findFirst()
+              .map(item -> item.error().reason())
+              .orElse(null);
+      throw new IllegalStateException(
+          String.format("%d of %d EPC upserts failed, first error: %s", failed, size, reason));
+    }
+  }
+
+  static Script script(final EpcUpsert upsert, final Map<Integer, Long> offsets) {
+    final Map<String, JsonData> params = new LinkedHashMap<>();
+    params.put(FIRST_SEEN, JsonData.of(dateTime(upsert.firstSeen())));
+    params.put(LAST_SEEN, JsonData.of(dateTime(upsert.lastSeen())));
+    params.put(LAST_EVENT_TIME, JsonData.of(dateTime(upsert.lastEventTime())));
+    params.put(LAST_EVENT_ID, JsonData.of(Objects.requireNonNullElse(upsert.lastEventID(), "")));
+    params.put(EVENT_COUNTS, JsonData.of(byPartition(upsert.eventCounts())));
+    params.put(EVENT_SAVED_OFFSETS, JsonData.of(byPartition(applied(upsert, offsets))));
+    return Script.of(s -> s.inline(i -> i.lang("painless").source(UPSERT).params(params)));
+  }
+
+  static Map<String, Object> document(final EpcUpsert upsert, final Map<Integer, Long> offsets) {
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put(EPC, upsert.epc());
+    document.put(FIRST_SEEN, dateTime(upsert.firstSeen()));
+    document.put(LAST_SEEN, dateTime(upsert.lastSeen()));
+    document.put(LAST_EVENT_TIME, dateTime(upsert.lastEventTime()));
+    document.put(LAST_EVENT_ID, upsert.lastEventID());
+    document.put(EVENT_COUNT, upsert.eventCount());
+    document.put(EVENT_SAVED_OFFSETS, byPartition(applied(upsert, offsets)));
+    return document;
+  }
+
+  /**
+   * @return the offsets of the partitions the events of {@code upsert} were announced on
+   */
+  private static Map<Integer, Long> applied(final EpcUpsert upsert, final Map<Integer, Long> offsets) {
+    final Map<Integer, Long> applied = new TreeMap<>();
+    upsert.eventCounts().keySet().forEach(partition -> applied.put(partition, offsets.getOrDefault(partition, 0L)));
+    return applied;
+  }
+
+  // partitions are object keys in the document, which are always text
+  private static <V> Map<String, V> byPartition(final Map<Integer, V> values) {
+    final Map<String, V> byPartition = new LinkedHashMap<>();
+    values.forEach((partition, value) -> byPartition.put(String.valueOf(partition), value));
+    return byPartition;
+  }
+
+  private static String dateTime(final long epochMillis) {
+    return Instant.ofEpochMilli(epochMillis).toString();
+  }
+
+  @FunctionalInterface
+  private interface AsyncCall<T> {
+    CompletableFuture<T> call() throws IOException;
+  }
+
+  private static <T> Uni<T> call(final AsyncCall<T> call) {
+    return Uni.createFrom()
+        .completionStage(
+            () -> {
+              try {
+                return call.call();
+              } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+              }
+            });
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.capture.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The change a batch of saved events makes to the index document of one EPC.
+ *
+ * @param firstSeen earliest record time of the events, in epoch milliseconds
+ * @param lastSeen latest record time of the events, in epoch milliseconds
+ * @param lastEventTime latest event time of the events, in epoch milliseconds
+ * @param lastEventID id of the event with {@code lastEventTime}
+ * @param eventCounts number of the events, by the {@code event-saved} partition they were announced on
+ */
+record EpcUpsert(
+    String epc, long firstSeen, long lastSeen, long lastEventTime, String lastEventID, Map<Integer, Integer> eventCounts) {
+
+  static final String EVENT_ID = "eventID";
+  static final String EVENT_TIME = "eventTime";
+  static final String RECORD_TIME = "recordTime";
+  static final List<String> EPC_FIELDS = List.of("epcList", "childEPCs", "parentID", "inputEPCList", "outputEPCList");
+
+  /**
+   * @param partitions the partition each event was announced on, by event id
+   * @return one upsert per distinct EPC of {@code events}, EPCs repeated within the batch are merged
+   */
+  static Collection<EpcUpsert> of(
+      final List<ObjectNode> events, final Map<String, Integer> partitions, final long fallbackSeen) {
+    final Map<String, EpcUpsert> upserts = new LinkedHashMap<>();
+    for (final ObjectNode event : events) {
+      final long seen = epochMillis(event.get(RECORD_TIME), fallbackSeen);
+      final long eventTime = epochMillis(event.get(EVENT_TIME), seen);
+      final String eventID = event.path(EVENT_ID).asText(null);
+      final Map<Integer, Integer> counted = Map.of(partitions.getOrDefault(eventID, 0), 1);
+      for (final String epc : epcs(event)) {
+        upserts.merge(epc, new EpcUpsert(epc, seen, seen, eventTime, eventID, counted), EpcUpsert::merge);
+      }
+    }
+    return upserts.values();
+  }
+
+  static Set<String> epcs(final ObjectNode event) {
+    final Set<String> epcs = new LinkedHashSet<>();
+    for (final String field : EPC_FIELDS) {
+      final JsonNode node = event.get(field);
+      if (node == null) {
+        continue;
+      }
+      if (node.isArray()) {
+        node.forEach(epc -> {
+          if (epc.isTextual() && !epc.asText().isBlank()) {
+            epcs.add(epc.asText());
+          }
+        });
+      } else if (node.isTextual() && !node.asText().isBlank()) {
+        epcs.add(node.asText());
+      }
+    }
+    return epcs;
+  }
+
+  /**
+   * @return the upsert of both batches of events, which are distinct events
+   */
+  EpcUpsert merge(final EpcUpsert other) {
+    final boolean later = other.lastEventTime > lastEventTime;
+    final Map<Integer, Integer> counts = new TreeMap<>(eventCounts);
+    other.eventCounts.forEach((partition, count) -> counts.merge(partition, count, Integer::sum));
+    return new EpcUpsert(
+        epc,
+        Math.min(firstSeen, other.firstSeen),
+        Math.max(lastSeen, other.lastSeen),
+        later ? other.lastEventTime : lastEventTime,
+        later ? other.lastEventID : lastEventID,
+        counts);
+  }
+
+  /**
+   * @return the number of the events
+   */
+  int eventCount() {
+    return eventCounts.values().stream().mapToInt(Integer::intValue).sum();
+  }
+
+  private static long epochMillis(final JsonNode node, final long fallback) {
+    if (node == null || !node.isTextual()) {
+      return fallback;
+    }
+    try {
+      return OffsetDateTime.parse(node.asText()).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return fallback;
+    }
+  }
+}
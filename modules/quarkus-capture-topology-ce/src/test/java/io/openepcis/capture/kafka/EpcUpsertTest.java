@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.capture.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EpcUpsertTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final long FALLBACK = 42L;
+
+  @Test
+  void collectsEpcsOfEveryEpcField() {
+    final ObjectNode event = event("e1", "2024-01-01T00:00:00Z", "2024-01-01T00:00:01Z");
+    event.putArray("epcList").add("urn:epc:id:sgtin:1").add("").add(1);
+    event.putArray("childEPCs").add("urn:epc:id:sgtin:2");
+    event.put("parentID", "urn:epc:id:sscc:3");
+    event.putArray("inputEPCList").add("urn:epc:id:sgtin:1");
+    event.putArray("outputEPCList").add("urn:epc:id:sgtin:4");
+    Assertions.assertEquals(
+        List.of("urn:epc:id:sgtin:1", "urn:epc:id:sgtin:2", "urn:epc:id:sscc:3", "urn:epc:id:sgtin:4"),
+        new ArrayList<>(EpcUpsert.epcs(event)));
+  }
+
+  @Test
+  void mergesEpcsRepeatedWithinABatch() {
+    final ObjectNode first = event("e1", "2024-01-01T00:00:00Z", "2024-01-01T00:00:05Z");
+    first.putArray("epcList").add("urn:epc:id:sgtin:1");
+    final ObjectNode second = event("e2", "2024-01-01T00:00:10Z", "2024-01-01T00:00:02Z");
+    second.putArray("epcList").add("urn:epc:id:sgtin:1").add("urn:epc:id:sgtin:2");
+
+    final Collection<EpcUpsert> upserts = EpcUpsert.of(List.of(first, second), Map.of("e1", 0, "e2", 1), FALLBACK);
+
+    Assertions.assertEquals(
+        List.of(
+            new EpcUpsert(
+                "urn:epc:id:sgtin:1",
+                millis("2024-01-01T00:00:02Z"),
+                millis("2024-01-01T00:00:05Z"),
+                millis("2024-01-01T00:00:10Z"),
+                "e2",
+                Map.of(0, 1, 1, 1)),
+            new EpcUpsert(
+                "urn:epc:id:sgtin:2",
+                millis("2024-01-01T00:00:02Z"),
+                millis("2024-01-01T00:00:02Z"),
+                millis("2024-01-01T00:00:10Z"),
+                "e2",
+                Map.of(1, 1))),
+        new ArrayList<>(upserts));
+  }
+
+  @Test
+  void fallsBackForMissingOrUnparsableTimes() {
+    final ObjectNode event = MAPPER.createObjectNode().put("eventID", "e1").put("recordTime", "yesterday");
+    event.put("parentID", "urn:epc:id:sscc:3");
+    Assertions.assertEquals(
+        List.of(new EpcUpsert("urn:epc:id:sscc:3", FALLBACK, FALLBACK, FALLBACK, "e1", Map.of(0, 1))),
+        new ArrayList<>(EpcUpsert.of(List.of(event), Map.of(), FALLBACK)));
+  }
+
+  @Test
+  void mergeIsOrderIndependent() {
+    final EpcUpsert earlier = new EpcUpsert("epc", 10, 20, 15, "e1", Map.of(0, 1));
+    final EpcUpsert later = new EpcUpsert("epc", 5, 18, 30, "e2", Map.of(0, 2, 1, 1));
+    final EpcUpsert expected = new EpcUpsert("epc", 5, 20, 30, "e2", Map.of(0, 3, 1, 1));
+    Assertions.assertEquals(expected, earlier.merge(later));
+    Assertions.assertEquals(expected, later.merge(earlier));
+    Assertions.assertEquals(4, expected.eventCount());
+  }
+
+  @Test
+  void documentKeepsTheShapeOfTheEpcIndex() {
+    final EpcUpsert upsert =
+        new EpcUpsert(
+            "epc",
+            millis("2024-01-01T00:00:02Z"),
+            millis("2024-01-01T00:00:05Z"),
+            millis("2024-01-01T00:00:10Z"),
+            "e2",
+            Map.of(0, 2, 3, 1));
+    final Map<String, Object> document =
+        EpcIndexBulkConsumer.document(upsert, Map.of(0, 41L, 3, 7L, 5, 9L));
+    Assertions.assertEquals("2024-01-01T00:00:02Z", document.get("firstSeen"));
+    Assertions.assertEquals("2024-01-01T00:00:05Z", document.get("lastSeen"));
+    Assertions.assertEquals("2024-01-01T00:00:10Z", document.get("lastEventTime"));
+    Assertions.assertEquals(3, document.get("eventCount"));
+    // only the partitions the events of the EPC were announced on
+    Assertions.assertEquals(Map.of("0", 41L, "3", 7L), document.get("eventSavedOffsets"));
+  }
+
+  private static ObjectNode event(final String eventID, final String eventTime, final String recordTime) {
+    return MAPPER.createObjectNode().put("eventID", eventID).put("eventTime", eventTime).put("recordTime", recordTime);
+  }
+
+  private static long millis(final String time) {
+    return Instant.parse(time).toEpochMilli();
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce;
+
+import io.smallrye.mutiny.Uni;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Adapts the {@code CompletableFuture} returning calls of the OpenSearch async client to Mutiny.
+ */
+public final class AsyncCalls {
+
+  @FunctionalInterface
+  public interface AsyncCall<T> {
+    CompletionStage<T> call() throws IOException;
+  }
+
+  private AsyncCalls() {
+  }
+
+  /**
+   * @return a lazy {@link Uni} issuing the call on subscription, failing with the {@link IOException}
+   * thrown while the request is serialized
+   */
+  public static <T> Uni<T> call(final AsyncCall<T> call) {
+    return Uni.createFrom().completionStage(() -> {
+      try {
+        return call.call();
+      } catch (IOException e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    });
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.LaunchMode;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Opaque, self-contained {@code nextPageToken}s: the JSON cursor and its HMAC-SHA256 signature,
+ * URL-safe base64 encoded as {@code payload.signature}.
+ * <p>
+ * Any instance configured with the same {@code repository.epcis.page-token.secret} can resume a
+ * token, no token is stored. Without the secret a random key is generated at startup, tokens are
+ * then only valid on the issuing instance until it restarts, which breaks paging behind a load
+ * balancer; this is logged as a warning, loudly in production.
+ */
+@Slf4j
+@ApplicationScoped
+public class PageTokens {
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final char SEPARATOR = '.';
+
+  private final ObjectMapper objectMapper;
+  private final SecretKeySpec key;
+
+  @Inject
+  public PageTokens(
+          final ObjectMapper objectMapper,
+          @ConfigProperty(name = "repository.epcis.page-token.secret") final Optional<String> secret) {
+    this(objectMapper, secret, LaunchMode.current());
+  }
+
+  PageTokens(final ObjectMapper objectMapper, final Optional<String> secret, final LaunchMode launchMode) {
+    this.objectMapper = objectMapper;
+    this.key = new SecretKeySpec(secret.map(Base64.getDecoder()::decode).orElseGet(PageTokens::randomKey), ALGORITHM);
+    if (secret.isPresent()) {
+      return;
+    }
+    if (launchMode == LaunchMode.NORMAL) {
+      log.warn("*** repository.epcis.page-token.secret is NOT SET, signing page tokens with a random key of this "
+              + "instance: nextPageTokens fail with 400 on every other instance and after a restart. Clusters with more "
+              + "than one instance MUST share a key, generate one with `openssl rand -base64 32` ***");
+    } else {
+      log.warn("repository.epcis.page-token.secret is not set, page tokens can only be resumed on this instance");
+    }
+  }
+
+  public String sign(final Object cursor) {
+    try {
+      final byte[] payload = objectMapper.writeValueAsBytes(cursor);
+      final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+      return encoder.encodeToString(payload) + SEPARATOR + encoder.encodeToString(mac(payload));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return the cursor of a token issued by {@link #sign(Object)}, failing with {@code 400} if the
+   * token is malformed or its signature does not match
+   */
+  public <T> T verify(final String token, final Class<T> type) {
+    final int separator = token.indexOf(SEPARATOR);
+    if (separator == -1) {
+      throw invalid();
+    }
+    try {
+      final Base64.Decoder decoder = Base64.getUrlDecoder();
+      final byte[] payload = decoder.decode(token.substring(0, separator));
+      final byte[] signature = decoder.decode(token.substring(separator + 1));
+      if (!MessageDigest.isEqual(mac(payload), signature)) {
+        throw invalid();
+      }
+      return objectMapper.readValue(payload, type);
+    } catch (IllegalArgumentException | IOException e) {
+      throw invalid();
+    }
+  }
+
+  /**
+   * @return the error reported for tokens which can no longer be resumed
+   */
+  public static WebApplicationException invalid() {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.BAD_REQUEST,
+            "epcisException:ValidationException",
+            "Invalid nextPageToken",
+            "nextPageToken is malformed, was issued for another query or has expired"));
+  }
+
+  private byte[] mac(final byte[] payload) {
+    try {
+      final Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(key);
+      return mac.doFinal(payload);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static byte[] randomKey() {
+    final byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+}
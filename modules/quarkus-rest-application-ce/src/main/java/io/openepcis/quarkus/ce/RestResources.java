@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce;
+
+import io.quarkus.security.identity.SecurityIdentity;
+import jakarta.ws.rs.core.Response;
+
+import java.util.Map;
+
+/**
+ * Helpers shared by the resources, filters and interceptors of the REST application.
+ */
+public final class RestResources {
+
+  public static final String DEFAULT_GROUP_ATTRIBUTE = "defaultGroup";
+  public static final String ADMIN_ROLE = "admin";
+  public static final String QUERY_ROLE = "query";
+  public static final String PROBLEM_JSON = "application/problem+json";
+
+  private RestResources() {
+  }
+
+  /**
+   * Builds an {@code application/problem+json} response in the shape of {@code ProblemResponseBody}.
+   */
+  public static Response problem(final Response.Status status, final String type, final String title, final String detail) {
+    return Response.status(status)
+            .type(PROBLEM_JSON)
+            .entity(Map.of("type", type, "title", title, "status", status.getStatusCode(), "detail", detail))
+            .build();
+  }
+
+  /**
+   * @return the {@code defaultGroup} attribute of the caller's identity or {@code fallback} for
+   * anonymous callers and identities without a group
+   */
+  public static String group(final SecurityIdentity securityIdentity, final String fallback) {
+    if (securityIdentity != null && !securityIdentity.isAnonymous()) {
+      final Object group = securityIdentity.getAttribute(DEFAULT_GROUP_ATTRIBUTE);
+      if (group != null) {
+        return group.toString();
+      }
+    }
+    return fallback;
+  }
+
+  public static boolean isAdmin(final SecurityIdentity securityIdentity) {
+    return securityIdentity != null && securityIdentity.hasRole(ADMIN_ROLE);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of capture admission control.
+ * <pre>
+ * capture.admission.enabled=false
+ * capture.admission.tenant.capacity=20
+ * capture.admission.tenant.refill-per-second=5
+ * capture.admission.tenant.maximum-size=100000
+ * capture.admission.tenant.expire-after-access=10M
+ * capture.admission.lag.max-events=100000
+ * capture.admission.lag.poll-interval=5S
+ * capture.admission.lag.sources[0].group-id=openepcis-streams
+ * capture.admission.lag.sources[0].topic=epcis-event-captured
+ * </pre>
+ */
+@ConfigMapping(prefix = "capture.admission", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface CaptureAdmissionConfig {
+
+  /**
+   * @return whether capture requests are subject to admission control at all, off unless the limits
+   * were sized for the deployment.
+   */
+  @WithDefault("false")
+  boolean enabled();
+
+  /**
+   * @return the token bucket settings per tenant, the authenticated principal or, for anonymous
+   * callers, the {@code defaultGroup}.
+   */
+  Tenant tenant();
+
+  /**
+   * @return the global, lag driven load shedding settings.
+   */
+  Lag lag();
+
+  interface Tenant {
+
+    /**
+     * @return the burst size, i.e. how many capture requests a tenant may send back to back.
+     */
+    @WithDefault("20")
+    int capacity();
+
+    /**
+     * @return the sustained number of capture requests per second per tenant.
+     */
+    @WithDefault("5")
+    double refillPerSecond();
+
+    /**
+     * @return the maximum number of tenants whose buckets are kept.
+     */
+    @WithDefault("100000")
+    long maximumSize();
+
+    /**
+     * @return how long the bucket of an idle tenant is kept; a tenant returning later starts with a
+     * full bucket, so it should exceed the time a bucket takes to refill.
+     */
+    @WithDefault("10M")
+    Duration expireAfterAccess();
+  }
+
+  interface Lag {
+
+    /**
+     * @return the total consumer lag (in records) above which new capture requests are shed.
+     */
+    @WithDefault("100000")
+    long maxEvents();
+
+    /**
+     * @return how often consumer lag is sampled; a lag not confirmed by a sample for three intervals
+     * is no longer acted upon.
+     */
+    @WithDefault("5S")
+    Duration pollInterval();
+
+    /**
+     * @return the upper bound for the computed {@code Retry-After} when shedding load.
+     */
+    @WithDefault("120S")
+    Duration maxRetryAfter();
+
+    /**
+     * @return the consumer groups and topics of the capture topology whose lag is observed.
+     */
+    List<Source> sources();
+
+    interface Source {
+
+      /**
+       * @return the consumer group id.
+       */
+      String groupId();
+
+      /**
+       * @return the topic consumed by the group.
+       */
+      String topic();
+    }
+  }
+}
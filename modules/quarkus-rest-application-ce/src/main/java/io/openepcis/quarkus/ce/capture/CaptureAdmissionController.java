@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a capture request may enter the capture pipeline.
+ * <p>
+ * Two checks are applied in order:
+ * <ol>
+ *   <li>global load shedding, while the consumer lag of the capture topology exceeds
+ *   {@code capture.admission.lag.max-events};</li>
+ *   <li>a token bucket per tenant, see {@link CaptureAdmissionFilter}.</li>
+ * </ol>
+ * A rejection carries the number of seconds after which the client should retry. Buckets of idle
+ * tenants expire after {@code capture.admission.tenant.expire-after-access}.
+ */
+@Slf4j
+@ApplicationScoped
+public class CaptureAdmissionController {
+
+  private final CaptureAdmissionConfig config;
+  private final CaptureLagMonitor lagMonitor;
+  private final Cache<String, TokenBucket> buckets;
+  private final Counter shedCounter;
+  private final Counter throttledCounter;
+
+  public CaptureAdmissionController(
+          final CaptureAdmissionConfig config, final CaptureLagMonitor lagMonitor, final MeterRegistry registry) {
+    this.config = config;
+    this.lagMonitor = lagMonitor;
+    this.buckets = Caffeine.newBuilder()
+            .maximumSize(config.tenant().maximumSize())
+            .expireAfterAccess(config.tenant().expireAfterAccess())
+            .build();
+    this.shedCounter = Counter.builder("epcis.capture.admission.rejected")
+            .description("Capture requests rejected by admission control")
+            .tag("reason", "lag")
+            .register(registry);
+    this.throttledCounter = Counter.builder("epcis.capture.admission.rejected")
+            .description("Capture requests rejected by admission control")
+            .tag("reason", "tenant-rate")
+            .register(registry);
+  }
+
+  /**
+   * @param tenant the key of the caller's token bucket
+   * @return empty if the request is admitted, otherwise the {@code Retry-After} in seconds
+   */
+  public Optional<Long> admit(final String tenant) {
+    if (!config.enabled()) {
+      return Optional.empty();
+    }
+    final long lag = lagMonitor.lag();
+    if (lag > config.lag().maxEvents()) {
+      shedCounter.increment();
+      final long retryAfter = retryAfterForLag(lag);
+      log.debug("shedding capture request for tenant {}: lag={} retryAfter={}s", tenant, lag, retryAfter);
+      return Optional.of(retryAfter);
+    }
+    final long now = System.nanoTime();
+    final long waitNanos = buckets
+            .get(tenant, t -> new TokenBucket(
+                    config.tenant().capacity(), config.tenant().refillPerSecond(), now))
+            .tryAcquire(now);
+    if (waitNanos > 0) {
+      throttledCounter.increment();
+      final long retryAfter = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+      log.debug("throttling capture request for tenant {}: retryAfter={}s", tenant, retryAfter);
+      return Optional.of(retryAfter);
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Estimates how long the topology needs to drain the lag back below the threshold.
+   */
+  private long retryAfterForLag(final long lag) {
+    final long max = config.lag().maxRetryAfter().toSeconds();
+    final double drain = lagMonitor.drainPerSecond();
+    if (drain <= 0) {
+      return max;
+    }
+    final double excess = lag - config.lag().maxEvents();
+    return Math.min(max, Math.max(1, (long) Math.ceil(excess / drain)));
+  }
+}
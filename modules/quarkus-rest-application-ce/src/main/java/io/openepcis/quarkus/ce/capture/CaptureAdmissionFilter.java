@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Applies {@link CaptureAdmissionController} to {@code POST} requests on the capture endpoints and
+ * answers rejected requests with {@code 429 Too Many Requests} and a {@code Retry-After} header.
+ * The tenant is the caller's group, so all users of a group share one bucket and anonymous callers
+ * share the bucket of {@code repository.user.default-group}.
+ */
+@Provider
+@Priority(Priorities.USER)
+public class CaptureAdmissionFilter implements ContainerRequestFilter {
+
+  @Context
+  ResourceInfo resourceInfo;
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  CaptureAdmissionController admissionController;
+
+  @ConfigProperty(name = "repository.user.default-group")
+  String defaultGroup;
+
+  @Override
+  public void filter(ContainerRequestContext requestContext) {
+    if (!HttpMethod.POST.equals(requestContext.getMethod()) || !CaptureResources.isCaptureResource(resourceInfo)) {
+      return;
+    }
+    admissionController.admit(RestResources.group(securityIdentity, defaultGroup)).ifPresent(retryAfter -> {
+      final Response problem = RestResources.problem(
+              Response.Status.TOO_MANY_REQUESTS,
+              "epcisException:CaptureLimitExceededException",
+              "Too many capture requests",
+              String.format("capture request rejected by admission control, retry after %d seconds", retryAfter));
+      requestContext.abortWith(Response.fromResponse(problem)
+              .header(HeaderConstants.RETRY_AFTER, retryAfter)
+              .build());
+    });
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.github.luben.zstd.ZstdInputStream;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.CaptureApi;
+import io.openepcis.rest.api.common.EventsCaptureApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes {@code Content-Encoding: gzip} and {@code Content-Encoding: zstd} request bodies sent to
+ * the capture endpoints ({@link CaptureApi} and {@link EventsCaptureApi}).
+ * <p>
+ * The compressed stream is wrapped instead of buffered, so the capture parser pulls decompressed
+ * bytes directly from the socket. The configured {@code capture.file-size-limit} is enforced
+ * against the decompressed payload, a malformed or truncated body is rejected with {@code 400}, and
+ * compressed versus raw byte counts are published as {@code epcis.capture.request.bytes}.
+ */
+@Slf4j
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CaptureContentEncodingInterceptor implements ReaderInterceptor {
+
+  static final String METRIC_REQUEST_BYTES = "epcis.capture.request.bytes";
+
+  private static final String GZIP = "gzip";
+  private static final String X_GZIP = "x-gzip";
+  private static final String ZSTD = "zstd";
+  private static final String IDENTITY = "identity";
+
+  @Context
+  ResourceInfo resourceInfo;
+
+  private final MeterRegistry registry;
+  private final long fileSizeLimit;
+
+  public CaptureContentEncodingInterceptor(
+          final MeterRegistry registry,
+          @ConfigProperty(name = "capture.file-size-limit") final long fileSizeLimit) {
+    this.registry = registry;
+    this.fileSizeLimit = fileSizeLimit;
+  }
+
+  @Override
+  public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException, WebApplicationException {
+    if (!CaptureResources.isCaptureResource(resourceInfo)) {
+      return context.proceed();
+    }
+    final String encoding = normalize(context.getHeaders().getFirst(HeaderConstants.CONTENT_ENCODING));
+    final DecodedCaptureInputStream.ByteCountingInputStream compressed =
+            new DecodedCaptureInputStream.ByteCountingInputStream(context.getInputStream());
+    final InputStream decoded = decoder(encoding, compressed);
+    final String tag = IDENTITY.equals(encoding) ? IDENTITY : encoding.replace("x-", "");
+    context.setInputStream(new DecodedCaptureInputStream(
+            decoded, compressed, fileSizeLimit, (compressedBytes, rawBytes) -> record(tag, compressedBytes, rawBytes)));
+    context.getHeaders().remove(HeaderConstants.CONTENT_ENCODING);
+    return context.proceed();
+  }
+
+  /**
+   * @return the decompressed view of {@code compressed}, failing with {@code 400} if its header is
+   * malformed or truncated and with {@code 415} for unsupported encodings
+   */
+  static InputStream decoder(final String encoding, final InputStream compressed) throws IOException {
+    try {
+      return switch (encoding) {
+        case IDENTITY -> compressed;
+        case GZIP, X_GZIP -> new GZIPInputStream(compressed);
+        case ZSTD -> new ZstdInputStream(compressed);
+        default -> throw new WebApplicationException(RestResources.problem(
+                Response.Status.UNSUPPORTED_MEDIA_TYPE,
+                "epcisException:UnsupportedMediaTypeException",
+                "Unsupported Content-Encoding",
+                String.format("Content-Encoding '%s' is not supported, use gzip or zstd", encoding)));
+      };
+    } catch (IOException e) {
+      if (DecodedCaptureInputStream.isMalformed(e)) {
+        throw DecodedCaptureInputStream.malformed(e);
+      }
+      throw e;
+    }
+  }
+
+  private void record(final String encoding, final long compressedBytes, final long rawBytes) {
+    log.debug("capture request body {}: {} bytes on the wire, {} bytes decoded", encoding, compressedBytes, rawBytes);
+    summary(encoding, "compressed").record(compressedBytes);
+    summary(encoding, "raw").record(rawBytes);
+  }
+
+  private DistributionSummary summary(final String encoding, final String representation) {
+    return DistributionSummary.builder(METRIC_REQUEST_BYTES)
+            .description("Size of capture request bodies as received and after decompression")
+            .baseUnit("bytes")
+            .tag("encoding", encoding)
+            .tag("representation", representation)
+            .register(registry);
+  }
+
+  private static String normalize(final String encoding) {
+    if (encoding == null || encoding.isBlank()) {
+      return IDENTITY;
+    }
+    return encoding.trim().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Stateless {@code nextPageToken} of the {@code /capture/jobs} listing: the {@code search_after}
+ * sort values of the last capture job on the page, URL-safe base64 encoded.
+ * <p>
+ * The token carries no server side state, so it never expires and paging through deep result
+ * sets costs the same per page as the first one.
+ */
+final class CaptureJobCursor {
+
+  private static final char SEPARATOR = '\n';
+
+  private CaptureJobCursor() {
+  }
+
+  static String encode(final List<String> sortValues) {
+    return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(String.join(String.valueOf(SEPARATOR), sortValues).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return the sort values to continue after, empty for the first page
+   */
+  static List<String> decode(final String token) {
+    if (token == null || token.isBlank()) {
+      return List.of();
+    }
+    final String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw invalid(token);
+    }
+    final List<String> values = new ArrayList<>(2);
+    int start = 0;
+    for (int i = decoded.indexOf(SEPARATOR); i != -1; i = decoded.indexOf(SEPARATOR, start)) {
+      values.add(decoded.substring(start, i));
+      start = i + 1;
+    }
+    values.add(decoded.substring(start));
+    if (values.size() != CaptureJobIndex.SORT_FIELDS) {
+      throw invalid(token);
+    }
+    return values;
+  }
+
+  private static WebApplicationException invalid(final String token) {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.BAD_REQUEST,
+            "epcisException:ValidationException",
+            "Invalid nextPageToken",
+            String.format("nextPageToken '%s' is malformed", token)));
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Filter of the {@code /capture/jobs} listing, translated into a non-scoring OpenSearch query.
+ *
+ * @param running only jobs with the given {@code running} flag, any if {@code null}
+ * @param success only jobs with the given {@code success} flag, any if {@code null}
+ * @param geCreatedAt inclusive lower bound of {@code createdAt}, unbounded if {@code null}
+ * @param ltCreatedAt exclusive upper bound of {@code createdAt}, unbounded if {@code null}
+ * @param group only jobs captured for the given group, any if {@code null}
+ */
+record CaptureJobFilter(
+        Boolean running, Boolean success, OffsetDateTime geCreatedAt, OffsetDateTime ltCreatedAt, String group) {
+
+  static CaptureJobFilter of(
+          final Boolean running,
+          final Boolean success,
+          final String geCreatedAt,
+          final String ltCreatedAt,
+          final String group) {
+    return new CaptureJobFilter(
+            running, success, parse("GE_createdAt", geCreatedAt), parse("LT_createdAt", ltCreatedAt), group);
+  }
+
+  Query toQuery() {
+    final BoolQuery.Builder bool = new BoolQuery.Builder();
+    if (running != null) {
+      bool.filter(f -> f.term(t -> t.field(CaptureJobIndex.RUNNING).value(v -> v.booleanValue(running))));
+    }
+    if (success != null) {
+      bool.filter(f -> f.term(t -> t.field(CaptureJobIndex.SUCCESS).value(v -> v.booleanValue(success))));
+    }
+    if (geCreatedAt != null || ltCreatedAt != null) {
+      bool.filter(f -> f.range(r -> {
+        r.field(CaptureJobIndex.CREATED_AT);
+        if (geCreatedAt != null) {
+          r.gte(JsonData.of(geCreatedAt.toString()));
+        }
+        if (ltCreatedAt != null) {
+          r.lt(JsonData.of(ltCreatedAt.toString()));
+        }
+        return r;
+      }));
+    }
+    if (group != null && !group.isBlank()) {
+      bool.filter(f -> f.term(t -> t.field(CaptureJobIndex.GROUP_KEYWORD).value(v -> v.stringValue(group))));
+    }
+    return bool.build()._toQuery();
+  }
+
+  CaptureJobFilter withGroup(final String group) {
+    return new CaptureJobFilter(running, success, geCreatedAt, ltCreatedAt, group);
+  }
+
+  private static OffsetDateTime parse(final String name, final String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(value);
+    } catch (DateTimeParseException e) {
+      throw new WebApplicationException(RestResources.problem(
+              Response.Status.BAD_REQUEST,
+              "epcisException:QueryParameterException",
+              "Invalid query parameter",
+              String.format("%s must be an ISO 8601 date time with offset, got '%s'", name, value)));
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.RestResources;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.mapping.FieldType;
+import org.opensearch.client.opensearch.core.CountRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.indices.SegmentSortOrder;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read access to the capture jobs persisted in {@code repository.capture.job.index} once the
+ * capture topology has finished them.
+ * <p>
+ * Listings are ordered by {@code createdAt} (newest first) with {@code captureID} as tiebreaker and
+ * paged with {@code search_after}. On startup an index template is registered for the capture job
+ * indices whose index sort matches that order, so newly created indices can terminate listing
+ * queries early instead of sorting every matching document.
+ */
+@Slf4j
+@ApplicationScoped
+public class CaptureJobIndex {
+
+  static final String CAPTURE_ID = "captureID";
+  static final String CAPTURE_ID_KEYWORD = CAPTURE_ID + ".keyword";
+  static final String CREATED_AT = "createdAt";
+  static final String RUNNING = "running";
+  static final String SUCCESS = "success";
+  static final String GROUP = RestResources.DEFAULT_GROUP_ATTRIBUTE;
+  static final String GROUP_KEYWORD = GROUP + ".keyword";
+  static final int SORT_FIELDS = 2;
+
+  private final OpenSearchAsyncClient client;
+  private final ObjectMapper objectMapper;
+  private final String index;
+
+  public CaptureJobIndex(
+          final OpenSearchAsyncClient client,
+          final ObjectMapper objectMapper,
+          @ConfigProperty(name = "repository.capture.job.index") final String index) {
+    this.client = client;
+    this.objectMapper = objectMapper;
+    this.index = index;
+  }
+
+  /**
+   * @return the persisted capture job, empty if the job is unknown or still running
+   */
+  public Uni<Optional<CaptureJobStatusMessage>> findById(final String captureID) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(indexPattern())
+            .size(1)
+            .query(q -> q.bool(b -> b
+                    .should(sh -> sh.ids(i -> i.values(captureID)))
+                    .should(sh -> sh.matchPhrase(m -> m.field(CAPTURE_ID).query(captureID)))
+                    .minimumShouldMatch("1"))));
+    return search(request)
+            .map(response -> response.hits().hits().stream()
+                    .findFirst()
+                    .map(Hit::source)
+                    .map(this::toMessage));
+  }
+
+  /**
+   * @param searchAfter sort values of the last capture job of the previous page, empty for the first page
+   * @return up to {@code size} capture jobs in listing order
+   */
+  Uni<List<Hit<ObjectNode>>> list(final CaptureJobFilter filter, final int size, final List<String> searchAfter) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.index(indexPattern())
+              .size(size)
+              .query(filter.toQuery())
+              .trackTotalHits(t -> t.enabled(false))
+              .sort(so -> so.field(f -> f.field(CREATED_AT).order(SortOrder.Desc).unmappedType(FieldType.Date)))
+              .sort(so -> so.field(f -> f.field(CAPTURE_ID_KEYWORD).order(SortOrder.Desc).unmappedType(FieldType.Keyword)));
+      if (!searchAfter.isEmpty()) {
+        s.searchAfter(searchAfter);
+      }
+      return s;
+    });
+    return search(request).map(response -> response.hits().hits());
+  }
+
+  /**
+   * @return the number of capture jobs matching {@code filter}, without fetching any of them
+   */
+  Uni<Long> count(final CaptureJobFilter filter) {
+    final CountRequest request = CountRequest.of(c -> c
+            .index(indexPattern())
+            .query(filter.toQuery()));
+    return AsyncCalls.call(() -> client.count(request)).map(response -> response.count());
+  }
+
+  void onStart(@Observes final StartupEvent event) {
+    final String name = index + "-sorted";
+    AsyncCalls.call(() -> client.indices().existsIndexTemplate(e -> e.name(name)))
+            .chain(exists -> exists.value()
+                    ? Uni.createFrom().voidItem()
+                    : AsyncCalls.call(() -> client.indices().putIndexTemplate(t -> t
+                            .name(name)
+                            .indexPatterns(indexPattern())
+                            .template(tt -> tt
+                                    .settings(st -> st.sort(so -> so
+                                            .field(CREATED_AT, CAPTURE_ID_KEYWORD)
+                                            .order(SegmentSortOrder.Desc, SegmentSortOrder.Desc)))
+                                    .mappings(m -> m
+                                            .properties(CREATED_AT, p -> p.date(d -> d))
+                                            .properties(RUNNING, p -> p.boolean_(b -> b))
+                                            .properties(SUCCESS, p -> p.boolean_(b -> b))
+                                            .properties(CAPTURE_ID, p -> p.text(tx -> tx
+                                                    .fields("keyword", f -> f.keyword(k -> k.ignoreAbove(256)))))
+                                            .properties(GROUP, p -> p.text(tx -> tx
+                                                    .fields("keyword", f -> f.keyword(k -> k.ignoreAbove(256)))))))))
+                            .invoke(() -> log.info("registered index template {} for {}", name, indexPattern()))
+                            .replaceWithVoid())
+            .subscribe().with(
+                    ignored -> {},
+                    failure -> log.warn("unable to register index template {}: {}", name, failure.getMessage()));
+  }
+
+  String indexPattern() {
+    return index + "*";
+  }
+
+  Uni<SearchResponse<ObjectNode>> search(final SearchRequest request) {
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class));
+  }
+
+  CaptureJobStatusMessage toMessage(final ObjectNode source) {
+    return objectMapper.convertValue(source, CaptureJobStatusMessage.class);
+  }
+}
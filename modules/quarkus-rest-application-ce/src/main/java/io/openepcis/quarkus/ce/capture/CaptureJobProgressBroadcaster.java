@@ -0,0 +1,116 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.operators.multi.processors.BroadcastProcessor;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans out the capture job updates emitted by the capture job aggregation to {@code capture-documents}
+ * to every open progress stream on this node and remembers the latest state per capture job.
+ * <p>
+ * {@code capture-documents} is the state the capture topology keeps of its capture jobs; it is read
+ * from the start, so every node knows the capture jobs still running, while the capture job index
+ * only holds finished ones. The state of a running capture job is kept for
+ * {@code capture.progress.cache.running-expire-after-write}, the one of a finished capture job for
+ * {@code capture.progress.cache.expire-after-write}, by when it is persisted in the index.
+ */
+@ApplicationScoped
+public class CaptureJobProgressBroadcaster {
+
+  private final BroadcastProcessor<Update> processor = BroadcastProcessor.create();
+  private final AtomicLong sequence = new AtomicLong();
+  private final Cache<String, Update> latest;
+
+  public CaptureJobProgressBroadcaster(
+          @ConfigProperty(name = "capture.progress.cache.maximum-size", defaultValue = "10000") final long maximumSize,
+          @ConfigProperty(name = "capture.progress.cache.expire-after-write", defaultValue = "10M")
+          final Duration expireAfterWrite,
+          @ConfigProperty(name = "capture.progress.cache.running-expire-after-write", defaultValue = "1D")
+          final Duration runningExpireAfterWrite) {
+    this.latest = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, Update>() {
+              @Override
+              public long expireAfterCreate(final String captureID, final Update update, final long currentTime) {
+                return (update.status().getFinishedAt() == null ? runningExpireAfterWrite : expireAfterWrite).toNanos();
+              }
+
+              @Override
+              public long expireAfterUpdate(
+                      final String captureID, final Update update, final long currentTime, final long currentDuration) {
+                return expireAfterCreate(captureID, update, currentTime);
+              }
+
+              @Override
+              public long expireAfterRead(
+                      final String captureID, final Update update, final long currentTime, final long currentDuration) {
+                return currentDuration;
+              }
+            })
+            .build();
+  }
+
+  @Incoming("capture-job-progress-in")
+  public void onCaptureJobUpdate(final ConsumerRecord<String, CaptureJobStatusMessage> record) {
+    if (record.key() == null || record.value() == null) {
+      return;
+    }
+    final Update update = new Update(sequence.incrementAndGet(), record.key(), record.value());
+    latest.put(record.key(), update);
+    processor.onNext(update);
+  }
+
+  /**
+   * @return the latest update seen on this node for the capture job
+   */
+  public Optional<CaptureJobStatusMessage> latest(final String captureID) {
+    return current(captureID).map(Update::status);
+  }
+
+  Optional<Update> current(final String captureID) {
+    return Optional.ofNullable(latest.getIfPresent(captureID));
+  }
+
+  /**
+   * Every update is a full snapshot of the capture job, a subscriber that cannot keep up only gets
+   * the most recent one instead of failing the broadcast with a back-pressure failure.
+   *
+   * @return a hot stream of future updates for the capture job
+   */
+  Multi<Update> updates(final String captureID) {
+    return processor
+            .select().where(update -> captureID.equals(update.captureID()))
+            .onOverflow().dropPreviousItems();
+  }
+
+  /**
+   * @param sequence the order in which this node received the update, {@code 0} for states read elsewhere
+   */
+  record Update(long sequence, String captureID, CaptureJobStatusMessage status) {}
+}
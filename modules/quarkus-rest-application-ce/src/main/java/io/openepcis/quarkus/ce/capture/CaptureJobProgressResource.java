@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.CaptureJobProgressApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.multi.processors.UnicastProcessor;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Server-sent event stream of capture job updates, closed once the capture job has finished.
+ * Like the capture job listing, callers other than admins only see the capture jobs of their own
+ * group, capture jobs of other groups are answered with {@code 404} just like unknown ones.
+ */
+public class CaptureJobProgressResource implements CaptureJobProgressApi {
+
+  // marks the end of the stream after the finished capture job has been emitted
+  private static final CaptureJobStatusMessage END_OF_STREAM = new CaptureJobStatusMessage();
+
+  private final CaptureJobProgressBroadcaster broadcaster;
+  private final CaptureJobIndex captureJobIndex;
+  private final Duration idleTimeout;
+  private final SecurityIdentity securityIdentity;
+  private final String defaultGroup;
+
+  public CaptureJobProgressResource(
+          final CaptureJobProgressBroadcaster broadcaster,
+          final CaptureJobIndex captureJobIndex,
+          @ConfigProperty(name = "capture.progress.idle-timeout", defaultValue = "10M") final Duration idleTimeout,
+          final SecurityIdentity securityIdentity,
+          @ConfigProperty(name = "repository.user.default-group") final String defaultGroup) {
+    this.broadcaster = broadcaster;
+    this.captureJobIndex = captureJobIndex;
+    this.idleTimeout = idleTimeout;
+    this.securityIdentity = securityIdentity;
+    this.defaultGroup = defaultGroup;
+  }
+
+  @Override
+  public Multi<CaptureJobStatusMessage> captureIDProgress(final UUID captureID) {
+    final String id = captureID.toString();
+    final boolean admin = RestResources.isAdmin(securityIdentity);
+    final String group = RestResources.group(securityIdentity, defaultGroup);
+    return Multi.createFrom().deferred(() -> {
+      // updates are buffered from before the current state is read, so none falls in between
+      final UnicastProcessor<CaptureJobProgressBroadcaster.Update> buffer = UnicastProcessor.create();
+      final Cancellable subscription = broadcaster.updates(id)
+              .subscribe().with(buffer::onNext, buffer::onError, buffer::onComplete);
+      // the stream starts with the current state so an unknown or foreign capture job fails before it is streamed
+      return currentState(id)
+              .onItem().ifNull().failWith(() -> notFound(id))
+              .invoke(current -> {
+                if (!visible(current.status(), admin, group)) {
+                  throw notFound(id);
+                }
+              })
+              .onItem().transformToMulti(current -> progress(current, buffer, admin, group))
+              .onTermination().invoke(subscription::cancel);
+    });
+  }
+
+  private Multi<CaptureJobStatusMessage> progress(
+          final CaptureJobProgressBroadcaster.Update current,
+          final Multi<CaptureJobProgressBroadcaster.Update> buffer,
+          final boolean admin,
+          final String group) {
+    // buffered updates the current state already reflects are dropped
+    final Multi<CaptureJobStatusMessage> updates = buffer
+            .select().where(update -> update.sequence() > current.sequence())
+            .map(CaptureJobProgressBroadcaster.Update::status)
+            .select().where(status -> visible(status, admin, group));
+    return Multi.createBy().concatenating().streams(Multi.createFrom().item(current.status()), updates)
+            .onItem().transformToMultiAndConcatenate(status -> status.getFinishedAt() == null
+                    ? Multi.createFrom().item(status)
+                    : Multi.createFrom().items(status, END_OF_STREAM))
+            .select().first(status -> status != END_OF_STREAM)
+            .ifNoItem().after(idleTimeout).recoverWithCompletion();
+  }
+
+  /**
+   * @return the latest state seen on this node, else the persisted state of a finished capture job,
+   * else the state an update delivered while the index was searched; {@code null} for unknown ones
+   */
+  private Uni<CaptureJobProgressBroadcaster.Update> currentState(final String captureID) {
+    final Optional<CaptureJobProgressBroadcaster.Update> latest = broadcaster.current(captureID);
+    if (latest.isPresent()) {
+      return Uni.createFrom().item(latest.get());
+    }
+    return captureJobIndex.findById(captureID).map(found -> found
+            .map(status -> new CaptureJobProgressBroadcaster.Update(0, captureID, status))
+            .or(() -> broadcaster.current(captureID))
+            .orElse(null));
+  }
+
+  static boolean visible(final CaptureJobStatusMessage status, final boolean admin, final String group) {
+    return admin || group.equals(status.getDefaultGroup());
+  }
+
+  private static WebApplicationException notFound(final String captureID) {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.NOT_FOUND,
+            "epcisException:NoSuchNameException",
+            "Capture job not found",
+            String.format("capture job '%s' does not exist", captureID)));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.CaptureJobSearchApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Filterable, cursor paginated listing of capture jobs. Callers without the {@code admin} role
+ * only ever see the capture jobs of their own group.
+ */
+public class CaptureJobSearchResource implements CaptureJobSearchApi {
+
+  private static final String NEXT_PAGE_TOKEN = "nextPageToken";
+
+  private final CaptureJobIndex captureJobIndex;
+  private final int perPageMax;
+  private final String defaultGroup;
+
+  public CaptureJobSearchResource(
+          final CaptureJobIndex captureJobIndex,
+          @ConfigProperty(name = "repository.epcis.per-page-max") final int perPageMax,
+          @ConfigProperty(name = "repository.user.default-group") final String defaultGroup) {
+    this.captureJobIndex = captureJobIndex;
+    this.perPageMax = perPageMax;
+    this.defaultGroup = defaultGroup;
+  }
+
+  @Override
+  public Uni<Response> captureJobsGet(
+          final SecurityIdentity securityIdentity,
+          final Boolean running,
+          final Boolean success,
+          final String geCreatedAt,
+          final String ltCreatedAt,
+          final String group,
+          final Integer perPage,
+          final String nextPageToken,
+          final UriInfo uriInfo) {
+    final CaptureJobFilter filter = scoped(securityIdentity, CaptureJobFilter.of(running, success, geCreatedAt, ltCreatedAt, group));
+    final List<String> searchAfter = CaptureJobCursor.decode(nextPageToken);
+    final int size = Math.max(1, Math.min(perPage != null ? perPage : perPageMax, perPageMax));
+    // one extra hit tells whether there is a next page without a trailing empty one
+    return captureJobIndex.list(filter, size + 1, searchAfter)
+            .map(hits -> {
+              final List<Hit<ObjectNode>> page = hits.size() > size ? hits.subList(0, size) : hits;
+              final List<CaptureJobStatusMessage> jobs = page.stream()
+                      .map(hit -> captureJobIndex.toMessage(hit.source()))
+                      .toList();
+              final Response.ResponseBuilder response = Response.ok(jobs, MediaType.APPLICATION_JSON_TYPE);
+              if (hits.size() > size) {
+                final String token = CaptureJobCursor.encode(page.get(page.size() - 1).sort());
+                response.link(uriInfo.getRequestUriBuilder().replaceQueryParam(NEXT_PAGE_TOKEN, token).build(), "next");
+              }
+              return response.build();
+            });
+  }
+
+  @Override
+  public Uni<Response> captureJobsCount(
+          final SecurityIdentity securityIdentity,
+          final Boolean running,
+          final Boolean success,
+          final String geCreatedAt,
+          final String ltCreatedAt,
+          final String group) {
+    final CaptureJobFilter filter = scoped(securityIdentity, CaptureJobFilter.of(running, success, geCreatedAt, ltCreatedAt, group));
+    return captureJobIndex.count(filter)
+            .map(count -> Response.ok(Map.of("count", count), MediaType.APPLICATION_JSON_TYPE).build());
+  }
+
+  private CaptureJobFilter scoped(final SecurityIdentity securityIdentity, final CaptureJobFilter filter) {
+    if (RestResources.isAdmin(securityIdentity)) {
+      return filter;
+    }
+    return filter.withGroup(RestResources.group(securityIdentity, defaultGroup));
+  }
+}
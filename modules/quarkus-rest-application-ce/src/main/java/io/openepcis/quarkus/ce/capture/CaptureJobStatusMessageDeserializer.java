@@ -0,0 +1,29 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.quarkus.kafka.client.serialization.ObjectMapperDeserializer;
+
+/**
+ * Kafka deserializer for the aggregated capture job messages published to {@code capture-documents}.
+ */
+public class CaptureJobStatusMessageDeserializer extends ObjectMapperDeserializer<CaptureJobStatusMessage> {
+
+  public CaptureJobStatusMessageDeserializer() {
+    super(CaptureJobStatusMessage.class);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.common.annotation.Identifier;
+import io.vertx.core.Vertx;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically samples the consumer lag of the capture topology (e.g. {@code epcis-event-capture-queue}
+ * and {@code epcis-event-captured}) and estimates the rate at which it drains. The values feed the
+ * global load shedding in {@link CaptureAdmissionController}.
+ * <p>
+ * The monitor fails open: a failed sample clears the lag, and a lag not confirmed for three poll
+ * intervals, e.g. because the admin client hangs, is reported as {@code 0}, so capture is never shed
+ * on stale data.
+ */
+@Slf4j
+@ApplicationScoped
+public class CaptureLagMonitor {
+
+  private final CaptureAdmissionConfig config;
+  private final Map<String, Object> kafkaConfig;
+  private final Vertx vertx;
+
+  private AdminClient adminClient;
+  private long timerId = -1;
+
+  private volatile long lag;
+  private volatile double drainPerSecond;
+  private volatile long sampledAtNanos;
+  private long lastCommitted = -1;
+  private long lastSampleNanos;
+
+  @Inject
+  public CaptureLagMonitor(
+          final CaptureAdmissionConfig config,
+          @Identifier("default-kafka-broker") final Map<String, Object> kafkaConfig,
+          final Vertx vertx,
+          final MeterRegistry registry) {
+    this.config = config;
+    this.kafkaConfig = kafkaConfig;
+    this.vertx = vertx;
+    Gauge.builder("epcis.capture.admission.lag", this, CaptureLagMonitor::lag)
+            .description("Consumer lag of the capture topology in records")
+            .register(registry);
+    Gauge.builder("epcis.capture.admission.drain.rate", this, CaptureLagMonitor::drainPerSecond)
+            .description("Estimated records per second drained by the capture topology")
+            .register(registry);
+  }
+
+  void onStart(@Observes StartupEvent ev) {
+    if (!config.enabled() || config.lag().sources().isEmpty()) {
+      return;
+    }
+    final Map<String, Object> adminConfig = kafkaConfig.entrySet().stream()
+            .filter(e -> AdminClientConfig.configNames().contains(e.getKey()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    adminClient = AdminClient.create(adminConfig);
+    timerId = vertx.setPeriodic(config.lag().pollInterval().toMillis(), id -> sample());
+  }
+
+  void onStop(@Observes ShutdownEvent ev) {
+    if (timerId >= 0) {
+      vertx.cancelTimer(timerId);
+    }
+    if (adminClient != null) {
+      adminClient.close();
+    }
+  }
+
+  /**
+   * @return the most recently observed total lag in records.
+   */
+  public long lag() {
+    final long maxAge = 3 * config.lag().pollInterval().toNanos();
+    return System.nanoTime() - sampledAtNanos <= maxAge ? lag : 0;
+  }
+
+  /**
+   * @return the estimated drain rate in records per second, {@code 0} if unknown.
+   */
+  public double drainPerSecond() {
+    return drainPerSecond;
+  }
+
+  private void sample() {
+    final Map<GroupPartition, Long> committed = new HashMap<>();
+    CompletionStage<Void> chain = CompletableFuture.completedFuture(null);
+    for (CaptureAdmissionConfig.Lag.Source source : config.lag().sources()) {
+      chain = chain.thenCompose(v -> adminClient
+              .listConsumerGroupOffsets(source.groupId())
+              .partitionsToOffsetAndMetadata()
+              .toCompletionStage()
+              .thenAccept(offsets -> offsets.forEach((tp, om) -> {
+                if (tp.topic().equals(source.topic()) && om != null) {
+                  committed.put(new GroupPartition(source.groupId(), tp), om.offset());
+                }
+              })));
+    }
+    chain.thenCompose(v -> endOffsets(committed))
+            .whenComplete((end, failure) -> {
+              if (failure != null) {
+                log.warn("unable to sample capture consumer lag, not shedding load: {}", failure.getMessage());
+                clear();
+                return;
+              }
+              update(committed, end);
+            });
+  }
+
+  private CompletionStage<Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo>> endOffsets(
+          final Map<GroupPartition, Long> committed) {
+    final Map<TopicPartition, OffsetSpec> request = committed.keySet().stream()
+            .map(GroupPartition::partition)
+            .distinct()
+            .collect(Collectors.toMap(tp -> tp, tp -> OffsetSpec.latest()));
+    return adminClient.listOffsets(request).all().toCompletionStage();
+  }
+
+  private synchronized void update(
+          final Map<GroupPartition, Long> committed,
+          final Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> end) {
+    long total = 0;
+    long committedSum = 0;
+    for (Map.Entry<GroupPartition, Long> e : committed.entrySet()) {
+      final ListOffsetsResult.ListOffsetsResultInfo info = end.get(e.getKey().partition());
+      if (info != null) {
+        total += Math.max(0, info.offset() - e.getValue());
+      }
+      committedSum += e.getValue();
+    }
+    final long now = System.nanoTime();
+    if (lastCommitted >= 0 && now > lastSampleNanos) {
+      final double seconds = (now - lastSampleNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+      drainPerSecond = Math.max(0, committedSum - lastCommitted) / seconds;
+    }
+    lastCommitted = committedSum;
+    lastSampleNanos = now;
+    lag = total;
+    sampledAtNanos = now;
+    log.debug("capture topology lag={} drain={}/s", lag, drainPerSecond);
+  }
+
+  private synchronized void clear() {
+    lag = 0;
+    drainPerSecond = 0;
+    lastCommitted = -1;
+  }
+
+  private record GroupPartition(String groupId, TopicPartition partition) {}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import io.openepcis.rest.api.common.CaptureApi;
+import io.openepcis.rest.api.common.EventsCaptureApi;
+import jakarta.ws.rs.container.ResourceInfo;
+
+/**
+ * Helpers shared by the capture request filters and interceptors.
+ */
+final class CaptureResources {
+
+  private CaptureResources() {
+  }
+
+  /**
+   * @return {@code true} if the matched resource implements {@link CaptureApi} or {@link EventsCaptureApi}
+   */
+  static boolean isCaptureResource(final ResourceInfo resourceInfo) {
+    final Class<?> resourceClass = resourceInfo != null ? resourceInfo.getResourceClass() : null;
+    return resourceClass != null
+            && (CaptureApi.class.isAssignableFrom(resourceClass) || EventsCaptureApi.class.isAssignableFrom(resourceClass));
+  }
+}
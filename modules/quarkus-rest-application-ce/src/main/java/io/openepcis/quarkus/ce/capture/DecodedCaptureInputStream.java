@@ -0,0 +1,204 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.github.luben.zstd.ZstdIOException;
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import java.util.zip.ZipException;
+
+/**
+ * Decompressed view of a capture request body which fails with {@code 413} as soon as more than
+ * {@code limit} bytes have been decoded, fails with {@code 400} if the body is malformed or truncated,
+ * and reports the compressed and raw byte counts once the stream is exhausted or closed.
+ */
+class DecodedCaptureInputStream extends FilterInputStream {
+
+  interface Completion {
+    void accept(long compressedBytes, long rawBytes);
+  }
+
+  private final ByteCountingInputStream compressed;
+  private final long limit;
+  private final Completion completion;
+  private long count;
+  private boolean completed;
+
+  DecodedCaptureInputStream(
+          final InputStream decoded, final ByteCountingInputStream compressed, final long limit, final Completion completion) {
+    super(decoded);
+    this.compressed = compressed;
+    this.limit = limit;
+    this.completion = completion;
+  }
+
+  @Override
+  public int read() throws IOException {
+    final int b;
+    try {
+      b = super.read();
+    } catch (IOException e) {
+      throw decodingFailure(e);
+    }
+    if (b == -1) {
+      complete();
+    } else {
+      advance(1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    final int n;
+    try {
+      n = super.read(b, off, len);
+    } catch (IOException e) {
+      throw decodingFailure(e);
+    }
+    if (n == -1) {
+      complete();
+    } else {
+      advance(n);
+    }
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    final long skipped;
+    try {
+      skipped = super.skip(n);
+    } catch (IOException e) {
+      throw decodingFailure(e);
+    }
+    advance(skipped);
+    return skipped;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      complete();
+    }
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * @return {@code true} if {@code e} was raised because the compressed body is malformed or truncated,
+   * rather than because the request stream itself failed
+   */
+  static boolean isMalformed(final IOException e) {
+    return e instanceof ZipException || e instanceof EOFException || e instanceof ZstdIOException;
+  }
+
+  static WebApplicationException malformed(final IOException e) {
+    return new WebApplicationException(e, RestResources.problem(
+            Response.Status.BAD_REQUEST,
+            "epcisException:ValidationException",
+            "Malformed capture payload",
+            String.format("the compressed capture payload cannot be decoded: %s",
+                    Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName()))));
+  }
+
+  /**
+   * @return {@code e} if the request stream failed, throws {@code 400} if the body is malformed
+   */
+  private IOException decodingFailure(final IOException e) {
+    if (isMalformed(e)) {
+      complete();
+      throw malformed(e);
+    }
+    return e;
+  }
+
+  private void advance(final long n) {
+    count += n;
+    if (limit > 0 && count > limit) {
+      complete();
+      throw new WebApplicationException(RestResources.problem(
+              Response.Status.REQUEST_ENTITY_TOO_LARGE,
+              "epcisException:CaptureLimitExceededException",
+              "Capture Payload too large",
+              String.format("decompressed capture payload exceeds the file size limit of %d bytes", limit)));
+    }
+  }
+
+  private void complete() {
+    if (!completed) {
+      completed = true;
+      completion.accept(compressed.count(), count);
+    }
+  }
+
+  /**
+   * Counts the bytes read from the underlying (still compressed) request stream.
+   */
+  static final class ByteCountingInputStream extends FilterInputStream {
+    private long count;
+
+    ByteCountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int n = super.read(b, off, len);
+      if (n > 0) {
+        count += n;
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    long count() {
+      return count;
+    }
+  }
+}
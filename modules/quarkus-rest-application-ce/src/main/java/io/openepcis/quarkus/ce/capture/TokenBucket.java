@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classic token bucket: holds at most {@code capacity} tokens and refills continuously at
+ * {@code refillPerSecond}. Time is passed in explicitly so the bucket can be driven by tests.
+ */
+final class TokenBucket {
+
+  // absorbs floating point drift so that waiting exactly the reported time always yields a token
+  private static final double EPSILON = 1e-9;
+
+  private final double capacity;
+  private final double refillPerNano;
+  private double tokens;
+  private long lastRefillNanos;
+
+  TokenBucket(final double capacity, final double refillPerSecond, final long nowNanos) {
+    if (capacity <= 0 || refillPerSecond <= 0) {
+      throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+    }
+    this.capacity = capacity;
+    this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.tokens = capacity;
+    this.lastRefillNanos = nowNanos;
+  }
+
+  /**
+   * Takes one token if available.
+   *
+   * @return {@code 0} if the token was taken, otherwise the nanoseconds until one becomes available
+   */
+  synchronized long tryAcquire(final long nowNanos) {
+    refill(nowNanos);
+    if (tokens + EPSILON >= 1d) {
+      tokens = Math.max(0d, tokens - 1d);
+      return 0L;
+    }
+    return (long) Math.ceil((1d - tokens) / refillPerNano);
+  }
+
+  synchronized double available(final long nowNanos) {
+    refill(nowNanos);
+    return tokens;
+  }
+
+  private void refill(final long nowNanos) {
+    final long elapsed = nowNanos - lastRefillNanos;
+    if (elapsed > 0) {
+      tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+      lastRefillNanos = nowNanos;
+    }
+  }
+}
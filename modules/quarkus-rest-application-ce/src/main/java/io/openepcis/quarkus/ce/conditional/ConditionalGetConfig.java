@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.conditional;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of entity tags and conditional requests on events and top-level resources.
+ * <pre>
+ * repository.epcis.conditional-get.enabled=true
+ * repository.epcis.conditional-get.event-cache-control=private, max-age=60, must-revalidate
+ * repository.epcis.conditional-get.vocabulary-cache-control=private, no-cache
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.conditional-get", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface ConditionalGetConfig {
+
+  /**
+   * @return whether entity tags are issued and {@code If-None-Match} is answered with {@code 304}.
+   */
+  @WithDefault("true")
+  boolean enabled();
+
+  /**
+   * @return the {@code Cache-Control} of single events, which only change by an error declaration.
+   */
+  @WithDefault("private, max-age=60, must-revalidate")
+  String eventCacheControl();
+
+  /**
+   * @return the {@code Cache-Control} of top-level listings and sub-resources, which grow with every new value.
+   */
+  @WithDefault("private, no-cache")
+  String vocabularyCacheControl();
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.conditional;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.quarkus.ce.vocabulary.TopLevelVocabularyFilter;
+import io.openepcis.quarkus.ce.vocabulary.VocabularyConfig;
+import io.openepcis.quarkus.ce.vocabulary.VocabularyIndex;
+import io.openepcis.quarkus.ce.vocabulary.VocabularyType;
+import io.openepcis.rest.api.common.BizLocationsTopLevelApi;
+import io.openepcis.rest.api.common.BizStepsTopLevelApi;
+import io.openepcis.rest.api.common.DispositionsTopLevelApi;
+import io.openepcis.rest.api.common.EPCsTopLevelApi;
+import io.openepcis.rest.api.common.EventTypesTopLevelApi;
+import io.openepcis.rest.api.common.EventsApi;
+import io.openepcis.rest.api.common.ReadPointsTopLevelApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Issues strong entity tags for single events ({@code GET /events/{eventID}}), the top-level listings
+ * and their sub-resources (e.g. {@code GET /epcs/{epc}}) and answers {@code If-None-Match} with
+ * {@code 304} before the resource runs.
+ * <p>
+ * Captured events are immutable apart from an error declaration, so the tag of an event is derived
+ * from its id and {@code errorDeclaration.declarationTime}. Only a request carrying
+ * {@code If-None-Match} reads them up front, without the rest of the source; otherwise they are
+ * taken from the event the resource answers with.
+ * Listings and sub-resources are tagged with the version of the {@link VocabularyIndex}. Every tag
+ * also covers the request URI and the headers selecting the representation, which are listed in
+ * {@code Vary}.
+ */
+@Slf4j
+public class ConditionalGetFilter {
+
+  static final String ENTITY_TAG = ConditionalGetFilter.class.getName() + ".entityTag";
+  static final String CACHE_CONTROL = ConditionalGetFilter.class.getName() + ".cacheControl";
+  static final String EVENT = ConditionalGetFilter.class.getName() + ".event";
+
+  static final String GET_EVENT_BY_ID = "getEventById";
+  static final String EVENT_ID = "eventID";
+  static final String DECLARATION_TIME = "declarationTime";
+
+  // declarationTime only occurs in the error declaration of an event, in either representation
+  private static final Pattern DECLARATION_TIME_VALUE = Pattern.compile(
+          "\"declarationTime\"\\s*:\\s*\"([^\"]*)\"|<declarationTime>([^<]*)</declarationTime>");
+
+  static final Map<String, VocabularyType> SUB_RESOURCES = Map.of(
+          "getSubResourceOfEventTypes", VocabularyType.EVENT_TYPE,
+          "getSubResourceOfBizStep", VocabularyType.BIZ_STEP,
+          "getSubResourceOfDisposition", VocabularyType.DISPOSITION,
+          "getSubResourceOfReadPoint", VocabularyType.READ_POINT,
+          "getSubResourceOfBizLocation", VocabularyType.BIZ_LOCATION,
+          "getSubResourceOfEPC", VocabularyType.EPC);
+
+  static final List<Class<?>> TOP_LEVEL_RESOURCES = List.of(
+          EventTypesTopLevelApi.class,
+          BizStepsTopLevelApi.class,
+          DispositionsTopLevelApi.class,
+          ReadPointsTopLevelApi.class,
+          BizLocationsTopLevelApi.class,
+          EPCsTopLevelApi.class);
+
+  static final List<String> VARIANT_HEADERS = List.of(
+          HttpHeaders.ACCEPT,
+          HeaderConstants.GS1_EPCIS_MIN,
+          HeaderConstants.GS1_EPCIS_MAX,
+          HeaderConstants.GS1_CBV_MIN,
+          HeaderConstants.GS1_CBV_MAX,
+          HeaderConstants.GS1_CBV_XML_FORMAT,
+          HeaderConstants.GS1_EPC_FORMAT);
+
+  private static final String IF_NONE_MATCH = "If-None-Match";
+  private static final String ETAG = "ETag";
+  private static final String VARY = "Vary";
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  EventSearch eventSearch;
+
+  @Inject
+  VocabularyIndex vocabularyIndex;
+
+  @Inject
+  VocabularyConfig vocabularyConfig;
+
+  @Inject
+  ConditionalGetConfig config;
+
+  @Inject
+  QueryScopes queryScopes;
+
+  // runs before TopLevelVocabularyFilter, so listings served from the vocabulary index are answered with 304 as well
+  @ServerRequestFilter(priority = Priorities.USER - 100)
+  public Uni<Response> ifNoneMatch(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo) {
+    if (!config.enabled()
+            || !HttpMethod.GET.equals(requestContext.getMethod())
+            || resourceInfo.getResourceClass() == null
+            || resourceInfo.getResourceMethod() == null) {
+      return Uni.createFrom().nullItem();
+    }
+    final String method = resourceInfo.getResourceMethod().getName();
+    final MultivaluedMap<String, String> pathParameters = requestContext.getUriInfo().getPathParameters();
+    final EventAccess access = queryScopes.access(securityIdentity);
+    final String vocabularyGroup = access.admin() ? VocabularyIndex.ALL_GROUPS : access.group();
+    // listings of callers who see only some events of their group are not served from the vocabulary index
+    final boolean fromIndex = vocabularyConfig.serve() && access.groupWide();
+    final Uni<Optional<String>> version;
+    final String cacheControl;
+    if (EventsApi.class.isAssignableFrom(resourceInfo.getResourceClass()) && GET_EVENT_BY_ID.equals(method)) {
+      if (requestContext.getHeaderString(IF_NONE_MATCH) == null) {
+        // nothing to compare, the tag is derived from the event the resource answers with
+        requestContext.setProperty(EVENT, access);
+        requestContext.setProperty(CACHE_CONTROL, config.eventCacheControl());
+        return Uni.createFrom().nullItem();
+      }
+      version = eventVersion(pathParameters.getFirst(EVENT_ID), access);
+      cacheControl = config.eventCacheControl();
+    } else if (fromIndex && TopLevelVocabularyFilter.listing(requestContext, resourceInfo).isPresent()) {
+      version = vocabularyIndex.version(
+              TopLevelVocabularyFilter.listing(requestContext, resourceInfo).get(), vocabularyGroup, null);
+      cacheControl = config.vocabularyCacheControl();
+    } else if (fromIndex && SUB_RESOURCES.containsKey(method) && pathParameters.size() == 1
+            && TOP_LEVEL_RESOURCES.stream().anyMatch(api -> api.isAssignableFrom(resourceInfo.getResourceClass()))) {
+      version = vocabularyIndex.version(
+              SUB_RESOURCES.get(method), vocabularyGroup, pathParameters.values().iterator().next().get(0));
+      cacheControl = config.vocabularyCacheControl();
+    } else {
+      return Uni.createFrom().nullItem();
+    }
+    return version
+            .map(found -> {
+              if (found.isEmpty()) {
+                // unknown or invisible to the caller, the resource decides how to answer
+                return null;
+              }
+              final String entityTag = entityTag(requestContext, access, found.get());
+              requestContext.setProperty(ENTITY_TAG, entityTag);
+              requestContext.setProperty(CACHE_CONTROL, cacheControl);
+              if (!EntityTags.matches(requestContext.getHeaderString(IF_NONE_MATCH), entityTag)) {
+                return null;
+              }
+              return Response.notModified()
+                      .header(ETAG, entityTag)
+                      .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                      .header(VARY, String.join(", ", VARIANT_HEADERS))
+                      .build();
+            })
+            .onFailure().recoverWithItem(failure -> {
+              log.warn("unable to look up the entity tag of {}: {}", requestContext.getUriInfo().getPath(), failure.getMessage());
+              return null;
+            });
+  }
+
+  @ServerResponseFilter
+  public void entityTag(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    if (responseContext.getStatus() != Response.Status.OK.getStatusCode()) {
+      return;
+    }
+    Object entityTag = requestContext.getProperty(ENTITY_TAG);
+    if (entityTag == null && requestContext.getProperty(EVENT) instanceof EventAccess access) {
+      final String eventID = requestContext.getUriInfo().getPathParameters().getFirst(EVENT_ID);
+      entityTag = answeredVersion(eventID, responseContext.getEntity())
+              .map(version -> entityTag(requestContext, access, version))
+              .orElse(null);
+    }
+    if (entityTag == null) {
+      return;
+    }
+    responseContext.getHeaders().putSingle(ETAG, entityTag);
+    responseContext.getHeaders().putSingle(HttpHeaders.CACHE_CONTROL, requestContext.getProperty(CACHE_CONTROL));
+    responseContext.getHeaders().putSingle(VARY, String.join(", ", VARIANT_HEADERS));
+  }
+
+  /**
+   * @return the id and error declaration time of the event, empty if it does not exist or the caller may not see it
+   */
+  private Uni<Optional<String>> eventVersion(final String eventID, final EventAccess access) {
+    if (eventID == null) {
+      return Uni.createFrom().item(Optional.empty());
+    }
+    return eventSearch
+            .findByEventIds(List.of(eventID), access.filter(), EventFields.EVENT_ID, EventFields.ERROR_DECLARATION_TIME)
+            .map(sources -> sources.stream()
+                    .findFirst()
+                    .map(source -> eventID + '|' + errorDeclarationTime(source)));
+  }
+
+  /**
+   * @return the version {@link #eventVersion(String, EventAccess)} reads of the event answered with
+   * {@code entity}, empty if the representation is not recognized
+   */
+  static Optional<String> answeredVersion(final String eventID, final Object entity) {
+    if (eventID == null || entity == null) {
+      return Optional.empty();
+    }
+    if (entity instanceof ObjectNode event) {
+      return Optional.of(eventID + '|' + errorDeclarationTime(event));
+    }
+    if (entity instanceof Map<?, ?> event) {
+      final Object errorDeclaration = event.get("errorDeclaration");
+      final Object declarationTime = errorDeclaration instanceof Map<?, ?> declaration
+              ? declaration.get(DECLARATION_TIME)
+              : null;
+      return Optional.of(eventID + '|' + (declarationTime != null ? declarationTime : ""));
+    }
+    final CharSequence text = entity instanceof byte[] bytes
+            ? new String(bytes, StandardCharsets.UTF_8)
+            : entity instanceof CharSequence chars ? chars : null;
+    if (text == null) {
+      return Optional.empty();
+    }
+    final Matcher matcher = DECLARATION_TIME_VALUE.matcher(text);
+    final String declarationTime = matcher.find()
+            ? Objects.requireNonNullElse(matcher.group(1), matcher.group(2)).trim()
+            : "";
+    return Optional.of(eventID + '|' + declarationTime);
+  }
+
+  private static String errorDeclarationTime(final ObjectNode source) {
+    return source.at("/" + EventFields.ERROR_DECLARATION_TIME.replace('.', '/')).asText("");
+  }
+
+  private static String entityTag(
+          final ContainerRequestContext requestContext, final EventAccess access, final String version) {
+    final List<String> parts = new ArrayList<>();
+    parts.add(version);
+    parts.add(access.scope());
+    parts.add(requestContext.getUriInfo().getRequestUri().getRawPath());
+    parts.add(requestContext.getUriInfo().getRequestUri().getRawQuery());
+    VARIANT_HEADERS.forEach(header -> parts.add(requestContext.getHeaderString(header)));
+    return EntityTags.of(parts);
+  }
+}
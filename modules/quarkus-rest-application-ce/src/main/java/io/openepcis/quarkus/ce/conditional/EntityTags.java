@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.conditional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong entity tags and their comparison with {@code If-None-Match}.
+ */
+final class EntityTags {
+
+  private static final String ANY = "*";
+  private static final String WEAK_PREFIX = "W/";
+
+  private EntityTags() {
+  }
+
+  /**
+   * @return a quoted strong entity tag identifying {@code parts}, each of which may be {@code null}
+   */
+  static String of(final List<String> parts) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      for (final String part : parts) {
+        if (part != null) {
+          digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+      }
+      return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + '"';
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return whether {@code ifNoneMatch} lists {@code entityTag}, comparing weakly as RFC 9110 requires for {@code If-None-Match}
+   */
+  static boolean matches(final String ifNoneMatch, final String entityTag) {
+    if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+      return false;
+    }
+    if (ANY.equals(ifNoneMatch.trim())) {
+      return true;
+    }
+    for (final String candidate : ifNoneMatch.split(",")) {
+      final String tag = candidate.trim();
+      if (opaque(tag).equals(opaque(entityTag))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String opaque(final String tag) {
+    return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+  }
+}
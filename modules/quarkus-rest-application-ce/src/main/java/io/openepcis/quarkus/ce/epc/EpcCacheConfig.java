@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the hot-EPC cache serving {@code GET /epcs/{epc}/events}.
+ * <pre>
+ * repository.epcis.epc-cache.enabled=true
+ * repository.epcis.epc-cache.maximum-size=10000
+ * repository.epcis.epc-cache.max-events=1000
+ * repository.epcis.epc-cache.expire-after-access=10M
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.epc-cache", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface EpcCacheConfig {
+
+  /**
+   * @return whether EPC histories are cached at all.
+   */
+  @WithDefault("true")
+  boolean enabled();
+
+  /**
+   * @return the maximum number of cached EPCs.
+   */
+  @WithDefault("10000")
+  long maximumSize();
+
+  /**
+   * @return the longest history (in events) which is cached, longer ones always go to the repository.
+   */
+  @WithDefault("1000")
+  int maxEvents();
+
+  /**
+   * @return how long an EPC nobody asks for stays cached.
+   */
+  @WithDefault("10M")
+  Duration expireAfterAccess();
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Continuation of an EPC history, signed into its {@code nextPageToken}.
+ *
+ * @param epc the EPC whose events are listed
+ * @param scope the caller's scope, see {@link io.openepcis.quarkus.ce.query.QueryScopes#scope}
+ * @param eventTime the event time of the last event of the previous page
+ * @param eventID the id of the last event of the previous page
+ */
+record EpcEventsCursor(String epc, String scope, String eventTime, String eventID) {
+
+  EpcHistory.Entry after() {
+    return new EpcHistory.Entry(eventID, EpcHistory.instant(eventTime), null, List.of());
+  }
+
+  /**
+   * Date sort values are epoch milliseconds, events without an event time sort last in the
+   * descending order with {@link Long#MIN_VALUE}.
+   *
+   * @return the {@code search_after} values continuing an event search in {@link EpcHistory#ORDER}
+   */
+  List<String> searchAfter() {
+    final Instant instant = EpcHistory.instant(eventTime);
+    return List.of(String.valueOf(instant != null ? instant.toEpochMilli() : Long.MIN_VALUE), eventID);
+  }
+
+  static EpcEventsCursor of(final String epc, final String scope, final EpcHistory.Entry last) {
+    return new EpcEventsCursor(epc, scope, last.eventTime() != null ? last.eventTime().toString() : null, last.eventID());
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The events an EPC occurs in, newest first like the default order of event queries.
+ *
+ * @param entries the events, ordered by {@link #ORDER}
+ * @param oversized whether the EPC occurs in more events than are cached, {@code entries} is empty then
+ */
+record EpcHistory(List<Entry> entries, boolean oversized) {
+
+  static final EpcHistory OVERSIZED = new EpcHistory(List.of(), true);
+
+  static final Comparator<Entry> ORDER = Comparator
+          .comparing(Entry::eventTime, Comparator.nullsLast(Comparator.reverseOrder()))
+          .thenComparing(Entry::eventID, Comparator.reverseOrder());
+
+  /**
+   * An event of the history.
+   *
+   * @param group the group the event was captured in
+   * @param rolesAllowed the roles the event is restricted to, empty if it is not
+   */
+  record Entry(String eventID, Instant eventTime, String group, List<String> rolesAllowed) {
+
+    static Entry of(final ObjectNode source) {
+      return new Entry(
+              source.path(EventFields.EVENT_ID).asText(),
+              instant(source.path(EventFields.EVENT_TIME).asText(null)),
+              source.path(EventFields.GROUP).asText(null),
+              List.copyOf(EventAccess.rolesAllowed(source)));
+    }
+  }
+
+  /**
+   * @return the history of the events found by an EPC search, {@link #OVERSIZED} if there are more than {@code maxEvents}
+   */
+  static EpcHistory of(final List<ObjectNode> sources, final int maxEvents) {
+    if (sources.size() > maxEvents) {
+      return OVERSIZED;
+    }
+    final List<Entry> entries = new ArrayList<>(sources.size());
+    sources.stream().map(Entry::of).filter(entry -> !entry.eventID().isEmpty()).forEach(entries::add);
+    entries.sort(ORDER);
+    return new EpcHistory(List.copyOf(entries), false);
+  }
+
+  /**
+   * @return this history including {@code entry}, unchanged if it is known already
+   */
+  EpcHistory with(final Entry entry, final int maxEvents) {
+    if (oversized || entries.stream().anyMatch(known -> known.eventID().equals(entry.eventID()))) {
+      return this;
+    }
+    if (entries.size() >= maxEvents) {
+      return OVERSIZED;
+    }
+    final List<Entry> appended = new ArrayList<>(entries.size() + 1);
+    appended.addAll(entries);
+    final int position = Collections.binarySearch(appended, entry, ORDER);
+    appended.add(position < 0 ? -position - 1 : position, entry);
+    return new EpcHistory(List.copyOf(appended), false);
+  }
+
+  /**
+   * @param access what the caller may see
+   * @param after the last event of the previous page, {@code null} for the first page
+   * @return up to {@code size} events visible to the caller following {@code after}
+   */
+  List<Entry> page(final EventAccess access, final Entry after, final int size) {
+    final List<Entry> page = new ArrayList<>(Math.min(size, entries.size()));
+    for (final Entry entry : entries) {
+      if (page.size() == size) {
+        break;
+      }
+      if ((after == null || ORDER.compare(entry, after) > 0) && access.admits(entry.group(), entry.rolesAllowed())) {
+        page.add(entry);
+      }
+    }
+    return page;
+  }
+
+  static Instant instant(final String value) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(value).toInstant();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriter;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.quarkus.ce.query.SourceFields;
+import io.openepcis.rest.api.common.EpcTraceApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMulti;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams the events of an EPC trace as an {@code EPCISQueryDocument}. Every level of the
+ * breadth-first traversal looks up the events of its EPCs, EPC classes and transformation ids in
+ * batches of {@code repository.epcis.trace.batch-size}; the events are written as they are read and
+ * the values they lead to make up the next level. All levels read the same point-in-time snapshot,
+ * which is opened before the response headers are written, so the request runs on a worker thread.
+ */
+@Slf4j
+public class EpcTraceResource implements EpcTraceApi {
+
+  private static final String SIMPLE_EVENT_QUERY = "SimpleEventQuery";
+  private static final String MATCH_ANY_EPC = "MATCH_anyEPC";
+  private static final String MATCH_ANY_EPC_CLASS = "MATCH_anyEPCClass";
+  private static final String EQ_TRANSFORMATION_ID = "EQ_transformationID";
+  private static final Duration SETUP_TIMEOUT = Duration.ofSeconds(30);
+
+  private final EventQueryTranslator translator;
+  private final EventSearch eventSearch;
+  private final QueryDocumentWriters writers;
+  private final QueryScopes queryScopes;
+  private final TraceConfig config;
+  private final int batchSize;
+
+  public EpcTraceResource(
+          final EventQueryTranslator translator,
+          final EventSearch eventSearch,
+          final QueryDocumentWriters writers,
+          final QueryScopes queryScopes,
+          final TraceConfig config,
+          @ConfigProperty(name = "repository.epcis.stream.batch-size", defaultValue = "500") final int batchSize) {
+    this.translator = translator;
+    this.eventSearch = eventSearch;
+    this.writers = writers;
+    this.queryScopes = queryScopes;
+    this.config = config;
+    this.batchSize = batchSize;
+  }
+
+  @Override
+  @Blocking
+  public Multi<byte[]> epcTrace(
+          final SecurityIdentity securityIdentity,
+          final String epc,
+          final Integer depth,
+          final String direction,
+          final HttpHeaders headers) {
+    final int maxDepth = depth(depth);
+    final EpcTraversal traversal = new EpcTraversal(TraceDirection.of(direction), config.maxEpcs());
+    final QueryDocumentWriter writer = writers.forRequest(headers, SIMPLE_EVENT_QUERY);
+    final String pit = eventSearch.openPointInTime().await().atMost(SETUP_TIMEOUT);
+    final Multi<byte[]> events = level(securityIdentity, traversal, pit, traversal.visit(List.of(epc)), 0, maxDepth)
+            .select().where(page -> !page.isEmpty())
+            .map(writer::events);
+    final Multi<byte[]> document = Multi.createBy().concatenating().streams(
+                    Multi.createFrom().item(writer::header),
+                    events,
+                    Multi.createFrom().item(writer::footer))
+            .onTermination().call((failure, cancelled) ->
+                    eventSearch.closePointInTime(pit).onFailure().recoverWithNull());
+    return RestMulti.fromMultiData(document)
+            .status(Response.Status.OK.getStatusCode())
+            .header(HeaderConstants.CONTENT_TYPE, writer.mediaType().toString())
+            .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0")
+            .encodeAsJsonArray(false)
+            .build();
+  }
+
+  /**
+   * @return the not yet returned events of the {@code frontier} EPCs, followed by those of the levels below
+   */
+  private Multi<List<ObjectNode>> level(
+          final SecurityIdentity securityIdentity,
+          final EpcTraversal traversal,
+          final String pit,
+          final Set<String> frontier,
+          final int level,
+          final int maxDepth) {
+    final Set<String> reached = new LinkedHashSet<>();
+    final Multi<List<ObjectNode>> events = Multi.createFrom().iterable(batches(frontier))
+            .onItem().transformToMultiAndConcatenate(batch -> eventSearch.pages(
+                    query(securityIdentity, batch), pit, List.of(), batchSize, Long.MAX_VALUE, SourceFields.ALL))
+            .map(hits -> {
+              final List<ObjectNode> sources = hits.stream().map(Hit::source).toList();
+              if (level < maxDepth) {
+                reached.addAll(traversal.reached(sources, frontier));
+              }
+              return traversal.unseen(sources);
+            });
+    return Multi.createBy().concatenating().streams(events, Multi.createFrom().deferred(() -> {
+      final boolean exhausted = traversal.exhausted();
+      final Set<String> next = traversal.visit(reached);
+      if (!exhausted && traversal.exhausted()) {
+        log.info("trace stopped expanding at level {} after {} EPCs", level + 1, config.maxEpcs());
+      }
+      return next.isEmpty()
+              ? Multi.createFrom().empty()
+              : level(securityIdentity, traversal, pit, next, level + 1, maxDepth);
+    }));
+  }
+
+  /**
+   * A level holds EPCs, EPC classes and transformation ids alike, each matches the events it occurs in.
+   */
+  private EventQuery query(final SecurityIdentity securityIdentity, final List<String> batch) {
+    final EventQuery epcs = translator.translate(Map.of(MATCH_ANY_EPC, batch));
+    final Query any = Query.of(q -> q.bool(b -> b
+            .should(epcs.query())
+            .should(translator.translate(Map.of(MATCH_ANY_EPC_CLASS, batch)).query())
+            .should(translator.translate(Map.of(EQ_TRANSFORMATION_ID, batch)).query())
+            .minimumShouldMatch("1")));
+    return queryScopes.scoped(securityIdentity, new EventQuery(any, epcs.orderBy(), epcs.orderDirection(), null, null));
+  }
+
+  private List<List<String>> batches(final Set<String> epcs) {
+    final List<List<String>> batches = new ArrayList<>();
+    List<String> batch = new ArrayList<>(Math.min(epcs.size(), config.batchSize()));
+    for (final String epc : epcs) {
+      if (batch.size() == config.batchSize()) {
+        batches.add(batch);
+        batch = new ArrayList<>(config.batchSize());
+      }
+      batch.add(epc);
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private int depth(final Integer depth) {
+    if (depth == null) {
+      return config.defaultDepth();
+    }
+    if (depth < 0 || depth > config.maxDepth()) {
+      throw EventQueryTranslator.invalid(
+              String.format("depth must be between 0 and %d, got '%d'", config.maxDepth(), depth));
+    }
+    return depth;
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventFields;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * State of one breadth-first EPC trace: the EPCs, EPC classes and transformation ids visited and the
+ * events returned so far. A trace reads its levels one after another, so the state is not shared
+ * between threads.
+ */
+final class EpcTraversal {
+
+  private final TraceDirection direction;
+  private final int maxEpcs;
+  private final Set<String> visited = new HashSet<>();
+  private final Set<String> returned = new HashSet<>();
+
+  EpcTraversal(final TraceDirection direction, final int maxEpcs) {
+    this.direction = direction;
+    this.maxEpcs = maxEpcs;
+  }
+
+  /**
+   * @return the EPCs of the next level: those of {@code reached} not visited yet, up to {@code maxEpcs} in total
+   */
+  Set<String> visit(final Collection<String> reached) {
+    final Set<String> level = new LinkedHashSet<>();
+    for (final String epc : reached) {
+      if (visited.size() >= maxEpcs) {
+        break;
+      }
+      if (visited.add(epc)) {
+        level.add(epc);
+      }
+    }
+    return level;
+  }
+
+  /**
+   * @return the EPCs {@code events} relate the {@code frontier} EPCs to
+   */
+  Set<String> reached(final List<ObjectNode> events, final Collection<String> frontier) {
+    final Set<String> reached = new LinkedHashSet<>();
+    events.forEach(event -> reached.addAll(direction.reached(event, frontier)));
+    return reached;
+  }
+
+  /**
+   * @return the events not returned on an earlier level or page
+   */
+  List<ObjectNode> unseen(final List<ObjectNode> events) {
+    return events.stream().filter(event -> returned.add(event.path(EventFields.EVENT_ID).asText())).toList();
+  }
+
+  boolean exhausted() {
+    return visited.size() >= maxEpcs;
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.vocabulary.VocabularyType;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Caches the ordered event ids of frequently requested EPCs, so {@code GET /epcs/{epc}/events} for a
+ * hot EPC fetches its events by id instead of searching for them.
+ * <p>
+ * A history is loaded with one EPC search on the first request and kept current by appending the
+ * events announced on {@code event-saved}. Caffeine evicts with W-TinyLFU, so a burst of one-off
+ * lookups does not displace the EPCs asked for over and over. EPCs with more than
+ * {@code repository.epcis.epc-cache.max-events} events are remembered as oversized and left to the
+ * repository. Loads racing with a save of one of their events are not cached.
+ */
+@Slf4j
+@ApplicationScoped
+public class HotEpcCache {
+
+  static final String METRIC_REQUESTS = "epcis.epc.cache.requests";
+  static final String METRIC_APPENDS = "epcis.epc.cache.appends";
+  static final String METRIC_SIZE = "epcis.epc.cache.size";
+  static final String METRIC_HIT_RATIO = "epcis.epc.cache.hit.ratio";
+
+  static final String[] HISTORY_FIELDS = {
+          EventFields.EVENT_ID, EventFields.EVENT_TIME, EventFields.GROUP, EventFields.ROLES_ALLOWED};
+  static final String[] SAVED_EVENT_FIELDS = Stream.concat(Stream.of(HISTORY_FIELDS), VocabularyType.EPC.fields().stream())
+          .toArray(String[]::new);
+
+  static final String MATCH_ANY_EPC = "MATCH_anyEPC";
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+
+  /**
+   * A history being read from the repository, cached unless one of the EPC's events is saved meanwhile.
+   */
+  private static final class Loading {
+    private final String epc;
+    private final AtomicBoolean invalidated = new AtomicBoolean();
+
+    private Loading(final String epc) {
+      this.epc = epc;
+    }
+  }
+
+  private final EpcCacheConfig config;
+  private final EventSearch eventSearch;
+  private final EventQueryTranslator translator;
+  private final Cache<String, EpcHistory> cache;
+  private final Map<Loading, Boolean> loading = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter appends;
+
+  public HotEpcCache(
+          final EpcCacheConfig config,
+          final EventSearch eventSearch,
+          final EventQueryTranslator translator,
+          final MeterRegistry registry) {
+    this.config = config;
+    this.eventSearch = eventSearch;
+    this.translator = translator;
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(config.maximumSize())
+            .expireAfterAccess(config.expireAfterAccess())
+            .recordStats()
+            .build();
+    this.hits = requests(registry, "hit");
+    this.misses = requests(registry, "miss");
+    this.appends = Counter.builder(METRIC_APPENDS)
+            .description("Saved events appended to cached EPC histories")
+            .register(registry);
+    Gauge.builder(METRIC_SIZE, cache, c -> c.estimatedSize())
+            .description("Number of cached EPC histories")
+            .register(registry);
+    Gauge.builder(METRIC_HIT_RATIO, cache, c -> c.stats().hitRate())
+            .description("Share of EPC history lookups answered from the cache")
+            .register(registry);
+  }
+
+  boolean enabled() {
+    return config.enabled();
+  }
+
+  /**
+   * @return the history of {@code epc}, empty if it occurs in more events than are cached
+   */
+  Uni<Optional<EpcHistory>> history(final String epc) {
+    final EpcHistory cached = cache.getIfPresent(epc);
+    if (cached != null) {
+      hits.increment();
+      return Uni.createFrom().item(cached.oversized() ? Optional.empty() : Optional.of(cached));
+    }
+    misses.increment();
+    final Loading started = new Loading(epc);
+    loading.put(started, Boolean.TRUE);
+    final EventQuery query = translator.translate(Map.of(MATCH_ANY_EPC, List.of(epc)));
+    return eventSearch.first(query, config.maxEvents() + 1, HISTORY_FIELDS)
+            .map(sources -> {
+              final EpcHistory history = EpcHistory.of(sources, config.maxEvents());
+              if (loading.remove(started) != null && !started.invalidated.get()) {
+                cache.put(epc, history);
+              }
+              return history.oversized() ? Optional.<EpcHistory>empty() : Optional.of(history);
+            })
+            .onFailure().invoke(() -> loading.remove(started));
+  }
+
+  @Incoming("epc-cache-in")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    if (cache.estimatedSize() == 0 && loading.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final Set<String> eventIDs = StreamSupport.stream(records.spliterator(), false)
+            .map(ConsumerRecord::value)
+            .filter(Objects::nonNull)
+            .map(EventSavedMessage::getEventID)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (eventIDs.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    return eventSearch.findByEventIds(eventIDs, SAVED_EVENT_FIELDS)
+            .chain(found -> found.size() >= eventIDs.size()
+                    ? Uni.createFrom().item(found)
+                    : Uni.createFrom().voidItem().onItem().delayIt().by(REFRESH_DELAY)
+                            .chain(() -> eventSearch.findByEventIds(eventIDs, SAVED_EVENT_FIELDS)))
+            .invoke(found -> {
+              found.forEach(this::append);
+              if (found.size() < eventIDs.size()) {
+                // the EPCs of the missing events are unknown, so no cached history can be trusted
+                log.warn("{} of {} saved events not found, dropping all cached EPC histories",
+                        eventIDs.size() - found.size(), eventIDs.size());
+                invalidateAll();
+              }
+            })
+            .onFailure().invoke(failure -> {
+              log.warn("unable to look up {} saved events, dropping all cached EPC histories: {}",
+                      eventIDs.size(), failure.getMessage());
+              invalidateAll();
+            })
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+  }
+
+  void append(final ObjectNode event) {
+    final EpcHistory.Entry entry = EpcHistory.Entry.of(event);
+    for (final String epc : VocabularyType.EPC.values(event)) {
+      loading.keySet().forEach(started -> {
+        if (started.epc.equals(epc)) {
+          started.invalidated.set(true);
+        }
+      });
+      cache.asMap().computeIfPresent(epc, (key, history) -> {
+        appends.increment();
+        return history.with(entry, config.maxEvents());
+      });
+    }
+  }
+
+  private void invalidateAll() {
+    cache.invalidateAll();
+    loading.keySet().forEach(started -> started.invalidated.set(true));
+  }
+
+  private static Counter requests(final MeterRegistry registry, final String result) {
+    return Counter.builder(METRIC_REQUESTS)
+            .description("EPC history cache lookups")
+            .tag("result", result)
+            .register(registry);
+  }
+}
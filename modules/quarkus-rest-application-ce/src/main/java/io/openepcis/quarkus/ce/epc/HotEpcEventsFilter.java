@@ -0,0 +1,232 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.PageTokens;
+import io.openepcis.quarkus.ce.query.EpcFormats;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriter;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.rest.api.common.EPCsTopLevelApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.openepcis.rest.api.common.constants.ParameterConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Answers {@code GET /epcs/{epc}/events} from the {@link HotEpcCache} before the resource runs: the
+ * page is cut from the cached history and its events are fetched by id. EPCs with more events than
+ * are cached are read from the index in the same order, newest first with the event id as
+ * tiebreaker, so every page of a pagination started here is answered here in one order, whether or
+ * not the history is cached meanwhile. EPC patterns, requests with further query parameters and
+ * tokens issued by the resource are left to the resource.
+ * <p>
+ * Events are written as stored, with their extension namespaces in the document context. Pages the
+ * resource would render differently are left to it as well: pages with an EPC not in the
+ * representation requested by {@code GS1-EPC-Format}, and pages whose namespaces can't be declared
+ * in one document.
+ */
+public class HotEpcEventsFilter {
+
+  static final String GET_EVENTS_FROM_EPCS = "getEventsFromEPCS";
+  static final String EPC = "epc";
+
+  private static final String SIMPLE_EVENT_QUERY = "SimpleEventQuery";
+  private static final Set<String> PARAMETERS = Set.of(EventQueryTranslator.PER_PAGE, EventQueryTranslator.NEXT_PAGE_TOKEN);
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  HotEpcCache hotEpcCache;
+
+  @Inject
+  EventSearch eventSearch;
+
+  @Inject
+  EventQueryTranslator translator;
+
+  @Inject
+  QueryDocumentWriters writers;
+
+  @Inject
+  QueryScopes queryScopes;
+
+  @Inject
+  PageTokens pageTokens;
+
+  @ConfigProperty(name = "repository.epcis.per-page-max")
+  int perPageMax;
+
+  @ServerRequestFilter
+  public Uni<Response> events(
+          final ContainerRequestContext requestContext, final ResourceInfo resourceInfo, final HttpHeaders headers) {
+    if (!hotEpcCache.enabled() || !matches(requestContext, resourceInfo)) {
+      return Uni.createFrom().nullItem();
+    }
+    final String epc = requestContext.getUriInfo().getPathParameters().getFirst(EPC);
+    final MultivaluedMap<String, String> parameters = requestContext.getUriInfo().getQueryParameters();
+    if (epc == null || epc.contains("*") || !PARAMETERS.containsAll(parameters.keySet())) {
+      return Uni.createFrom().nullItem();
+    }
+    final String nextPageToken = parameters.getFirst(EventQueryTranslator.NEXT_PAGE_TOKEN);
+    final Optional<EpcEventsCursor> cursor = nextPageToken != null ? cursor(nextPageToken) : Optional.empty();
+    if (nextPageToken != null && cursor.isEmpty()) {
+      return Uni.createFrom().nullItem();
+    }
+    final EventAccess access = queryScopes.access(securityIdentity);
+    final String scope = access.scope();
+    if (cursor.isPresent() && (!epc.equals(cursor.get().epc()) || !scope.equals(cursor.get().scope()))) {
+      throw PageTokens.invalid();
+    }
+    final int size = size(parameters.getFirst(EventQueryTranslator.PER_PAGE));
+    final QueryDocumentWriter writer = writers.forRequest(headers, SIMPLE_EVENT_QUERY);
+    final String epcFormat = headers.getHeaderString(HeaderConstants.GS1_EPC_FORMAT);
+    final EpcHistory.Entry after = cursor.map(EpcEventsCursor::after).orElse(null);
+    return hotEpcCache.history(epc)
+            .chain(history -> history.isPresent()
+                    ? hydrate(history.get().page(access, after, size + 1), size)
+                    : search(epc, access, cursor, size))
+            .map(page -> {
+              if (!page.events().stream().allMatch(event -> EpcFormats.asStored(epcFormat, event))) {
+                return null;
+              }
+              final byte[] document;
+              try {
+                document = document(writer, page.events());
+              } catch (IllegalStateException e) {
+                return null;
+              }
+              final Response.ResponseBuilder response = Response.ok(document, writer.mediaType())
+                      .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0");
+              if (page.last() != null) {
+                final String token = pageTokens.sign(EpcEventsCursor.of(epc, scope, page.last()));
+                response.link(requestContext.getUriInfo().getRequestUriBuilder()
+                        .replaceQueryParam(EventQueryTranslator.NEXT_PAGE_TOKEN, token).build(), "next");
+              }
+              return response.build();
+            });
+  }
+
+  static boolean matches(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo) {
+    return HttpMethod.GET.equals(requestContext.getMethod())
+            && resourceInfo.getResourceClass() != null
+            && resourceInfo.getResourceMethod() != null
+            && EPCsTopLevelApi.class.isAssignableFrom(resourceInfo.getResourceClass())
+            && GET_EVENTS_FROM_EPCS.equals(resourceInfo.getResourceMethod().getName());
+  }
+
+  /**
+   * A page of the EPC's events.
+   *
+   * @param last the event the next page continues after, {@code null} on the last page
+   */
+  private record Page(List<ObjectNode> events, EpcHistory.Entry last) {}
+
+  /**
+   * One extra entry tells whether there is a next page without a trailing empty one.
+   *
+   * @param entries up to {@code size + 1} entries of the cached history
+   * @return the events of the first {@code size} entries in page order, skipping events deleted since they were cached
+   */
+  private Uni<Page> hydrate(final List<EpcHistory.Entry> entries, final int size) {
+    final List<EpcHistory.Entry> page = entries.size() > size ? entries.subList(0, size) : entries;
+    final EpcHistory.Entry last = entries.size() > size ? page.get(page.size() - 1) : null;
+    if (page.isEmpty()) {
+      return Uni.createFrom().item(new Page(List.of(), null));
+    }
+    return eventSearch.findByEventIds(page.stream().map(EpcHistory.Entry::eventID).toList()).map(sources -> {
+      final Map<String, ObjectNode> byId = sources.stream().collect(Collectors.toMap(
+              source -> source.path(EventFields.EVENT_ID).asText(), Function.identity(), (first, second) -> first));
+      return new Page(page.stream().map(entry -> byId.get(entry.eventID())).filter(source -> source != null).toList(), last);
+    });
+  }
+
+  /**
+   * Reads a page of an EPC whose history is not cached from the index, in the order of the cached
+   * histories so a pagination carries on when the history outgrows the cache or comes back into it.
+   */
+  private Uni<Page> search(
+          final String epc, final EventAccess access, final Optional<EpcEventsCursor> cursor, final int size) {
+    final EventQuery query = translator.translate(Map.of(HotEpcCache.MATCH_ANY_EPC, List.of(epc))).and(access.filter());
+    return eventSearch.after(query, cursor.map(EpcEventsCursor::searchAfter).orElse(List.of()), size + 1)
+            .map(hits -> {
+              final List<ObjectNode> events = hits.stream().limit(size).map(Hit::source).toList();
+              return new Page(events, hits.size() > size ? EpcHistory.Entry.of(events.get(events.size() - 1)) : null);
+            });
+  }
+
+  private static byte[] document(final QueryDocumentWriter writer, final List<ObjectNode> events) {
+    final ByteArrayOutputStream document = new ByteArrayOutputStream();
+    document.writeBytes(writer.header(events));
+    if (!events.isEmpty()) {
+      document.writeBytes(writer.events(events));
+    }
+    document.writeBytes(writer.footer());
+    return document.toByteArray();
+  }
+
+  /**
+   * @return the cursor of a token issued by this filter, empty for tokens issued by the resource
+   */
+  private Optional<EpcEventsCursor> cursor(final String nextPageToken) {
+    try {
+      return Optional.of(pageTokens.verify(nextPageToken, EpcEventsCursor.class));
+    } catch (WebApplicationException e) {
+      return Optional.empty();
+    }
+  }
+
+  private int size(final String perPage) {
+    if (perPage == null || perPage.isBlank()) {
+      return Integer.parseInt(ParameterConstants.DEFAULT_PER_PAGE_PARAMETER_VALUE);
+    }
+    try {
+      final int size = Integer.parseInt(perPage);
+      if (size < 1) {
+        throw new NumberFormatException();
+      }
+      return Math.min(size, perPageMax);
+    } catch (NumberFormatException e) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%s'", perPage));
+    }
+  }
+}
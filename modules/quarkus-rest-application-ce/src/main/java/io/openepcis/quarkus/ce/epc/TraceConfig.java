@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+/**
+ * Configuration of {@code GET /epcs/{epc}/trace}.
+ * <pre>
+ * repository.epcis.trace.default-depth=5
+ * repository.epcis.trace.max-depth=10
+ * repository.epcis.trace.batch-size=1000
+ * repository.epcis.trace.max-epcs=100000
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.trace", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface TraceConfig {
+
+  /**
+   * @return the number of hops followed if the request does not give a depth.
+   */
+  @WithDefault("5")
+  int defaultDepth();
+
+  /**
+   * @return the largest depth a request may ask for.
+   */
+  @WithDefault("10")
+  int maxDepth();
+
+  /**
+   * @return the number of EPCs whose events are looked up with one search.
+   */
+  @WithDefault("1000")
+  int batchSize();
+
+  /**
+   * @return the number of EPCs, EPC classes and transformation ids after which a trace stops expanding.
+   */
+  @WithDefault("100000")
+  int maxEpcs();
+}
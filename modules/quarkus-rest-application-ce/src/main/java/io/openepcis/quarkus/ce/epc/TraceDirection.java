@@ -0,0 +1,124 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The relationships followed by an EPC trace, between EPCs as well as EPC classes of quantity lists.
+ */
+enum TraceDirection {
+  /**
+   * From a parent to its children and from the inputs of a transformation to its outputs.
+   */
+  DOWN,
+  /**
+   * From children to their parent and from the outputs of a transformation to its inputs.
+   */
+  UP,
+  BOTH;
+
+  private static final String CHILD_QUANTITY_LIST = "childQuantityList";
+  private static final String INPUT_QUANTITY_LIST = "inputQuantityList";
+  private static final String OUTPUT_QUANTITY_LIST = "outputQuantityList";
+  private static final String EPC_CLASS = "epcClass";
+
+  static TraceDirection of(final String value) {
+    if (value == null || value.isBlank()) {
+      return DOWN;
+    }
+    try {
+      return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw EventQueryTranslator.invalid(String.format("direction '%s' is not supported, use down, up or both", value));
+    }
+  }
+
+  /**
+   * Quantity lists add their EPC classes like EPC lists add their EPCs. A transformation recorded in
+   * several events under one {@code transformationID} relates the inputs of all of them to the outputs
+   * of all of them: the transformation id is reached like an EPC, so the next level finds the other
+   * events of the transformation, whose inputs or outputs it reaches in turn.
+   *
+   * @return the EPCs, EPC classes and transformation ids {@code event} relates the {@code frontier} ones to
+   */
+  Set<String> reached(final ObjectNode event, final Collection<String> frontier) {
+    final Set<String> parents = values(event, EventFields.PARENT_ID, null);
+    final Set<String> children = values(event, EventFields.CHILD_EPCS, CHILD_QUANTITY_LIST);
+    final Set<String> inputs = values(event, EventFields.INPUT_EPC_LIST, INPUT_QUANTITY_LIST);
+    final Set<String> outputs = values(event, EventFields.OUTPUT_EPC_LIST, OUTPUT_QUANTITY_LIST);
+    final Set<String> transformation = values(event, EventFields.TRANSFORMATION_ID, null);
+    final boolean transformed = containsAny(transformation, frontier);
+    final Set<String> reached = new LinkedHashSet<>();
+    if (this != UP) {
+      if (containsAny(parents, frontier)) {
+        reached.addAll(children);
+      }
+      if (transformed || containsAny(inputs, frontier)) {
+        reached.addAll(outputs);
+        reached.addAll(transformation);
+      }
+    }
+    if (this != DOWN) {
+      if (containsAny(children, frontier)) {
+        reached.addAll(parents);
+      }
+      if (transformed || containsAny(outputs, frontier)) {
+        reached.addAll(inputs);
+        reached.addAll(transformation);
+      }
+    }
+    reached.removeAll(frontier);
+    return reached;
+  }
+
+  private static boolean containsAny(final Set<String> values, final Collection<String> frontier) {
+    return values.stream().anyMatch(frontier::contains);
+  }
+
+  /**
+   * @param quantityList the quantity list whose EPC classes are included, {@code null} for none
+   * @return the EPCs of {@code field}, a single value or a list, and the EPC classes of {@code quantityList}
+   */
+  private static Set<String> values(final ObjectNode event, final String field, final String quantityList) {
+    final Set<String> values = new LinkedHashSet<>();
+    final JsonNode epcs = event.path(field);
+    if (epcs.isTextual()) {
+      values.add(epcs.asText());
+    }
+    for (final JsonNode epc : epcs) {
+      if (epc.isTextual()) {
+        values.add(epc.asText());
+      }
+    }
+    if (quantityList != null) {
+      for (final JsonNode quantity : event.path(quantityList)) {
+        if (quantity.path(EPC_CLASS).isTextual()) {
+          values.add(quantity.path(EPC_CLASS).asText());
+        }
+      }
+    }
+    return values;
+  }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.util.Map;
+
+/**
+ * Position in the buckets of an aggregation, signed by {@link io.openepcis.quarkus.ce.PageTokens}.
+ *
+ * @param query fingerprint of the query, grouping and caller scope the cursor was issued for
+ * @param after the composite after-key to continue after
+ */
+public record AggregationCursor(String query, Map<String, String> after) {}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import org.opensearch.client.opensearch._types.aggregations.CalendarInterval;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * How the events of a query are grouped into buckets: by any of the dimensions in {@link #FIELDS}
+ * and optionally by {@code eventTime} interval.
+ *
+ * @param groupBy the dimensions in bucket key order, {@code eventTime} included if an interval is set
+ * @param interval calendar interval of the {@code eventTime} histogram, {@code null} for none
+ * @param timeZone time zone the {@code eventTime} intervals are aligned to
+ */
+public record AggregationGrouping(List<String> groupBy, String interval, String timeZone) {
+
+  static final String EVENT_TIME = "eventTime";
+  static final String DEFAULT_INTERVAL = "day";
+  static final String DEFAULT_TIME_ZONE = "UTC";
+
+  static final Map<String, String> FIELDS = Map.of(
+          "eventType", EventFields.TYPE,
+          "bizStep", EventFields.BIZ_STEP,
+          "disposition", EventFields.DISPOSITION,
+          "bizLocation", EventFields.BIZ_LOCATION,
+          "readPoint", EventFields.READ_POINT);
+
+  static final Map<String, CalendarInterval> INTERVALS = Map.of(
+          "minute", CalendarInterval.Minute,
+          "hour", CalendarInterval.Hour,
+          "day", CalendarInterval.Day,
+          "week", CalendarInterval.Week,
+          "month", CalendarInterval.Month,
+          "quarter", CalendarInterval.Quarter,
+          "year", CalendarInterval.Year);
+
+  /**
+   * @param groupBy dimensions, repeated or comma separated
+   * @param interval {@code eventTime} interval, implied as {@code day} if {@code eventTime} is grouped by
+   * @param timeZone time zone id, {@code UTC} if not given
+   * @throws jakarta.ws.rs.WebApplicationException with status {@code 400} for unknown dimensions, intervals or zones
+   */
+  public static AggregationGrouping of(final List<String> groupBy, final String interval, final String timeZone) {
+    final List<String> dimensions = new ArrayList<>();
+    if (groupBy != null) {
+      for (final String value : groupBy) {
+        for (final String dimension : value.split(",")) {
+          final String trimmed = dimension.trim();
+          if (trimmed.isEmpty() || dimensions.contains(trimmed)) {
+            continue;
+          }
+          if (!FIELDS.containsKey(trimmed) && !EVENT_TIME.equals(trimmed)) {
+            throw EventQueryTranslator.invalid(String.format(
+                    "groupBy '%s' is not supported, use eventType, bizStep, disposition, bizLocation, readPoint or eventTime",
+                    trimmed));
+          }
+          dimensions.add(trimmed);
+        }
+      }
+    }
+    String calendarInterval = interval != null && !interval.isBlank() ? interval.trim().toLowerCase(Locale.ROOT) : null;
+    if (calendarInterval != null && !INTERVALS.containsKey(calendarInterval)) {
+      throw EventQueryTranslator.invalid(String.format(
+              "interval '%s' is not supported, use minute, hour, day, week, month, quarter or year", interval));
+    }
+    if (calendarInterval != null && !dimensions.contains(EVENT_TIME)) {
+      dimensions.add(EVENT_TIME);
+    } else if (calendarInterval == null && dimensions.contains(EVENT_TIME)) {
+      calendarInterval = DEFAULT_INTERVAL;
+    }
+    final String zone = timeZone != null && !timeZone.isBlank() ? timeZone.trim() : DEFAULT_TIME_ZONE;
+    try {
+      ZoneId.of(zone);
+    } catch (DateTimeException e) {
+      throw EventQueryTranslator.invalid(String.format("timeZone '%s' is not a valid time zone id", timeZone));
+    }
+    return new AggregationGrouping(List.copyOf(dimensions), calendarInterval, zone);
+  }
+
+  /**
+   * @return the composite aggregation sources, one per dimension and named after it
+   */
+  public List<Map<String, CompositeAggregationSource>> sources() {
+    final List<Map<String, CompositeAggregationSource>> sources = new ArrayList<>(groupBy.size());
+    for (final String dimension : groupBy) {
+      final CompositeAggregationSource source = EVENT_TIME.equals(dimension)
+              ? CompositeAggregationSource.of(c -> c.dateHistogram(d -> d
+                      .field(EventFields.EVENT_TIME)
+                      .calendarInterval(INTERVALS.get(interval))
+                      .timeZone(timeZone)
+                      .format("strict_date_time")))
+              : CompositeAggregationSource.of(c -> c.terms(t -> t
+                      .field(FIELDS.get(dimension))
+                      .missingBucket(true)));
+      final Map<String, CompositeAggregationSource> named = new LinkedHashMap<>();
+      named.put(dimension, source);
+      sources.add(named);
+    }
+    return sources;
+  }
+
+  /**
+   * @return the grouping as part of a cursor fingerprint
+   */
+  String fingerprint() {
+    return String.join(",", groupBy) + ';' + interval + ';' + timeZone;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of buckets of a composite aggregation over events.
+ *
+ * @param totalEvents number of events matching the query, independent of the page
+ * @param afterKey key of the last bucket if more buckets follow, {@code null} otherwise
+ */
+public record AggregationPage(long totalEvents, List<Bucket> buckets, Map<String, String> afterKey) {
+
+  /**
+   * @param key the bucket value per grouping dimension, {@code null} for events without a value
+   * @param count number of events in the bucket
+   */
+  public record Bucket(Map<String, String> key, long count) {}
+}
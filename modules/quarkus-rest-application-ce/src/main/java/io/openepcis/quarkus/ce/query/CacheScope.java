@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The part of a query a cached result depends on: the event types, business steps and time ranges
+ * it is restricted to. Any other filter is ignored, which only ever invalidates too much, never too little.
+ */
+record CacheScope(
+        Set<String> eventTypes,
+        Set<String> bizSteps,
+        Instant geEventTime,
+        Instant ltEventTime,
+        Instant geRecordTime,
+        Instant ltRecordTime) {
+
+  static CacheScope of(final Map<String, List<String>> parameters) {
+    return new CacheScope(
+            Set.copyOf(EventQueryTranslator.split(parameters.get("eventType"))),
+            Set.copyOf(EventQueryTranslator.cbv("BizStep", "bizstep",
+                    EventQueryTranslator.split(parameters.get("EQ_bizStep")))),
+            instant(parameters.get("GE_eventTime")),
+            instant(parameters.get("LT_eventTime")),
+            instant(parameters.get("GE_recordTime")),
+            instant(parameters.get("LT_recordTime")));
+  }
+
+  /**
+   * @return {@code true} if the saved event may be part of the result, i.e. the result is stale
+   */
+  boolean affectedBy(final SavedEvent event) {
+    return matches(eventTypes, event.type())
+            && matches(bizSteps, event.bizStep())
+            && within(event.eventTime(), geEventTime, ltEventTime)
+            && within(event.recordTime(), geRecordTime, ltRecordTime);
+  }
+
+  private static boolean matches(final Set<String> values, final String value) {
+    return values.isEmpty() || value == null || values.contains(value);
+  }
+
+  private static boolean within(final Instant value, final Instant ge, final Instant lt) {
+    if (value == null) {
+      return true;
+    }
+    return (ge == null || !value.isBefore(ge)) && (lt == null || value.isBefore(lt));
+  }
+
+  private static Instant instant(final List<String> values) {
+    if (values == null || values.isEmpty()) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(values.get(0)).toInstant();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The EPC representations a client requests with {@code GS1-EPC-Format}. The in-tree writers render
+ * events as stored and never translate EPCs, the query resources of the dependency do. Events whose
+ * identifiers are all stored in the requested representation can be rendered as stored as well.
+ */
+public final class EpcFormats {
+
+  public static final String NO_PREFERENCE = "No_Preference";
+  public static final String NEVER_TRANSLATES = "Never_Translates";
+  public static final String ALWAYS_EPC_URN = "Always_EPC_URN";
+  public static final String ALWAYS_GS1_DIGITAL_LINK = "Always_GS1_Digital_Link";
+
+  private static final Pattern EPC_URN = Pattern.compile("^urn:epc:(id|idpat|class):.*");
+  // a GS1 Digital Link URI carries a primary key application identifier, e.g. https://id.gs1.org/01/...
+  private static final Pattern DIGITAL_LINK = Pattern.compile(
+          "^https?://[^/]+(/[^/]+)*/(00|01|253|255|401|402|414|417|8003|8004|8006|8010|8017|8018)/[^/]+.*");
+
+  private EpcFormats() {
+  }
+
+  /**
+   * @return whether events rendered as stored satisfy {@code gs1EpcFormat} whatever their EPCs look like
+   */
+  public static boolean asStored(final String gs1EpcFormat) {
+    return gs1EpcFormat == null
+            || NO_PREFERENCE.equalsIgnoreCase(gs1EpcFormat)
+            || NEVER_TRANSLATES.equalsIgnoreCase(gs1EpcFormat);
+  }
+
+  /**
+   * @return whether {@code event} rendered as stored satisfies {@code gs1EpcFormat}: none of its
+   * identifiers is in the other representation. Unknown formats are never satisfied.
+   */
+  public static boolean asStored(final String gs1EpcFormat, final ObjectNode event) {
+    if (asStored(gs1EpcFormat)) {
+      return true;
+    }
+    if (ALWAYS_EPC_URN.equalsIgnoreCase(gs1EpcFormat)) {
+      return none(event, DIGITAL_LINK);
+    }
+    if (ALWAYS_GS1_DIGITAL_LINK.equalsIgnoreCase(gs1EpcFormat)) {
+      return none(event, EPC_URN);
+    }
+    return false;
+  }
+
+  private static boolean none(final JsonNode node, final Pattern pattern) {
+    if (node.isTextual()) {
+      return !pattern.matcher(node.asText()).matches();
+    }
+    final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      if (!field.getKey().startsWith("@") && !none(field.getValue(), pattern)) {
+        return false;
+      }
+    }
+    for (final JsonNode item : node.isArray() ? node : List.<JsonNode>of()) {
+      if (!none(item, pattern)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
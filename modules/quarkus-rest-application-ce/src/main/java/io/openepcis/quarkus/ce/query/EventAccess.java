@@ -0,0 +1,135 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.RestResources;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The events a caller may see. Nobody sees events whose capture is in progress or was rolled back.
+ * Admins see all other events; everybody else the events captured for their group which list one of
+ * the caller's roles in {@code rolesAllowed} or, if they list none, if the caller holds
+ * {@code app.event.event-access-role}.
+ *
+ * @param group the caller's group, {@code null} for admins
+ * @param roles the caller's roles
+ * @param eventAccessRole the role needed to see events captured without {@code Roles-Allowed}
+ */
+public record EventAccess(String group, Set<String> roles, String eventAccessRole) {
+
+  /**
+   * Events hidden while their capture is in progress or after it was rolled back; events captured
+   * before the flag was introduced have none and are visible.
+   */
+  public static final Query VISIBLE = Query.of(q -> q.bool(b -> b
+          .mustNot(n -> n.term(t -> t.field(EventFields.VISIBLE).value(FieldValue.of(false))))));
+
+  public static final EventAccess ADMIN = new EventAccess(null, Set.of(), null);
+
+  public boolean admin() {
+    return group == null;
+  }
+
+  /**
+   * @return whether the caller sees all visible events of its group which are not restricted with
+   * {@code Roles-Allowed}, the events the vocabulary index records per group
+   */
+  public boolean groupWide() {
+    return admin() || roles.contains(eventAccessRole);
+  }
+
+  /**
+   * @return the filter restricting a search to the events the caller may see
+   */
+  public Query filter() {
+    if (admin()) {
+      return VISIBLE;
+    }
+    final List<Query> byRole = new ArrayList<>();
+    if (!roles.isEmpty()) {
+      byRole.add(Query.of(q -> q.terms(t -> t
+              .field(EventFields.ROLES_ALLOWED)
+              .terms(v -> v.value(roles.stream().sorted().map(FieldValue::of).toList())))));
+    }
+    if (roles.contains(eventAccessRole)) {
+      byRole.add(Query.of(q -> q.bool(b -> b.mustNot(n -> n.exists(e -> e.field(EventFields.ROLES_ALLOWED))))));
+    }
+    if (byRole.isEmpty()) {
+      return Query.of(q -> q.matchNone(m -> m));
+    }
+    return Query.of(q -> q.bool(b -> b
+            .filter(VISIBLE)
+            .filter(f -> f.term(t -> t.field(EventFields.GROUP).value(FieldValue.of(group))))
+            .filter(f -> f.bool(r -> r.should(byRole).minimumShouldMatch("1")))));
+  }
+
+  /**
+   * @param event an event including its {@link EventFields#ACCESS} fields
+   * @return whether the caller may see {@code event}, the in-memory twin of {@link #filter()}
+   */
+  public boolean admits(final ObjectNode event) {
+    if (!event.path(EventFields.VISIBLE).asBoolean(true)) {
+      return false;
+    }
+    return admin() || admits(event.path(EventFields.GROUP).asText(null), rolesAllowed(event));
+  }
+
+  /**
+   * @return whether the caller may see a visible event of {@code eventGroup} restricted to {@code rolesAllowed}
+   */
+  public boolean admits(final String eventGroup, final Collection<String> rolesAllowed) {
+    if (admin()) {
+      return true;
+    }
+    if (!group.equals(eventGroup)) {
+      return false;
+    }
+    return rolesAllowed.isEmpty()
+            ? roles.contains(eventAccessRole)
+            : rolesAllowed.stream().anyMatch(roles::contains);
+  }
+
+  /**
+   * @return the caller's scope as used in cursor and cache fingerprints
+   */
+  public String scope() {
+    return admin()
+            ? "role:" + RestResources.ADMIN_ROLE
+            : "group:" + group + ";roles:" + String.join(",", roles.stream().sorted().toList());
+  }
+
+  /**
+   * @return the roles an event is restricted to, empty if it is not
+   */
+  public static List<String> rolesAllowed(final JsonNode event) {
+    final JsonNode rolesAllowed = event.path(EventFields.ROLES_ALLOWED);
+    final List<String> roles = new ArrayList<>();
+    if (rolesAllowed.isArray()) {
+      rolesAllowed.forEach(role -> roles.add(role.asText()));
+    } else if (rolesAllowed.isTextual()) {
+      roles.add(rolesAllowed.asText());
+    }
+    return roles;
+  }
+}
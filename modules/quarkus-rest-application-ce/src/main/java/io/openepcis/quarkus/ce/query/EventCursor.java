@@ -0,0 +1,60 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Position within a paged event query, carried in the signed {@code nextPageToken}.
+ *
+ * @param pit the point-in-time snapshot the pages are read from
+ * @param searchAfter sort values of the last event of the previous page
+ * @param query fingerprint of the query the cursor was issued for, see {@link #fingerprint(Map, String)}
+ */
+public record EventCursor(String pit, List<String> searchAfter, String query) {
+
+  /**
+   * @return a digest of the query parameters (excluding pagination and fieldset) and the caller's scope, so a
+   * token cannot be replayed against another query or by a caller of another group
+   */
+  public static String fingerprint(final Map<String, List<String>> parameters, final String scope) {
+    final Map<String, List<String>> sorted = new TreeMap<>(parameters);
+    sorted.remove(EventQueryTranslator.PER_PAGE);
+    sorted.remove(EventQueryTranslator.NEXT_PAGE_TOKEN);
+    sorted.remove(EventQueryTranslator.FIELDS);
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(scope.getBytes(StandardCharsets.UTF_8));
+      sorted.forEach((name, values) -> {
+        digest.update((byte) 0);
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        values.stream().sorted().forEach(value -> {
+          digest.update((byte) 1);
+          digest.update(value.getBytes(StandardCharsets.UTF_8));
+        });
+      });
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
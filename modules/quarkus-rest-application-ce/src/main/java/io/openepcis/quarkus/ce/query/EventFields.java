@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+
+import java.util.List;
+
+/**
+ * Field paths of EPCIS events as stored in {@code repository.epcis.event.index}, following the
+ * EPCIS 2.0 JSON binding.
+ */
+public final class EventFields {
+
+  // index order of a document within a point-in-time, the cheapest unique tiebreaker for search_after
+  public static final String SHARD_DOC = "_shard_doc";
+  public static final String TYPE = "type";
+  public static final String EVENT_ID = "eventID";
+  public static final String EVENT_TIME = "eventTime";
+  public static final String RECORD_TIME = "recordTime";
+  public static final String ACTION = "action";
+  public static final String BIZ_STEP = "bizStep";
+  public static final String DISPOSITION = "disposition";
+  public static final String READ_POINT = "readPoint.id";
+  public static final String BIZ_LOCATION = "bizLocation.id";
+  public static final String EPC_LIST = "epcList";
+  public static final String CHILD_EPCS = "childEPCs";
+  public static final String PARENT_ID = "parentID";
+  public static final String INPUT_EPC_LIST = "inputEPCList";
+  public static final String OUTPUT_EPC_LIST = "outputEPCList";
+  public static final String QUANTITY_LIST_CLASS = "quantityList.epcClass";
+  public static final String CHILD_QUANTITY_LIST_CLASS = "childQuantityList.epcClass";
+  public static final String INPUT_QUANTITY_LIST_CLASS = "inputQuantityList.epcClass";
+  public static final String OUTPUT_QUANTITY_LIST_CLASS = "outputQuantityList.epcClass";
+  public static final String TRANSFORMATION_ID = "transformationID";
+  public static final String PERSISTENT_DISPOSITION_SET = "persistentDisposition.set";
+  public static final String PERSISTENT_DISPOSITION_UNSET = "persistentDisposition.unset";
+  public static final String ERROR_DECLARATION = "errorDeclaration";
+  public static final String ERROR_DECLARATION_TIME = "errorDeclaration.declarationTime";
+  public static final String ERROR_REASON = "errorDeclaration.reason";
+  public static final String CORRECTIVE_EVENT_IDS = "errorDeclaration.correctiveEventIDs";
+  public static final String GROUP = RestResources.DEFAULT_GROUP_ATTRIBUTE;
+  // false while the capture of the event is in progress and after it was rolled back
+  public static final String VISIBLE = "visible";
+  // roles given with Roles-Allowed on capture, callers need one of them to see the event
+  public static final String ROLES_ALLOWED = "rolesAllowed";
+
+  /**
+   * Fields controlling who may see an event, which are never returned to callers.
+   */
+  public static final List<String> ACCESS = List.of(GROUP, VISIBLE, ROLES_ALLOWED);
+
+  private EventFields() {
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import org.opensearch.client.opensearch._types.SortOptions;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.util.List;
+
+/**
+ * An EPCIS event query translated into OpenSearch terms.
+ *
+ * @param query the non-scoring filter selecting the matching events
+ * @param orderBy the event field to order by
+ * @param orderDirection the direction of {@code orderBy}
+ * @param eventCountLimit maximum number of events to return, unlimited if {@code null}
+ * @param maxEventCount maximum number of matching events before the query is rejected, unchecked if {@code null}
+ */
+public record EventQuery(
+        Query query, String orderBy, SortOrder orderDirection, Long eventCountLimit, Long maxEventCount) {
+
+  /**
+   * @return the sort of a search on a point-in-time, with {@code _shard_doc} as tiebreaker so
+   * {@code search_after} is stable
+   */
+  public List<SortOptions> sort() {
+    return sort(EventFields.SHARD_DOC);
+  }
+
+  /**
+   * @return the sort of a search on the live index, where {@code _shard_doc} is not available, with
+   * the event id as tiebreaker
+   */
+  public List<SortOptions> liveSort() {
+    return sort(EventFields.EVENT_ID);
+  }
+
+  /**
+   * @return this query additionally restricted by {@code filter}
+   */
+  public EventQuery and(final Query filter) {
+    return new EventQuery(
+            Query.of(q -> q.bool(b -> b.filter(query, filter))), orderBy, orderDirection, eventCountLimit, maxEventCount);
+  }
+
+  private List<SortOptions> sort(final String tiebreaker) {
+    return List.of(
+            SortOptions.of(s -> s.field(f -> f.field(orderBy).order(orderDirection))),
+            SortOptions.of(s -> s.field(f -> f.field(tiebreaker).order(orderDirection))));
+  }
+}
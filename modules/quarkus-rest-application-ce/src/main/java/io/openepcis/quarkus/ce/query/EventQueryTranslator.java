@@ -0,0 +1,289 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates EPCIS query parameters, as sent in the query string or stored with a named query,
+ * into an {@link EventQuery}.
+ * <p>
+ * Multiple values are given by repeating a parameter or separated by {@code |}. Malformed parameters
+ * are rejected with a {@code QueryParameterException}. Standard parameters which are not translated
+ * here, such as {@code WD_} hierarchy matches, {@code EQ_source_}/{@code EQ_destination_} and
+ * {@code EQ_bizTransaction_} type/value pairs, sensor, ILMD and extension parameters, raise an
+ * {@link UnsupportedQueryParameterException} so the caller can delegate the query to the repository's
+ * own query engine. No parameter is ever ignored, a query never silently returns more events than
+ * asked for.
+ */
+@ApplicationScoped
+public class EventQueryTranslator {
+
+  public static final String PER_PAGE = "perPage";
+  public static final String NEXT_PAGE_TOKEN = "nextPageToken";
+  public static final String FIELDS = "fields";
+  public static final String EXPLAIN = "explain";
+
+  private static final Set<String> CONTROL_PARAMETERS = Set.of(PER_PAGE, NEXT_PAGE_TOKEN, FIELDS, EXPLAIN);
+
+  private static final String VALUE_SEPARATOR = "\\|";
+  private static final String CBV_WEB_PREFIX = "https://ref.gs1.org/cbv/";
+  private static final String CBV_URN_PREFIX = "urn:epcglobal:cbv:";
+  private static final String EPC_PATTERN = ":idpat:";
+  private static final String EXISTS = "EXISTS_";
+
+  // standard fields whose EXISTS_ parameter is a plain exists query on the indexed field
+  private static final Map<String, String> EXISTS_FIELDS = Map.ofEntries(
+          Map.entry("action", EventFields.ACTION),
+          Map.entry("bizStep", EventFields.BIZ_STEP),
+          Map.entry("disposition", EventFields.DISPOSITION),
+          Map.entry("readPoint", EventFields.READ_POINT),
+          Map.entry("bizLocation", EventFields.BIZ_LOCATION),
+          Map.entry("epcList", EventFields.EPC_LIST),
+          Map.entry("childEPCs", EventFields.CHILD_EPCS),
+          Map.entry("parentID", EventFields.PARENT_ID),
+          Map.entry("inputEPCList", EventFields.INPUT_EPC_LIST),
+          Map.entry("outputEPCList", EventFields.OUTPUT_EPC_LIST),
+          Map.entry("transformationID", EventFields.TRANSFORMATION_ID),
+          Map.entry("errorDeclaration", EventFields.ERROR_DECLARATION));
+
+  public EventQuery translate(final Map<String, List<String>> parameters) {
+    final BoolQuery.Builder bool = new BoolQuery.Builder();
+    String orderBy = EventFields.EVENT_TIME;
+    SortOrder orderDirection = SortOrder.Desc;
+    Long eventCountLimit = null;
+    Long maxEventCount = null;
+    for (final Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+      final String name = parameter.getKey();
+      final List<String> values = split(parameter.getValue());
+      // EXISTS_ parameters are void, they take no value
+      if (CONTROL_PARAMETERS.contains(name) || values.isEmpty() && !name.startsWith(EXISTS)) {
+        continue;
+      }
+      switch (name) {
+        case "eventType" -> bool.filter(terms(EventFields.TYPE, values));
+        case "GE_eventTime" -> bool.filter(range(EventFields.EVENT_TIME, name, single(name, values), true));
+        case "LT_eventTime" -> bool.filter(range(EventFields.EVENT_TIME, name, single(name, values), false));
+        case "GE_recordTime" -> bool.filter(range(EventFields.RECORD_TIME, name, single(name, values), true));
+        case "LT_recordTime" -> bool.filter(range(EventFields.RECORD_TIME, name, single(name, values), false));
+        case "EQ_action" -> bool.filter(terms(EventFields.ACTION, values));
+        case "EQ_bizStep" -> bool.filter(terms(EventFields.BIZ_STEP, cbv("BizStep", "bizstep", values)));
+        case "EQ_disposition" -> bool.filter(terms(EventFields.DISPOSITION, cbv("Disp", "disp", values)));
+        case "EQ_readPoint" -> bool.filter(terms(EventFields.READ_POINT, values));
+        case "EQ_bizLocation" -> bool.filter(terms(EventFields.BIZ_LOCATION, values));
+        case "EQ_eventID" -> bool.filter(terms(EventFields.EVENT_ID, values));
+        case "MATCH_epc" -> bool.filter(epcs(values, EventFields.EPC_LIST, EventFields.CHILD_EPCS));
+        case "MATCH_parentID" -> bool.filter(epcs(values, EventFields.PARENT_ID));
+        case "MATCH_inputEPC" -> bool.filter(epcs(values, EventFields.INPUT_EPC_LIST));
+        case "MATCH_outputEPC" -> bool.filter(epcs(values, EventFields.OUTPUT_EPC_LIST));
+        case "MATCH_anyEPC" -> bool.filter(epcs(values, EventFields.EPC_LIST, EventFields.CHILD_EPCS,
+                EventFields.PARENT_ID, EventFields.INPUT_EPC_LIST, EventFields.OUTPUT_EPC_LIST));
+        case "MATCH_epcClass" -> bool.filter(epcs(values, EventFields.QUANTITY_LIST_CLASS,
+                EventFields.CHILD_QUANTITY_LIST_CLASS));
+        case "MATCH_inputEPCClass" -> bool.filter(epcs(values, EventFields.INPUT_QUANTITY_LIST_CLASS));
+        case "MATCH_outputEPCClass" -> bool.filter(epcs(values, EventFields.OUTPUT_QUANTITY_LIST_CLASS));
+        case "MATCH_anyEPCClass" -> bool.filter(epcs(values, EventFields.QUANTITY_LIST_CLASS,
+                EventFields.CHILD_QUANTITY_LIST_CLASS, EventFields.INPUT_QUANTITY_LIST_CLASS,
+                EventFields.OUTPUT_QUANTITY_LIST_CLASS));
+        case "EQ_transformationID" -> bool.filter(terms(EventFields.TRANSFORMATION_ID, values));
+        case "EQ_persistentDisposition_set" ->
+                bool.filter(terms(EventFields.PERSISTENT_DISPOSITION_SET, cbv("Disp", "disp", values)));
+        case "EQ_persistentDisposition_unset" ->
+                bool.filter(terms(EventFields.PERSISTENT_DISPOSITION_UNSET, cbv("Disp", "disp", values)));
+        case "EQ_errorReason" -> bool.filter(terms(EventFields.ERROR_REASON, cbv("ER", "er", values)));
+        case "EQ_correctiveEventID" -> bool.filter(terms(EventFields.CORRECTIVE_EVENT_IDS, values));
+        case "GE_errorDeclarationTime" ->
+                bool.filter(range(EventFields.ERROR_DECLARATION_TIME, name, single(name, values), true));
+        case "LT_errorDeclarationTime" ->
+                bool.filter(range(EventFields.ERROR_DECLARATION_TIME, name, single(name, values), false));
+        case "orderBy" -> orderBy = orderBy(single(name, values));
+        case "orderDirection" -> orderDirection = orderDirection(single(name, values));
+        case "eventCountLimit" -> eventCountLimit = positive(name, single(name, values));
+        case "maxEventCount" -> maxEventCount = positive(name, single(name, values));
+        default -> bool.filter(exists(name));
+      }
+    }
+    if (eventCountLimit != null && maxEventCount != null) {
+      throw invalid("eventCountLimit and maxEventCount are mutually exclusive");
+    }
+    return new EventQuery(bool.build()._toQuery(), orderBy, orderDirection, eventCountLimit, maxEventCount);
+  }
+
+  /**
+   * @return the query parameter exception reported for an untranslatable query
+   */
+  public static WebApplicationException invalid(final String detail) {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.BAD_REQUEST,
+            "epcisException:QueryParameterException",
+            "Invalid query parameter",
+            detail));
+  }
+
+  /**
+   * @return the value and its CBV web URI and URN forms, so bare names, web URIs and URNs match
+   * events stored in either form
+   */
+  public static List<String> cbv(final String vocabulary, final String urnVocabulary, final List<String> values) {
+    final String webPrefix = CBV_WEB_PREFIX + vocabulary + "-";
+    final String urnPrefix = CBV_URN_PREFIX + urnVocabulary + ":";
+    final Set<String> variants = new LinkedHashSet<>();
+    for (final String value : values) {
+      final String name;
+      if (value.startsWith(webPrefix)) {
+        name = value.substring(webPrefix.length());
+      } else if (value.startsWith(urnPrefix)) {
+        name = value.substring(urnPrefix.length());
+      } else if (!value.contains(":")) {
+        name = value;
+      } else {
+        variants.add(value);
+        continue;
+      }
+      variants.add(name);
+      variants.add(webPrefix + name);
+      variants.add(urnPrefix + name);
+    }
+    return List.copyOf(variants);
+  }
+
+  /**
+   * @return the literal prefix matched by an EPC pattern such as {@code urn:epc:idpat:sgtin:4012345.*.*},
+   * or {@code null} if {@code value} is not a pattern
+   */
+  public static String epcPatternPrefix(final String value) {
+    final int wildcard = value.indexOf('*');
+    if (wildcard == -1) {
+      return null;
+    }
+    return value.substring(0, wildcard).replace(EPC_PATTERN, ":id:");
+  }
+
+  public static List<String> split(final List<String> values) {
+    final List<String> split = new ArrayList<>();
+    if (values != null) {
+      for (final String value : values) {
+        for (final String part : value.split(VALUE_SEPARATOR)) {
+          if (!part.isBlank()) {
+            split.add(part.trim());
+          }
+        }
+      }
+    }
+    return split;
+  }
+
+  /**
+   * @return the exists query of an {@code EXISTS_} parameter on a standard field
+   * @throws UnsupportedQueryParameterException for any other parameter
+   */
+  private static Query exists(final String name) {
+    final String field = name.startsWith(EXISTS) ? EXISTS_FIELDS.get(name.substring(EXISTS.length())) : null;
+    if (field == null) {
+      throw new UnsupportedQueryParameterException(name);
+    }
+    return Query.of(q -> q.exists(e -> e.field(field)));
+  }
+
+  private static Query terms(final String field, final List<String> values) {
+    return Query.of(q -> q.terms(t -> t
+            .field(field)
+            .terms(v -> v.value(values.stream().map(FieldValue::of).toList()))));
+  }
+
+  private static Query epcs(final List<String> values, final String... fields) {
+    final BoolQuery.Builder any = new BoolQuery.Builder().minimumShouldMatch("1");
+    final List<String> exact = new ArrayList<>();
+    for (final String value : values) {
+      final String prefix = epcPatternPrefix(value);
+      if (prefix == null) {
+        exact.add(value);
+        continue;
+      }
+      for (final String field : fields) {
+        any.should(s -> s.prefix(p -> p.field(field).value(prefix)));
+      }
+    }
+    if (!exact.isEmpty()) {
+      for (final String field : fields) {
+        any.should(terms(field, exact));
+      }
+    }
+    return any.build()._toQuery();
+  }
+
+  private static Query range(final String field, final String name, final String value, final boolean inclusiveLower) {
+    try {
+      OffsetDateTime.parse(value);
+    } catch (DateTimeParseException e) {
+      throw invalid(String.format("%s must be an ISO 8601 date time with offset, got '%s'", name, value));
+    }
+    return Query.of(q -> q.range(r -> inclusiveLower
+            ? r.field(field).gte(JsonData.of(value))
+            : r.field(field).lt(JsonData.of(value))));
+  }
+
+  private static String single(final String name, final List<String> values) {
+    if (values.size() != 1) {
+      throw invalid(String.format("query parameter '%s' takes a single value", name));
+    }
+    return values.get(0);
+  }
+
+  private static String orderBy(final String value) {
+    return switch (value) {
+      case EventFields.EVENT_TIME, EventFields.RECORD_TIME -> value;
+      default -> throw invalid(String.format("orderBy '%s' is not supported, use eventTime or recordTime", value));
+    };
+  }
+
+  private static SortOrder orderDirection(final String value) {
+    return switch (value.toUpperCase(Locale.ROOT)) {
+      case "ASC" -> SortOrder.Asc;
+      case "DESC" -> SortOrder.Desc;
+      default -> throw invalid(String.format("orderDirection must be ASC or DESC, got '%s'", value));
+    };
+  }
+
+  private static Long positive(final String name, final String value) {
+    try {
+      final long parsed = Long.parseLong(value);
+      if (parsed > 0) {
+        return parsed;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw invalid(String.format("%s must be a positive integer, got '%s'", name, value));
+  }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.PageTokens;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.stream.JsonGenerator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch._types.SlicedScroll;
+import org.opensearch.client.opensearch._types.Time;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.CountRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.pit.CreatePitRequest;
+import org.opensearch.client.opensearch.core.pit.DeletePitRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reads EPCIS events from {@code repository.epcis.event.index}.
+ * <p>
+ * Paged reads run against a point-in-time (PIT) snapshot, so a cursor sees a stable result no matter
+ * how long the client takes between pages and resuming on any node costs the same as the first page.
+ * Every search extends the PIT by {@code repository.epcis.point-in-time.keep-alive}.
+ * <p>
+ * Every search is restricted to {@link EventAccess#VISIBLE} events, and the
+ * {@link EventFields#ACCESS} fields are only returned when asked for explicitly.
+ */
+@ApplicationScoped
+public class EventSearch {
+
+  // upper bound of hits per request, matches the default index.max_result_window
+  public static final int MAX_BATCH_SIZE = 10000;
+
+  private static final String GROUPS = "groups";
+  private static final String DISTINCT = "distinct";
+
+  /**
+   * A profiled search and its response, see {@link #profile}.
+   */
+  public record Profiled(SearchRequest request, SearchResponse<ObjectNode> response) {}
+
+  /**
+   * @param events the exact number of matching events
+   * @param distinct the estimated number of distinct values in them
+   */
+  public record Cardinality(long events, long distinct) {}
+
+  private final OpenSearchAsyncClient client;
+  private final String index;
+  private final String keepAlive;
+
+  public EventSearch(
+          final OpenSearchAsyncClient client,
+          @ConfigProperty(name = "repository.epcis.event.index") final String index,
+          @ConfigProperty(name = "repository.epcis.point-in-time.keep-alive", defaultValue = "5m") final String keepAlive) {
+    this.client = client;
+    this.index = index;
+    this.keepAlive = keepAlive;
+  }
+
+  public Uni<String> openPointInTime() {
+    final CreatePitRequest request = CreatePitRequest.of(c -> c
+            .targetIndexes(indexPattern())
+            .keepAlive(Time.of(t -> t.time(keepAlive))));
+    return AsyncCalls.call(() -> client.createPit(request)).map(response -> response.pitId());
+  }
+
+  public Uni<Void> closePointInTime(final String pit) {
+    final DeletePitRequest request = DeletePitRequest.of(d -> d.pitId(pit));
+    return AsyncCalls.call(() -> client.deletePit(request)).replaceWithVoid();
+  }
+
+  /**
+   * Pages through the events matching {@code query} with {@code search_after}. A page is only
+   * requested from OpenSearch once the previous one has been consumed downstream, so a slow reader
+   * throttles the search instead of buffering the result.
+   *
+   * @param pit the point-in-time to read from
+   * @param searchAfter sort values to continue after, empty to start with the first event
+   * @param limit maximum number of events over all pages
+   * @param fields the event fields to fetch
+   * @return the pages in query order, the last one possibly empty
+   */
+  public Multi<List<Hit<ObjectNode>>> pages(
+          final EventQuery query,
+          final String pit,
+          final List<String> searchAfter,
+          final int batchSize,
+          final long limit,
+          final SourceFields fields) {
+    return scan(query, pit, searchAfter, batchSize, limit, fields, null);
+  }
+
+  /**
+   * Pages through one of {@code slices} disjoint slices of the events matching {@code query}. The
+   * slices of a point-in-time partition its result, so they can be read in parallel.
+   */
+  public Multi<List<Hit<ObjectNode>>> slice(
+          final EventQuery query,
+          final String pit,
+          final int slice,
+          final int slices,
+          final int batchSize,
+          final SourceFields fields) {
+    final SlicedScroll slicedScroll = slices > 1 ? SlicedScroll.of(s -> s.id(slice).max(slices)) : null;
+    return scan(query, pit, List.of(), batchSize, Long.MAX_VALUE, fields, slicedScroll);
+  }
+
+  /**
+   * @param includes the source fields to fetch, all if none are given
+   * @return the visible events with the given {@code eventID}s, in no particular order
+   */
+  public Uni<List<ObjectNode>> findByEventIds(final Collection<String> eventIDs, final String... includes) {
+    return findByEventIds(eventIDs, null, includes);
+  }
+
+  /**
+   * @param filter additional filter the events must match, e.g. the caller's group, {@code null} for none
+   * @param includes the source fields to fetch, all if none are given
+   * @return the visible events with the given {@code eventID}s matching {@code filter}, in no particular order
+   */
+  public Uni<List<ObjectNode>> findByEventIds(final Collection<String> eventIDs, final Query filter, final String... includes) {
+    final Query byId = Query.of(q -> q.terms(t -> t
+            .field(EventFields.EVENT_ID)
+            .terms(v -> v.value(eventIDs.stream().map(FieldValue::of).toList()))));
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(indexPattern())
+            .size(Math.min(eventIDs.size(), MAX_BATCH_SIZE))
+            .query(visible(filter == null ? byId : Query.of(q -> q.bool(b -> b.filter(byId, filter)))))
+            .source(src -> src.filter(f -> includes.length == 0
+                    ? f.excludes(EventFields.ACCESS)
+                    : f.includes(List.of(includes)))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream().map(Hit::source).toList());
+  }
+
+  /**
+   * Reads the first {@code size} events of {@code query} with one search on the live index, for
+   * results small enough not to need a point-in-time.
+   *
+   * @param includes the source fields to fetch, all if none are given
+   * @return the events in query order
+   */
+  public Uni<List<ObjectNode>> first(final EventQuery query, final int size, final String... includes) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(indexPattern())
+            .size(Math.min(size, MAX_BATCH_SIZE))
+            .query(visible(query.query()))
+            .sort(query.liveSort())
+            .trackTotalHits(t -> t.enabled(false))
+            .source(src -> src.filter(f -> includes.length == 0
+                    ? f.excludes(EventFields.ACCESS)
+                    : f.includes(List.of(includes)))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream().map(Hit::source).toList());
+  }
+
+  /**
+   * Reads the {@code size} events of {@code query} following {@code searchAfter} with one search on
+   * the live index, like {@link #first}, for callers paging through a result that keeps growing.
+   *
+   * @param searchAfter sort values of the last event read before, empty to start with the first event
+   * @return the hits in query order, with their sort values
+   */
+  public Uni<List<Hit<ObjectNode>>> after(final EventQuery query, final List<String> searchAfter, final int size) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.index(indexPattern())
+              .size(Math.min(size, MAX_BATCH_SIZE))
+              .query(visible(query.query()))
+              .sort(query.liveSort())
+              .trackTotalHits(t -> t.enabled(false))
+              .source(src -> src.filter(f -> f.excludes(EventFields.ACCESS)));
+      if (!searchAfter.isEmpty()) {
+        s.searchAfter(searchAfter);
+      }
+      return s;
+    });
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> response.hits().hits());
+  }
+
+  /**
+   * Groups the events matching {@code query} into buckets with a composite aggregation. Only the
+   * aggregation is computed, no events are fetched. A grouping without dimensions only counts the
+   * events and has no buckets.
+   *
+   * @param size maximum number of buckets
+   * @param after key of the bucket to continue after, {@code null} for the first page
+   */
+  public Uni<AggregationPage> aggregate(
+          final Query query, final AggregationGrouping grouping, final int size, final Map<String, String> after) {
+    return composite(query, grouping.sources(), size, after, true);
+  }
+
+  /**
+   * Pages through the distinct values of {@code source} in the events matching {@code query} with a
+   * composite aggregation. The matching events are not counted, {@link AggregationPage#totalEvents()}
+   * is always {@code 0}.
+   *
+   * @param name name of the source, the key of the bucket values and the after-key
+   * @param size maximum number of values
+   * @param after the value to continue after, {@code null} for the first page
+   */
+  public Uni<AggregationPage> distinct(
+          final Query query, final String name, final CompositeAggregationSource source, final int size, final String after) {
+    return composite(query, List.of(Map.of(name, source)), size, after != null ? Map.of(name, after) : null, false);
+  }
+
+  private Uni<AggregationPage> composite(
+          final Query query,
+          final List<Map<String, CompositeAggregationSource>> sources,
+          final int size,
+          final Map<String, String> after,
+          final boolean trackTotalHits) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.index(indexPattern())
+              .size(0)
+              .query(visible(query))
+              .trackTotalHits(t -> t.enabled(trackTotalHits));
+      // a composite aggregation needs at least one source, without any the events are only counted
+      if (!sources.isEmpty()) {
+        s.aggregations(GROUPS, a -> a.composite(c -> {
+          c.size(size).sources(sources);
+          if (after != null && !after.isEmpty()) {
+            c.after(after);
+          }
+          return c;
+        }));
+      }
+      return s;
+    });
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> {
+      final long total = trackTotalHits && response.hits().total() != null ? response.hits().total().value() : 0;
+      if (sources.isEmpty()) {
+        return new AggregationPage(total, List.of(), null);
+      }
+      final CompositeAggregate composite = response.aggregations().get(GROUPS).composite();
+      final List<AggregationPage.Bucket> buckets = composite.buckets().array().stream()
+              .map(bucket -> new AggregationPage.Bucket(keys(bucket.key()), bucket.docCount()))
+              .toList();
+      return new AggregationPage(total, buckets,
+              buckets.size() == size && composite.afterKey() != null ? keys(composite.afterKey()) : null);
+    });
+  }
+
+  /**
+   * Counts the events matching {@code query} and estimates the number of distinct values of
+   * {@code values} in them with a (HyperLogLog++) cardinality aggregation. Counts below
+   * {@code precisionThreshold} are close to exact, memory grows with the threshold.
+   */
+  public Uni<Cardinality> cardinality(final Query query, final Script values, final int precisionThreshold) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(indexPattern())
+            .size(0)
+            .query(visible(query))
+            .trackTotalHits(t -> t.enabled(true))
+            .aggregations(DISTINCT, a -> a.cardinality(c -> c.script(values).precisionThreshold(precisionThreshold))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> new Cardinality(
+            response.hits().total() != null ? response.hits().total().value() : 0,
+            response.aggregations().get(DISTINCT).cardinality().value()));
+  }
+
+  /**
+   * Runs the first {@code size} events of {@code query} with the profile API enabled. The search is
+   * the one {@link #pages} sends, except that it reads the live index instead of a point-in-time and
+   * breaks ties on the event id.
+   */
+  public Uni<Profiled> profile(final EventQuery query, final int size, final SourceFields fields) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.index(indexPattern())
+              .size(size)
+              .query(visible(query.query()))
+              .sort(query.liveSort())
+              .trackTotalHits(t -> t.enabled(true))
+              .profile(true);
+      source(s, fields);
+      return s;
+    });
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> new Profiled(request, response));
+  }
+
+  /**
+   * @return {@code value} serialized to JSON exactly as it is exchanged with OpenSearch
+   */
+  public String toJson(final JsonpSerializable value) {
+    final JsonpMapper mapper = client._transport().jsonpMapper();
+    final StringWriter json = new StringWriter();
+    try (JsonGenerator generator = mapper.jsonProvider().createGenerator(json)) {
+      value.serialize(generator, mapper);
+    }
+    return json.toString();
+  }
+
+  public Uni<Long> count(final Query query) {
+    final CountRequest request = CountRequest.of(c -> c.index(indexPattern()).query(visible(query)));
+    return AsyncCalls.call(() -> client.count(request)).map(response -> response.count());
+  }
+
+  String indexPattern() {
+    return index + "*";
+  }
+
+  private static Query visible(final Query query) {
+    return Query.of(q -> q.bool(b -> b.filter(query, EventAccess.VISIBLE)));
+  }
+
+  private static Map<String, String> keys(final Map<String, JsonData> key) {
+    final Map<String, String> keys = new LinkedHashMap<>();
+    key.forEach((name, value) -> {
+      final Object raw = value != null ? value.to(Object.class) : null;
+      keys.put(name, raw != null ? raw.toString() : null);
+    });
+    return keys;
+  }
+
+  /**
+   * @param source the event fields to fetch, {@code null} to fetch sort values only
+   * @param slice the slice to read, {@code null} for all events
+   */
+  private Multi<List<Hit<ObjectNode>>> scan(
+          final EventQuery query,
+          final String pit,
+          final List<String> searchAfter,
+          final int batchSize,
+          final long limit,
+          final SourceFields source,
+          final SlicedScroll slice) {
+    final AtomicReference<List<String>> after = new AtomicReference<>(searchAfter);
+    final AtomicLong remaining = new AtomicLong(limit);
+    final AtomicLong requested = new AtomicLong();
+    return Multi.createBy().repeating()
+            .uni(() -> {
+              final int size = (int) Math.min(batchSize, remaining.get());
+              requested.set(size);
+              return search(query, pit, size, after.get(), source, slice)
+                      .invoke(hits -> {
+                        if (!hits.isEmpty()) {
+                          after.set(hits.get(hits.size() - 1).sort());
+                        }
+                        remaining.addAndGet(-hits.size());
+                      });
+            })
+            .whilst(hits -> hits.size() == requested.get() && remaining.get() > 0);
+  }
+
+  private Uni<List<Hit<ObjectNode>>> search(
+          final EventQuery query,
+          final String pit,
+          final int size,
+          final List<String> searchAfter,
+          final SourceFields source,
+          final SlicedScroll slice) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.pit(p -> p.id(pit).keepAlive(keepAlive))
+              .size(size)
+              .query(visible(query.query()))
+              .sort(query.sort())
+              .trackTotalHits(t -> t.enabled(false));
+      source(s, source);
+      if (!searchAfter.isEmpty()) {
+        s.searchAfter(searchAfter);
+      }
+      if (slice != null) {
+        s.slice(slice);
+      }
+      return s;
+    });
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits())
+            .onFailure(OpenSearchException.class).transform(failure ->
+                    ((OpenSearchException) failure).status() == 404 ? PageTokens.invalid() : failure);
+  }
+
+  private static void source(final SearchRequest.Builder s, final SourceFields source) {
+    if (source == null) {
+      s.source(src -> src.fetch(false));
+    } else if (source.all()) {
+      s.source(src -> src.filter(f -> f.excludes(EventFields.ACCESS)));
+    } else {
+      s.source(src -> src.filter(f -> f.includes(source.includes()).excludes(EventFields.ACCESS)));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.EventsBatchGetApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.openepcis.rest.api.common.model.EventBatchGetRequest;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMulti;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Returns the events of up to {@code repository.epcis.batch-get.max-event-ids} ids, looked up with a
+ * single terms search restricted to the caller's group. The events are written in the order of the
+ * requested ids, in chunks of {@code repository.epcis.stream.batch-size}, and the ids which were not
+ * found are listed in the {@code missingEventIDs} property of the document footer. Nothing is written
+ * before the search has answered, so a failed lookup is reported with its own status.
+ */
+public class EventsBatchGetResource implements EventsBatchGetApi {
+
+  private static final String SIMPLE_EVENT_QUERY = "SimpleEventQuery";
+
+  private final EventSearch eventSearch;
+  private final QueryDocumentWriters writers;
+  private final QueryScopes queryScopes;
+  private final int batchSize;
+  private final int maxEventIds;
+
+  public EventsBatchGetResource(
+          final EventSearch eventSearch,
+          final QueryDocumentWriters writers,
+          final QueryScopes queryScopes,
+          @ConfigProperty(name = "repository.epcis.stream.batch-size", defaultValue = "500") final int batchSize,
+          @ConfigProperty(name = "repository.epcis.batch-get.max-event-ids", defaultValue = "1000") final int maxEventIds) {
+    this.eventSearch = eventSearch;
+    this.writers = writers;
+    this.queryScopes = queryScopes;
+    this.batchSize = batchSize;
+    this.maxEventIds = Math.min(maxEventIds, EventSearch.MAX_BATCH_SIZE);
+  }
+
+  @Override
+  public Multi<byte[]> eventsBatchGet(
+          final SecurityIdentity securityIdentity,
+          final EventBatchGetRequest request,
+          final HttpHeaders headers) {
+    final Set<String> eventIDs = eventIDs(request);
+    final JsonQueryDocumentWriter writer = writers.forJson(headers, SIMPLE_EVENT_QUERY);
+    final Multi<byte[]> document = eventSearch.findByEventIds(eventIDs, queryScopes.filter(securityIdentity))
+            .onItem().transformToMulti(found -> {
+              final Map<String, ObjectNode> byId = new HashMap<>();
+              found.forEach(event -> byId.putIfAbsent(event.path(EventFields.EVENT_ID).asText(), event));
+              final List<ObjectNode> ordered = new ArrayList<>(byId.size());
+              final List<String> missing = new ArrayList<>();
+              for (final String eventID : eventIDs) {
+                final ObjectNode event = byId.get(eventID);
+                if (event == null) {
+                  missing.add(eventID);
+                } else {
+                  ordered.add(event);
+                }
+              }
+              return Multi.createBy().concatenating().streams(
+                      Multi.createFrom().item(writer::header),
+                      Multi.createFrom().iterable(batches(ordered)).map(writer::events),
+                      Multi.createFrom().item(() -> writer.footer(missing)));
+            });
+    return RestMulti.fromMultiData(document)
+            .status(Response.Status.OK.getStatusCode())
+            .header(HeaderConstants.CONTENT_TYPE, writer.mediaType().toString())
+            .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0")
+            .encodeAsJsonArray(false)
+            .build();
+  }
+
+  private Set<String> eventIDs(final EventBatchGetRequest request) {
+    final Set<String> eventIDs = new LinkedHashSet<>();
+    if (request != null && request.eventIDs() != null) {
+      request.eventIDs().stream().filter(Objects::nonNull).filter(id -> !id.isBlank()).forEach(eventIDs::add);
+    }
+    if (eventIDs.isEmpty()) {
+      throw EventQueryTranslator.invalid("eventIDs must list at least one event id");
+    }
+    if (eventIDs.size() > maxEventIds) {
+      throw new WebApplicationException(RestResources.problem(
+              Response.Status.REQUEST_ENTITY_TOO_LARGE,
+              "epcisException:QueryTooLargeException",
+              "Query result too large",
+              String.format("%d event ids requested, at most %d are allowed per request", eventIDs.size(), maxEventIds)));
+    }
+    return eventIDs;
+  }
+
+  private List<List<ObjectNode>> batches(final List<ObjectNode> events) {
+    final List<List<ObjectNode>> batches = new ArrayList<>();
+    for (int from = 0; from < events.size(); from += batchSize) {
+      batches.add(events.subList(from, Math.min(from + batchSize, events.size())));
+    }
+    return batches;
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.EventsApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+/**
+ * Answers {@code GET /events?explain=true} with the explanation of the query instead of its events,
+ * see {@link QueryExplainer}. Other callers than admins are rejected with {@code 403}.
+ */
+public class EventsExplainFilter {
+
+  static final String EVENTS_GET = "eventsGet";
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  QueryExplainer queryExplainer;
+
+  @Inject
+  QueryDocumentWriters writers;
+
+  @ServerRequestFilter
+  public Uni<Response> explain(
+          final ContainerRequestContext requestContext, final ResourceInfo resourceInfo, final HttpHeaders headers) {
+    final MultivaluedMap<String, String> query = requestContext.getUriInfo().getQueryParameters();
+    if (!HttpMethod.GET.equals(requestContext.getMethod())
+            || !Boolean.parseBoolean(query.getFirst(EventQueryTranslator.EXPLAIN))
+            || resourceInfo.getResourceClass() == null
+            || !EventsApi.class.isAssignableFrom(resourceInfo.getResourceClass())
+            || !EVENTS_GET.equals(resourceInfo.getResourceMethod().getName())) {
+      return Uni.createFrom().nullItem();
+    }
+    if (!RestResources.isAdmin(securityIdentity)) {
+      return Uni.createFrom().failure(QueryExplainResource.forbidden());
+    }
+    final QueryDocumentWriter writer = writers.forRequest(headers, EventsStreamResource.SIMPLE_EVENT_QUERY);
+    final Integer perPage = EventsStreamResource.perPage(query.getFirst(EventQueryTranslator.PER_PAGE));
+    return queryExplainer.explain(securityIdentity, null, query, perPage, SourceFields.of(query.get(EventQueryTranslator.FIELDS)), writer)
+            .map(body -> Response.ok(body, MediaType.APPLICATION_JSON_TYPE).build());
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.PageTokens;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.EventsStreamApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.RestMulti;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Streams {@code EPCISQueryDocument}s as chunked responses. Events are read from a point-in-time
+ * snapshot in batches of {@code repository.epcis.stream.batch-size}, each batch is written as one chunk.
+ * <p>
+ * The snapshot is opened and the token verified before the response headers are written, so these
+ * methods run on a worker thread; the events themselves are streamed without blocking. Where the
+ * page ends is only known once it is streamed: one event beyond it is read along, and the
+ * {@code nextPageToken} follows the events in the footer of the document, next to the
+ * {@code epcisBody} in JSON and as {@code openepcis:nextPageToken} after the {@code EPCISBody} in XML.
+ * <p>
+ * First pages of up to {@code repository.epcis.query-cache.max-events} events are served from the
+ * {@link QueryResultCache} when the same query was answered before and no matching event has been
+ * saved since.
+ * <p>
+ * Responses hold at most {@code repository.epcis.stream.per-page-max} events, also if {@code perPage}
+ * is omitted; the {@code nextPageToken} in the footer resumes the rest of the result. Pages served
+ * from the cache, whose end is known upfront, carry a {@code Link: rel="next"} header as well.
+ * <p>
+ * A {@code fields} parameter restricts the events to a sparse fieldset which is applied as source
+ * filter in OpenSearch, so omitted fields such as {@code sensorElementList} are never read.
+ * <p>
+ * Queries with parameters the {@link EventQueryTranslator} does not translate are redirected with
+ * {@code 307} to the same path without {@code /stream}, whose query engine supports all of them.
+ */
+public class EventsStreamResource implements EventsStreamApi {
+
+  static final String SIMPLE_EVENT_QUERY = "SimpleEventQuery";
+
+  private static final Duration SETUP_TIMEOUT = Duration.ofSeconds(30);
+  private static final String STREAM_PATH = "/stream";
+
+  private static final List<String> CACHE_KEY_HEADERS = List.of(
+          HeaderConstants.GS1_EPCIS_MIN,
+          HeaderConstants.GS1_EPCIS_MAX,
+          HeaderConstants.GS1_CBV_MIN,
+          HeaderConstants.GS1_CBV_MAX,
+          HeaderConstants.GS1_CBV_XML_FORMAT,
+          HeaderConstants.GS1_EPC_FORMAT);
+
+  private static final Map<String, String> TOP_LEVEL_PARAMETERS = Map.of(
+          "eventTypes", "eventType",
+          "bizSteps", "EQ_bizStep",
+          "bizLocations", "EQ_bizLocation",
+          "readPoints", "EQ_readPoint",
+          "dispositions", "EQ_disposition",
+          "epcs", "MATCH_anyEPC");
+
+  private final EventQueryTranslator translator;
+  private final EventSearch eventSearch;
+  private final NamedQueryPlans namedQueryPlans;
+  private final QueryDocumentWriters writers;
+  private final PageTokens pageTokens;
+  private final QueryResultCache queryCache;
+  private final int batchSize;
+  private final int perPageMax;
+  private final QueryScopes queryScopes;
+
+  public EventsStreamResource(
+          final EventQueryTranslator translator,
+          final EventSearch eventSearch,
+          final NamedQueryPlans namedQueryPlans,
+          final QueryDocumentWriters writers,
+          final PageTokens pageTokens,
+          final QueryResultCache queryCache,
+          @ConfigProperty(name = "repository.epcis.stream.batch-size", defaultValue = "500") final int batchSize,
+          @ConfigProperty(name = "repository.epcis.stream.per-page-max", defaultValue = "100000") final int perPageMax,
+          final QueryScopes queryScopes) {
+    this.translator = translator;
+    this.eventSearch = eventSearch;
+    this.namedQueryPlans = namedQueryPlans;
+    this.writers = writers;
+    this.pageTokens = pageTokens;
+    this.queryCache = queryCache;
+    this.batchSize = batchSize;
+    this.perPageMax = perPageMax;
+    this.queryScopes = queryScopes;
+  }
+
+  @Override
+  @Blocking
+  public Multi<byte[]> eventsStream(
+          final SecurityIdentity securityIdentity,
+          final MultivaluedMap<String, String> query,
+          final HttpHeaders headers,
+          final UriInfo uriInfo) {
+    final QueryDocumentWriter writer = writers.forRequest(headers, SIMPLE_EVENT_QUERY);
+    try {
+      return stream(securityIdentity, query, perPage(query.getFirst(EventQueryTranslator.PER_PAGE)),
+              query.getFirst(EventQueryTranslator.NEXT_PAGE_TOKEN), SourceFields.of(query.get(EventQueryTranslator.FIELDS)),
+              headers, writer, uriInfo);
+    } catch (UnsupportedQueryParameterException e) {
+      throw delegate(uriInfo, e);
+    }
+  }
+
+  @Override
+  @Blocking
+  public Multi<byte[]> queryEventsStream(
+          final SecurityIdentity securityIdentity,
+          final String queryName,
+          final Integer perPage,
+          final String nextPageToken,
+          final List<String> fields,
+          final HttpHeaders headers,
+          final UriInfo uriInfo) {
+    final QueryDocumentWriter writer = writers.forRequest(headers, queryName);
+    final SourceFields sourceFields = SourceFields.of(fields);
+    final NamedQueryPlans.Plan plan;
+    try {
+      plan = await(namedQueryPlans.plan(queryName));
+    } catch (UnsupportedQueryParameterException e) {
+      throw delegate(uriInfo, e);
+    }
+    return stream(securityIdentity, plan.parameters(), plan.query(), plan.scope(), perPage, nextPageToken, sourceFields,
+            headers, writer, uriInfo);
+  }
+
+  @Override
+  @Blocking
+  public Multi<byte[]> topLevelEventsStream(
+          final SecurityIdentity securityIdentity,
+          final String resource,
+          final String value,
+          final Integer perPage,
+          final String nextPageToken,
+          final List<String> fields,
+          final HttpHeaders headers,
+          final UriInfo uriInfo) {
+    final QueryDocumentWriter writer = writers.forRequest(headers, SIMPLE_EVENT_QUERY);
+    final Map<String, List<String>> parameters = Map.of(TOP_LEVEL_PARAMETERS.get(resource), List.of(value));
+    return stream(securityIdentity, parameters, perPage, nextPageToken, SourceFields.of(fields), headers, writer, uriInfo);
+  }
+
+  private Multi<byte[]> stream(
+          final SecurityIdentity securityIdentity,
+          final Map<String, List<String>> parameters,
+          final Integer perPage,
+          final String nextPageToken,
+          final SourceFields fields,
+          final HttpHeaders headers,
+          final QueryDocumentWriter writer,
+          final UriInfo uriInfo) {
+    return stream(securityIdentity, parameters, translator.translate(parameters), CacheScope.of(parameters),
+            perPage, nextPageToken, fields, headers, writer, uriInfo);
+  }
+
+  private Multi<byte[]> stream(
+          final SecurityIdentity securityIdentity,
+          final Map<String, List<String>> parameters,
+          final EventQuery translated,
+          final CacheScope cacheScope,
+          final Integer perPage,
+          final String nextPageToken,
+          final SourceFields fields,
+          final HttpHeaders headers,
+          final QueryDocumentWriter writer,
+          final UriInfo uriInfo) {
+    final EventQuery eventQuery = queryScopes.scoped(securityIdentity, translated);
+    final String fingerprint = EventCursor.fingerprint(parameters, queryScopes.scope(securityIdentity));
+    final long limit = limit(eventQuery, perPage);
+    final String cacheKey = perPage != null && nextPageToken == null && eventQuery.maxEventCount() == null
+            && queryCache.cacheable(limit)
+            ? cacheKey(fingerprint, fields, securityIdentity, headers, writer)
+            : null;
+    if (cacheKey != null) {
+      final Optional<QueryResultCache.CachedPage> cached = queryCache.get(cacheKey);
+      if (cached.isPresent()) {
+        final List<ObjectNode> events = cached.get().events();
+        final Multi<byte[]> document = document(writer, events.isEmpty()
+                ? Multi.createFrom().empty()
+                : Multi.createFrom().item(() -> writer.events(events)), cached.get()::nextPageToken);
+        return respond(writer, document, Optional.ofNullable(cached.get().nextPageToken()), uriInfo);
+      }
+    }
+    if (eventQuery.maxEventCount() != null) {
+      // maxEventCount rejects the query as a whole, so it has to be checked before the header is written
+      checkMaxEventCount(eventQuery);
+    }
+    final EventCursor start = nextPageToken != null
+            ? resume(nextPageToken, fingerprint)
+            : new EventCursor(await(eventSearch.openPointInTime()), List.of(), fingerprint);
+    // without perPage the result is cut off at per-page-max, it continues on a next page like any other
+    final boolean paged = perPage != null || nextPageToken != null
+            || eventQuery.eventCountLimit() == null || eventQuery.eventCountLimit() > limit;
+    // one event beyond the page tells whether a next page follows, it is read but not written
+    final PageEnd end = new PageEnd(limit);
+
+    final QueryResultCache.Pending pending = cacheKey != null ? queryCache.begin(cacheKey, cacheScope) : null;
+    final List<ObjectNode> read = new ArrayList<>();
+    final Multi<byte[]> events = eventSearch.pages(eventQuery, start.pit(), start.searchAfter(), batchSize,
+                    paged ? limit + 1 : limit, fields)
+            .map(end::cut)
+            .select().where(page -> !page.isEmpty())
+            .map(page -> {
+              final List<ObjectNode> sources = page.stream().map(Hit::source).toList();
+              if (pending != null) {
+                read.addAll(sources);
+              }
+              return writer.events(sources);
+            });
+    final Supplier<String> next = () -> end.next()
+            .map(searchAfter -> pageTokens.sign(new EventCursor(start.pit(), searchAfter, fingerprint)))
+            .orElse(null);
+    // the token is only known once the page is read, so it follows the events in the footer
+    Multi<byte[]> document = document(writer, events, next);
+    if (pending != null) {
+      document = document.onTermination().invoke((failure, cancelled) -> {
+        if (failure == null && !cancelled) {
+          queryCache.complete(pending, read, next.get());
+        } else {
+          queryCache.abandon(pending);
+        }
+      });
+    }
+    // unless a next page was handed out, nobody can resume the snapshot anymore
+    document = document.onTermination().call((failure, cancelled) -> {
+      if (failure == null && !cancelled && end.next().isPresent()) {
+        return Uni.createFrom().voidItem();
+      }
+      return eventSearch.closePointInTime(start.pit()).onFailure().recoverWithNull();
+    });
+    return respond(writer, document, Optional.empty(), uriInfo);
+  }
+
+  /**
+   * Tracks where a page of {@code limit} events ends while it is streamed.
+   */
+  private static final class PageEnd {
+
+    private final long limit;
+    private long written;
+    private List<String> last;
+    private boolean more;
+
+    PageEnd(final long limit) {
+      this.limit = limit;
+    }
+
+    /**
+     * @return the hits of {@code page} within the page, remembering whether any follow
+     */
+    synchronized List<Hit<ObjectNode>> cut(final List<Hit<ObjectNode>> page) {
+      final int room = (int) Math.max(0, Math.min(page.size(), limit - written));
+      if (room < page.size()) {
+        more = true;
+      }
+      final List<Hit<ObjectNode>> within = page.subList(0, room);
+      written += within.size();
+      if (!within.isEmpty()) {
+        last = within.get(within.size() - 1).sort();
+      }
+      return within;
+    }
+
+    /**
+     * @return the sort values the next page continues after, empty on the last page
+     */
+    synchronized Optional<List<String>> next() {
+      return more && last != null ? Optional.of(last) : Optional.empty();
+    }
+  }
+
+  private static Multi<byte[]> document(
+          final QueryDocumentWriter writer, final Multi<byte[]> events, final Supplier<String> nextPageToken) {
+    return Multi.createBy().concatenating().streams(
+            Multi.createFrom().item(writer::header),
+            events,
+            Multi.createFrom().item(() -> writer.footer(nextPageToken.get())));
+  }
+
+  private static Multi<byte[]> respond(
+          final QueryDocumentWriter writer, final Multi<byte[]> document, final Optional<String> next, final UriInfo uriInfo) {
+    final RestMulti.SyncRestMulti.Builder<byte[]> response = RestMulti.fromMultiData(document)
+            .status(Response.Status.OK.getStatusCode())
+            .header(HeaderConstants.CONTENT_TYPE, writer.mediaType().toString())
+            .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0")
+            .encodeAsJsonArray(false);
+    next.ifPresent(token -> response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"",
+            uriInfo.getRequestUriBuilder().replaceQueryParam(EventQueryTranslator.NEXT_PAGE_TOKEN, token).build())));
+    return response.build();
+  }
+
+  /**
+   * @return the normalized query: parameters and caller scope (see {@link EventCursor#fingerprint}),
+   * fieldset, representation, the GS1 headers shaping the result and the caller's roles
+   */
+  static String cacheKey(
+          final String fingerprint,
+          final SourceFields fields,
+          final SecurityIdentity securityIdentity,
+          final HttpHeaders headers,
+          final QueryDocumentWriter writer) {
+    final StringBuilder key = new StringBuilder(fingerprint)
+            .append(';').append(fields)
+            .append(';').append(writer.mediaType());
+    for (final String header : CACHE_KEY_HEADERS) {
+      key.append(';').append(Objects.requireNonNullElse(headers.getHeaderString(header), ""));
+    }
+    final Set<String> roles = securityIdentity != null ? new TreeSet<>(securityIdentity.getRoles()) : Set.of();
+    return key.append(';').append(String.join(",", roles)).toString();
+  }
+
+  private EventCursor resume(final String nextPageToken, final String fingerprint) {
+    final EventCursor cursor = pageTokens.verify(nextPageToken, EventCursor.class);
+    if (!fingerprint.equals(cursor.query())) {
+      throw PageTokens.invalid();
+    }
+    return cursor;
+  }
+
+  private void checkMaxEventCount(final EventQuery eventQuery) {
+    final long count = await(eventSearch.count(eventQuery.query()));
+    if (count > eventQuery.maxEventCount()) {
+      throw new WebApplicationException(RestResources.problem(
+              Response.Status.REQUEST_ENTITY_TOO_LARGE,
+              "epcisException:QueryTooLargeException",
+              "Query result too large",
+              String.format("query matches %d events, more than maxEventCount %d", count, eventQuery.maxEventCount())));
+    }
+  }
+
+  private long limit(final EventQuery eventQuery, final Integer perPage) {
+    if (perPage != null && perPage < 1) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%d'", perPage));
+    }
+    final long limit = perPage != null ? Math.min(perPage, perPageMax) : perPageMax;
+    return eventQuery.eventCountLimit() != null ? Math.min(limit, eventQuery.eventCountLimit()) : limit;
+  }
+
+  static Integer perPage(final String perPage) {
+    if (perPage == null || perPage.isBlank()) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(perPage);
+    } catch (NumberFormatException e) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%s'", perPage));
+    }
+  }
+
+  /**
+   * @return a temporary redirect to the non-streaming variant of the requested resource, or {@code e}
+   * if there is none
+   */
+  private static WebApplicationException delegate(final UriInfo uriInfo, final UnsupportedQueryParameterException e) {
+    final String path = uriInfo.getRequestUri().getPath();
+    if (!path.endsWith(STREAM_PATH)) {
+      return e;
+    }
+    final String delegate = path.substring(0, path.length() - STREAM_PATH.length());
+    return new WebApplicationException(
+            Response.temporaryRedirect(uriInfo.getRequestUriBuilder().replacePath(delegate).build()).build());
+  }
+
+  private static <T> T await(final Uni<T> uni) {
+    return uni.await().atMost(SETUP_TIMEOUT);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of query export jobs.
+ * <pre>
+ * repository.epcis.export.index=epcis-export
+ * repository.epcis.export.slices=4
+ * repository.epcis.export.max-slices=16
+ * repository.epcis.export.part-size=100000
+ * repository.epcis.export.batch-size=1000
+ * repository.epcis.export.progress-interval=2S
+ * repository.epcis.export.orphaned-after=1M
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.export", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface ExportConfig {
+
+  /**
+   * @return the index export jobs are persisted in.
+   */
+  @WithDefault("epcis-export")
+  String index();
+
+  /**
+   * @return the number of slices read in parallel if the client does not ask for a number.
+   */
+  @WithDefault("4")
+  int slices();
+
+  /**
+   * @return the largest number of slices a client may ask for.
+   */
+  @WithDefault("16")
+  int maxSlices();
+
+  /**
+   * @return the number of events per part, a slice starts a new part once the current one is full.
+   */
+  @WithDefault("100000")
+  long partSize();
+
+  /**
+   * @return the number of events read per search request.
+   */
+  @WithDefault("1000")
+  int batchSize();
+
+  /**
+   * @return how often the progress of a running export is persisted and pushed to progress streams.
+   */
+  @WithDefault("2S")
+  Duration progressInterval();
+
+  /**
+   * @return how long a running export may go without its state being persisted before it is considered
+   * interrupted: the node running it stopped, so it is marked failed and its parts are deleted.
+   */
+  @WithDefault("1M")
+  Duration orphanedAfter();
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Representations of export parts.
+ */
+public enum ExportFormat {
+  NDJSON("ndjson"),
+  JSON("json"),
+  XML("xml");
+
+  private final String value;
+
+  ExportFormat(final String value) {
+    this.value = value;
+  }
+
+  public String value() {
+    return value;
+  }
+
+  /**
+   * @return the file name extension of a gzip compressed part
+   */
+  public String extension() {
+    return "." + value + ".gz";
+  }
+
+  /**
+   * @param value format name, {@code ndjson} if not given
+   * @throws jakarta.ws.rs.WebApplicationException with status {@code 400} for unknown formats
+   */
+  public static ExportFormat of(final String value) {
+    if (value == null || value.isBlank()) {
+      return NDJSON;
+    }
+    final String normalized = value.trim().toLowerCase(Locale.ROOT);
+    return Arrays.stream(values())
+            .filter(format -> format.value.equals(normalized))
+            .findFirst()
+            .orElseThrow(() -> EventQueryTranslator.invalid(
+                    String.format("format '%s' is not supported, use ndjson, json or xml", value)));
+  }
+}
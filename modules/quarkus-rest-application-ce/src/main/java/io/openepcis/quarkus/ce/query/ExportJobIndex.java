@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch.core.GetRequest;
+import org.opensearch.client.opensearch.core.IndexRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persists export jobs in {@code repository.epcis.export.index}, one document per job keyed by its
+ * {@code exportID}, so every node can report on jobs running elsewhere. Every save records when it
+ * happened, a running job which has not been saved for a while lost the node running it.
+ */
+@ApplicationScoped
+public class ExportJobIndex {
+
+  static final String OWNER = "owner";
+  static final String HEARTBEAT_AT = "heartbeatAt";
+  static final String RUNNING = "running";
+
+  /**
+   * @param owner scope of the caller which started the export, see {@link QueryScopes#scope}
+   * @param heartbeatAt when the job was last saved by the node running it
+   */
+  public record StoredExport(ExportJob job, String owner, Instant heartbeatAt) {}
+
+  private final OpenSearchAsyncClient client;
+  private final ObjectMapper objectMapper;
+  private final String index;
+
+  public ExportJobIndex(final OpenSearchAsyncClient client, final ObjectMapper objectMapper, final ExportConfig config) {
+    this.client = client;
+    this.objectMapper = objectMapper;
+    this.index = config.index();
+  }
+
+  public Uni<Void> save(final ExportJob job, final String owner) {
+    final ObjectNode document = objectMapper.valueToTree(job);
+    document.put(OWNER, owner);
+    document.put(HEARTBEAT_AT, Instant.now().toString());
+    final IndexRequest<ObjectNode> request = IndexRequest.of(i -> i
+            .index(index)
+            .id(job.exportID())
+            .document(document));
+    return AsyncCalls.call(() -> client.index(request)).replaceWithVoid();
+  }
+
+  public Uni<Optional<StoredExport>> find(final String exportID) {
+    final GetRequest request = GetRequest.of(g -> g.index(index).id(exportID));
+    return AsyncCalls.call(() -> client.get(request, ObjectNode.class))
+            .map(response -> Optional.ofNullable(response.found() ? response.source() : null).map(this::toStored))
+            .onFailure(failure -> failure instanceof OpenSearchException e
+                    && e.status() == 404)
+            .recoverWithItem(Optional.empty());
+  }
+
+  /**
+   * @return up to {@code size} jobs persisted as running but not saved since {@code heartbeatBefore}
+   */
+  public Uni<List<StoredExport>> orphaned(final Instant heartbeatBefore, final int size) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(index)
+            .size(size)
+            .query(q -> q.bool(b -> b
+                    .filter(f -> f.term(t -> t.field(RUNNING).value(FieldValue.of(true))))
+                    .should(sh -> sh.range(r -> r.field(HEARTBEAT_AT).lt(JsonData.of(heartbeatBefore.toString()))))
+                    .should(sh -> sh.bool(n -> n.mustNot(m -> m.exists(e -> e.field(HEARTBEAT_AT)))))
+                    .minimumShouldMatch("1"))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream().map(hit -> toStored(hit.source())).toList())
+            .onFailure(failure -> failure instanceof OpenSearchException e
+                    && e.status() == 404)
+            .recoverWithItem(List.of());
+  }
+
+  private StoredExport toStored(final ObjectNode source) {
+    final String heartbeatAt = source.path(HEARTBEAT_AT).asText(null);
+    return new StoredExport(
+            objectMapper.convertValue(source.without(List.of(OWNER, HEARTBEAT_AT)), ExportJob.class),
+            source.path(OWNER).asText(null),
+            heartbeatAt != null ? Instant.parse(heartbeatAt) : null);
+  }
+}
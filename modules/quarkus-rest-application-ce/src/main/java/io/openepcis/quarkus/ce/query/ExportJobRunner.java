@@ -0,0 +1,234 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.capture.context.StorageService;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.Cancellable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs export jobs in the background: counts the matching events, opens a point-in-time and reads
+ * its slices in parallel, each slice writing its own parts. The job state is persisted when the job
+ * starts, every {@code progress-interval} while it runs and once it has finished, so any node can
+ * answer status requests while the node running the job serves them from memory.
+ * <p>
+ * A failed job deletes the parts it uploaded. A job persisted as running which has not been saved for
+ * {@code orphaned-after} lost the node running it: it is marked failed and its parts are deleted on
+ * startup and whenever its state is requested.
+ */
+@Slf4j
+@ApplicationScoped
+public class ExportJobRunner {
+
+  static final String INTERRUPTED = "export interrupted, the node running it stopped";
+  static final int RECOVERY_BATCH_SIZE = 100;
+
+  private final EventSearch eventSearch;
+  private final QueryScopes queryScopes;
+  private final QueryDocumentWriters writers;
+  private final StorageService storageService;
+  private final ExportJobIndex exportJobIndex;
+  private final ExportConfig config;
+  private final Map<String, ExportProgress> running = new ConcurrentHashMap<>();
+
+  public ExportJobRunner(
+          final EventSearch eventSearch,
+          final QueryScopes queryScopes,
+          final QueryDocumentWriters writers,
+          final StorageService storageService,
+          final ExportJobIndex exportJobIndex,
+          final ExportConfig config) {
+    this.eventSearch = eventSearch;
+    this.queryScopes = queryScopes;
+    this.writers = writers;
+    this.storageService = storageService;
+    this.exportJobIndex = exportJobIndex;
+    this.config = config;
+  }
+
+  /**
+   * Persists a new export job and starts it without waiting for it to finish.
+   *
+   * @return the job as initially persisted
+   */
+  public Uni<ExportJob> start(
+          final NamedQueryPlans.Plan plan,
+          final SecurityIdentity securityIdentity,
+          final ExportFormat format,
+          final int slices,
+          final SourceFields fields) {
+    final EventQuery query = queryScopes.scoped(securityIdentity, plan.query());
+    final ExportJob started = new ExportJob(
+            UUID.randomUUID().toString(),
+            plan.queryName(),
+            format.value(),
+            slices,
+            Instant.now(),
+            null,
+            true,
+            true,
+            null,
+            0,
+            List.of(),
+            List.of());
+    final ExportProgress progress = new ExportProgress(started, queryScopes.scope(securityIdentity));
+    return exportJobIndex.save(started, progress.owner())
+            .invoke(() -> {
+              running.put(started.exportID(), progress);
+              run(query, format, fields, progress);
+            })
+            .replaceWith(started);
+  }
+
+  /**
+   * @return the job state, from memory if it runs on this node, persisted otherwise
+   */
+  public Uni<Optional<ExportJobIndex.StoredExport>> find(final String exportID) {
+    final ExportProgress progress = running.get(exportID);
+    if (progress != null) {
+      return Uni.createFrom().item(Optional.of(
+              new ExportJobIndex.StoredExport(progress.snapshot(), progress.owner(), Instant.now())));
+    }
+    return exportJobIndex.find(exportID).chain(found -> found
+            .filter(stored -> orphaned(stored, orphanedBefore()))
+            .map(stored -> recover(stored).map(Optional::of))
+            .orElseGet(() -> Uni.createFrom().item(found)));
+  }
+
+  void onStart(@Observes final StartupEvent event) {
+    exportJobIndex.orphaned(orphanedBefore(), RECOVERY_BATCH_SIZE)
+            .onItem().transformToMulti(orphans -> Multi.createFrom().iterable(orphans))
+            .onItem().transformToUniAndConcatenate(this::recover)
+            .collect().asList()
+            .subscribe().with(
+                    recovered -> {
+                      if (!recovered.isEmpty()) {
+                        log.info("marked {} interrupted exports failed", recovered.size());
+                      }
+                    },
+                    failure -> log.warn("unable to recover interrupted exports: {}", failure.getMessage()));
+  }
+
+  /**
+   * @return {@code true} if {@code stored} is persisted as running but its node stopped saving it
+   */
+  static boolean orphaned(final ExportJobIndex.StoredExport stored, final Instant heartbeatBefore) {
+    return stored.job().running() && (stored.heartbeatAt() == null || stored.heartbeatAt().isBefore(heartbeatBefore));
+  }
+
+  /**
+   * @return {@code job} finished as failed at {@code finishedAt}, without parts
+   */
+  static ExportJob interrupted(final ExportJob job, final Instant finishedAt) {
+    final List<String> errors = new ArrayList<>(job.errors());
+    errors.add(INTERRUPTED);
+    return new ExportJob(
+            job.exportID(),
+            job.queryName(),
+            job.format(),
+            job.slices(),
+            job.createdAt(),
+            finishedAt,
+            false,
+            false,
+            job.totalEvents(),
+            job.exportedEvents(),
+            List.of(),
+            List.copyOf(errors));
+  }
+
+  private Uni<ExportJobIndex.StoredExport> recover(final ExportJobIndex.StoredExport orphan) {
+    final ExportJob failed = interrupted(orphan.job(), Instant.now());
+    log.warn("export {} was interrupted, marking it failed", failed.exportID());
+    return exportJobIndex.save(failed, orphan.owner())
+            .call(() -> ExportPartWriter.delete(storageService, failed.exportID(), orphan.job().parts()))
+            .replaceWith(new ExportJobIndex.StoredExport(failed, orphan.owner(), Instant.now()));
+  }
+
+  private Instant orphanedBefore() {
+    return Instant.now().minus(config.orphanedAfter());
+  }
+
+  private void run(
+          final EventQuery query, final ExportFormat format, final SourceFields fields, final ExportProgress progress) {
+    final int slices = progress.snapshot().slices();
+    final Cancellable ticker = Multi.createFrom().ticks().every(config.progressInterval())
+            .onItem().transformToUniAndConcatenate(tick -> persist(progress))
+            .subscribe().with(ignored -> {}, failure -> log.warn("failed to persist progress of export {}", progress.exportID(), failure));
+    eventSearch.count(query.query())
+            .invoke(progress::total)
+            .chain(eventSearch::openPointInTime)
+            .chain(pit -> Multi.createFrom().range(0, slices)
+                    .onItem().transformToUni(slice -> export(query, pit, slice, slices, format, fields, progress))
+                    .merge(slices)
+                    .collect().last()
+                    .eventually(() -> eventSearch.closePointInTime(pit)))
+            .onFailure().call(failure -> {
+              progress.failed(failure);
+              return ExportPartWriter.delete(storageService, progress.exportID(), progress.discardParts());
+            })
+            .onFailure().recoverWithNull()
+            .eventually(() -> {
+              ticker.cancel();
+              progress.finish();
+              return persist(progress).eventually(() -> running.remove(progress.exportID()));
+            })
+            .subscribe().with(
+                    ignored -> log.info("export {} finished with {} events", progress.exportID(), progress.snapshot().exportedEvents()),
+                    failure -> log.error("failed to persist final state of export {}", progress.exportID(), failure));
+  }
+
+  private Uni<Void> export(
+          final EventQuery query,
+          final String pit,
+          final int slice,
+          final int slices,
+          final ExportFormat format,
+          final SourceFields fields,
+          final ExportProgress progress) {
+    final ExportPartWriter writer = new ExportPartWriter(
+            writers, format, progress.snapshot().queryName(), slice, config.partSize(), storageService, progress);
+    return eventSearch.slice(query, pit, slice, slices, config.batchSize(), fields)
+            .emitOn(Infrastructure.getDefaultWorkerPool())
+            .onItem().transformToUniAndConcatenate(hits -> writer.write(hits.stream().map(Hit::source).toList()))
+            .collect().last()
+            .chain(writer::finish)
+            .onFailure().invoke(writer::abandon)
+            .onCancellation().invoke(writer::abandon);
+  }
+
+  private Uni<Void> persist(final ExportProgress progress) {
+    return exportJobIndex.save(progress.snapshot(), progress.owner());
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.capture.context.StorageService;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the events of one export slice into gzip compressed parts of at most {@code partSize}
+ * events. A part is spooled to a temporary file and uploaded to the {@link StorageService} once it
+ * is full, so a slice holds one search page in memory no matter how many events it exports.
+ * <p>
+ * Not thread-safe, every slice has its own writer and feeds it sequentially from a worker thread.
+ */
+@Slf4j
+class ExportPartWriter {
+
+  static final String CONTENT_TYPE = "application/gzip";
+  static final String STORAGE_PREFIX = "exports/";
+
+  private final QueryDocumentWriters writers;
+  private final ExportFormat format;
+  private final String queryName;
+  private final int slice;
+  private final long partSize;
+  private final StorageService storageService;
+  private final ExportProgress progress;
+
+  private int sequence;
+  private Path file;
+  private OutputStream out;
+  private QueryDocumentWriter writer;
+  private long events;
+
+  ExportPartWriter(
+          final QueryDocumentWriters writers,
+          final ExportFormat format,
+          final String queryName,
+          final int slice,
+          final long partSize,
+          final StorageService storageService,
+          final ExportProgress progress) {
+    this.writers = writers;
+    this.format = format;
+    this.queryName = queryName;
+    this.slice = slice;
+    this.partSize = partSize;
+    this.storageService = storageService;
+    this.progress = progress;
+  }
+
+  /**
+   * Appends {@code hits} to the current part, starting new parts as needed.
+   *
+   * @return completes once the parts filled by these events have been uploaded
+   */
+  Uni<Void> write(final List<ObjectNode> hits) {
+    Uni<Void> uploads = Uni.createFrom().voidItem();
+    int offset = 0;
+    while (offset < hits.size()) {
+      if (out == null) {
+        open();
+      }
+      final int n = (int) Math.min(hits.size() - offset, partSize - events);
+      append(hits.subList(offset, offset + n));
+      offset += n;
+      if (events >= partSize) {
+        final Uni<Void> upload = upload(close());
+        uploads = uploads.chain(() -> upload);
+      }
+    }
+    return uploads;
+  }
+
+  /**
+   * @return completes once the last, partially filled part has been uploaded
+   */
+  Uni<Void> finish() {
+    return out != null ? upload(close()) : Uni.createFrom().voidItem();
+  }
+
+  /**
+   * Removes the temporary file of an unfinished part after a failure.
+   */
+  void abandon() {
+    if (out != null) {
+      try {
+        out.close();
+        Files.deleteIfExists(file);
+      } catch (IOException ignored) {
+        // best effort, the file lives in the temporary directory
+      }
+      out = null;
+    }
+  }
+
+  static String storageKey(final String exportID, final String name) {
+    return STORAGE_PREFIX + exportID + "/" + name;
+  }
+
+  /**
+   * Deletes uploaded {@code parts} of a failed export one after the other, a part which cannot be
+   * deleted is logged and left behind.
+   */
+  static Uni<Void> delete(final StorageService storageService, final String exportID, final List<ExportJob.Part> parts) {
+    return Multi.createFrom().iterable(parts)
+            .onItem().transformToUniAndConcatenate(part -> storageService.delete(storageKey(exportID, part.name()))
+                    .onFailure().invoke(failure -> log.warn("unable to delete part {} of export {}: {}",
+                            part.name(), exportID, failure.getMessage()))
+                    .onFailure().recoverWithNull()
+                    .replaceWithVoid())
+            .collect().last();
+  }
+
+  private void open() {
+    try {
+      writer = writers.forExport(format, queryName);
+      file = Files.createTempFile("epcis-export-", format.extension());
+      out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)), 64 * 1024);
+      out.write(writer.header());
+      events = 0;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void append(final List<ObjectNode> batch) {
+    try {
+      out.write(writer.events(batch));
+      events += batch.size();
+      progress.exported(batch.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private SpooledPart close() {
+    try {
+      out.write(writer.footer());
+      out.close();
+      out = null;
+      final String name = String.format("part-%d-%d%s", slice, sequence++, format.extension());
+      return new SpooledPart(name, file, events, Files.size(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Uni<Void> upload(final SpooledPart part) {
+    final String key = storageKey(progress.exportID(), part.name());
+    return Uni.createFrom().item(() -> {
+              try {
+                return Files.newInputStream(part.file());
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            })
+            .chain(in -> storageService.put(key, CONTENT_TYPE, Optional.of(part.bytes()), Map.of("Content_Type", CONTENT_TYPE), in)
+                    .eventually(() -> closeQuietly(in)))
+            .invoke(() -> progress.uploaded(new ExportJob.Part(part.name(), part.events(), part.bytes(), null)))
+            .eventually(() -> deleteQuietly(part.file()))
+            .replaceWithVoid();
+  }
+
+  private static void closeQuietly(final InputStream in) {
+    try {
+      in.close();
+    } catch (IOException ignored) {
+      // the part has been read completely or the upload failed anyway
+    }
+  }
+
+  private static void deleteQuietly(final Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException ignored) {
+      // best effort, the file lives in the temporary directory
+    }
+  }
+
+  private record SpooledPart(String name, Path file, long events, long bytes) {}
+}
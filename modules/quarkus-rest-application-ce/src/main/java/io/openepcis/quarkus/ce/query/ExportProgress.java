@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.rest.api.common.model.ExportJob;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mutable state of an export job running on this node, updated concurrently by its slices.
+ */
+class ExportProgress {
+
+  private final ExportJob started;
+  private final String owner;
+  private final AtomicLong exportedEvents = new AtomicLong();
+  private final List<ExportJob.Part> parts = new CopyOnWriteArrayList<>();
+  private final List<String> errors = new CopyOnWriteArrayList<>();
+  private volatile Long totalEvents;
+  private volatile Instant finishedAt;
+
+  ExportProgress(final ExportJob started, final String owner) {
+    this.started = started;
+    this.owner = owner;
+  }
+
+  String exportID() {
+    return started.exportID();
+  }
+
+  String owner() {
+    return owner;
+  }
+
+  void total(final long totalEvents) {
+    this.totalEvents = totalEvents;
+  }
+
+  void exported(final long events) {
+    exportedEvents.addAndGet(events);
+  }
+
+  void uploaded(final ExportJob.Part part) {
+    parts.add(part);
+  }
+
+  /**
+   * Forgets the parts uploaded so far, once the export failed and they are deleted.
+   *
+   * @return the parts forgotten
+   */
+  List<ExportJob.Part> discardParts() {
+    final List<ExportJob.Part> discarded = List.copyOf(parts);
+    parts.removeAll(discarded);
+    return discarded;
+  }
+
+  void failed(final Throwable failure) {
+    errors.add(failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName());
+  }
+
+  void finish() {
+    finishedAt = Instant.now();
+  }
+
+  ExportJob snapshot() {
+    return new ExportJob(
+            started.exportID(),
+            started.queryName(),
+            started.format(),
+            started.slices(),
+            started.createdAt(),
+            finishedAt,
+            finishedAt == null,
+            errors.isEmpty(),
+            totalEvents,
+            exportedEvents.get(),
+            List.copyOf(parts),
+            List.copyOf(errors));
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JSON and JSON-LD {@link QueryDocumentWriter}; both representations only differ in their media type.
+ */
+class JsonQueryDocumentWriter implements QueryDocumentWriter {
+
+  static final String EPCIS_CONTEXT = "https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld";
+
+  private static final byte[] FOOTER = "]}}}}".getBytes(StandardCharsets.UTF_8);
+
+  private final ObjectMapper objectMapper;
+  private final MediaType mediaType;
+  private final String queryName;
+  private final Instant creationDate;
+  private final String subscriptionID;
+  private boolean first = true;
+
+  JsonQueryDocumentWriter(
+          final ObjectMapper objectMapper, final MediaType mediaType, final String queryName, final Instant creationDate) {
+    this(objectMapper, mediaType, queryName, creationDate, null);
+  }
+
+  /**
+   * @param subscriptionID the subscription the document reports to, {@code null} for query results
+   */
+  JsonQueryDocumentWriter(
+          final ObjectMapper objectMapper,
+          final MediaType mediaType,
+          final String queryName,
+          final Instant creationDate,
+          final String subscriptionID) {
+    this.objectMapper = objectMapper;
+    this.mediaType = mediaType;
+    this.queryName = queryName;
+    this.creationDate = creationDate;
+    this.subscriptionID = subscriptionID;
+  }
+
+  @Override
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  @Override
+  public byte[] header() {
+    return header(Map.of());
+  }
+
+  /**
+   * Adds the extension namespaces of {@code events} to the {@code @context}; the namespaces the EPCIS
+   * context defines are not repeated.
+   */
+  @Override
+  public byte[] header(final List<ObjectNode> events) {
+    final Map<String, String> namespaces = new TreeMap<>();
+    for (final ObjectNode event : events) {
+      XmlQueryDocumentWriter.namespaces(event).forEach((prefix, namespace) -> {
+        if (XmlQueryDocumentWriter.WELL_KNOWN_NAMESPACES.containsKey(prefix)) {
+          return;
+        }
+        final String declared = namespaces.putIfAbsent(prefix, namespace);
+        if (declared != null && !declared.equals(namespace)) {
+          throw new IllegalStateException(String.format(
+                  "the extension prefix '%s' stands for both '%s' and '%s'", prefix, declared, namespace));
+        }
+      });
+    }
+    return header(namespaces);
+  }
+
+  private byte[] header(final Map<String, String> namespaces) {
+    return write(generator -> {
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("@context");
+      generator.writeString(EPCIS_CONTEXT);
+      if (!namespaces.isEmpty()) {
+        generator.writeStartObject();
+        for (final Map.Entry<String, String> namespace : namespaces.entrySet()) {
+          generator.writeStringField(namespace.getKey(), namespace.getValue());
+        }
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+      generator.writeStringField("type", "EPCISQueryDocument");
+      generator.writeStringField("schemaVersion", "2.0");
+      generator.writeStringField("creationDate", creationDate.toString());
+      generator.writeObjectFieldStart("epcisBody");
+      generator.writeObjectFieldStart("queryResults");
+      generator.writeStringField("queryName", queryName);
+      if (subscriptionID != null) {
+        generator.writeStringField("subscriptionID", subscriptionID);
+      }
+      generator.writeObjectFieldStart("resultsBody");
+      generator.writeArrayFieldStart("eventList");
+    });
+  }
+
+  @Override
+  public byte[] events(final List<ObjectNode> events) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 512);
+    try {
+      for (final ObjectNode event : events) {
+        if (!first) {
+          out.write(',');
+        }
+        first = false;
+        objectMapper.writeValue(out, event);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public byte[] footer() {
+    return FOOTER.clone();
+  }
+
+  /**
+   * Adds {@code nextPageToken} next to the {@code epcisBody}.
+   */
+  @Override
+  public byte[] footer(final String nextPageToken) {
+    if (nextPageToken == null) {
+      return footer();
+    }
+    return footer("nextPageToken", nextPageToken);
+  }
+
+  /**
+   * @return the footer, listing {@code missingEventIDs} next to the {@code epcisBody}
+   */
+  byte[] footer(final List<String> missingEventIDs) {
+    return footer("missingEventIDs", missingEventIDs);
+  }
+
+  private byte[] footer(final String field, final Object value) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+    try {
+      // the footer without the closing brace of the document
+      out.write(FOOTER, 0, FOOTER.length - 1);
+      out.write(',');
+      objectMapper.writeValue(out, field);
+      out.write(':');
+      objectMapper.writeValue(out, value);
+      out.write('}');
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private interface Writer {
+    void write(JsonGenerator generator) throws IOException;
+  }
+
+  private byte[] write(final Writer writer) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+      // the header leaves the document open, events and footer follow in separate chunks
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+      writer.write(generator);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
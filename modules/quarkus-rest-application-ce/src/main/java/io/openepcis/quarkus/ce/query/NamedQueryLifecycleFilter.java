@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.rest.api.common.QueryApi;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+
+/**
+ * Keeps {@link NamedQueryPlans} in step with {@link QueryApi}: a query is compiled as soon as it has
+ * been created and its plan is dropped once it has been deleted.
+ */
+@Slf4j
+@Provider
+public class NamedQueryLifecycleFilter implements ContainerResponseFilter {
+
+  static final String QUERY_NAME = "queryName";
+
+  @Context
+  ResourceInfo resourceInfo;
+
+  @Inject
+  NamedQueryPlans plans;
+
+  @Override
+  public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    final Class<?> resourceClass = resourceInfo != null ? resourceInfo.getResourceClass() : null;
+    if (resourceClass == null || !QueryApi.class.isAssignableFrom(resourceClass)) {
+      return;
+    }
+    filter(requestContext.getMethod(), requestContext.getUriInfo().getPathParameters(),
+            responseContext.getStatus(), responseContext.getLocation());
+  }
+
+  void filter(
+          final String method, final MultivaluedMap<String, String> pathParameters, final int status, final URI location) {
+    if (Response.Status.Family.familyOf(status) != Response.Status.Family.SUCCESSFUL) {
+      return;
+    }
+    if (HttpMethod.DELETE.equals(method)) {
+      final String queryName = pathParameters.getFirst(QUERY_NAME);
+      if (queryName != null && pathParameters.size() == 1) {
+        plans.invalidate(queryName);
+      }
+    } else if (HttpMethod.POST.equals(method) && status == Response.Status.CREATED.getStatusCode()) {
+      if (location != null && location.getPath() != null) {
+        final String path = location.getPath();
+        final String queryName = path.substring(path.lastIndexOf('/') + 1);
+        // a plan left over from a deleted query of the same name must not be served for the new one
+        plans.invalidate(queryName);
+        plans.plan(queryName).subscribe().with(
+                plan -> log.debug("compiled named query {}", plan.queryName()),
+                failure -> log.debug("unable to compile named query {}: {}", queryName, failure.getMessage()));
+      }
+    }
+  }
+}
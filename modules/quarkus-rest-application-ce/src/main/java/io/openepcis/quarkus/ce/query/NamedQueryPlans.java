@@ -0,0 +1,113 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Named queries compiled into {@link EventQuery}s once and reused by every execution.
+ * <p>
+ * Every execution looks up the version of the stored query, its sequence number and primary term,
+ * without its source: a cached plan is served while the version is unchanged and recompiled once the
+ * query was recreated, a deleted query fails with {@code 404} whichever node it was deleted through.
+ * {@link NamedQueryLifecycleFilter} compiles a query as soon as it was created through this node.
+ */
+@ApplicationScoped
+public class NamedQueryPlans {
+
+  /**
+   * A compiled named query.
+   *
+   * @param parameters the stored query parameters
+   * @param query the translated query, not yet restricted to the caller's group
+   * @param scope the part of the query cached results depend on
+   */
+  public record Plan(
+          String queryName,
+          Map<String, List<String>> parameters,
+          EventQuery query,
+          CacheScope scope,
+          Long seqNo,
+          Long primaryTerm) {
+
+    boolean compiledFrom(final NamedQueryStore.StoredQuery stored) {
+      return compiledFrom(stored.version());
+    }
+
+    boolean compiledFrom(final NamedQueryStore.Version version) {
+      return Objects.equals(seqNo, version.seqNo()) && Objects.equals(primaryTerm, version.primaryTerm());
+    }
+  }
+
+  private final NamedQueryStore store;
+  private final EventQueryTranslator translator;
+  private final Cache<String, Plan> plans;
+
+  public NamedQueryPlans(
+          final NamedQueryStore store,
+          final EventQueryTranslator translator,
+          @ConfigProperty(name = "repository.epcis.query.plan-cache.maximum-size", defaultValue = "10000")
+          final long maximumSize) {
+    this.store = store;
+    this.translator = translator;
+    this.plans = Caffeine.newBuilder().maximumSize(maximumSize).build();
+  }
+
+  /**
+   * @return the compiled plan of the named query, failing with {@code 404} if it does not exist
+   */
+  public Uni<Plan> plan(final String queryName) {
+    final Plan cached = plans.getIfPresent(queryName);
+    if (cached == null) {
+      return load(queryName);
+    }
+    return store.version(queryName)
+            .onFailure().invoke(() -> plans.invalidate(queryName))
+            .chain(version -> cached.compiledFrom(version) ? Uni.createFrom().item(cached) : load(queryName));
+  }
+
+  private Uni<Plan> load(final String queryName) {
+    return store.load(queryName)
+            .onFailure().invoke(() -> plans.invalidate(queryName))
+            .map(stored -> {
+              final Plan plan = compile(stored);
+              plans.put(queryName, plan);
+              return plan;
+            });
+  }
+
+  public void invalidate(final String queryName) {
+    plans.invalidate(queryName);
+  }
+
+  Plan compile(final NamedQueryStore.StoredQuery stored) {
+    return new Plan(
+            stored.queryName(),
+            stored.parameters(),
+            translator.translate(stored.parameters()),
+            CacheScope.of(stored.parameters()),
+            stored.seqNo(),
+            stored.primaryTerm());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.RestResources;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch.core.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the parameters of named queries stored by {@code POST /queries} in
+ * {@code repository.epcis.query.index}.
+ */
+@ApplicationScoped
+public class NamedQueryStore {
+
+  static final String QUERY = "query";
+
+  private final OpenSearchAsyncClient client;
+  private final String index;
+
+  public NamedQueryStore(
+          final OpenSearchAsyncClient client,
+          @ConfigProperty(name = "repository.epcis.query.index") final String index) {
+    this.client = client;
+    this.index = index;
+  }
+
+  /**
+   * A stored named query.
+   *
+   * @param seqNo sequence number of the stored document, changes whenever the query is recreated
+   * @param primaryTerm primary term of the stored document
+   */
+  public record StoredQuery(String queryName, Map<String, List<String>> parameters, Long seqNo, Long primaryTerm) {
+
+    Version version() {
+      return new Version(seqNo, primaryTerm);
+    }
+  }
+
+  /**
+   * The version of a stored named query, see {@link StoredQuery}.
+   */
+  public record Version(Long seqNo, Long primaryTerm) {}
+
+  /**
+   * Named queries are stored with their name as document id, an {@code ids} lookup matches that
+   * name exactly, unlike a full text match on the name which also finds similarly named queries.
+   *
+   * @return the named query, failing with {@code 404} if it does not exist
+   */
+  public Uni<StoredQuery> load(final String queryName) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(index + "*")
+            .size(1)
+            .seqNoPrimaryTerm(true)
+            .query(q -> q.ids(i -> i.values(queryName))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream()
+                    .findFirst()
+                    .map(hit -> new StoredQuery(queryName, toParameters(hit.source()), hit.seqNo(), hit.primaryTerm()))
+                    .orElseThrow(() -> notFound(queryName)));
+  }
+
+  /**
+   * @return the version of the named query, read without its parameters, failing with {@code 404}
+   * if it does not exist
+   */
+  public Uni<Version> version(final String queryName) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(index + "*")
+            .size(1)
+            .seqNoPrimaryTerm(true)
+            .source(src -> src.fetch(false))
+            .query(q -> q.ids(i -> i.values(queryName))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream()
+                    .findFirst()
+                    .map(hit -> new Version(hit.seqNo(), hit.primaryTerm()))
+                    .orElseThrow(() -> notFound(queryName)));
+  }
+
+  static Map<String, List<String>> toParameters(final ObjectNode source) {
+    final Map<String, List<String>> parameters = new LinkedHashMap<>();
+    final JsonNode query = source.path(QUERY);
+    for (final Iterator<Map.Entry<String, JsonNode>> fields = query.fields(); fields.hasNext(); ) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      final List<String> values = new ArrayList<>();
+      if (field.getValue().isArray()) {
+        field.getValue().forEach(value -> values.add(value.asText()));
+      } else {
+        values.add(field.getValue().asText());
+      }
+      parameters.put(field.getKey(), values);
+    }
+    return parameters;
+  }
+
+  private static WebApplicationException notFound(final String queryName) {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.NOT_FOUND,
+            "epcisException:NoSuchNameException",
+            "Query not found",
+            String.format("query '%s' does not exist", queryName)));
+  }
+}
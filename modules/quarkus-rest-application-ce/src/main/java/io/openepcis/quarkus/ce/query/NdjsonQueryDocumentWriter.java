@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.core.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Newline delimited JSON {@link QueryDocumentWriter}: one event per line without an enclosing
+ * document, so any number of parts can be concatenated.
+ */
+class NdjsonQueryDocumentWriter implements QueryDocumentWriter {
+
+  static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final ObjectMapper objectMapper;
+
+  NdjsonQueryDocumentWriter(final ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public MediaType mediaType() {
+    return APPLICATION_NDJSON;
+  }
+
+  @Override
+  public byte[] header() {
+    return EMPTY;
+  }
+
+  @Override
+  public byte[] events(final List<ObjectNode> events) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(events.size() * 512);
+    try {
+      for (final ObjectNode event : events) {
+        objectMapper.writeValue(out, event);
+        out.write('\n');
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public byte[] footer() {
+    return EMPTY;
+  }
+}
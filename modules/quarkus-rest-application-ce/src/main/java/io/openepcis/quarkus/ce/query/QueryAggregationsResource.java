@@ -0,0 +1,119 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.PageTokens;
+import io.openepcis.rest.api.common.QueryAggregationsApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers {@code GET /queries/{queryName}/aggregations} with a composite aggregation over the
+ * compiled named query, restricted to the caller's group. Buckets are paged by their after-key.
+ */
+public class QueryAggregationsResource implements QueryAggregationsApi {
+
+  static final int DEFAULT_PER_PAGE = 1000;
+
+  private final NamedQueryPlans namedQueryPlans;
+  private final EventSearch eventSearch;
+  private final QueryScopes queryScopes;
+  private final PageTokens pageTokens;
+
+  public QueryAggregationsResource(
+          final NamedQueryPlans namedQueryPlans,
+          final EventSearch eventSearch,
+          final QueryScopes queryScopes,
+          final PageTokens pageTokens) {
+    this.namedQueryPlans = namedQueryPlans;
+    this.eventSearch = eventSearch;
+    this.queryScopes = queryScopes;
+    this.pageTokens = pageTokens;
+  }
+
+  @Override
+  public Uni<Response> queryAggregations(
+          final SecurityIdentity securityIdentity,
+          final String queryName,
+          final List<String> groupBy,
+          final String interval,
+          final String timeZone,
+          final Integer perPage,
+          final String nextPageToken,
+          final UriInfo uriInfo) {
+    final AggregationGrouping grouping = AggregationGrouping.of(groupBy, interval, timeZone);
+    final int size = size(perPage);
+    return namedQueryPlans.plan(queryName).chain(plan -> {
+      final Query query = queryScopes.scoped(securityIdentity, plan.query()).query();
+      final String fingerprint = EventCursor.fingerprint(plan.parameters(), queryScopes.scope(securityIdentity))
+              + ';' + grouping.fingerprint();
+      final Map<String, String> after = nextPageToken != null ? resume(nextPageToken, fingerprint) : null;
+      return eventSearch.aggregate(query, grouping, size, after)
+              .map(page -> respond(queryName, grouping, page, fingerprint, uriInfo));
+    });
+  }
+
+  private Response respond(
+          final String queryName,
+          final AggregationGrouping grouping,
+          final AggregationPage page,
+          final String fingerprint,
+          final UriInfo uriInfo) {
+    final Map<String, Object> body = new LinkedHashMap<>();
+    body.put("queryName", queryName);
+    body.put("totalEvents", page.totalEvents());
+    body.put("groupBy", grouping.groupBy());
+    if (grouping.interval() != null) {
+      body.put("interval", grouping.interval());
+      body.put("timeZone", grouping.timeZone());
+    }
+    body.put("buckets", page.buckets());
+    final Response.ResponseBuilder response = Response.ok(body, MediaType.APPLICATION_JSON_TYPE);
+    if (page.afterKey() != null) {
+      final String token = pageTokens.sign(new AggregationCursor(fingerprint, page.afterKey()));
+      response.header(HttpHeaders.LINK, String.format("<%s>; rel=\"next\"",
+              uriInfo.getRequestUriBuilder().replaceQueryParam(EventQueryTranslator.NEXT_PAGE_TOKEN, token).build()));
+    }
+    return response.build();
+  }
+
+  private Map<String, String> resume(final String nextPageToken, final String fingerprint) {
+    final AggregationCursor cursor = pageTokens.verify(nextPageToken, AggregationCursor.class);
+    if (!fingerprint.equals(cursor.query()) || cursor.after() == null) {
+      throw PageTokens.invalid();
+    }
+    return cursor.after();
+  }
+
+  private static int size(final Integer perPage) {
+    if (perPage == null) {
+      return DEFAULT_PER_PAGE;
+    }
+    if (perPage < 1) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%d'", perPage));
+    }
+    return Math.min(perPage, EventSearch.MAX_BATCH_SIZE);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the query result cache.
+ * <pre>
+ * repository.epcis.query-cache.enabled=true
+ * repository.epcis.query-cache.maximum-size=1000
+ * repository.epcis.query-cache.expire-after-write=60S
+ * repository.epcis.query-cache.max-events=1000
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.query-cache", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface QueryCacheConfig {
+
+  /**
+   * @return whether query results are cached at all.
+   */
+  @WithDefault("true")
+  boolean enabled();
+
+  /**
+   * @return the maximum number of cached query results.
+   */
+  @WithDefault("1000")
+  long maximumSize();
+
+  /**
+   * @return upper bound of an entry's age, a safety net for invalidations missed while the consumer lagged.
+   */
+  @WithDefault("60S")
+  Duration expireAfterWrite();
+
+  /**
+   * @return the largest page (in events) which is cached, larger results always go to the repository.
+   */
+  @WithDefault("1000")
+  int maxEvents();
+}
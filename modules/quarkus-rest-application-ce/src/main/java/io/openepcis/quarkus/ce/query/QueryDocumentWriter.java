@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.core.MediaType;
+
+import java.util.List;
+
+/**
+ * Writes an {@code EPCISQueryDocument} in chunks: the header (including the context) first, then
+ * any number of event batches, the footer last. Instances are stateful and serve a single response.
+ */
+public interface QueryDocumentWriter {
+
+  MediaType mediaType();
+
+  byte[] header();
+
+  /**
+   * @param events all events of the document
+   * @return the header, declaring the namespaces {@code events} use where the representation declares
+   * them up front; fails with {@link IllegalStateException} if they can't be declared in one document
+   */
+  default byte[] header(final List<ObjectNode> events) {
+    return header();
+  }
+
+  byte[] events(List<ObjectNode> events);
+
+  byte[] footer();
+
+  /**
+   * @param nextPageToken the token of the next page, {@code null} on the last page
+   * @return the footer, carrying the {@code nextPageToken} of a page whose headers were sent before
+   * it was known where the page ends
+   */
+  default byte[] footer(final String nextPageToken) {
+    return footer();
+  }
+}
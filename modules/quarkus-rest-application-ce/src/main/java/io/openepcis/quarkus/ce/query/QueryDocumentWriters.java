@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.time.Instant;
+
+/**
+ * Selects the {@link QueryDocumentWriter} for the representation accepted by the client.
+ */
+@ApplicationScoped
+public class QueryDocumentWriters {
+
+  static final MediaType APPLICATION_LD_JSON = MediaType.valueOf("application/ld+json");
+
+  private final ObjectMapper objectMapper;
+
+  public QueryDocumentWriters(final ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * @return a writer for the parts of an export, every part is a complete document of its own
+   */
+  public QueryDocumentWriter forExport(final ExportFormat format, final String queryName) {
+    return switch (format) {
+      case NDJSON -> new NdjsonQueryDocumentWriter(objectMapper);
+      case JSON -> new JsonQueryDocumentWriter(objectMapper, MediaType.APPLICATION_JSON_TYPE, queryName, Instant.now());
+      case XML -> new XmlQueryDocumentWriter(MediaType.APPLICATION_XML_TYPE, queryName, Instant.now(), null);
+    };
+  }
+
+  /**
+   * @return a writer for a message of the streaming subscription {@code subscriptionID}
+   */
+  public QueryDocumentWriter forSubscription(final String queryName, final String subscriptionID) {
+    return new JsonQueryDocumentWriter(objectMapper, APPLICATION_LD_JSON, queryName, Instant.now(), subscriptionID);
+  }
+
+  /**
+   * @return a writer for the first acceptable representation, failing with {@code 406} if none is supported
+   */
+  public QueryDocumentWriter forRequest(final HttpHeaders headers, final String queryName) {
+    for (final MediaType accepted : headers.getAcceptableMediaTypes()) {
+      if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+        return new JsonQueryDocumentWriter(objectMapper, MediaType.APPLICATION_JSON_TYPE, queryName, Instant.now());
+      }
+      if (accepted.isCompatible(APPLICATION_LD_JSON)) {
+        return new JsonQueryDocumentWriter(objectMapper, APPLICATION_LD_JSON, queryName, Instant.now());
+      }
+      if (accepted.isCompatible(MediaType.APPLICATION_XML_TYPE) || accepted.isCompatible(MediaType.TEXT_XML_TYPE)) {
+        final MediaType xml = accepted.isCompatible(MediaType.APPLICATION_XML_TYPE)
+                ? MediaType.APPLICATION_XML_TYPE
+                : MediaType.TEXT_XML_TYPE;
+        return new XmlQueryDocumentWriter(
+                xml, queryName, Instant.now(), headers.getHeaderString(HeaderConstants.GS1_CBV_XML_FORMAT));
+      }
+    }
+    throw new WebApplicationException(RestResources.problem(
+            Response.Status.NOT_ACCEPTABLE,
+            "epcisException:NotAcceptableException",
+            "Not acceptable",
+            "streamed query results are available as application/json, application/ld+json, application/xml and text/xml"));
+  }
+
+  /**
+   * @return a JSON or JSON-LD writer, whichever is accepted first, failing with {@code 406} if neither is
+   */
+  JsonQueryDocumentWriter forJson(final HttpHeaders headers, final String queryName) {
+    for (final MediaType accepted : headers.getAcceptableMediaTypes()) {
+      if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+        return new JsonQueryDocumentWriter(objectMapper, MediaType.APPLICATION_JSON_TYPE, queryName, Instant.now());
+      }
+      if (accepted.isCompatible(APPLICATION_LD_JSON)) {
+        return new JsonQueryDocumentWriter(objectMapper, APPLICATION_LD_JSON, queryName, Instant.now());
+      }
+    }
+    throw new WebApplicationException(RestResources.problem(
+            Response.Status.NOT_ACCEPTABLE,
+            "epcisException:NotAcceptableException",
+            "Not acceptable",
+            "batch results are available as application/json and application/ld+json"));
+  }
+}
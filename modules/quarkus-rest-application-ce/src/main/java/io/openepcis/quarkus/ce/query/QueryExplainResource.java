@@ -0,0 +1,69 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.QueryExplainApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+
+/**
+ * Answers {@code GET /queries/{queryName}/explain} for admins, see {@link QueryExplainer}.
+ */
+public class QueryExplainResource implements QueryExplainApi {
+
+  private final NamedQueryPlans namedQueryPlans;
+  private final QueryExplainer queryExplainer;
+  private final QueryDocumentWriters writers;
+
+  public QueryExplainResource(
+          final NamedQueryPlans namedQueryPlans, final QueryExplainer queryExplainer, final QueryDocumentWriters writers) {
+    this.namedQueryPlans = namedQueryPlans;
+    this.queryExplainer = queryExplainer;
+    this.writers = writers;
+  }
+
+  @Override
+  public Uni<Response> queryExplain(
+          final SecurityIdentity securityIdentity,
+          final String queryName,
+          final Integer perPage,
+          final List<String> fields,
+          final HttpHeaders headers) {
+    if (!RestResources.isAdmin(securityIdentity)) {
+      throw forbidden();
+    }
+    final SourceFields sourceFields = SourceFields.of(fields);
+    final QueryDocumentWriter writer = writers.forRequest(headers, queryName);
+    return namedQueryPlans.plan(queryName)
+            .chain(plan -> queryExplainer.explain(securityIdentity, queryName, plan.parameters(), perPage, sourceFields, writer))
+            .map(body -> Response.ok(body, MediaType.APPLICATION_JSON_TYPE).build());
+  }
+
+  static WebApplicationException forbidden() {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.FORBIDDEN,
+            "epcisException:SecurityException",
+            "Access to resource forbidden",
+            "explaining queries requires the admin role"));
+  }
+}
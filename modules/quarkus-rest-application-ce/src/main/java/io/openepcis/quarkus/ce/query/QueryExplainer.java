@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Explains an event query: the OpenSearch query it is translated into, the OpenSearch profile of its
+ * first page and the time each phase of answering it takes in this service. The page is serialized
+ * like a query response but discarded, only its size is reported.
+ */
+@ApplicationScoped
+public class QueryExplainer {
+
+  static final String TRANSLATION = "translation";
+  static final String SEARCH = "search";
+  static final String HYDRATION = "hydration";
+  static final String CONTEXT = "context";
+  static final String SERIALIZATION = "serialization";
+
+  private final EventQueryTranslator translator;
+  private final EventSearch eventSearch;
+  private final QueryScopes queryScopes;
+  private final ObjectMapper objectMapper;
+  private final int perPageDefault;
+
+  public QueryExplainer(
+          final EventQueryTranslator translator,
+          final EventSearch eventSearch,
+          final QueryScopes queryScopes,
+          final ObjectMapper objectMapper,
+          @ConfigProperty(name = "repository.epcis.per-page-default", defaultValue = "30") final int perPageDefault) {
+    this.translator = translator;
+    this.eventSearch = eventSearch;
+    this.queryScopes = queryScopes;
+    this.objectMapper = objectMapper;
+    this.perPageDefault = perPageDefault;
+  }
+
+  /**
+   * @param queryName the name of the query, {@code null} for ad-hoc queries
+   * @param parameters the query parameters, translated again even if a compiled plan exists
+   * @param writer the writer the query would be answered with
+   * @return the explanation as response body
+   */
+  public Uni<Map<String, Object>> explain(
+          final SecurityIdentity securityIdentity,
+          final String queryName,
+          final Map<String, List<String>> parameters,
+          final Integer perPage,
+          final SourceFields fields,
+          final QueryDocumentWriter writer) {
+    final Map<String, Double> phases = new LinkedHashMap<>();
+    final long start = System.nanoTime();
+    final EventQuery eventQuery = queryScopes.scoped(securityIdentity, translator.translate(parameters));
+    phases.put(TRANSLATION, millis(start));
+    final int size = size(eventQuery, perPage);
+    final long searchStart = System.nanoTime();
+    return eventSearch.profile(eventQuery, size, fields).map(profiled -> {
+      phases.put(SEARCH, millis(searchStart));
+
+      long phase = System.nanoTime();
+      final List<ObjectNode> events = profiled.response().hits().hits().stream().map(Hit::source).toList();
+      phases.put(HYDRATION, millis(phase));
+
+      phase = System.nanoTime();
+      long bytes = writer.header().length;
+      phases.put(CONTEXT, millis(phase));
+
+      phase = System.nanoTime();
+      if (!events.isEmpty()) {
+        bytes += writer.events(events).length;
+      }
+      bytes += writer.footer().length;
+      phases.put(SERIALIZATION, millis(phase));
+
+      final Map<String, Object> body = new LinkedHashMap<>();
+      if (queryName != null) {
+        body.put("queryName", queryName);
+      }
+      body.put("parameters", parameters);
+      body.put("mediaType", writer.mediaType().toString());
+      body.put("search", json(profiled.request()));
+      body.put("profile", profiled.response().profile() != null ? json(profiled.response().profile()) : null);
+      body.put("took", profiled.response().took());
+      body.put("totalHits", profiled.response().hits().total() != null ? profiled.response().hits().total().value() : null);
+      body.put("events", events.size());
+      body.put("bytes", bytes);
+      body.put("phases", phases);
+      return body;
+    });
+  }
+
+  private int size(final EventQuery eventQuery, final Integer perPage) {
+    if (perPage != null && perPage < 1) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%d'", perPage));
+    }
+    final long size = Math.min(perPage != null ? perPage : perPageDefault, EventSearch.MAX_BATCH_SIZE);
+    return (int) (eventQuery.eventCountLimit() != null ? Math.min(size, eventQuery.eventCountLimit()) : size);
+  }
+
+  private JsonNode json(final JsonpSerializable value) {
+    try {
+      return objectMapper.readTree(eventSearch.toJson(value));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return the milliseconds since {@code start}, to the microsecond
+   */
+  static double millis(final long start) {
+    return Math.round((System.nanoTime() - start) / 1_000.0) / 1_000.0;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.capture.context.StorageService;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.QueryExportsApi;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Starts export jobs for named queries and reports their progress. Parts are downloaded through
+ * this resource, so callers only ever see the exports they started themselves (admins see all).
+ */
+public class QueryExportsResource implements QueryExportsApi {
+
+  private final NamedQueryPlans namedQueryPlans;
+  private final ExportJobRunner exportJobRunner;
+  private final QueryScopes queryScopes;
+  private final StorageService storageService;
+  private final ExportConfig config;
+
+  public QueryExportsResource(
+          final NamedQueryPlans namedQueryPlans,
+          final ExportJobRunner exportJobRunner,
+          final QueryScopes queryScopes,
+          final StorageService storageService,
+          final ExportConfig config) {
+    this.namedQueryPlans = namedQueryPlans;
+    this.exportJobRunner = exportJobRunner;
+    this.queryScopes = queryScopes;
+    this.storageService = storageService;
+    this.config = config;
+  }
+
+  @Override
+  public Uni<Response> queryExportsPost(
+          final SecurityIdentity securityIdentity,
+          final String queryName,
+          final String format,
+          final Integer slices,
+          final List<String> fields,
+          final UriInfo uriInfo) {
+    final ExportFormat exportFormat = ExportFormat.of(format);
+    final int sliceCount = slices(slices);
+    final SourceFields sourceFields = SourceFields.of(fields);
+    return namedQueryPlans.plan(queryName)
+            .chain(plan -> exportJobRunner.start(plan, securityIdentity, exportFormat, sliceCount, sourceFields))
+            .map(job -> Response.accepted(linked(job, uriInfo))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .location(uriInfo.getAbsolutePathBuilder().path(job.exportID()).build())
+                    .build());
+  }
+
+  @Override
+  public Uni<Response> queryExportGet(
+          final SecurityIdentity securityIdentity, final String queryName, final String exportID, final UriInfo uriInfo) {
+    return visible(securityIdentity, queryName, exportID)
+            .map(job -> Response.ok(linked(job, uriInfo), MediaType.APPLICATION_JSON_TYPE).build());
+  }
+
+  @Override
+  public Multi<ExportJob> queryExportProgress(
+          final SecurityIdentity securityIdentity, final String queryName, final String exportID, final UriInfo uriInfo) {
+    return Multi.createBy().repeating()
+            .uni(() -> visible(securityIdentity, queryName, exportID))
+            .withDelay(config.progressInterval())
+            .whilst(ExportJob::running)
+            .select().distinct()
+            .map(job -> linked(job, uriInfo));
+  }
+
+  @Override
+  public Uni<Response> queryExportPartGet(
+          final SecurityIdentity securityIdentity, final String queryName, final String exportID, final String part) {
+    return visible(securityIdentity, queryName, exportID)
+            .map(job -> job.parts().stream()
+                    .filter(p -> p.name().equals(part))
+                    .findFirst()
+                    .orElseThrow(() -> notFound(String.format("export '%s' has no part '%s'", exportID, part))))
+            .emitOn(Infrastructure.getDefaultWorkerPool())
+            .map(p -> {
+              final InputStream in = open(ExportPartWriter.storageKey(exportID, p.name()));
+              final StreamingOutput body = out -> {
+                try (in) {
+                  in.transferTo(out);
+                }
+              };
+              return Response.ok(body, ExportPartWriter.CONTENT_TYPE)
+                      .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s\"", p.name()))
+                      .header(HttpHeaders.CONTENT_LENGTH, p.bytes())
+                      .build();
+            });
+  }
+
+  private Uni<ExportJob> visible(final SecurityIdentity securityIdentity, final String queryName, final String exportID) {
+    return exportJobRunner.find(exportID).map(found -> found
+            .filter(stored -> stored.job().queryName().equals(queryName))
+            .filter(stored -> RestResources.isAdmin(securityIdentity)
+                    || queryScopes.scope(securityIdentity).equals(stored.owner()))
+            .map(ExportJobIndex.StoredExport::job)
+            .orElseThrow(() -> notFound(String.format("export '%s' of query '%s' does not exist", exportID, queryName))));
+  }
+
+  private InputStream open(final String key) {
+    try {
+      return storageService.get(key);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ExportJob linked(final ExportJob job, final UriInfo uriInfo) {
+    return new ExportJob(
+            job.exportID(),
+            job.queryName(),
+            job.format(),
+            job.slices(),
+            job.createdAt(),
+            job.finishedAt(),
+            job.running(),
+            job.success(),
+            job.totalEvents(),
+            job.exportedEvents(),
+            job.parts().stream()
+                    .map(part -> part.withHref(uriInfo.getBaseUriBuilder()
+                            .path("queries/{queryName}/exports/{exportID}/parts/{part}")
+                            .build(job.queryName(), job.exportID(), part.name())
+                            .toString()))
+                    .toList(),
+            job.errors());
+  }
+
+  private int slices(final Integer slices) {
+    if (slices == null) {
+      return Math.min(config.slices(), config.maxSlices());
+    }
+    if (slices < 1 || slices > config.maxSlices()) {
+      throw EventQueryTranslator.invalid(
+              String.format("slices must be between 1 and %d, got '%d'", config.maxSlices(), slices));
+    }
+    return slices;
+  }
+
+  private static WebApplicationException notFound(final String detail) {
+    return new WebApplicationException(RestResources.problem(
+            Response.Status.NOT_FOUND,
+            "epcisException:NoSuchResourceException",
+            "Export not found",
+            detail));
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Caches small query results by their normalized query, see {@code EventsStreamResource#cacheKey}.
+ * <p>
+ * Entries are invalidated selectively: the events announced on {@code event-saved} are looked up
+ * once per poll and only the results whose {@link CacheScope} they fall into are dropped. Events
+ * not yet searchable are looked up once more after a refresh; if they still cannot be found, or
+ * the lookup fails, every result is dropped. Queries still running while a matching event is saved
+ * are not cached, so a result never outlives an invalidation it raced with.
+ */
+@Slf4j
+@ApplicationScoped
+public class QueryResultCache {
+
+  static final String METRIC_REQUESTS = "epcis.query.cache.requests";
+  static final String METRIC_INVALIDATIONS = "epcis.query.cache.invalidations";
+  static final String METRIC_STALENESS = "epcis.query.cache.staleness";
+  static final String METRIC_SIZE = "epcis.query.cache.size";
+
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+
+  /**
+   * A cached result.
+   *
+   * @param nextPageToken token of the following page, {@code null} if the result is complete
+   */
+  record CachedPage(List<ObjectNode> events, String nextPageToken, Instant cachedAt, CacheScope scope) {}
+
+  /**
+   * A result being read from the repository, cached on {@link #complete} unless invalidated meanwhile.
+   */
+  static final class Pending {
+    private final String key;
+    private final CacheScope scope;
+    private final AtomicBoolean invalidated = new AtomicBoolean();
+
+    private Pending(final String key, final CacheScope scope) {
+      this.key = key;
+      this.scope = scope;
+    }
+  }
+
+  private final QueryCacheConfig config;
+  private final EventSearch eventSearch;
+  private final Cache<String, CachedPage> cache;
+  private final Map<Pending, Boolean> pending = new ConcurrentHashMap<>();
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter invalidations;
+  private final Timer staleness;
+
+  public QueryResultCache(final QueryCacheConfig config, final EventSearch eventSearch, final MeterRegistry registry) {
+    this.config = config;
+    this.eventSearch = eventSearch;
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(config.maximumSize())
+            .expireAfterWrite(config.expireAfterWrite())
+            .build();
+    this.hits = requests(registry, "hit");
+    this.misses = requests(registry, "miss");
+    this.invalidations = Counter.builder(METRIC_INVALIDATIONS)
+            .description("Cached query results dropped because a matching event was saved")
+            .register(registry);
+    this.staleness = Timer.builder(METRIC_STALENESS)
+            .description("Age of cached query results when served")
+            .register(registry);
+    Gauge.builder(METRIC_SIZE, cache, c -> c.estimatedSize())
+            .description("Number of cached query results")
+            .register(registry);
+  }
+
+  /**
+   * @return whether a result of {@code events} events may be cached
+   */
+  boolean cacheable(final long events) {
+    return config.enabled() && events <= config.maxEvents();
+  }
+
+  Optional<CachedPage> get(final String key) {
+    final CachedPage page = cache.getIfPresent(key);
+    if (page == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    staleness.record(Duration.between(page.cachedAt(), Instant.now()));
+    return Optional.of(page);
+  }
+
+  Pending begin(final String key, final CacheScope scope) {
+    final Pending started = new Pending(key, scope);
+    pending.put(started, Boolean.TRUE);
+    return started;
+  }
+
+  void complete(final Pending started, final List<ObjectNode> events, final String nextPageToken) {
+    if (pending.remove(started) != null && !started.invalidated.get()) {
+      cache.put(started.key, new CachedPage(List.copyOf(events), nextPageToken, Instant.now(), started.scope));
+    }
+  }
+
+  void abandon(final Pending started) {
+    pending.remove(started);
+  }
+
+  @Incoming("query-cache-invalidation-in")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    if (cache.estimatedSize() == 0 && pending.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final Set<String> eventIDs = StreamSupport.stream(records.spliterator(), false)
+            .map(ConsumerRecord::value)
+            .filter(Objects::nonNull)
+            .map(EventSavedMessage::getEventID)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (eventIDs.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    return eventSearch.findByEventIds(eventIDs, SavedEvent.FIELDS)
+            .chain(found -> found.size() >= eventIDs.size()
+                    ? Uni.createFrom().item(found)
+                    : Uni.createFrom().voidItem().onItem().delayIt().by(REFRESH_DELAY)
+                            .chain(() -> eventSearch.findByEventIds(eventIDs, SavedEvent.FIELDS)))
+            .invoke(found -> {
+              found.stream().map(SavedEvent::of).forEach(this::invalidate);
+              if (found.size() < eventIDs.size()) {
+                // the scopes the missing events fall into are unknown, so no cached result can be trusted
+                log.warn("{} of {} saved events not found, dropping all cached query results",
+                        eventIDs.size() - found.size(), eventIDs.size());
+                invalidateAll();
+              }
+            })
+            .onFailure().invoke(failure -> {
+              // the entries expire after expire-after-write anyway, don't stall the consumer
+              log.warn("unable to look up {} saved events, dropping all cached query results: {}",
+                      eventIDs.size(), failure.getMessage());
+              invalidateAll();
+            })
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+  }
+
+  private void invalidateAll() {
+    pending.keySet().forEach(started -> started.invalidated.set(true));
+    invalidations.increment(cache.estimatedSize());
+    cache.invalidateAll();
+  }
+
+  void invalidate(final SavedEvent event) {
+    pending.keySet().forEach(started -> {
+      if (started.scope.affectedBy(event)) {
+        started.invalidated.set(true);
+      }
+    });
+    cache.asMap().entrySet().removeIf(entry -> {
+      final boolean affected = entry.getValue().scope().affectedBy(event);
+      if (affected) {
+        invalidations.increment();
+      }
+      return affected;
+    });
+  }
+
+  private static Counter requests(final MeterRegistry registry, final String result) {
+    return Counter.builder(METRIC_REQUESTS)
+            .description("Query result cache lookups")
+            .tag("result", result)
+            .register(registry);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+import io.quarkus.security.identity.SecurityIdentity;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.util.Set;
+
+/**
+ * Restricts event queries to what the caller may see, see {@link EventAccess}: the events visible in
+ * the repository, and for everybody but admins the events captured for their {@code defaultGroup}
+ * which their roles allow. {@link EventSearch} restricts every search to visible events on its own,
+ * so reads on behalf of the repository itself never see hidden events either.
+ */
+@ApplicationScoped
+public class QueryScopes {
+
+  private final String defaultGroup;
+  private final String eventAccessRole;
+
+  public QueryScopes(
+          @ConfigProperty(name = "repository.user.default-group") final String defaultGroup,
+          @ConfigProperty(name = "app.event.event-access-role", defaultValue = "query") final String eventAccessRole) {
+    this.defaultGroup = defaultGroup;
+    this.eventAccessRole = eventAccessRole;
+  }
+
+  public EventAccess access(final SecurityIdentity securityIdentity) {
+    if (RestResources.isAdmin(securityIdentity)) {
+      return EventAccess.ADMIN;
+    }
+    final Set<String> roles = securityIdentity != null ? Set.copyOf(securityIdentity.getRoles()) : Set.of();
+    return new EventAccess(RestResources.group(securityIdentity, defaultGroup), roles, eventAccessRole);
+  }
+
+  public EventQuery scoped(final SecurityIdentity securityIdentity, final EventQuery eventQuery) {
+    return eventQuery.and(filter(securityIdentity));
+  }
+
+  /**
+   * @return the filter restricting a search to the events the caller may see
+   */
+  public Query filter(final SecurityIdentity securityIdentity) {
+    return access(securityIdentity).filter();
+  }
+
+  /**
+   * @return the caller's scope as used in cursor and cache fingerprints
+   */
+  public String scope(final SecurityIdentity securityIdentity) {
+    return access(securityIdentity).scope();
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The properties of a newly saved event that decide which cached query results it invalidates.
+ */
+record SavedEvent(String type, String bizStep, Instant eventTime, Instant recordTime) {
+
+  static final String[] FIELDS = {EventFields.TYPE, EventFields.BIZ_STEP, EventFields.EVENT_TIME, EventFields.RECORD_TIME};
+
+  static SavedEvent of(final ObjectNode source) {
+    return new SavedEvent(
+            text(source.get(EventFields.TYPE)),
+            text(source.get(EventFields.BIZ_STEP)),
+            instant(source.get(EventFields.EVENT_TIME)),
+            instant(source.get(EventFields.RECORD_TIME)));
+  }
+
+  private static String text(final JsonNode node) {
+    return node == null || node.isNull() ? null : node.asText();
+  }
+
+  private static Instant instant(final JsonNode node) {
+    final String value = text(node);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(value).toInstant();
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
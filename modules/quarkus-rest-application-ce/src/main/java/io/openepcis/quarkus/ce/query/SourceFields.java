@@ -0,0 +1,75 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Sparse fieldset of the events in a query response, pushed down to OpenSearch as source
+ * filtering so omitted fields are neither read nor sent.
+ *
+ * @param includes the event fields to return, empty for complete events
+ */
+public record SourceFields(List<String> includes) {
+
+  public static final SourceFields ALL = new SourceFields(List.of());
+
+  // every event keeps its type so the EPCISQueryDocument stays readable
+  static final String TYPE = "type";
+
+  private static final Pattern FIELD = Pattern.compile("[A-Za-z_][A-Za-z0-9_:\\-]*(\\.[A-Za-z_][A-Za-z0-9_:\\-]*)*");
+
+  /**
+   * @param values field names or dotted paths, repeated or comma separated
+   * @throws jakarta.ws.rs.WebApplicationException with status {@code 400} for malformed field names
+   */
+  public static SourceFields of(final List<String> values) {
+    if (values == null || values.isEmpty()) {
+      return ALL;
+    }
+    final List<String> includes = new ArrayList<>();
+    for (final String value : values) {
+      for (final String field : value.split(",")) {
+        final String trimmed = field.trim();
+        if (trimmed.isEmpty() || includes.contains(trimmed)) {
+          continue;
+        }
+        if (!FIELD.matcher(trimmed).matches() || EventFields.ACCESS.contains(trimmed)) {
+          throw EventQueryTranslator.invalid(String.format("fields contains the invalid field name '%s'", trimmed));
+        }
+        includes.add(trimmed);
+      }
+    }
+    if (includes.isEmpty()) {
+      return ALL;
+    }
+    if (!includes.contains(TYPE)) {
+      includes.add(0, TYPE);
+    }
+    return new SourceFields(List.copyOf(includes));
+  }
+
+  public boolean all() {
+    return includes.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return String.join(",", includes);
+  }
+}
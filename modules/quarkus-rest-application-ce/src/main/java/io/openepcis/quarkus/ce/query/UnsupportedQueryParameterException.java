@@ -0,0 +1,43 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Thrown by {@link EventQueryTranslator} for a standard query parameter it does not translate itself.
+ * Unlike an invalid parameter the query is fine, endpoints which can delegate it to the repository's
+ * own query engine do so, all others answer {@code 501 ImplementationException}.
+ */
+public class UnsupportedQueryParameterException extends WebApplicationException {
+
+  private final String parameter;
+
+  public UnsupportedQueryParameterException(final String parameter) {
+    super(RestResources.problem(
+            Response.Status.NOT_IMPLEMENTED,
+            "epcisException:ImplementationException",
+            "Query parameter not supported here",
+            String.format("query parameter '%s' is only supported by the non-streaming event queries", parameter)));
+    this.parameter = parameter;
+  }
+
+  public String parameter() {
+    return parameter;
+  }
+}
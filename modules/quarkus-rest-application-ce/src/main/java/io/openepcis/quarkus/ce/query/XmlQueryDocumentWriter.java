@@ -0,0 +1,496 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.RestResources;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EPCIS 2.0 XML {@link QueryDocumentWriter}. Each batch of events is rendered from the stored JSON
+ * straight into XML with a StAX writer, so memory per request is bounded by the batch size instead
+ * of the result size.
+ * <p>
+ * Standard fields are written in the order of the EPCIS 2.0 XSD, CBV values as requested with
+ * {@code GS1-CBV-XML-Format}: as URNs by default, as web URIs or as stored. Extension fields are
+ * written as namespaced elements, their namespaces taken from the event's {@code @context} or the
+ * well-known ones; prefixed values such as {@code gs1:Temperature} get their namespace declared
+ * as well. Events of an unknown type or with an extension prefix that can't be resolved fail the
+ * document rather than being left out or written in a made-up namespace.
+ */
+class XmlQueryDocumentWriter implements QueryDocumentWriter {
+
+  static final String EPCIS_NAMESPACE = "urn:epcglobal:epcis:xsd:2";
+  static final String EPCIS_QUERY_NAMESPACE = "urn:epcglobal:epcis-query:xsd:2";
+  // elements of another namespace may follow the EPCISBody of a query document
+  static final String OPENEPCIS_NAMESPACE = "https://openepcis.io/ns/query";
+  static final String NO_PREFERENCE = "No_Preference";
+  static final String ALWAYS_URN = "Always_URN";
+  static final String ALWAYS_WEB_URI = "Always_Web_URI";
+  static final String NEVER_TRANSLATES = "Never_Translates";
+
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+  private static final String END_OF_BODY = "</EventList></resultsBody></epcisq:QueryResults></EPCISBody>";
+  private static final String END_OF_DOCUMENT = "</epcisq:EPCISQueryDocument>";
+  private static final byte[] FOOTER = (END_OF_BODY + END_OF_DOCUMENT).getBytes(StandardCharsets.UTF_8);
+
+  static final Map<String, String> WELL_KNOWN_NAMESPACES = Map.of(
+          "gs1", "https://gs1.org/voc/",
+          "cbvmda", "urn:epcglobal:cbv:mda",
+          "epcis", EPCIS_NAMESPACE);
+
+  private static final Map<String, List<String>> EVENT_FIELDS = Map.of(
+          "ObjectEvent", List.of(
+                  "eventTime", "recordTime", "eventTimeZoneOffset", "certificationInfo", "eventID", "errorDeclaration",
+                  "epcList", "action", "bizStep", "disposition", "persistentDisposition", "readPoint", "bizLocation",
+                  "bizTransactionList", "quantityList", "sourceList", "destinationList", "sensorElementList", "ilmd"),
+          "AggregationEvent", List.of(
+                  "eventTime", "recordTime", "eventTimeZoneOffset", "certificationInfo", "eventID", "errorDeclaration",
+                  "parentID", "childEPCs", "action", "bizStep", "disposition", "persistentDisposition", "readPoint",
+                  "bizLocation", "bizTransactionList", "childQuantityList", "sourceList", "destinationList",
+                  "sensorElementList"),
+          "TransactionEvent", List.of(
+                  "eventTime", "recordTime", "eventTimeZoneOffset", "certificationInfo", "eventID", "errorDeclaration",
+                  "bizTransactionList", "parentID", "epcList", "action", "bizStep", "disposition", "persistentDisposition",
+                  "readPoint", "bizLocation", "quantityList", "sourceList", "destinationList", "sensorElementList"),
+          "TransformationEvent", List.of(
+                  "eventTime", "recordTime", "eventTimeZoneOffset", "certificationInfo", "eventID", "errorDeclaration",
+                  "inputEPCList", "inputQuantityList", "outputEPCList", "outputQuantityList", "transformationID", "bizStep",
+                  "disposition", "persistentDisposition", "readPoint", "bizLocation", "bizTransactionList", "sourceList",
+                  "destinationList", "sensorElementList", "ilmd"),
+          "AssociationEvent", List.of(
+                  "eventTime", "recordTime", "eventTimeZoneOffset", "certificationInfo", "eventID", "errorDeclaration",
+                  "parentID", "childEPCs", "childQuantityList", "action", "bizStep", "disposition", "persistentDisposition",
+                  "readPoint", "bizLocation", "bizTransactionList", "sourceList", "destinationList", "sensorElementList"));
+
+  private static final List<String> QUANTITY_FIELDS = List.of("epcClass", "quantity", "uom");
+
+  // a compact IRI such as gs1:Temperature, unlike URNs, URLs and times its prefix is an NCName
+  private static final Pattern PREFIXED_VALUE = Pattern.compile("([A-Za-z_][A-Za-z0-9._-]*):(?!//)\\S+");
+
+  /**
+   * The forms of CBV values requested with {@code GS1-CBV-XML-Format}.
+   */
+  private enum CbvFormat {
+    URN,
+    WEB_URI,
+    AS_STORED
+  }
+
+  private final MediaType mediaType;
+  private final String queryName;
+  private final Instant creationDate;
+  private final CbvFormat cbvFormat;
+
+  XmlQueryDocumentWriter(
+          final MediaType mediaType, final String queryName, final Instant creationDate, final String cbvXmlFormat) {
+    this.mediaType = mediaType;
+    this.queryName = queryName;
+    this.creationDate = creationDate;
+    this.cbvFormat = cbvFormat(cbvXmlFormat);
+  }
+
+  @Override
+  public MediaType mediaType() {
+    return mediaType;
+  }
+
+  @Override
+  public byte[] header() {
+    return write(512, xml -> {
+      xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      xml.writeStartElement("epcisq", "EPCISQueryDocument", EPCIS_QUERY_NAMESPACE);
+      xml.writeNamespace("epcis", EPCIS_NAMESPACE);
+      xml.writeNamespace("epcisq", EPCIS_QUERY_NAMESPACE);
+      xml.writeAttribute("schemaVersion", "2.0");
+      xml.writeAttribute("creationDate", creationDate.toString());
+      xml.writeStartElement("EPCISBody");
+      xml.writeStartElement("epcisq", "QueryResults", EPCIS_QUERY_NAMESPACE);
+      text(xml, "queryName", queryName);
+      xml.writeStartElement("resultsBody");
+      xml.writeStartElement("EventList");
+      // closes the start tag, the event list is continued by the next chunk
+      xml.writeCharacters("");
+    });
+  }
+
+  @Override
+  public byte[] events(final List<ObjectNode> events) {
+    return write(events.size() * 1024, xml -> {
+      for (final ObjectNode event : events) {
+        event(xml, event);
+      }
+    });
+  }
+
+  @Override
+  public byte[] footer() {
+    return FOOTER.clone();
+  }
+
+  /**
+   * Adds {@code nextPageToken} as {@code openepcis:nextPageToken} element after the {@code EPCISBody}.
+   */
+  @Override
+  public byte[] footer(final String nextPageToken) {
+    if (nextPageToken == null) {
+      return footer();
+    }
+    // page tokens are URL-safe base64, nothing to escape
+    return (END_OF_BODY
+            + "<openepcis:nextPageToken xmlns:openepcis=\"" + OPENEPCIS_NAMESPACE + "\">" + nextPageToken
+            + "</openepcis:nextPageToken>" + END_OF_DOCUMENT).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void event(final XMLStreamWriter xml, final ObjectNode event) throws XMLStreamException {
+    final String type = event.path("type").asText();
+    final List<String> fields = EVENT_FIELDS.get(type);
+    if (fields == null) {
+      throw new IllegalStateException(String.format(
+              "event '%s' has type '%s', which has no EPCIS 2.0 XML representation",
+              event.path("eventID").asText(), type));
+    }
+    final Map<String, String> namespaces = namespaces(event);
+    xml.writeStartElement(type);
+    for (final Map.Entry<String, String> namespace : namespaces.entrySet()) {
+      xml.writeNamespace(namespace.getKey(), namespace.getValue());
+    }
+    for (final String field : fields) {
+      final JsonNode value = event.get(field);
+      if (value != null && !value.isNull()) {
+        field(xml, field, value, namespaces);
+      }
+    }
+    extensions(xml, event, namespaces);
+    xml.writeEndElement();
+  }
+
+  private void field(
+          final XMLStreamWriter xml, final String field, final JsonNode value, final Map<String, String> namespaces)
+          throws XMLStreamException {
+    switch (field) {
+      case "epcList", "childEPCs", "inputEPCList", "outputEPCList" -> list(xml, field, "epc", value);
+      case "quantityList", "childQuantityList", "inputQuantityList", "outputQuantityList" -> {
+        xml.writeStartElement(field);
+        for (final JsonNode quantity : value) {
+          xml.writeStartElement("quantityElement");
+          for (final String name : QUANTITY_FIELDS) {
+            if (quantity.hasNonNull(name)) {
+              text(xml, name, quantity.get(name).asText());
+            }
+          }
+          xml.writeEndElement();
+        }
+        xml.writeEndElement();
+      }
+      case "bizStep" -> text(xml, field, cbv("BizStep", "bizstep", value.asText()));
+      case "disposition" -> text(xml, field, cbv("Disp", "disp", value.asText()));
+      case "persistentDisposition" -> {
+        xml.writeStartElement(field);
+        for (final String operation : List.of("set", "unset")) {
+          for (final JsonNode disposition : value.path(operation)) {
+            text(xml, operation, cbv("Disp", "disp", disposition.asText()));
+          }
+        }
+        xml.writeEndElement();
+      }
+      case "readPoint", "bizLocation" -> {
+        xml.writeStartElement(field);
+        text(xml, "id", value.path("id").asText());
+        extensions(xml, value, namespaces);
+        xml.writeEndElement();
+      }
+      case "bizTransactionList" -> typedList(xml, field, "bizTransaction", "BTT", "btt", value);
+      case "sourceList" -> typedList(xml, field, "source", "SDT", "sdt", value);
+      case "destinationList" -> typedList(xml, field, "destination", "SDT", "sdt", value);
+      case "errorDeclaration" -> {
+        xml.writeStartElement(field);
+        text(xml, "declarationTime", value.path("declarationTime").asText());
+        if (value.hasNonNull("reason")) {
+          text(xml, "reason", cbv("ER", "er", value.get("reason").asText()));
+        }
+        if (value.has("correctiveEventIDs")) {
+          list(xml, "correctiveEventIDs", "correctiveEventID", value.get("correctiveEventIDs"));
+        }
+        extensions(xml, value, namespaces);
+        xml.writeEndElement();
+      }
+      case "sensorElementList" -> {
+        xml.writeStartElement(field);
+        for (final JsonNode sensorElement : value) {
+          xml.writeStartElement("sensorElement");
+          if (sensorElement.has("sensorMetadata")) {
+            xml.writeEmptyElement("sensorMetadata");
+            attributes(xml, sensorElement.get("sensorMetadata"), namespaces);
+          }
+          for (final JsonNode sensorReport : sensorElement.path("sensorReport")) {
+            xml.writeEmptyElement("sensorReport");
+            attributes(xml, sensorReport, namespaces);
+          }
+          extensions(xml, sensorElement, namespaces);
+          xml.writeEndElement();
+        }
+        xml.writeEndElement();
+      }
+      case "ilmd" -> {
+        xml.writeStartElement(field);
+        extensions(xml, value, namespaces);
+        xml.writeEndElement();
+      }
+      default -> text(xml, field, value.asText());
+    }
+  }
+
+  private void typedList(
+          final XMLStreamWriter xml,
+          final String field,
+          final String element,
+          final String vocabulary,
+          final String urnVocabulary,
+          final JsonNode value) throws XMLStreamException {
+    xml.writeStartElement(field);
+    for (final JsonNode item : value) {
+      xml.writeStartElement(element);
+      if (item.hasNonNull("type")) {
+        xml.writeAttribute("type", cbv(vocabulary, urnVocabulary, item.get("type").asText()));
+      }
+      xml.writeCharacters(item.path(element).asText());
+      xml.writeEndElement();
+    }
+    xml.writeEndElement();
+  }
+
+  /**
+   * Writes the prefixed fields of {@code node} as extension elements.
+   */
+  private static void extensions(final XMLStreamWriter xml, final JsonNode node, final Map<String, String> namespaces)
+          throws XMLStreamException {
+    final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      if (isExtension(field.getKey())) {
+        extension(xml, field.getKey(), field.getValue(), namespaces);
+      }
+    }
+  }
+
+  private static void extension(
+          final XMLStreamWriter xml, final String name, final JsonNode value, final Map<String, String> namespaces)
+          throws XMLStreamException {
+    if (value.isArray()) {
+      for (final JsonNode item : value) {
+        extension(xml, name, item, namespaces);
+      }
+      return;
+    }
+    final int colon = name.indexOf(':');
+    if (colon > 0) {
+      final String prefix = name.substring(0, colon);
+      xml.writeStartElement(prefix, name.substring(colon + 1), namespaces.get(prefix));
+    } else {
+      xml.writeStartElement(name);
+    }
+    if (value.isObject()) {
+      final Iterator<Map.Entry<String, JsonNode>> fields = value.fields();
+      while (fields.hasNext()) {
+        final Map.Entry<String, JsonNode> field = fields.next();
+        if (!field.getKey().startsWith("@")) {
+          extension(xml, field.getKey(), field.getValue(), namespaces);
+        }
+      }
+    } else if (!value.isNull()) {
+      xml.writeCharacters(value.asText());
+    }
+    xml.writeEndElement();
+  }
+
+  private static void attributes(final XMLStreamWriter xml, final JsonNode node, final Map<String, String> namespaces)
+          throws XMLStreamException {
+    final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      final Map.Entry<String, JsonNode> field = fields.next();
+      if (!field.getValue().isValueNode() || field.getValue().isNull()) {
+        continue;
+      }
+      final String name = field.getKey();
+      final int colon = name.indexOf(':');
+      if (colon > 0 && isExtension(name)) {
+        final String prefix = name.substring(0, colon);
+        xml.writeAttribute(prefix, namespaces.get(prefix), name.substring(colon + 1), field.getValue().asText());
+      } else if (colon == -1) {
+        xml.writeAttribute(name, field.getValue().asText());
+      }
+    }
+  }
+
+  private static void list(final XMLStreamWriter xml, final String field, final String element, final JsonNode values)
+          throws XMLStreamException {
+    xml.writeStartElement(field);
+    for (final JsonNode value : values) {
+      text(xml, element, value.asText());
+    }
+    xml.writeEndElement();
+  }
+
+  private static void text(final XMLStreamWriter xml, final String element, final String value)
+          throws XMLStreamException {
+    xml.writeStartElement(element);
+    xml.writeCharacters(value);
+    xml.writeEndElement();
+  }
+
+  /**
+   * @return the URN or web URI form of a CBV value, other values unchanged
+   */
+  private String cbv(final String vocabulary, final String urnVocabulary, final String value) {
+    if (cbvFormat == CbvFormat.AS_STORED) {
+      return value;
+    }
+    final List<String> forms = EventQueryTranslator.cbv(vocabulary, urnVocabulary, List.of(value));
+    return forms.size() == 3 ? forms.get(cbvFormat == CbvFormat.WEB_URI ? 1 : 2) : value;
+  }
+
+  /**
+   * @return the CBV format of a {@code GS1-CBV-XML-Format} header, failing with {@code 400} for unknown values
+   */
+  private static CbvFormat cbvFormat(final String header) {
+    if (header == null || header.isBlank()) {
+      return CbvFormat.URN;
+    }
+    final String format = header.trim();
+    if (NO_PREFERENCE.equalsIgnoreCase(format) || ALWAYS_URN.equalsIgnoreCase(format)) {
+      return CbvFormat.URN;
+    }
+    if (ALWAYS_WEB_URI.equalsIgnoreCase(format)) {
+      return CbvFormat.WEB_URI;
+    }
+    if (NEVER_TRANSLATES.equalsIgnoreCase(format)) {
+      return CbvFormat.AS_STORED;
+    }
+    throw new WebApplicationException(RestResources.problem(
+            Response.Status.BAD_REQUEST,
+            "epcisException:ValidationException",
+            "Invalid GS1-CBV-XML-Format",
+            String.format("GS1-CBV-XML-Format must be %s, %s, %s or %s, got '%s'",
+                    NO_PREFERENCE, ALWAYS_URN, ALWAYS_WEB_URI, NEVER_TRANSLATES, header)));
+  }
+
+  /**
+   * @return the namespaces of all extension prefixes used in {@code event} and of the prefixed values
+   * whose prefix is known, from its {@code @context} where declared, failing for extension prefixes
+   * that are neither declared nor well-known
+   */
+  static Map<String, String> namespaces(final ObjectNode event) {
+    final Map<String, String> declared = new LinkedHashMap<>();
+    final JsonNode context = event.path("@context");
+    if (context.isArray()) {
+      context.forEach(entry -> declare(entry, declared));
+    } else {
+      declare(context, declared);
+    }
+    final Map<String, String> namespaces = new LinkedHashMap<>();
+    collectPrefixes(event, prefix -> {
+      final String namespace = declared.getOrDefault(prefix, WELL_KNOWN_NAMESPACES.get(prefix));
+      if (namespace == null) {
+        throw new IllegalStateException(String.format(
+                "event '%s' uses the extension prefix '%s', which is neither declared in its @context nor well-known",
+                event.path("eventID").asText(), prefix));
+      }
+      namespaces.putIfAbsent(prefix, namespace);
+    }, prefix -> {
+      final String namespace = declared.getOrDefault(prefix, WELL_KNOWN_NAMESPACES.get(prefix));
+      if (namespace != null && !"epcis".equals(prefix)) {
+        namespaces.putIfAbsent(prefix, namespace);
+      }
+    });
+    return namespaces;
+  }
+
+  private static void declare(final JsonNode context, final Map<String, String> declared) {
+    context.fields().forEachRemaining(field -> {
+      if (field.getValue().isTextual()) {
+        declared.put(field.getKey(), field.getValue().asText());
+      }
+    });
+  }
+
+  /**
+   * @param names receives the prefixes of extension fields
+   * @param values receives the prefixes of values that look like compact IRIs
+   */
+  private static void collectPrefixes(final JsonNode node, final Consumer<String> names, final Consumer<String> values) {
+    if (node.isArray()) {
+      node.forEach(item -> collectPrefixes(item, names, values));
+    } else if (node.isObject()) {
+      node.fields().forEachRemaining(field -> {
+        if (isExtension(field.getKey())) {
+          names.accept(field.getKey().substring(0, field.getKey().indexOf(':')));
+        }
+        if (!field.getKey().startsWith("@")) {
+          collectPrefixes(field.getValue(), names, values);
+        }
+      });
+    } else if (node.isTextual()) {
+      final Matcher prefixed = PREFIXED_VALUE.matcher(node.asText());
+      if (prefixed.matches()) {
+        values.accept(prefixed.group(1));
+      }
+    }
+  }
+
+  private static boolean isExtension(final String name) {
+    final int colon = name.indexOf(':');
+    return colon > 0 && !name.startsWith("@") && !name.startsWith("http") && name.indexOf('/') == -1
+            && !"epcis".equals(name.substring(0, colon));
+  }
+
+  private interface Writer {
+    void write(XMLStreamWriter xml) throws XMLStreamException;
+  }
+
+  private static byte[] write(final int sizeHint, final Writer writer) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+    try {
+      final XMLStreamWriter xml = OUTPUT_FACTORY.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+      writer.write(xml);
+      // flushed but not closed, closing would end the elements the header leaves open
+      xml.flush();
+    } catch (XMLStreamException e) {
+      throw new UncheckedIOException(new IOException(e));
+    }
+    return out.toByteArray();
+  }
+}
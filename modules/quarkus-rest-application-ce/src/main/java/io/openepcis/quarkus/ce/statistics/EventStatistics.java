@@ -0,0 +1,26 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+/**
+ * Statistics of the events matching a {@link StatisticsRequest}.
+ *
+ * @param eventCount the exact number of matching events
+ * @param distinctEPCs the estimated number of distinct EPCs in them, over all EPC fields
+ * @param precisionThreshold the cardinality precision threshold, counts below it are close to exact
+ * @param computedAt when the statistics were computed, earlier than the response if it was cached
+ */
+public record EventStatistics(long eventCount, long distinctEPCs, int precisionThreshold, String computedAt) {}
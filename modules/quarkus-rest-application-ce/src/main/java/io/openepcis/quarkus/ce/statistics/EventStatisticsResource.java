@@ -0,0 +1,86 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.quarkus.ce.vocabulary.VocabularyType;
+import io.openepcis.rest.api.common.EventStatisticsApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Answers {@code GET /events/statistics} with one search counting the matching events of the
+ * caller's group and estimating their distinct EPCs with a cardinality aggregation.
+ */
+public class EventStatisticsResource implements EventStatisticsApi {
+
+  private final EventQueryTranslator translator;
+  private final EventSearch eventSearch;
+  private final QueryScopes queryScopes;
+  private final StatisticsCache cache;
+  private final StatisticsConfig config;
+
+  public EventStatisticsResource(
+          final EventQueryTranslator translator,
+          final EventSearch eventSearch,
+          final QueryScopes queryScopes,
+          final StatisticsCache cache,
+          final StatisticsConfig config) {
+    this.translator = translator;
+    this.eventSearch = eventSearch;
+    this.queryScopes = queryScopes;
+    this.cache = cache;
+    this.config = config;
+  }
+
+  @Override
+  public Uni<Response> eventStatistics(
+          final SecurityIdentity securityIdentity,
+          final List<String> bizLocations,
+          final List<String> readPoints,
+          final List<String> bizSteps,
+          final String geEventTime,
+          final String ltEventTime,
+          final Integer precisionThreshold) {
+    final StatisticsRequest request = StatisticsRequest.of(queryScopes.scope(securityIdentity),
+            bizLocations, readPoints, bizSteps, geEventTime, ltEventTime, precisionThreshold(precisionThreshold));
+    final Query query = queryScopes.scoped(securityIdentity, translator.translate(request.parameters())).query();
+    return cache.get(request, () -> eventSearch
+                    .cardinality(query, VocabularyType.EPC.script(), request.precisionThreshold())
+                    .map(counts -> new EventStatistics(
+                            counts.events(), counts.distinct(), request.precisionThreshold(), Instant.now().toString())))
+            .map(statistics -> Response.ok(statistics, MediaType.APPLICATION_JSON_TYPE).build());
+  }
+
+  private int precisionThreshold(final Integer precisionThreshold) {
+    if (precisionThreshold == null) {
+      return config.precisionThreshold();
+    }
+    if (precisionThreshold < 1 || precisionThreshold > config.maxPrecisionThreshold()) {
+      throw EventQueryTranslator.invalid(String.format("precisionThreshold must be between 1 and %d, got '%d'",
+              config.maxPrecisionThreshold(), precisionThreshold));
+    }
+    return precisionThreshold;
+  }
+}
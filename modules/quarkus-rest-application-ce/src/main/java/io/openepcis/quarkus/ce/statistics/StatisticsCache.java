@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Caches event statistics per request. Hot dashboards ask for the same ranges over and over, so
+ * statistics of ranges ending in the past are kept longer than those of ranges still receiving
+ * events.
+ */
+@ApplicationScoped
+public class StatisticsCache {
+
+  static final String METRIC_REQUESTS = "epcis.statistics.cache.requests";
+  static final String METRIC_SIZE = "epcis.statistics.cache.size";
+
+  private final StatisticsConfig.Cache config;
+  private final Cache<StatisticsRequest, EventStatistics> cache;
+  private final Counter hits;
+  private final Counter misses;
+
+  public StatisticsCache(final StatisticsConfig config, final MeterRegistry registry) {
+    this.config = config.cache();
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(this.config.maximumSize())
+            .expireAfter(new Expiry<StatisticsRequest, EventStatistics>() {
+              @Override
+              public long expireAfterCreate(final StatisticsRequest key, final EventStatistics value, final long currentTime) {
+                return expiry(key).toNanos();
+              }
+
+              @Override
+              public long expireAfterUpdate(
+                      final StatisticsRequest key, final EventStatistics value, final long currentTime, final long currentDuration) {
+                return expiry(key).toNanos();
+              }
+
+              @Override
+              public long expireAfterRead(
+                      final StatisticsRequest key, final EventStatistics value, final long currentTime, final long currentDuration) {
+                return currentDuration;
+              }
+            })
+            .build();
+    this.hits = requests(registry, "hit");
+    this.misses = requests(registry, "miss");
+    Gauge.builder(METRIC_SIZE, cache, c -> c.estimatedSize())
+            .description("Number of cached event statistics")
+            .register(registry);
+  }
+
+  /**
+   * @return the cached statistics of {@code request}, computed by {@code compute} if there are none
+   */
+  Uni<EventStatistics> get(final StatisticsRequest request, final Supplier<Uni<EventStatistics>> compute) {
+    if (!config.enabled()) {
+      return compute.get();
+    }
+    final EventStatistics cached = cache.getIfPresent(request);
+    if (cached != null) {
+      hits.increment();
+      return Uni.createFrom().item(cached);
+    }
+    misses.increment();
+    return compute.get().invoke(statistics -> cache.put(request, statistics));
+  }
+
+  private Duration expiry(final StatisticsRequest request) {
+    return request.closed(Instant.now()) ? config.closedRangeExpireAfterWrite() : config.expireAfterWrite();
+  }
+
+  private static Counter requests(final MeterRegistry registry, final String result) {
+    return Counter.builder(METRIC_REQUESTS)
+            .description("Event statistics requests by cache result")
+            .tag("result", result)
+            .register(registry);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the event statistics.
+ * <pre>
+ * repository.epcis.statistics.precision-threshold=3000
+ * repository.epcis.statistics.max-precision-threshold=40000
+ * repository.epcis.statistics.cache.enabled=true
+ * repository.epcis.statistics.cache.maximum-size=1000
+ * repository.epcis.statistics.cache.expire-after-write=60S
+ * repository.epcis.statistics.cache.closed-range-expire-after-write=10M
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.statistics", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface StatisticsConfig {
+
+  /**
+   * @return the cardinality precision threshold used unless a request asks for another one.
+   */
+  @WithDefault("3000")
+  int precisionThreshold();
+
+  /**
+   * @return the highest precision threshold a request may ask for, OpenSearch caps it at 40000.
+   */
+  @WithDefault("40000")
+  int maxPrecisionThreshold();
+
+  /**
+   * @return the statistics cache settings.
+   */
+  Cache cache();
+
+  interface Cache {
+
+    /**
+     * @return whether statistics are cached at all.
+     */
+    @WithDefault("true")
+    boolean enabled();
+
+    /**
+     * @return the maximum number of cached statistics.
+     */
+    @WithDefault("1000")
+    long maximumSize();
+
+    /**
+     * @return how long statistics of time ranges still open to new events are cached.
+     */
+    @WithDefault("60S")
+    Duration expireAfterWrite();
+
+    /**
+     * @return how long statistics of time ranges ending in the past are cached; late captured
+     * events with an older event time only show up after this.
+     */
+    @WithDefault("10M")
+    Duration closedRangeExpireAfterWrite();
+  }
+}
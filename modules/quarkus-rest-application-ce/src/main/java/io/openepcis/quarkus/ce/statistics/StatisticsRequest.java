@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A statistics request with its filters in canonical order, also the key of the
+ * {@link StatisticsCache}.
+ *
+ * @param scope the caller's scope, see {@link io.openepcis.quarkus.ce.query.QueryScopes#scope}
+ * @param geEventTime inclusive lower bound of the event time, {@code null} for none
+ * @param ltEventTime exclusive upper bound of the event time, {@code null} for none
+ */
+record StatisticsRequest(
+        String scope,
+        List<String> bizLocations,
+        List<String> readPoints,
+        List<String> bizSteps,
+        String geEventTime,
+        String ltEventTime,
+        int precisionThreshold) {
+
+  static StatisticsRequest of(
+          final String scope,
+          final List<String> bizLocations,
+          final List<String> readPoints,
+          final List<String> bizSteps,
+          final String geEventTime,
+          final String ltEventTime,
+          final int precisionThreshold) {
+    return new StatisticsRequest(scope, canonical(bizLocations), canonical(readPoints), canonical(bizSteps),
+            blankToNull(geEventTime), blankToNull(ltEventTime), precisionThreshold);
+  }
+
+  /**
+   * @return the filters as query parameters of a simple event query
+   */
+  Map<String, List<String>> parameters() {
+    final Map<String, List<String>> parameters = new LinkedHashMap<>();
+    parameters.put("EQ_bizLocation", bizLocations);
+    parameters.put("EQ_readPoint", readPoints);
+    parameters.put("EQ_bizStep", bizSteps);
+    if (geEventTime != null) {
+      parameters.put("GE_eventTime", List.of(geEventTime));
+    }
+    if (ltEventTime != null) {
+      parameters.put("LT_eventTime", List.of(ltEventTime));
+    }
+    return parameters;
+  }
+
+  /**
+   * @return whether the event time range ends before {@code now}, so new events rarely fall into it
+   */
+  boolean closed(final Instant now) {
+    if (ltEventTime == null) {
+      return false;
+    }
+    try {
+      return OffsetDateTime.parse(ltEventTime).toInstant().isBefore(now);
+    } catch (DateTimeParseException e) {
+      return false;
+    }
+  }
+
+  private static List<String> canonical(final List<String> values) {
+    if (values == null) {
+      return List.of();
+    }
+    return values.stream()
+            .filter(Objects::nonNull)
+            .flatMap(value -> Stream.of(value.split("\\|")))
+            .map(String::trim)
+            .filter(value -> !value.isEmpty())
+            .distinct()
+            .sorted()
+            .toList();
+  }
+
+  private static String blankToNull(final String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Static interval tree over half-open intervals {@code [from, to)}: the intervals sorted by start
+ * form an implicit balanced search tree, each subtree annotated with the largest end it contains,
+ * so a stabbing query visits {@code O(log n + k)} nodes for {@code k} hits.
+ */
+final class IntervalTree<T> {
+
+  record Interval<T>(long from, long to, T value) {}
+
+  private final long[] from;
+  private final long[] to;
+  private final long[] maxTo;
+  private final List<T> values;
+
+  IntervalTree(final List<Interval<T>> intervals) {
+    final List<Interval<T>> sorted = new ArrayList<>(intervals);
+    sorted.sort(Comparator.comparingLong(Interval::from));
+    final int n = sorted.size();
+    this.from = new long[n];
+    this.to = new long[n];
+    this.maxTo = new long[n];
+    this.values = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      from[i] = sorted.get(i).from();
+      to[i] = sorted.get(i).to();
+      values.add(sorted.get(i).value());
+    }
+    annotate(0, n - 1);
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  /**
+   * Passes the values of all intervals containing {@code point} to {@code consumer}.
+   */
+  void forEachContaining(final long point, final Consumer<T> consumer) {
+    stab(0, values.size() - 1, point, consumer);
+  }
+
+  private long annotate(final int lo, final int hi) {
+    if (lo > hi) {
+      return Long.MIN_VALUE;
+    }
+    final int mid = (lo + hi) >>> 1;
+    maxTo[mid] = Math.max(to[mid], Math.max(annotate(lo, mid - 1), annotate(mid + 1, hi)));
+    return maxTo[mid];
+  }
+
+  private void stab(final int lo, final int hi, final long point, final Consumer<T> consumer) {
+    if (lo > hi) {
+      return;
+    }
+    final int mid = (lo + hi) >>> 1;
+    if (maxTo[mid] <= point) {
+      return;
+    }
+    stab(lo, mid - 1, point, consumer);
+    if (from[mid] <= point) {
+      if (point < to[mid]) {
+        consumer.accept(values.get(mid));
+      }
+      stab(mid + 1, hi, point, consumer);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+/**
+ * What a streaming session does with saved events once {@code back-pressure.max-queued-events}
+ * of them wait for a subscriber slower than the events arrive.
+ */
+public enum OverflowPolicy {
+
+  /**
+   * Stops queueing and lets the catch-up polls deliver the events left out once the queue drained,
+   * in messages of up to {@code back-pressure.max-batch} events; nothing is lost, only delayed.
+   */
+  COALESCE,
+
+  /**
+   * Discards the oldest queued events in favour of new ones; catch-up polls do not deliver them again.
+   */
+  DROP_OLDEST,
+
+  /**
+   * Closes the WebSocket with status {@code 1013} (try again later) and the record time to resume
+   * from as reason, which the subscriber passes as {@code initialRecordTime} when reconnecting.
+   */
+  DISCONNECT
+}
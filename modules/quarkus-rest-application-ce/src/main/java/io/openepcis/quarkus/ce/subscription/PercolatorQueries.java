@@ -0,0 +1,213 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.Refresh;
+import org.opensearch.client.opensearch._types.mapping.Property;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The compiled queries of streamed subscriptions, registered in {@code repository.epcis.streaming.percolator-index}
+ * so saved events can be matched against all of them with one percolate search.
+ * <p>
+ * The index is created on the first registration with the mapping of the event index, which the
+ * percolator needs to parse the queries, plus the percolator field and the query name. An existing
+ * index is checked, and its mapping extended, the same way; registration fails if the percolator field
+ * has another type, e.g. because the index belongs to another application.
+ */
+@Slf4j
+@ApplicationScoped
+public class PercolatorQueries {
+
+  static final String QUERY_NAME = "queryName";
+  static final String DOCUMENT_SLOT = "_percolator_document_slot";
+
+  private final OpenSearchAsyncClient client;
+  private final EventSearch eventSearch;
+  private final ObjectMapper objectMapper;
+  private final StreamingConfig config;
+  private final String eventIndex;
+  private final AtomicBoolean indexReady = new AtomicBoolean();
+
+  public PercolatorQueries(
+          final OpenSearchAsyncClient client,
+          final EventSearch eventSearch,
+          final ObjectMapper objectMapper,
+          final StreamingConfig config,
+          @ConfigProperty(name = "repository.epcis.event.index") final String eventIndex) {
+    this.client = client;
+    this.eventSearch = eventSearch;
+    this.objectMapper = objectMapper;
+    this.config = config;
+    this.eventIndex = eventIndex;
+  }
+
+  /**
+   * Registers (or replaces) the query of {@code queryName}, not restricted to any group; sessions
+   * check the visibility of matched events themselves.
+   */
+  public Uni<Void> register(final String queryName, final Query query) {
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put(QUERY_NAME, queryName);
+    document.put(config.percolatorField(), json(query));
+    return ensureIndex()
+            .chain(() -> AsyncCalls.call(() -> client.index(i -> i
+                    .index(config.percolatorIndex())
+                    .id(queryName)
+                    .document(document)
+                    .refresh(Refresh.True))))
+            .replaceWithVoid();
+  }
+
+  /**
+   * @param events the saved events, including their group
+   * @param queryNames the queries to match against, usually those with an open session
+   * @return the names of the matching queries per position of the event in {@code events}
+   */
+  public Uni<Map<Integer, Set<String>>> percolate(final List<ObjectNode> events, final Collection<String> queryNames) {
+    if (events.isEmpty() || queryNames.isEmpty()) {
+      return Uni.createFrom().item(Map.of());
+    }
+    final List<JsonData> documents = events.stream().map(JsonData::of).toList();
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(config.percolatorIndex())
+            .size(Math.min(queryNames.size(), EventSearch.MAX_BATCH_SIZE))
+            .query(q -> q.bool(b -> b
+                    .filter(f -> f.percolate(p -> p.field(config.percolatorField()).documents(documents)))
+                    .filter(f -> f.terms(t -> t
+                            .field(QUERY_NAME)
+                            .terms(v -> v.value(queryNames.stream().map(FieldValue::of).toList()))))))
+            .source(src -> src.filter(f -> f.includes(QUERY_NAME))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> {
+      final Map<Integer, Set<String>> matches = new HashMap<>();
+      for (final Hit<ObjectNode> hit : response.hits().hits()) {
+        if (hit.source() == null || hit.fields().get(DOCUMENT_SLOT) == null) {
+          continue;
+        }
+        final String queryName = hit.source().path(QUERY_NAME).asText();
+        for (final JsonNode slot : hit.fields().get(DOCUMENT_SLOT).to(JsonNode.class)) {
+          matches.computeIfAbsent(slot.asInt(), ignored -> new LinkedHashSet<>()).add(queryName);
+        }
+      }
+      return matches;
+    });
+  }
+
+  private Uni<Void> ensureIndex() {
+    if (indexReady.get()) {
+      return Uni.createFrom().voidItem();
+    }
+    return AsyncCalls.call(() -> client.indices().exists(e -> e.index(config.percolatorIndex())))
+            .chain(exists -> exists.value() ? extendIndex() : createIndex())
+            .invoke(() -> indexReady.set(true));
+  }
+
+  private Uni<Void> createIndex() {
+    return eventProperties()
+            .chain(properties -> AsyncCalls.call(() -> client.indices().create(c -> c
+                    .index(config.percolatorIndex())
+                    .mappings(m -> m
+                            .properties(properties)
+                            .properties(config.percolatorField(), p -> p.percolator(pc -> pc))
+                            .properties(QUERY_NAME, p -> p.keyword(k -> k))))))
+            .invoke(() -> log.info("created percolator index {}", config.percolatorIndex()))
+            .replaceWithVoid();
+  }
+
+  /**
+   * Adds the event fields the percolator needs to an existing percolator index, after checking its
+   * percolator field.
+   */
+  private Uni<Void> extendIndex() {
+    return AsyncCalls.call(() -> client.indices().getMapping(m -> m.index(config.percolatorIndex())))
+            .map(mapping -> {
+              final Map<String, Property> existing = new LinkedHashMap<>();
+              mapping.result().values().forEach(index -> existing.putAll(index.mappings().properties()));
+              return existing;
+            })
+            .chain(existing -> {
+              final Property percolator = existing.get(config.percolatorField());
+              if (percolator != null && !percolator.isPercolator()) {
+                return Uni.createFrom().failure(new IllegalStateException(String.format(
+                        "field %s of percolator index %s is no percolator field, configure a dedicated index",
+                        config.percolatorField(), config.percolatorIndex())));
+              }
+              return eventProperties().chain(properties -> {
+                existing.keySet().forEach(properties::remove);
+                if (properties.isEmpty() && percolator != null && existing.containsKey(QUERY_NAME)) {
+                  return Uni.createFrom().voidItem();
+                }
+                return AsyncCalls.call(() -> client.indices().putMapping(m -> {
+                  m.index(config.percolatorIndex()).properties(properties);
+                  if (percolator == null) {
+                    m.properties(config.percolatorField(), p -> p.percolator(pc -> pc));
+                  }
+                  if (!existing.containsKey(QUERY_NAME)) {
+                    m.properties(QUERY_NAME, p -> p.keyword(k -> k));
+                  }
+                  return m;
+                }))
+                        .invoke(() -> log.info("extended the mapping of percolator index {}", config.percolatorIndex()))
+                        .replaceWithVoid();
+              });
+            });
+  }
+
+  /**
+   * @return the properties of the event index, merged over all its indices
+   */
+  private Uni<Map<String, Property>> eventProperties() {
+    return AsyncCalls.call(() -> client.indices().getMapping(m -> m.index(eventIndex + "*")))
+            .map(mapping -> {
+              final Map<String, Property> properties = new LinkedHashMap<>();
+              mapping.result().values().forEach(index -> properties.putAll(index.mappings().properties()));
+              return properties;
+            });
+  }
+
+  private JsonNode json(final Query query) {
+    try {
+      return objectMapper.readTree(eventSearch.toJson(query));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
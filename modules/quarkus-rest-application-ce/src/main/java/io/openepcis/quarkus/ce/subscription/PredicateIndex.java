@@ -0,0 +1,152 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventFields;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Immutable index of {@link SubscriptionPredicate}s which finds the queries matching an event
+ * without evaluating every predicate. Each predicate is filed under one anchor, the most selective
+ * constraint it has: its EPCs in a hash map and a {@link PrefixTrie} of EPC patterns, else one of
+ * its field equalities in a hash map, else its event or record time range in an {@link IntervalTree}.
+ * An event is looked up under each kind of anchor and only the predicates found are evaluated in full.
+ */
+final class PredicateIndex {
+
+  static final PredicateIndex EMPTY = of(List.of());
+
+  // most selective first, each predicate is anchored on the first of these it constrains
+  private static final List<String> ANCHOR_FIELDS = List.of(EventFields.EVENT_ID, EventFields.READ_POINT,
+          EventFields.BIZ_LOCATION, EventFields.BIZ_STEP, EventFields.DISPOSITION, EventFields.TYPE, EventFields.ACTION);
+
+  private final Map<String, List<SubscriptionPredicate>> byEpc;
+  private final PrefixTrie<SubscriptionPredicate> byEpcPrefix;
+  private final Map<String, Map<String, List<SubscriptionPredicate>>> byField;
+  private final IntervalTree<SubscriptionPredicate> byEventTime;
+  private final IntervalTree<SubscriptionPredicate> byRecordTime;
+  private final List<SubscriptionPredicate> unanchored;
+  private final int size;
+
+  private PredicateIndex(
+          final Map<String, List<SubscriptionPredicate>> byEpc,
+          final PrefixTrie<SubscriptionPredicate> byEpcPrefix,
+          final Map<String, Map<String, List<SubscriptionPredicate>>> byField,
+          final IntervalTree<SubscriptionPredicate> byEventTime,
+          final IntervalTree<SubscriptionPredicate> byRecordTime,
+          final List<SubscriptionPredicate> unanchored,
+          final int size) {
+    this.byEpc = byEpc;
+    this.byEpcPrefix = byEpcPrefix;
+    this.byField = byField;
+    this.byEventTime = byEventTime;
+    this.byRecordTime = byRecordTime;
+    this.unanchored = unanchored;
+    this.size = size;
+  }
+
+  static PredicateIndex of(final Collection<SubscriptionPredicate> predicates) {
+    final Map<String, List<SubscriptionPredicate>> byEpc = new HashMap<>();
+    final PrefixTrie<SubscriptionPredicate> byEpcPrefix = new PrefixTrie<>();
+    final Map<String, Map<String, List<SubscriptionPredicate>>> byField = new HashMap<>();
+    final List<IntervalTree.Interval<SubscriptionPredicate>> eventTimes = new ArrayList<>();
+    final List<IntervalTree.Interval<SubscriptionPredicate>> recordTimes = new ArrayList<>();
+    final List<SubscriptionPredicate> unanchored = new ArrayList<>();
+    for (final SubscriptionPredicate predicate : predicates) {
+      if (!predicate.epcs().isEmpty()) {
+        final SubscriptionPredicate.EpcMatch epcs = predicate.epcs().get(0);
+        epcs.exact().forEach(epc -> byEpc.computeIfAbsent(epc, ignored -> new ArrayList<>(1)).add(predicate));
+        epcs.prefixes().forEach(prefix -> byEpcPrefix.put(prefix, predicate));
+        continue;
+      }
+      final String field = anchorField(predicate);
+      if (field != null) {
+        final Map<String, List<SubscriptionPredicate>> byValue = byField.computeIfAbsent(field, ignored -> new HashMap<>());
+        predicate.equalities().get(field)
+                .forEach(value -> byValue.computeIfAbsent(value, ignored -> new ArrayList<>(1)).add(predicate));
+      } else if (predicate.eventTime().bounded()) {
+        eventTimes.add(new IntervalTree.Interval<>(predicate.eventTime().from(), predicate.eventTime().to(), predicate));
+      } else if (predicate.recordTime().bounded()) {
+        recordTimes.add(new IntervalTree.Interval<>(predicate.recordTime().from(), predicate.recordTime().to(), predicate));
+      } else {
+        unanchored.add(predicate);
+      }
+    }
+    return new PredicateIndex(byEpc, byEpcPrefix, byField, new IntervalTree<>(eventTimes), new IntervalTree<>(recordTimes),
+            List.copyOf(unanchored), predicates.size());
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the names of the queries whose predicates match {@code event}
+   */
+  Set<String> match(final ObjectNode event) {
+    final Set<SubscriptionPredicate> candidates = new HashSet<>();
+    final Consumer<SubscriptionPredicate> candidate = candidates::add;
+    for (final String field : SubscriptionPredicate.EPC_FIELDS) {
+      SubscriptionPredicate.forEachValue(event, field, epc -> {
+        final List<SubscriptionPredicate> exact = byEpc.get(epc);
+        if (exact != null) {
+          candidates.addAll(exact);
+        }
+        byEpcPrefix.forEachPrefixOf(epc, candidate);
+      });
+    }
+    byField.forEach((field, byValue) -> SubscriptionPredicate.forEachValue(event, field, value -> {
+      final List<SubscriptionPredicate> equal = byValue.get(value);
+      if (equal != null) {
+        candidates.addAll(equal);
+      }
+    }));
+    final long eventTime = SubscriptionPredicate.millis(event, EventFields.EVENT_TIME);
+    final long recordTime = SubscriptionPredicate.millis(event, EventFields.RECORD_TIME);
+    if (eventTime != Long.MIN_VALUE) {
+      byEventTime.forEachContaining(eventTime, candidate);
+    }
+    if (recordTime != Long.MIN_VALUE) {
+      byRecordTime.forEachContaining(recordTime, candidate);
+    }
+    candidates.addAll(unanchored);
+    final Set<String> queryNames = new HashSet<>();
+    for (final SubscriptionPredicate predicate : candidates) {
+      if (!queryNames.contains(predicate.queryName()) && predicate.matches(event, eventTime, recordTime)) {
+        queryNames.add(predicate.queryName());
+      }
+    }
+    return queryNames;
+  }
+
+  private static String anchorField(final SubscriptionPredicate predicate) {
+    for (final String field : ANCHOR_FIELDS) {
+      if (predicate.equalities().containsKey(field)) {
+        return field;
+      }
+    }
+    return null;
+  }
+}
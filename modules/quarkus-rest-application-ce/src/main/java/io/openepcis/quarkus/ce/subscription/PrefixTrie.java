@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Character trie of EPC prefixes, which visits the values of every prefix of a given EPC in one
+ * walk along its characters, independent of the number of prefixes stored.
+ */
+final class PrefixTrie<T> {
+
+  private final Node<T> root = new Node<>();
+
+  void put(final String prefix, final T value) {
+    Node<T> node = root;
+    for (int i = 0; i < prefix.length(); i++) {
+      node = node.children.computeIfAbsent(prefix.charAt(i), ignored -> new Node<>());
+    }
+    node.values.add(value);
+  }
+
+  /**
+   * Passes the values of all prefixes of {@code key}, including {@code key} itself, to {@code consumer}.
+   */
+  void forEachPrefixOf(final String key, final Consumer<T> consumer) {
+    Node<T> node = root;
+    node.values.forEach(consumer);
+    for (int i = 0; i < key.length(); i++) {
+      node = node.children.get(key.charAt(i));
+      if (node == null) {
+        return;
+      }
+      node.values.forEach(consumer);
+    }
+  }
+
+  private static final class Node<T> {
+    private final Map<Character, Node<T>> children = new HashMap<>(4);
+    private final List<T> values = new ArrayList<>(1);
+  }
+}
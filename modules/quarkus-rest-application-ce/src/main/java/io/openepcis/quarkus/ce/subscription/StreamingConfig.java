@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of streaming query subscriptions.
+ * <pre>
+ * repository.epcis.streaming.subscription=epcis-percolator-queries
+ * repository.epcis.streaming.percolator-index=epcis-streaming-percolator
+ * repository.epcis.streaming.percolator-field=query
+ * repository.epcis.streaming.catch-up-interval=60S
+ * repository.epcis.streaming.catch-up-overlap=10S
+ * repository.epcis.streaming.catch-up-per-page=100
+ * repository.epcis.streaming.recent-event-ids=1000
+ * repository.epcis.streaming.in-memory-matching=true
+ * repository.epcis.streaming.back-pressure.max-queued-events=10000
+ * repository.epcis.streaming.back-pressure.max-batch=500
+ * repository.epcis.streaming.back-pressure.overflow=coalesce
+ * repository.epcis.streaming.back-pressure.per-session-metrics=false
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.streaming", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface StreamingConfig {
+
+  /**
+   * @return the index the subscription engine registers the queries of its subscriptions in; not used
+   * by the streaming sessions of this application.
+   */
+  @WithDefault("epcis-percolator-queries")
+  String subscription();
+
+  /**
+   * @return the index the queries of streaming sessions are registered in for percolation, owned by
+   * this application and not shared with the subscription engine.
+   */
+  @WithDefault("epcis-streaming-percolator")
+  String percolatorIndex();
+
+  /**
+   * @return the percolator field of the percolator index holding the compiled query.
+   */
+  @WithDefault("query")
+  String percolatorField();
+
+  /**
+   * @return how often every session polls its query for events missed by push delivery, e.g. while
+   * the event-saved consumer lagged or was rebalanced.
+   */
+  @WithDefault("60S")
+  Duration catchUpInterval();
+
+  /**
+   * @return how far a catch-up poll reaches back before the previous one, covering events whose
+   * record time precedes their visibility to search.
+   */
+  @WithDefault("10S")
+  Duration catchUpOverlap();
+
+  /**
+   * @return the maximum number of events a single catch-up poll delivers.
+   */
+  @WithDefault("100")
+  int catchUpPerPage();
+
+  /**
+   * @return the number of recently delivered event ids a session remembers, so an event pushed and
+   * found again by a catch-up poll is delivered once.
+   */
+  @WithDefault("1000")
+  int recentEventIds();
+
+  /**
+   * @return whether saved events are matched against the queries in memory by a predicate index,
+   * percolating only the queries it cannot express; otherwise every query is percolated.
+   */
+  @WithDefault("true")
+  boolean inMemoryMatching();
+
+  /**
+   * @return the flow control of every session towards its subscriber.
+   */
+  BackPressure backPressure();
+
+  interface BackPressure {
+
+    /**
+     * @return the maximum number of events a session queues while its subscriber does not keep up.
+     */
+    @WithDefault("10000")
+    int maxQueuedEvents();
+
+    /**
+     * @return the maximum number of queued events sent in a single message once the subscriber
+     * keeps up again.
+     */
+    @WithDefault("500")
+    int maxBatch();
+
+    /**
+     * @return what a session does when its queue is full.
+     */
+    @WithDefault("coalesce")
+    OverflowPolicy overflow();
+
+    /**
+     * @return whether queued events and lag are published for every session, tagged with its id and
+     * query name, in addition to the totals over all sessions; mind the number of series.
+     */
+    @WithDefault("false")
+    boolean perSessionMetrics();
+  }
+}
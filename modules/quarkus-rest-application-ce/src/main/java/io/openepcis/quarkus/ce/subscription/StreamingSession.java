@@ -0,0 +1,334 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriter;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import io.vertx.core.http.ServerWebSocket;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One WebSocket streaming the events of a named query. Events reach a session by push, as soon as
+ * they are saved, and by catch-up polls; it remembers the ids of the events delivered recently so
+ * an event found both ways is sent once. Every message is a complete {@code EPCISQueryDocument}.
+ * <p>
+ * Events are queued and written only while the socket's write queue has room, so a slow subscriber
+ * holds at most {@code back-pressure.max-queued-events} events and never blocks the threads
+ * delivering to other sessions. Events queued while the subscriber lagged are coalesced into
+ * messages of up to {@code back-pressure.max-batch} events; a full queue is handled according
+ * to the {@link OverflowPolicy}.
+ */
+class StreamingSession {
+
+  // RFC 6455 status 1013, try again later
+  static final short CLOSE_TRY_AGAIN_LATER = 1013;
+
+  private static final AtomicLong IDS = new AtomicLong();
+
+  /**
+   * An event waiting for the subscriber and when it was queued.
+   */
+  private record Pending(ObjectNode event, long queuedAt) {}
+
+  /**
+   * Where a catch-up poll starts.
+   *
+   * @param caughtUpTo record time from which on the poll searches
+   * @param catchUpAfter sort values of the event the poll continues after, empty to start at {@code caughtUpTo}
+   * @param rewinds the number of times the session was rewound before the poll started
+   */
+  record Position(Instant caughtUpTo, List<String> catchUpAfter, long rewinds) {}
+
+  private final String id = Long.toString(IDS.incrementAndGet());
+  private final String subscriptionID = UUID.randomUUID().toString();
+  private final ServerWebSocket socket;
+  private final String queryName;
+  private final EventAccess access;
+  private final EventQuery query;
+  private final SubscriptionPredicate predicate;
+  private final QueryDocumentWriters writers;
+  private final int recentEventIds;
+  private final StreamingConfig.BackPressure backPressure;
+  private final Set<String> recent = new LinkedHashSet<>();
+  private final Deque<Pending> pending = new ArrayDeque<>();
+  private Instant caughtUpTo;
+  // sort values of the last event of a catch-up page the next poll continues after, empty if none
+  private List<String> catchUpAfter = List.of();
+  // times events were left out with COALESCE and caughtUpTo moved back to find them
+  private long rewinds;
+  private Runnable behindHandler = () -> {};
+  private boolean behind;
+  private boolean disconnected;
+  private long overflowed;
+
+  /**
+   * @param access what the caller may see
+   * @param query the named query restricted to what the caller may see, for catch-up polls
+   * @param predicate the named query matched in memory, {@code null} if it is percolated
+   * @param since record time from which on events are delivered
+   */
+  StreamingSession(
+          final ServerWebSocket socket,
+          final String queryName,
+          final EventAccess access,
+          final EventQuery query,
+          final SubscriptionPredicate predicate,
+          final QueryDocumentWriters writers,
+          final StreamingConfig config,
+          final Instant since) {
+    this.socket = socket;
+    this.queryName = queryName;
+    this.access = access;
+    this.query = query;
+    this.predicate = predicate;
+    this.writers = writers;
+    this.recentEventIds = config.recentEventIds();
+    this.backPressure = config.backPressure();
+    this.caughtUpTo = since;
+  }
+
+  String id() {
+    return id;
+  }
+
+  String queryName() {
+    return queryName;
+  }
+
+  /**
+   * @return the id every message of the session reports to, like the subscriptions of the query resource
+   */
+  String subscriptionID() {
+    return subscriptionID;
+  }
+
+  EventQuery query() {
+    return query;
+  }
+
+  SubscriptionPredicate predicate() {
+    return predicate;
+  }
+
+  synchronized Instant caughtUpTo() {
+    return caughtUpTo;
+  }
+
+  synchronized Position position() {
+    return new Position(caughtUpTo, catchUpAfter, rewinds);
+  }
+
+  /**
+   * Records how far a catch-up poll got, unless the session was rewound while it ran: the events left
+   * out then are only found from the rewound position, which the next poll starts at instead.
+   *
+   * @param started where the poll started
+   * @param caughtUpTo record time from which on the next catch-up poll searches
+   * @param catchUpAfter sort values of the event the next poll continues after, empty to start at {@code caughtUpTo}
+   */
+  synchronized void caughtUpTo(final Position started, final Instant caughtUpTo, final List<String> catchUpAfter) {
+    if (started.rewinds() == rewinds) {
+      this.caughtUpTo = caughtUpTo;
+      this.catchUpAfter = catchUpAfter;
+    }
+  }
+
+  /**
+   * @param behindHandler run once the queue drained after events were left out with {@link OverflowPolicy#COALESCE}
+   */
+  synchronized void behindHandler(final Runnable behindHandler) {
+    this.behindHandler = behindHandler;
+  }
+
+  /**
+   * @return whether the caller may see {@code event}, which must still include its {@link EventFields#ACCESS} fields
+   */
+  boolean visible(final ObjectNode event) {
+    return access.admits(event);
+  }
+
+  /**
+   * Queues the events not delivered recently, without their access fields, and writes as many as the
+   * socket takes.
+   *
+   * @return the number of leading {@code events} delivered or queued; the others were left out
+   * with {@link OverflowPolicy#COALESCE} or the session was disconnected
+   */
+  synchronized int deliver(final List<ObjectNode> events) {
+    if (disconnected || socket.isClosed()) {
+      return 0;
+    }
+    final long now = System.currentTimeMillis();
+    int accepted = 0;
+    for (final ObjectNode event : events) {
+      final String eventID = event.path(EventFields.EVENT_ID).asText();
+      if (!recent.contains(eventID)) {
+        if (pending.size() >= backPressure.maxQueuedEvents() && !overflow(events.subList(accepted, events.size()))) {
+          break;
+        }
+        remember(eventID);
+        pending.add(new Pending(withoutAccess(event), now));
+      }
+      accepted++;
+    }
+    flush();
+    return accepted;
+  }
+
+  /**
+   * @return the number of events waiting for the subscriber
+   */
+  synchronized int queued() {
+    return pending.size();
+  }
+
+  /**
+   * @return how long the oldest queued event has been waiting for the subscriber, in milliseconds
+   */
+  synchronized long lag(final long now) {
+    final Pending oldest = pending.peekFirst();
+    return oldest != null ? Math.max(0, now - oldest.queuedAt()) : 0;
+  }
+
+  /**
+   * @return the number of events this session dropped, left out or discarded on disconnect
+   */
+  synchronized long overflowed() {
+    return overflowed;
+  }
+
+  synchronized boolean disconnected() {
+    return disconnected;
+  }
+
+  void close() {
+    if (!socket.isClosed()) {
+      socket.close();
+    }
+  }
+
+  /**
+   * Makes room for the first of {@code rest} according to the overflow policy.
+   *
+   * @return whether the event is to be queued
+   */
+  private boolean overflow(final List<ObjectNode> rest) {
+    switch (backPressure.overflow()) {
+      case DROP_OLDEST -> {
+        final Pending dropped = pending.removeFirst();
+        recent.remove(dropped.event().path(EventFields.EVENT_ID).asText());
+        overflowed++;
+        return true;
+      }
+      case COALESCE -> {
+        // the next catch-up poll starts early enough to find the events left out
+        caughtUpTo = earliest(caughtUpTo, rest);
+        catchUpAfter = List.of();
+        rewinds++;
+        behind = true;
+        overflowed += rest.size();
+        return false;
+      }
+      default -> {
+        final List<ObjectNode> undelivered = new ArrayList<>(rest);
+        pending.forEach(queued -> undelivered.add(queued.event()));
+        overflowed += undelivered.size();
+        pending.clear();
+        disconnected = true;
+        socket.close(CLOSE_TRY_AGAIN_LATER, earliest(caughtUpTo, undelivered).toString());
+        return false;
+      }
+    }
+  }
+
+  private void flush() {
+    while (!pending.isEmpty() && !socket.isClosed() && !socket.writeQueueFull()) {
+      final List<ObjectNode> batch = new ArrayList<>(Math.min(pending.size(), backPressure.maxBatch()));
+      while (!pending.isEmpty() && batch.size() < backPressure.maxBatch()) {
+        batch.add(pending.removeFirst().event());
+      }
+      socket.writeTextMessage(document(batch));
+    }
+    if (!pending.isEmpty() && !socket.isClosed()) {
+      socket.drainHandler(ignored -> drained());
+    } else if (behind) {
+      behind = false;
+      behindHandler.run();
+    }
+  }
+
+  private synchronized void drained() {
+    flush();
+  }
+
+  private void remember(final String eventID) {
+    recent.add(eventID);
+    if (recent.size() > recentEventIds) {
+      final Iterator<String> oldest = recent.iterator();
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  private static ObjectNode withoutAccess(final ObjectNode event) {
+    return EventFields.ACCESS.stream().anyMatch(event::has) ? event.deepCopy().without(EventFields.ACCESS) : event;
+  }
+
+  private String document(final List<ObjectNode> events) {
+    final QueryDocumentWriter writer = writers.forSubscription(queryName, subscriptionID);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.writeBytes(writer.header());
+    out.writeBytes(writer.events(events));
+    out.writeBytes(writer.footer());
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the earliest of {@code from} and the record times of {@code events}
+   */
+  private static Instant earliest(final Instant from, final List<ObjectNode> events) {
+    Instant earliest = from;
+    for (final ObjectNode event : events) {
+      try {
+        final Instant recorded = OffsetDateTime.parse(event.path(EventFields.RECORD_TIME).asText()).toInstant();
+        if (recorded.isBefore(earliest)) {
+          earliest = recorded;
+        }
+      } catch (DateTimeParseException e) {
+        // without a record time the event is found from caughtUpTo on
+      }
+    }
+    return earliest;
+  }
+}
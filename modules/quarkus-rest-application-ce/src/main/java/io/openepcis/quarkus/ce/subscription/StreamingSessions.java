@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The streaming sessions open on this node, by query name, and the metrics of their back-pressure:
+ * events queued and the lag of the slowest subscriber over all sessions, optionally per session.
+ */
+@ApplicationScoped
+public class StreamingSessions {
+
+  static final String METRIC_SESSIONS = "epcis.subscription.sessions";
+  static final String METRIC_QUEUED = "epcis.subscription.sessions.queued";
+  static final String METRIC_MAX_LAG = "epcis.subscription.sessions.max-lag";
+  static final String METRIC_OVERFLOWED = "epcis.subscription.sessions.overflowed";
+  static final String METRIC_DISCONNECTS = "epcis.subscription.sessions.disconnects";
+  static final String METRIC_SESSION_QUEUED = "epcis.subscription.session.queued";
+  static final String METRIC_SESSION_LAG = "epcis.subscription.session.lag";
+
+  private final Map<String, Set<StreamingSession>> sessions = new ConcurrentHashMap<>();
+  private final Map<StreamingSession, List<Meter>> sessionMeters = new ConcurrentHashMap<>();
+  private final AtomicInteger count = new AtomicInteger();
+  private final AtomicLong version = new AtomicLong();
+  private final AtomicLong closedOverflowed = new AtomicLong();
+  private final Counter disconnects;
+  private final MeterRegistry registry;
+  private final StreamingConfig config;
+
+  public StreamingSessions(final MeterRegistry registry, final StreamingConfig config) {
+    this.registry = registry;
+    this.config = config;
+    Gauge.builder(METRIC_SESSIONS, count, AtomicInteger::get)
+            .description("Open streaming query subscriptions")
+            .register(registry);
+    Gauge.builder(METRIC_QUEUED, this, StreamingSessions::queued)
+            .description("Events queued for the subscribers of all streaming sessions")
+            .register(registry);
+    Gauge.builder(METRIC_MAX_LAG, this, StreamingSessions::maxLag)
+            .description("How long the oldest event queued for any streaming session has been waiting")
+            .baseUnit("milliseconds")
+            .register(registry);
+    FunctionCounter.builder(METRIC_OVERFLOWED, this, StreamingSessions::overflowed)
+            .description("Events streaming sessions dropped, left out for catch-up or discarded on disconnect")
+            .tag("policy", config.backPressure().overflow().name().toLowerCase(Locale.ROOT).replace('_', '-'))
+            .register(registry);
+    this.disconnects = Counter.builder(METRIC_DISCONNECTS)
+            .description("Streaming sessions disconnected because their subscriber did not keep up")
+            .register(registry);
+  }
+
+  void open(final StreamingSession session) {
+    if (sessions.computeIfAbsent(session.queryName(), ignored -> ConcurrentHashMap.newKeySet()).add(session)) {
+      count.incrementAndGet();
+      if (config.backPressure().perSessionMetrics()) {
+        sessionMeters.put(session, List.of(
+                Gauge.builder(METRIC_SESSION_QUEUED, session, StreamingSession::queued)
+                        .description("Events queued for the subscriber of a streaming session")
+                        .tag("session", session.id())
+                        .tag("queryName", session.queryName())
+                        .register(registry),
+                Gauge.builder(METRIC_SESSION_LAG, session, s -> s.lag(System.currentTimeMillis()))
+                        .description("How long the oldest event queued for a streaming session has been waiting")
+                        .baseUnit("milliseconds")
+                        .tag("session", session.id())
+                        .tag("queryName", session.queryName())
+                        .register(registry)));
+      }
+    }
+    version.incrementAndGet();
+  }
+
+  void close(final StreamingSession session) {
+    sessions.computeIfPresent(session.queryName(), (queryName, open) -> {
+      if (open.remove(session)) {
+        count.decrementAndGet();
+        closedOverflowed.addAndGet(session.overflowed());
+        if (session.disconnected()) {
+          disconnects.increment();
+        }
+      }
+      return open.isEmpty() ? null : open;
+    });
+    final List<Meter> meters = sessionMeters.remove(session);
+    if (meters != null) {
+      meters.forEach(registry::remove);
+    }
+    if (!sessions.containsKey(session.queryName())) {
+      version.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the names of the queries with at least one open session
+   */
+  Set<String> queryNames() {
+    return Set.copyOf(sessions.keySet());
+  }
+
+  List<StreamingSession> of(final String queryName) {
+    final Set<StreamingSession> open = sessions.get(queryName);
+    return open != null ? List.copyOf(open) : List.of();
+  }
+
+  /**
+   * @return a number which changes whenever a session is opened or the last session of a query closed
+   */
+  long version() {
+    return version.get();
+  }
+
+  boolean isEmpty() {
+    return sessions.isEmpty();
+  }
+
+  private double queued() {
+    long queued = 0;
+    for (final Set<StreamingSession> open : sessions.values()) {
+      for (final StreamingSession session : open) {
+        queued += session.queued();
+      }
+    }
+    return queued;
+  }
+
+  private double maxLag() {
+    final long now = System.currentTimeMillis();
+    long maxLag = 0;
+    for (final Set<StreamingSession> open : sessions.values()) {
+      for (final StreamingSession session : open) {
+        maxLag = Math.max(maxLag, session.lag(now));
+      }
+    }
+    return maxLag;
+  }
+
+  private double overflowed() {
+    long overflowed = closedOverflowed.get();
+    for (final Set<StreamingSession> open : sessions.values()) {
+      for (final StreamingSession session : open) {
+        overflowed += session.overflowed();
+      }
+    }
+    return overflowed;
+  }
+}
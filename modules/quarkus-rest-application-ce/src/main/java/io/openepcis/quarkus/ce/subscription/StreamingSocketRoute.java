@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.quarkus.ce.query.EpcFormats;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.NamedQueryPlans;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.quarkus.ce.query.UnsupportedQueryParameterException;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.quarkus.vertx.http.runtime.security.QuarkusHttpUser;
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Accepts the WebSocket upgrades of streaming subscriptions ({@code GET /queries/{queryName}/events?stream=true})
+ * before the query resource sees them; all other requests to the path continue to the resource.
+ * <p>
+ * On upgrade the named query is compiled for the {@link SubscriptionMatcher}, or registered with the
+ * {@link PercolatorQueries} if it cannot be, and a {@link StreamingSession} is opened, which receives
+ * saved events from {@link SubscriptionPush} and polls for missed ones every
+ * {@code repository.epcis.streaming.catch-up-interval}. With {@code initialRecordTime} the session
+ * first catches up on the events recorded since then; a session disconnected by
+ * {@link OverflowPolicy#DISCONNECT} resumes by passing the close reason as {@code initialRecordTime}.
+ * <p>
+ * Every message is an {@code EPCISQueryDocument} naming the query and the {@code subscriptionID} of
+ * the session. Like the query resource, subscriptions require the {@code query} or {@code admin}
+ * role. Upgrades using subscription parameters besides {@code initialRecordTime}, such as
+ * {@code reportIfEmpty=true} or a schedule, requesting translated EPCs with {@code GS1-EPC-Format}
+ * or for queries with parameters the {@link io.openepcis.quarkus.ce.query.EventQueryTranslator}
+ * does not translate are left to the query resource as well.
+ */
+@Slf4j
+@ApplicationScoped
+public class StreamingSocketRoute {
+
+  static final String PATH = "/queries/:queryName/events";
+  static final String STREAM = "stream";
+  static final String INITIAL_RECORD_TIME = "initialRecordTime";
+  static final String REPORT_IF_EMPTY = "reportIfEmpty";
+
+  // the only query parameters of subscriptions the route implements
+  private static final Set<String> PARAMETERS = Set.of(STREAM, INITIAL_RECORD_TIME, REPORT_IF_EMPTY);
+
+  /**
+   * A subscription checked and registered before the upgrade.
+   */
+  private record Subscription(
+          String queryName, EventAccess access, EventQuery query, SubscriptionPredicate predicate, Instant since) {}
+
+  private final NamedQueryPlans namedQueryPlans;
+  private final SubscriptionMatcher matcher;
+  private final StreamingSessions sessions;
+  private final SubscriptionCatchUp catchUp;
+  private final QueryScopes queryScopes;
+  private final QueryDocumentWriters writers;
+  private final StreamingConfig config;
+  private final Vertx vertx;
+
+  public StreamingSocketRoute(
+          final NamedQueryPlans namedQueryPlans,
+          final SubscriptionMatcher matcher,
+          final StreamingSessions sessions,
+          final SubscriptionCatchUp catchUp,
+          final QueryScopes queryScopes,
+          final QueryDocumentWriters writers,
+          final StreamingConfig config,
+          final Vertx vertx) {
+    this.namedQueryPlans = namedQueryPlans;
+    this.matcher = matcher;
+    this.sessions = sessions;
+    this.catchUp = catchUp;
+    this.queryScopes = queryScopes;
+    this.writers = writers;
+    this.config = config;
+    this.vertx = vertx;
+  }
+
+  void register(@Observes final Router router) {
+    router.get(PATH).handler(this::handle);
+  }
+
+  private void handle(final RoutingContext routingContext) {
+    final HttpServerRequest request = routingContext.request();
+    if (!Boolean.parseBoolean(request.getParam(STREAM))
+            || !request.headers().contains(HttpHeaders.UPGRADE, HttpHeaders.WEBSOCKET, true)
+            || !implemented(routingContext)) {
+      routingContext.next();
+      return;
+    }
+    final String queryName = routingContext.pathParam("queryName");
+    final Instant since;
+    try {
+      since = since(request.getParam(INITIAL_RECORD_TIME));
+    } catch (DateTimeParseException e) {
+      routingContext.response().setStatusCode(Response.Status.BAD_REQUEST.getStatusCode()).end();
+      return;
+    }
+    final Context context = vertx.getOrCreateContext();
+    request.pause();
+    QuarkusHttpUser.getSecurityIdentity(routingContext, null)
+            .chain(identity -> authorize(identity).chain(() -> namedQueryPlans.plan(queryName))
+                    .chain(plan -> matcher.prepare(queryName, plan)
+                            .map(predicate -> new Subscription(queryName, queryScopes.access(identity),
+                                    queryScopes.scoped(identity, plan.query()), predicate, since))))
+            .subscribe().with(
+                    subscription -> context.runOnContext(ignored -> request.toWebSocket()
+                            .onSuccess(socket -> open(socket, subscription, request.getParam(INITIAL_RECORD_TIME) != null))
+                            .onFailure(failure -> log.warn("unable to upgrade the subscription to {}: {}", queryName, failure.getMessage()))),
+                    failure -> context.runOnContext(ignored -> {
+                      if (failure instanceof UnsupportedQueryParameterException) {
+                        routingContext.request().resume();
+                        routingContext.next();
+                      } else {
+                        reject(routingContext, queryName, failure);
+                      }
+                    }));
+  }
+
+  /**
+   * @return whether the route serves the subscription like the query resource would, otherwise the
+   * resource serves it
+   */
+  static boolean implemented(final RoutingContext routingContext) {
+    // a stream reports new events only, an empty report is never sent
+    return PARAMETERS.containsAll(routingContext.queryParams().names())
+            && !Boolean.parseBoolean(routingContext.queryParams().get(REPORT_IF_EMPTY))
+            && EpcFormats.asStored(routingContext.request().getHeader(HeaderConstants.GS1_EPC_FORMAT));
+  }
+
+  private static Uni<Void> authorize(final SecurityIdentity identity) {
+    if (identity == null || identity.isAnonymous()) {
+      return Uni.createFrom().failure(new WebApplicationException(Response.Status.UNAUTHORIZED));
+    }
+    if (!identity.hasRole(RestResources.QUERY_ROLE) && !RestResources.isAdmin(identity)) {
+      return Uni.createFrom().failure(new WebApplicationException(Response.Status.FORBIDDEN));
+    }
+    return Uni.createFrom().voidItem();
+  }
+
+  private void open(final ServerWebSocket socket, final Subscription subscription, final boolean catchUpNow) {
+    final StreamingSession session = new StreamingSession(socket, subscription.queryName(), subscription.access(),
+            subscription.query(), subscription.predicate(), writers, config, subscription.since());
+    sessions.open(session);
+    final AtomicBoolean polling = new AtomicBoolean();
+    final AtomicBoolean again = new AtomicBoolean();
+    final Runnable poll = () -> poll(session, polling, again);
+    // a session which left out events while its subscriber lagged catches up as soon as it drained
+    session.behindHandler(poll);
+    final long timer = vertx.setPeriodic(config.catchUpInterval().toMillis(), id -> poll.run());
+    socket.closeHandler(ignored -> {
+      vertx.cancelTimer(timer);
+      sessions.close(session);
+    });
+    if (catchUpNow) {
+      poll.run();
+    }
+  }
+
+  /**
+   * Runs a catch-up poll of {@code session}, or another one right after the poll running already, so
+   * a session rewound while a poll runs is not left behind until the next interval.
+   */
+  private void poll(final StreamingSession session, final AtomicBoolean polling, final AtomicBoolean again) {
+    while (!polling.compareAndSet(false, true)) {
+      again.set(true);
+      if (polling.get()) {
+        // the running poll sees the request once it finished
+        return;
+      }
+    }
+    catchUp.catchUp(session)
+            .onTermination().invoke(() -> {
+              polling.set(false);
+              if (again.getAndSet(false)) {
+                poll(session, polling, again);
+              }
+            })
+            .subscribe().with(
+                    ignored -> {},
+                    failure -> log.warn("catch-up of a {} subscription failed: {}",
+                            session.queryName(), failure.getMessage()));
+  }
+
+  private void reject(final RoutingContext routingContext, final String queryName, final Throwable failure) {
+    final int status = failure instanceof WebApplicationException e && e.getResponse() != null
+            ? e.getResponse().getStatus()
+            : Response.Status.INTERNAL_SERVER_ERROR.getStatusCode();
+    if (status >= Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+      log.warn("unable to open a subscription to {}: {}", queryName, failure.getMessage());
+    }
+    routingContext.request().resume();
+    routingContext.response().setStatusCode(status).end();
+  }
+
+  private static Instant since(final String initialRecordTime) {
+    return initialRecordTime == null || initialRecordTime.isBlank()
+            ? Instant.now()
+            : OffsetDateTime.parse(initialRecordTime).toInstant();
+  }
+}
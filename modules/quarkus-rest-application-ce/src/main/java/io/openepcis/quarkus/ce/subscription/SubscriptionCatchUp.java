@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQuery;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Polls the query of a streaming session for events recorded since its previous poll, the fallback
+ * for events push delivery missed. Polls read {@code catch-up-per-page} events in record time and event
+ * id order; a full page continues with the next poll after its last event, as does a page the session
+ * could not queue in full after the last event queued. A poll does not record its progress if the
+ * session was rewound to events it left out meanwhile, the next poll starts from there.
+ */
+@ApplicationScoped
+public class SubscriptionCatchUp {
+
+  static final String METRIC_EVENTS = "epcis.subscription.catch-up.events";
+
+  private final EventSearch eventSearch;
+  private final StreamingConfig config;
+  private final Counter caughtUp;
+
+  public SubscriptionCatchUp(final EventSearch eventSearch, final StreamingConfig config, final MeterRegistry registry) {
+    this.eventSearch = eventSearch;
+    this.config = config;
+    this.caughtUp = Counter.builder(METRIC_EVENTS)
+            .description("Events found by catch-up polls, including those already pushed")
+            .register(registry);
+  }
+
+  Uni<Void> catchUp(final StreamingSession session) {
+    final Instant started = Instant.now();
+    final StreamingSession.Position position = session.position();
+    final Instant caughtUpTo = position.caughtUpTo();
+    final Instant from = caughtUpTo.minus(config.catchUpOverlap());
+    final Query recorded = Query.of(q -> q.range(r -> r.field(EventFields.RECORD_TIME).gte(JsonData.of(from.toString()))));
+    final EventQuery query = new EventQuery(
+            session.query().and(recorded).query(), EventFields.RECORD_TIME, SortOrder.Asc, null, null);
+    return eventSearch.after(query, position.catchUpAfter(), config.catchUpPerPage()).invoke(hits -> {
+      caughtUp.increment(hits.size());
+      final int delivered = session.deliver(hits.stream().map(Hit::source).toList());
+      if (delivered < hits.size()) {
+        // the session's queue is full, the next poll starts with the first event left out
+        if (delivered > 0) {
+          session.caughtUpTo(position, caughtUpTo, hits.get(delivered - 1).sort());
+        }
+      } else if (hits.size() == config.catchUpPerPage()) {
+        // continue after the last event rather than at its record time, which more than a page may share
+        session.caughtUpTo(position, caughtUpTo, hits.get(hits.size() - 1).sort());
+      } else {
+        session.caughtUpTo(position, started, List.of());
+      }
+    }).replaceWithVoid();
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.openepcis.quarkus.ce.query.NamedQueryPlans;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches saved events against the queries of the open streaming sessions. Queries whose parameters
+ * compile to a {@link SubscriptionPredicate} are matched in memory through a {@link PredicateIndex}
+ * on the consumer thread; only the others are registered with and percolated by the
+ * {@link PercolatorQueries}, which takes a search per batch.
+ * <p>
+ * The index is rebuilt lazily, on the first batch after sessions were opened or the last session of
+ * a query was closed, from the predicates the open sessions were created with.
+ */
+@ApplicationScoped
+public class SubscriptionMatcher {
+
+  static final String METRIC_EVENTS = "epcis.subscription.match.events";
+  static final String METRIC_DURATION = "epcis.subscription.match.duration";
+  static final String METRIC_QUERIES = "epcis.subscription.match.queries";
+
+  static final String IN_MEMORY = "in-memory";
+  static final String PERCOLATOR = "percolator";
+
+  /**
+   * The index of the sessions open at {@code version}.
+   */
+  private record Snapshot(long version, PredicateIndex index, Set<String> percolated) {}
+
+  private final StreamingSessions sessions;
+  private final PercolatorQueries percolatorQueries;
+  private final StreamingConfig config;
+  private final Counter inMemoryEvents;
+  private final Counter percolatedEvents;
+  private final Timer inMemoryDuration;
+  private final Timer percolatorDuration;
+  private volatile Snapshot snapshot = new Snapshot(-1, PredicateIndex.EMPTY, Set.of());
+
+  public SubscriptionMatcher(
+          final StreamingSessions sessions,
+          final PercolatorQueries percolatorQueries,
+          final StreamingConfig config,
+          final MeterRegistry registry) {
+    this.sessions = sessions;
+    this.percolatorQueries = percolatorQueries;
+    this.config = config;
+    this.inMemoryEvents = events(registry, IN_MEMORY);
+    this.percolatedEvents = events(registry, PERCOLATOR);
+    this.inMemoryDuration = duration(registry, IN_MEMORY);
+    this.percolatorDuration = duration(registry, PERCOLATOR);
+    Gauge.builder(METRIC_QUERIES, this, matcher -> matcher.snapshot.index().size())
+            .description("Queries of open streaming sessions matched in memory or percolated")
+            .tag("path", IN_MEMORY)
+            .register(registry);
+    Gauge.builder(METRIC_QUERIES, this, matcher -> matcher.snapshot.percolated().size())
+            .description("Queries of open streaming sessions matched in memory or percolated")
+            .tag("path", PERCOLATOR)
+            .register(registry);
+  }
+
+  /**
+   * Compiles the predicate of a named query about to be streamed, or registers the query with the
+   * percolator if it cannot be compiled.
+   *
+   * @return the predicate, {@code null} if the query is percolated
+   */
+  Uni<SubscriptionPredicate> prepare(final String queryName, final NamedQueryPlans.Plan plan) {
+    final SubscriptionPredicate predicate = config.inMemoryMatching()
+            ? SubscriptionPredicate.compile(queryName, plan.parameters()).orElse(null)
+            : null;
+    if (predicate != null) {
+      return Uni.createFrom().item(predicate);
+    }
+    return percolatorQueries.register(queryName, plan.query().query()).replaceWith((SubscriptionPredicate) null);
+  }
+
+  /**
+   * @return the names of the queries with open sessions matching each event, by its position in {@code events}
+   */
+  Uni<Map<Integer, Set<String>>> match(final List<ObjectNode> events) {
+    final Snapshot current = snapshot();
+    final Map<Integer, Set<String>> matches = new HashMap<>();
+    if (current.index().size() > 0) {
+      final long start = System.nanoTime();
+      for (int slot = 0; slot < events.size(); slot++) {
+        final Set<String> queryNames = current.index().match(events.get(slot));
+        if (!queryNames.isEmpty()) {
+          matches.put(slot, queryNames);
+        }
+      }
+      inMemoryDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      inMemoryEvents.increment(events.size());
+    }
+    if (current.percolated().isEmpty()) {
+      return Uni.createFrom().item(matches);
+    }
+    final long start = System.nanoTime();
+    return percolatorQueries.percolate(events, current.percolated()).map(percolated -> {
+      percolatorDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      percolatedEvents.increment(events.size());
+      percolated.forEach((slot, queryNames) -> matches.computeIfAbsent(slot, ignored -> new HashSet<>()).addAll(queryNames));
+      return matches;
+    });
+  }
+
+  private Snapshot snapshot() {
+    final Snapshot current = snapshot;
+    final long version = sessions.version();
+    if (current.version() == version) {
+      return current;
+    }
+    synchronized (this) {
+      if (snapshot.version() != version) {
+        final Map<String, SubscriptionPredicate> predicates = new HashMap<>();
+        final Set<String> percolated = new HashSet<>();
+        for (final String queryName : sessions.queryNames()) {
+          for (final StreamingSession session : sessions.of(queryName)) {
+            if (session.predicate() == null) {
+              percolated.add(queryName);
+            } else {
+              predicates.putIfAbsent(queryName, session.predicate());
+            }
+          }
+        }
+        percolated.forEach(predicates::remove);
+        snapshot = new Snapshot(version, PredicateIndex.of(predicates.values()), Set.copyOf(percolated));
+      }
+      return snapshot;
+    }
+  }
+
+  private static Counter events(final MeterRegistry registry, final String path) {
+    return Counter.builder(METRIC_EVENTS)
+            .description("Saved events matched against the queries of open streaming sessions")
+            .tag("path", path)
+            .register(registry);
+  }
+
+  private static Timer duration(final MeterRegistry registry, final String path) {
+    return Timer.builder(METRIC_DURATION)
+            .description("Time to match a batch of saved events against the queries of open streaming sessions")
+            .tag("path", path)
+            .register(registry);
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The parameters of a named query compiled into a predicate which is evaluated against saved
+ * events in memory: equality on event fields, EPC values and patterns, and half-open time bounds.
+ * Queries with parameters it cannot express stay with the {@link PercolatorQueries}.
+ */
+final class SubscriptionPredicate {
+
+  static final List<String> EPC_FIELDS = List.of(EventFields.EPC_LIST, EventFields.CHILD_EPCS,
+          EventFields.PARENT_ID, EventFields.INPUT_EPC_LIST, EventFields.OUTPUT_EPC_LIST);
+
+  // ordering and limits apply to query results, not to which events match
+  private static final Set<String> IGNORED = Set.of(EventQueryTranslator.PER_PAGE, EventQueryTranslator.NEXT_PAGE_TOKEN,
+          EventQueryTranslator.FIELDS, EventQueryTranslator.EXPLAIN, "orderBy", "orderDirection", "eventCountLimit",
+          "maxEventCount");
+
+  /**
+   * One {@code MATCH_} parameter: any value of {@code fields} equals one of {@code exact} or starts
+   * with one of {@code prefixes}.
+   */
+  record EpcMatch(List<String> fields, Set<String> exact, List<String> prefixes) {
+
+    boolean matches(final ObjectNode event) {
+      for (final String field : fields) {
+        if (any(event, field, this::matches)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean matches(final String epc) {
+      if (exact.contains(epc)) {
+        return true;
+      }
+      for (final String prefix : prefixes) {
+        if (epc.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Half-open range {@code [from, to)} of epoch milliseconds, unbounded ends at the extremes of {@code long}.
+   */
+  record TimeRange(long from, long to) {
+
+    boolean bounded() {
+      return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    /**
+     * @param time epoch milliseconds, {@link Long#MIN_VALUE} if the event has none
+     */
+    boolean contains(final long time) {
+      return !bounded() || time != Long.MIN_VALUE && from <= time && time < to;
+    }
+  }
+
+  private static final Map<String, JsonPointer> POINTERS = new ConcurrentHashMap<>();
+
+  private final String queryName;
+  private final Map<String, Set<String>> equalities;
+  private final List<EpcMatch> epcs;
+  private final TimeRange eventTime;
+  private final TimeRange recordTime;
+
+  private SubscriptionPredicate(
+          final String queryName,
+          final Map<String, Set<String>> equalities,
+          final List<EpcMatch> epcs,
+          final TimeRange eventTime,
+          final TimeRange recordTime) {
+    this.queryName = queryName;
+    this.equalities = equalities;
+    this.epcs = epcs;
+    this.eventTime = eventTime;
+    this.recordTime = recordTime;
+  }
+
+  /**
+   * @return the predicate of the stored query {@code parameters}, empty if any of them cannot be
+   * evaluated in memory
+   */
+  static Optional<SubscriptionPredicate> compile(final String queryName, final Map<String, List<String>> parameters) {
+    final Map<String, Set<String>> equalities = new LinkedHashMap<>();
+    final List<EpcMatch> epcs = new ArrayList<>();
+    final Map<String, Long> bounds = new LinkedHashMap<>();
+    for (final Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+      final String name = parameter.getKey();
+      final List<String> values = EventQueryTranslator.split(parameter.getValue());
+      if (IGNORED.contains(name) || values.isEmpty()) {
+        continue;
+      }
+      switch (name) {
+        case "eventType" -> equalities.put(EventFields.TYPE, Set.copyOf(values));
+        case "EQ_action" -> equalities.put(EventFields.ACTION, Set.copyOf(values));
+        case "EQ_bizStep" -> equalities.put(EventFields.BIZ_STEP,
+                Set.copyOf(EventQueryTranslator.cbv("BizStep", "bizstep", values)));
+        case "EQ_disposition" -> equalities.put(EventFields.DISPOSITION,
+                Set.copyOf(EventQueryTranslator.cbv("Disp", "disp", values)));
+        case "EQ_readPoint" -> equalities.put(EventFields.READ_POINT, Set.copyOf(values));
+        case "EQ_bizLocation" -> equalities.put(EventFields.BIZ_LOCATION, Set.copyOf(values));
+        case "EQ_eventID" -> equalities.put(EventFields.EVENT_ID, Set.copyOf(values));
+        case "GE_eventTime", "LT_eventTime", "GE_recordTime", "LT_recordTime" -> {
+          final long bound = values.size() == 1 ? millis(values.get(0)) : Long.MIN_VALUE;
+          if (bound == Long.MIN_VALUE) {
+            return Optional.empty();
+          }
+          bounds.put(name, bound);
+        }
+        case "MATCH_epc" -> epcs.add(epcMatch(values, EventFields.EPC_LIST, EventFields.CHILD_EPCS));
+        case "MATCH_parentID" -> epcs.add(epcMatch(values, EventFields.PARENT_ID));
+        case "MATCH_inputEPC" -> epcs.add(epcMatch(values, EventFields.INPUT_EPC_LIST));
+        case "MATCH_outputEPC" -> epcs.add(epcMatch(values, EventFields.OUTPUT_EPC_LIST));
+        case "MATCH_anyEPC" -> epcs.add(epcMatch(values, EPC_FIELDS.toArray(String[]::new)));
+        default -> {
+          return Optional.empty();
+        }
+      }
+    }
+    final TimeRange eventTime = new TimeRange(
+            bounds.getOrDefault("GE_eventTime", Long.MIN_VALUE), bounds.getOrDefault("LT_eventTime", Long.MAX_VALUE));
+    final TimeRange recordTime = new TimeRange(
+            bounds.getOrDefault("GE_recordTime", Long.MIN_VALUE), bounds.getOrDefault("LT_recordTime", Long.MAX_VALUE));
+    return Optional.of(new SubscriptionPredicate(queryName, equalities, List.copyOf(epcs), eventTime, recordTime));
+  }
+
+  String queryName() {
+    return queryName;
+  }
+
+  Map<String, Set<String>> equalities() {
+    return equalities;
+  }
+
+  List<EpcMatch> epcs() {
+    return epcs;
+  }
+
+  TimeRange eventTime() {
+    return eventTime;
+  }
+
+  TimeRange recordTime() {
+    return recordTime;
+  }
+
+  boolean matches(final ObjectNode event) {
+    return matches(event, millis(event, EventFields.EVENT_TIME), millis(event, EventFields.RECORD_TIME));
+  }
+
+  /**
+   * @param eventTime the event time of {@code event} in epoch milliseconds, as parsed by {@link #millis(ObjectNode, String)}
+   * @param recordTime the record time of {@code event} in epoch milliseconds
+   */
+  boolean matches(final ObjectNode event, final long eventTime, final long recordTime) {
+    if (!this.eventTime.contains(eventTime) || !this.recordTime.contains(recordTime)) {
+      return false;
+    }
+    for (final Map.Entry<String, Set<String>> equality : equalities.entrySet()) {
+      if (!any(event, equality.getKey(), equality.getValue()::contains)) {
+        return false;
+      }
+    }
+    for (final EpcMatch epc : epcs) {
+      if (!epc.matches(event)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Passes every textual value of {@code field}, a single value or an array, to {@code consumer}.
+   */
+  static void forEachValue(final ObjectNode event, final String field, final Consumer<String> consumer) {
+    any(event, field, value -> {
+      consumer.accept(value);
+      return false;
+    });
+  }
+
+  /**
+   * @return the epoch milliseconds of the date time {@code field} of {@code event}, {@link Long#MIN_VALUE}
+   * if it has none
+   */
+  static long millis(final ObjectNode event, final String field) {
+    return millis(event.path(field).asText(null));
+  }
+
+  private static long millis(final String value) {
+    if (value == null) {
+      return Long.MIN_VALUE;
+    }
+    try {
+      return OffsetDateTime.parse(value).toInstant().toEpochMilli();
+    } catch (DateTimeParseException e) {
+      return Long.MIN_VALUE;
+    }
+  }
+
+  private static boolean any(final ObjectNode event, final String field, final Predicate<String> test) {
+    final JsonNode node = event.at(POINTERS.computeIfAbsent(field, f -> JsonPointer.compile("/" + f.replace('.', '/'))));
+    if (node.isArray()) {
+      for (final JsonNode value : node) {
+        if (value.isTextual() && test.test(value.asText())) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return node.isTextual() && test.test(node.asText());
+  }
+
+  private static EpcMatch epcMatch(final List<String> values, final String... fields) {
+    final Set<String> exact = new LinkedHashSet<>();
+    final List<String> prefixes = new ArrayList<>();
+    for (final String value : values) {
+      final String prefix = EventQueryTranslator.epcPatternPrefix(value);
+      if (prefix == null) {
+        exact.add(value);
+      } else {
+        prefixes.add(prefix);
+      }
+    }
+    return new EpcMatch(List.of(fields), Set.copyOf(exact), List.copyOf(prefixes));
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pushes saved events to the streaming sessions of this node. Every batch of {@code event-saved}
+ * records is looked up with one search and matched once against the queries with an open
+ * session by the {@link SubscriptionMatcher}; each matching event is delivered to the sessions of
+ * the query that may see it right away. Events this misses, e.g. while the consumer lags, are
+ * found by the sessions' catch-up polls.
+ */
+@Slf4j
+@ApplicationScoped
+public class SubscriptionPush {
+
+  static final String METRIC_EVENTS = "epcis.subscription.push.events";
+  static final String METRIC_DELIVERIES = "epcis.subscription.push.deliveries";
+  static final String METRIC_LATENCY = "epcis.subscription.push.latency";
+
+  // the full events including their access fields, which sessions check visibility against
+  private static final String ALL_FIELDS = "*";
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+
+  private final StreamingSessions sessions;
+  private final SubscriptionMatcher matcher;
+  private final EventSearch eventSearch;
+  private final Counter events;
+  private final Counter deliveries;
+  private final Timer latency;
+
+  public SubscriptionPush(
+          final StreamingSessions sessions,
+          final SubscriptionMatcher matcher,
+          final EventSearch eventSearch,
+          final MeterRegistry registry) {
+    this.sessions = sessions;
+    this.matcher = matcher;
+    this.eventSearch = eventSearch;
+    this.events = Counter.builder(METRIC_EVENTS)
+            .description("Saved events matched against the queries of open streaming sessions")
+            .register(registry);
+    this.deliveries = Counter.builder(METRIC_DELIVERIES)
+            .description("Saved events pushed to streaming sessions")
+            .register(registry);
+    this.latency = Timer.builder(METRIC_LATENCY)
+            .description("Time from publishing event-saved to pushing the event to the sessions")
+            .register(registry);
+  }
+
+  @Incoming("subscription-push-in")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    if (sessions.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    // publish time of every saved event, the earliest if it was announced more than once
+    final Map<String, Long> published = new LinkedHashMap<>();
+    for (final ConsumerRecord<String, EventSavedMessage> record : records) {
+      if (record.value() != null && record.value().getEventID() != null) {
+        published.merge(record.value().getEventID(), record.timestamp(), Math::min);
+      }
+    }
+    if (published.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    return fetch(published.keySet())
+            .chain(found -> matcher.match(found).invoke(matches -> {
+              events.increment(found.size());
+              dispatch(found, matches, published);
+            }))
+            .onFailure().invoke(failure -> log.warn(
+                    "unable to push {} saved events, catch-up polls will deliver them: {}", published.size(), failure.getMessage()))
+            .onFailure().recoverWithNull()
+            .replaceWithVoid();
+  }
+
+  /**
+   * Delivers the matched events to the open sessions of their queries that may see them.
+   *
+   * @param matches the names of the matching queries by position in {@code found}
+   * @param published publish time of the saved events by event id
+   */
+  void dispatch(
+          final List<ObjectNode> found, final Map<Integer, Set<String>> matches, final Map<String, Long> published) {
+    // one message per session and batch instead of one per event
+    final Map<StreamingSession, List<ObjectNode>> bySession = new LinkedHashMap<>();
+    matches.forEach((slot, queryNames) -> {
+      final ObjectNode event = found.get(slot);
+      for (final String queryName : queryNames) {
+        for (final StreamingSession session : sessions.of(queryName)) {
+          if (session.visible(event)) {
+            bySession.computeIfAbsent(session, ignored -> new ArrayList<>()).add(event);
+          }
+        }
+      }
+    });
+    bySession.forEach((session, delivered) -> {
+      session.deliver(delivered);
+      deliveries.increment(delivered.size());
+    });
+    final long now = System.currentTimeMillis();
+    matches.keySet().forEach(slot -> {
+      final Long publishedAt = published.get(found.get(slot).path(EventFields.EVENT_ID).asText());
+      if (publishedAt != null && publishedAt > 0) {
+        latency.record(Duration.ofMillis(Math.max(0, now - publishedAt)));
+      }
+    });
+  }
+
+  private Uni<List<ObjectNode>> fetch(final Set<String> eventIDs) {
+    return eventSearch.findByEventIds(eventIDs, ALL_FIELDS)
+            .chain(found -> found.size() >= eventIDs.size()
+                    ? Uni.createFrom().item(found)
+                    : Uni.createFrom().voidItem().onItem().delayIt().by(REFRESH_DELAY)
+                            .chain(() -> eventSearch.findByEventIds(eventIDs, ALL_FIELDS)));
+  }
+}
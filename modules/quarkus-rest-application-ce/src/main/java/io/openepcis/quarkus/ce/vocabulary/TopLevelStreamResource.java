@@ -0,0 +1,100 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.rest.api.common.TopLevelStreamApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestMulti;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams complete top-level listings as NDJSON, written page by page as the
+ * {@link VocabularyListing} reads them.
+ */
+public class TopLevelStreamResource implements TopLevelStreamApi {
+
+  private final VocabularyListing vocabularyListing;
+  private final ObjectMapper objectMapper;
+
+  public TopLevelStreamResource(final VocabularyListing vocabularyListing, final ObjectMapper objectMapper) {
+    this.vocabularyListing = vocabularyListing;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Multi<byte[]> streamEventTypes(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.EVENT_TYPE);
+  }
+
+  @Override
+  public Multi<byte[]> streamBizSteps(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.BIZ_STEP);
+  }
+
+  @Override
+  public Multi<byte[]> streamDispositions(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.DISPOSITION);
+  }
+
+  @Override
+  public Multi<byte[]> streamReadPoints(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.READ_POINT);
+  }
+
+  @Override
+  public Multi<byte[]> streamBizLocations(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.BIZ_LOCATION);
+  }
+
+  @Override
+  public Multi<byte[]> streamEPCs(final SecurityIdentity securityIdentity) {
+    return stream(securityIdentity, VocabularyType.EPC);
+  }
+
+  private Multi<byte[]> stream(final SecurityIdentity securityIdentity, final VocabularyType type) {
+    return RestMulti.fromMultiData(vocabularyListing.stream(securityIdentity, type).map(this::lines))
+            .status(Response.Status.OK.getStatusCode())
+            .header(HeaderConstants.CONTENT_TYPE, APPLICATION_NDJSON)
+            .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0")
+            .encodeAsJsonArray(false)
+            .build();
+  }
+
+  /**
+   * @return one {@code {"value": ...}} object per line
+   */
+  byte[] lines(final List<String> values) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(values.size() * 64);
+    try {
+      for (final String value : values) {
+        out.write(objectMapper.writeValueAsBytes(Map.of(VocabularyListing.VALUE, value)));
+        out.write('\n');
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
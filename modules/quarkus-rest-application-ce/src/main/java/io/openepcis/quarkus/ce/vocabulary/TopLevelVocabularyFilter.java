@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import io.openepcis.quarkus.ce.PageTokens;
+import io.openepcis.quarkus.ce.query.EventQueryTranslator;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.rest.api.common.BizLocationsTopLevelApi;
+import io.openepcis.rest.api.common.BizStepsTopLevelApi;
+import io.openepcis.rest.api.common.DispositionsTopLevelApi;
+import io.openepcis.rest.api.common.EPCsTopLevelApi;
+import io.openepcis.rest.api.common.EventTypesTopLevelApi;
+import io.openepcis.rest.api.common.ReadPointsTopLevelApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Answers the listings of the top-level resources ({@code GET /eventTypes}, {@code /bizSteps},
+ * {@code /dispositions}, {@code /readPoints}, {@code /bizLocations} and {@code /epcs}) from the
+ * {@link VocabularyIndex} before the resource runs. The {@code nextPageToken} carries the last value
+ * of the page, so every page costs the same however deep it is. While
+ * {@code repository.epcis.vocabulary.serve} is disabled, for callers the index cannot list (see
+ * {@link VocabularyListing}) and for representations other than JSON and JSON-LD the listings are
+ * left to the resources.
+ */
+public class TopLevelVocabularyFilter {
+
+  static final Map<String, VocabularyType> LISTINGS = Map.of(
+          "getEventTypes", VocabularyType.EVENT_TYPE,
+          "getBizSteps", VocabularyType.BIZ_STEP,
+          "getDispositions", VocabularyType.DISPOSITION,
+          "getReadPoint", VocabularyType.READ_POINT,
+          "getBizLocations", VocabularyType.BIZ_LOCATION,
+          "getEPCS", VocabularyType.EPC);
+
+  static final List<Class<?>> RESOURCES = List.of(
+          EventTypesTopLevelApi.class,
+          BizStepsTopLevelApi.class,
+          DispositionsTopLevelApi.class,
+          ReadPointsTopLevelApi.class,
+          BizLocationsTopLevelApi.class,
+          EPCsTopLevelApi.class);
+
+  private static final String EPCIS_CONTEXT = "https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld";
+  private static final MediaType APPLICATION_LD_JSON = MediaType.valueOf("application/ld+json");
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  VocabularyListing vocabularyListing;
+
+  @Inject
+  QueryScopes queryScopes;
+
+  @Inject
+  PageTokens pageTokens;
+
+  @ConfigProperty(name = "repository.epcis.top-level.per-page-default")
+  int perPageDefault;
+
+  @ConfigProperty(name = "repository.epcis.top-level.per-page-max")
+  int perPageMax;
+
+  @ServerRequestFilter
+  public Uni<Response> list(
+          final ContainerRequestContext requestContext, final ResourceInfo resourceInfo, final HttpHeaders headers) {
+    final Optional<VocabularyType> type = listing(requestContext, resourceInfo);
+    final Optional<MediaType> mediaType = type.flatMap(ignored -> mediaType(headers));
+    if (type.isEmpty() || mediaType.isEmpty() || !vocabularyListing.indexed(securityIdentity)) {
+      return Uni.createFrom().nullItem();
+    }
+    final String scope = queryScopes.scope(securityIdentity);
+    final int size = size(requestContext.getUriInfo().getQueryParameters().getFirst(EventQueryTranslator.PER_PAGE));
+    final String nextPageToken = requestContext.getUriInfo().getQueryParameters().getFirst(EventQueryTranslator.NEXT_PAGE_TOKEN);
+    final String after = nextPageToken != null ? resume(nextPageToken, type.get(), scope) : null;
+    // one extra value tells whether there is a next page without a trailing empty one
+    return vocabularyListing.list(securityIdentity, type.get(), size + 1, after).map(values -> {
+      final List<String> page = values.size() > size ? values.subList(0, size) : values;
+      final Map<String, Object> body = new LinkedHashMap<>();
+      body.put("@context", List.of(EPCIS_CONTEXT));
+      body.put("type", "Collection");
+      body.put("member", page);
+      final Response.ResponseBuilder response = Response.ok(body, mediaType.get())
+              .header(HeaderConstants.GS1_EPCIS_VERSION, "2.0.0");
+      if (values.size() > size) {
+        final String token = pageTokens.sign(new VocabularyCursor(type.get().resource(), scope, page.get(page.size() - 1)));
+        response.link(requestContext.getUriInfo().getRequestUriBuilder()
+                .replaceQueryParam(EventQueryTranslator.NEXT_PAGE_TOKEN, token).build(), "next");
+      }
+      return response.build();
+    });
+  }
+
+  /**
+   * @return the vocabulary listed by the request, empty if it is no top-level listing
+   */
+  public static Optional<VocabularyType> listing(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo) {
+    if (!HttpMethod.GET.equals(requestContext.getMethod())
+            || resourceInfo.getResourceClass() == null
+            || resourceInfo.getResourceMethod() == null
+            || RESOURCES.stream().noneMatch(api -> api.isAssignableFrom(resourceInfo.getResourceClass()))) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(LISTINGS.get(resourceInfo.getResourceMethod().getName()));
+  }
+
+  private static Optional<MediaType> mediaType(final HttpHeaders headers) {
+    for (final MediaType accepted : headers.getAcceptableMediaTypes()) {
+      if (accepted.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+        return Optional.of(MediaType.APPLICATION_JSON_TYPE);
+      }
+      if (accepted.isCompatible(APPLICATION_LD_JSON)) {
+        return Optional.of(APPLICATION_LD_JSON);
+      }
+      if (accepted.isCompatible(MediaType.APPLICATION_XML_TYPE)) {
+        return Optional.empty();
+      }
+    }
+    return Optional.empty();
+  }
+
+  private int size(final String perPage) {
+    if (perPage == null || perPage.isBlank()) {
+      return perPageDefault;
+    }
+    try {
+      final int size = Integer.parseInt(perPage);
+      if (size < 1) {
+        throw new NumberFormatException();
+      }
+      return Math.min(size, perPageMax);
+    } catch (NumberFormatException e) {
+      throw EventQueryTranslator.invalid(String.format("perPage must be a positive integer, got '%s'", perPage));
+    }
+  }
+
+  private String resume(final String nextPageToken, final VocabularyType type, final String scope) {
+    final VocabularyCursor cursor = pageTokens.verify(nextPageToken, VocabularyCursor.class);
+    if (!type.resource().equals(cursor.resource()) || !scope.equals(cursor.scope()) || cursor.after() == null) {
+      throw PageTokens.invalid();
+    }
+    return cursor.after();
+  }
+}
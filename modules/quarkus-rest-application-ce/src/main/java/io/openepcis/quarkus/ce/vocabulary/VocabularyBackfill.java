@@ -0,0 +1,205 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregate;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+import org.opensearch.client.opensearch._types.aggregations.CompositeBucket;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fills the {@link VocabularyIndex} from the event index, for repositories holding events saved before
+ * the index was introduced or no longer retained in {@code event-saved}. The values of every vocabulary
+ * are read with composite aggregations of {@code backfill-batch-size} buckets, once for all groups and
+ * once per group, together with the first and last record time of each value. They are upserted like
+ * the entries of saved events, so a backfill racing the consumer, or interrupted and repeated, is harmless.
+ * <p>
+ * Runs on startup with {@code backfill} enabled. A completed backfill is recorded in the vocabulary
+ * index and not repeated by other nodes or on restart.
+ */
+@Slf4j
+@ApplicationScoped
+public class VocabularyBackfill {
+
+  static final String MARKER_ID = "backfill";
+  static final String COMPLETED = "completed";
+
+  private static final String BUCKETS = "buckets";
+
+  /**
+   * One page of buckets.
+   *
+   * @param afterKey key of the last bucket if more buckets follow, {@code null} otherwise
+   */
+  private record Page(List<VocabularyEntry> entries, Map<String, String> afterKey) {}
+
+  private final OpenSearchAsyncClient client;
+  private final VocabularyIndex vocabularyIndex;
+  private final VocabularyConfig config;
+  private final String eventIndex;
+
+  public VocabularyBackfill(
+          final OpenSearchAsyncClient client,
+          final VocabularyIndex vocabularyIndex,
+          final VocabularyConfig config,
+          @ConfigProperty(name = "repository.epcis.event.index") final String eventIndex) {
+    this.client = client;
+    this.vocabularyIndex = vocabularyIndex;
+    this.config = config;
+    this.eventIndex = eventIndex;
+  }
+
+  void onStart(@Observes final StartupEvent event) {
+    if (!config.backfill()) {
+      return;
+    }
+    backfill().subscribe().with(
+            ignored -> {},
+            failure -> log.error("vocabulary backfill failed, it is repeated on the next start", failure));
+  }
+
+  Uni<Void> backfill() {
+    return vocabularyIndex.ensureTemplate()
+            .chain(() -> AsyncCalls.call(() -> client.exists(e -> e.index(config.index()).id(MARKER_ID))))
+            .chain(completed -> {
+              if (completed.value()) {
+                log.info("vocabulary index {} was backfilled before", config.index());
+                return Uni.createFrom().voidItem();
+              }
+              log.info("backfilling vocabulary index {} from {}", config.index(), eventIndex);
+              return Multi.createFrom().items(VocabularyType.values())
+                      .onItem().transformToUniAndConcatenate(type -> Multi.createFrom().iterable(type.fields())
+                              .onItem().transformToUniAndConcatenate(field -> backfill(type, field, false)
+                                      .chain(() -> backfill(type, field, true)))
+                              .collect().last())
+                      .collect().last()
+                      .chain(this::complete);
+            });
+  }
+
+  /**
+   * Pages through the distinct values of {@code type} in {@code field}, for all groups or per group.
+   * A value held by several fields is upserted once per field, which only widens its seen range.
+   */
+  private Uni<Void> backfill(final VocabularyType type, final String field, final boolean perGroup) {
+    final AtomicReference<Map<String, String>> after = new AtomicReference<>();
+    final AtomicLong entries = new AtomicLong();
+    return Multi.createBy().repeating()
+            .uni(() -> page(type, field, perGroup, after.get()).invoke(page -> after.set(page.afterKey())))
+            .whilst(page -> page.afterKey() != null)
+            .onItem().transformToUniAndConcatenate(page -> vocabularyIndex.upsert(page.entries())
+                    .invoke(() -> entries.addAndGet(page.entries().size())))
+            .collect().last()
+            .invoke(() -> log.info("backfilled {} {} entries of {} {}", entries.get(), type.resource(), field,
+                    perGroup ? "per group" : "for all groups"))
+            .replaceWithVoid();
+  }
+
+  private Uni<Page> page(
+          final VocabularyType type, final String field, final boolean perGroup, final Map<String, String> after) {
+    final Map<String, CompositeAggregationSource> value = Map.of(VocabularyIndex.VALUE, VocabularyListing.source(field));
+    final List<Map<String, CompositeAggregationSource>> sources = perGroup
+            ? List.of(Map.of(VocabularyIndex.GROUP,
+                    CompositeAggregationSource.of(c -> c.terms(t -> t.field(EventFields.GROUP)))), value)
+            : List.of(value);
+    // events restricted with Roles-Allowed are listed for all groups only, see VocabularyEntry#of
+    final Query query = perGroup
+            ? Query.of(q -> q.bool(b -> b
+                    .filter(EventAccess.VISIBLE)
+                    .mustNot(n -> n.exists(e -> e.field(EventFields.ROLES_ALLOWED)))))
+            : EventAccess.VISIBLE;
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(eventIndex + "*")
+            .size(0)
+            .query(query)
+            .aggregations(BUCKETS, a -> a
+                    .composite(c -> {
+                      c.size(config.backfillBatchSize()).sources(sources);
+                      if (after != null) {
+                        c.after(after);
+                      }
+                      return c;
+                    })
+                    .aggregations(VocabularyIndex.FIRST_SEEN, f -> f.min(m -> m.field(EventFields.RECORD_TIME)))
+                    .aggregations(VocabularyIndex.LAST_SEEN, l -> l.max(m -> m.field(EventFields.RECORD_TIME)))));
+    final long now = System.currentTimeMillis();
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> {
+      final CompositeAggregate composite = response.aggregations().get(BUCKETS).composite();
+      final List<CompositeBucket> buckets = composite.buckets().array();
+      final List<VocabularyEntry> entries = new ArrayList<>(buckets.size());
+      for (final CompositeBucket bucket : buckets) {
+        final String group = perGroup ? text(bucket.key().get(VocabularyIndex.GROUP)) : VocabularyEntry.ALL_GROUPS;
+        final String text = text(bucket.key().get(VocabularyIndex.VALUE));
+        if (group != null && text != null && !text.isBlank()) {
+          entries.add(new VocabularyEntry(type.resource(), group, text,
+                  seen(bucket.aggregations().get(VocabularyIndex.FIRST_SEEN).min().value(), now),
+                  seen(bucket.aggregations().get(VocabularyIndex.LAST_SEEN).max().value(), now)));
+        }
+      }
+      return new Page(entries, buckets.size() == config.backfillBatchSize() && composite.afterKey() != null
+              ? keys(composite.afterKey())
+              : null);
+    });
+  }
+
+  private Uni<Void> complete(final Object ignored) {
+    final Map<String, Object> marker = new LinkedHashMap<>();
+    marker.put(VocabularyIndex.TYPE, MARKER_ID);
+    marker.put(COMPLETED, System.currentTimeMillis());
+    return AsyncCalls.call(() -> client.index(i -> i.index(config.index()).id(MARKER_ID).document(marker)))
+            .invoke(() -> log.info("backfilled vocabulary index {}", config.index()))
+            .replaceWithVoid();
+  }
+
+  /**
+   * @return the record time aggregated over a bucket, {@code fallback} if its events have none
+   */
+  private static long seen(final double recordTime, final long fallback) {
+    return Double.isFinite(recordTime) ? (long) recordTime : fallback;
+  }
+
+  private static String text(final JsonData value) {
+    final Object raw = value != null ? value.to(Object.class) : null;
+    return raw != null ? raw.toString() : null;
+  }
+
+  private static Map<String, String> keys(final Map<String, JsonData> key) {
+    final Map<String, String> keys = new LinkedHashMap<>();
+    key.forEach((name, value) -> keys.put(name, text(value)));
+    return keys;
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+@ConfigMapping(prefix = "repository.epcis.vocabulary", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface VocabularyConfig {
+
+  /**
+   * @return the index vocabulary entries are upserted into.
+   */
+  @WithDefault("epcis-vocabulary")
+  String index();
+
+  /**
+   * @return whether the top-level resources are listed from the vocabulary index. Enable once the
+   * index holds the values of all events, after a {@link #backfill()} on an existing repository.
+   */
+  @WithDefault("false")
+  boolean serve();
+
+  /**
+   * @return whether the vocabulary index is filled from the event index on startup, unless a
+   * previous backfill completed.
+   */
+  @WithDefault("false")
+  boolean backfill();
+
+  /**
+   * @return the number of buckets read per composite aggregation by the backfill.
+   */
+  @WithDefault("1000")
+  int backfillBatchSize();
+
+  /**
+   * @return the number of values read per search by the streamed top-level listings.
+   */
+  @WithDefault("5000")
+  int streamBatchSize();
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One vocabulary value as seen by the events of one group, see {@link VocabularyIndex}.
+ *
+ * @param group the group of the events, {@link #ALL_GROUPS} for the entry of all events
+ * @param firstSeen record time of the first event with this value, in epoch milliseconds
+ * @param lastSeen record time of the latest event with this value, in epoch milliseconds
+ */
+record VocabularyEntry(String type, String group, String value, long firstSeen, long lastSeen) {
+
+  static final String ALL_GROUPS = "*";
+
+  /**
+   * @return the entries of all vocabulary values in {@code event}, for all groups and, unless the
+   * event is restricted to some roles with {@code Roles-Allowed}, for its group
+   */
+  static List<VocabularyEntry> of(final ObjectNode event, final long fallbackSeen) {
+    final long seen = seen(event, fallbackSeen);
+    final JsonNode groupNode = event.get(EventFields.GROUP);
+    final String group = groupNode != null && groupNode.isTextual() && EventAccess.rolesAllowed(event).isEmpty()
+            ? groupNode.asText()
+            : null;
+    final List<VocabularyEntry> entries = new ArrayList<>();
+    for (final VocabularyType type : VocabularyType.values()) {
+      for (final String value : type.values(event)) {
+        entries.add(new VocabularyEntry(type.resource(), ALL_GROUPS, value, seen, seen));
+        if (group != null) {
+          entries.add(new VocabularyEntry(type.resource(), group, value, seen, seen));
+        }
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * @return the entries of {@code events}, one per type, group and value
+   */
+  static Collection<VocabularyEntry> merged(final List<ObjectNode> events, final long fallbackSeen) {
+    final Map<String, VocabularyEntry> entries = new LinkedHashMap<>();
+    for (final ObjectNode event : events) {
+      for (final VocabularyEntry entry : of(event, fallbackSeen)) {
+        entries.merge(entry.id(), entry, VocabularyEntry::merge);
+      }
+    }
+    return entries.values();
+  }
+
+  /**
+   * @return the document id, stable per type, group and value and short enough for any value
+   */
+  String id() {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update((type + '\n' + group + '\n' + value).getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  VocabularyEntry merge(final VocabularyEntry other) {
+    return new VocabularyEntry(type, group, value,
+            Math.min(firstSeen, other.firstSeen), Math.max(lastSeen, other.lastSeen));
+  }
+
+  private static long seen(final ObjectNode event, final long fallback) {
+    final JsonNode recordTime = event.get(EventFields.RECORD_TIME);
+    if (recordTime != null && recordTime.isTextual()) {
+      try {
+        return OffsetDateTime.parse(recordTime.asText()).toInstant().toEpochMilli();
+      } catch (DateTimeParseException e) {
+        return fallback;
+      }
+    }
+    return fallback;
+  }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.Script;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.indices.SegmentSortOrder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The distinct vocabulary values of all events, maintained incrementally from {@code event-saved}
+ * so the top-level resources never aggregate over the event index.
+ * <p>
+ * Every value is stored once per group and once for all groups ({@link VocabularyEntry#ALL_GROUPS})
+ * with the record time it was first and last seen. A batch of saved events is fetched with one search,
+ * its entries are merged in memory and applied as one bulk request of scripted upserts, which only
+ * widen the seen range and can therefore be replayed; a batch failing after its retries goes to the
+ * dead letter topic. Listings are sorted by value and paged with {@code search_after}; the index
+ * template, registered before the first upsert, sorts the index the same way, so pages terminate early.
+ * <p>
+ * On an existing repository the index starts out empty, {@link VocabularyBackfill} fills it from the
+ * event index before {@code serve} is enabled.
+ */
+@Slf4j
+@ApplicationScoped
+public class VocabularyIndex {
+
+  /** The group of the entries counting the events of all groups. */
+  public static final String ALL_GROUPS = VocabularyEntry.ALL_GROUPS;
+
+  static final String TYPE = "type";
+  static final String GROUP = "group";
+  static final String VALUE = "value";
+  static final String FIRST_SEEN = "firstSeen";
+  static final String LAST_SEEN = "lastSeen";
+
+  static final String UPSERT = """
+          if (params.firstSeen < ctx._source.firstSeen) { ctx._source.firstSeen = params.firstSeen }
+          if (params.lastSeen > ctx._source.lastSeen) { ctx._source.lastSeen = params.lastSeen }""";
+
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+  private static final int RETRY_ON_CONFLICT = 3;
+  private static final String LATEST = "latest";
+
+  private final OpenSearchAsyncClient client;
+  private final EventSearch eventSearch;
+  private final String index;
+  private final AtomicBoolean templateReady = new AtomicBoolean();
+
+  public VocabularyIndex(final OpenSearchAsyncClient client, final EventSearch eventSearch, final VocabularyConfig config) {
+    this.client = client;
+    this.eventSearch = eventSearch;
+    this.index = config.index();
+  }
+
+  @Incoming("vocabulary-index-in")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    final Set<String> eventIDs = StreamSupport.stream(records.spliterator(), false)
+            .map(ConsumerRecord::value)
+            .filter(Objects::nonNull)
+            .map(EventSavedMessage::getEventID)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (eventIDs.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final long received = System.currentTimeMillis();
+    return fetch(eventIDs)
+            .map(events -> VocabularyEntry.merged(events, received))
+            .chain(this::upsert)
+            .onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(30)).atMost(5)
+            .onFailure().invoke(failure -> log.error("unable to index the vocabulary of {} saved events", eventIDs.size(), failure));
+  }
+
+  /**
+   * @param group the caller's group, {@link VocabularyEntry#ALL_GROUPS} for admins
+   * @param after the last value of the previous page, {@code null} for the first page
+   * @return up to {@code size} values of {@code type} in ascending order
+   */
+  public Uni<List<String>> list(final VocabularyType type, final String group, final int size, final String after) {
+    final SearchRequest request = SearchRequest.of(s -> {
+      s.index(indexPattern())
+              .size(size)
+              .query(q -> q.bool(b -> b
+                      .filter(f -> f.term(t -> t.field(TYPE).value(FieldValue.of(type.resource()))))
+                      .filter(f -> f.term(t -> t.field(GROUP).value(FieldValue.of(group))))))
+              .sort(so -> so.field(f -> f.field(VALUE).order(SortOrder.Asc)))
+              .source(src -> src.filter(f -> f.includes(VALUE)))
+              .trackTotalHits(t -> t.enabled(false));
+      if (after != null) {
+        s.searchAfter(after);
+      }
+      return s;
+    });
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class))
+            .map(response -> response.hits().hits().stream()
+                    .map(Hit::source)
+                    .filter(Objects::nonNull)
+                    .map(source -> source.path(VALUE).asText())
+                    .toList());
+  }
+
+  /**
+   * @param group the caller's group, {@link VocabularyEntry#ALL_GROUPS} for admins
+   * @param value a single value, {@code null} for all values of {@code type}
+   * @return a version of the values which changes whenever one is added, empty if there are none
+   */
+  public Uni<Optional<String>> version(final VocabularyType type, final String group, final String value) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(indexPattern())
+            .size(0)
+            .query(q -> q.bool(b -> {
+              b.filter(f -> f.term(t -> t.field(TYPE).value(FieldValue.of(type.resource()))))
+                      .filter(f -> f.term(t -> t.field(GROUP).value(FieldValue.of(group))));
+              if (value != null) {
+                b.filter(f -> f.term(t -> t.field(VALUE).value(FieldValue.of(value))));
+              }
+              return b;
+            }))
+            .trackTotalHits(t -> t.enabled(true))
+            .aggregations(LATEST, a -> a.max(m -> m.field(FIRST_SEEN))));
+    return AsyncCalls.call(() -> client.search(request, ObjectNode.class)).map(response -> {
+      final long count = response.hits().total() != null ? response.hits().total().value() : 0;
+      if (count == 0) {
+        return Optional.empty();
+      }
+      // values are never removed, so their number and the newest one identify the listing
+      return Optional.of(count + "-" + (long) response.aggregations().get(LATEST).max().value());
+    });
+  }
+
+  /**
+   * Registers the index template unless it exists, before the vocabulary index is first written so
+   * the index is created sorted.
+   */
+  Uni<Void> ensureTemplate() {
+    if (templateReady.get()) {
+      return Uni.createFrom().voidItem();
+    }
+    final String name = index + "-sorted";
+    return AsyncCalls.call(() -> client.indices().existsIndexTemplate(e -> e.name(name)))
+            .chain(exists -> exists.value()
+                    ? Uni.createFrom().voidItem()
+                    : AsyncCalls.call(() -> client.indices().putIndexTemplate(t -> t
+                            .name(name)
+                            .indexPatterns(indexPattern())
+                            .template(tt -> tt
+                                    .settings(st -> st.sort(so -> so
+                                            .field(TYPE, GROUP, VALUE)
+                                            .order(SegmentSortOrder.Asc, SegmentSortOrder.Asc, SegmentSortOrder.Asc)))
+                                    .mappings(m -> m
+                                            .properties(TYPE, p -> p.keyword(k -> k))
+                                            .properties(GROUP, p -> p.keyword(k -> k))
+                                            .properties(VALUE, p -> p.keyword(k -> k))
+                                            .properties(FIRST_SEEN, p -> p.date(d -> d.format("epoch_millis")))
+                                            .properties(LAST_SEEN, p -> p.date(d -> d.format("epoch_millis")))))))
+                            .invoke(() -> log.info("registered index template {} for {}", name, indexPattern()))
+                            .replaceWithVoid())
+            .invoke(() -> templateReady.set(true));
+  }
+
+  String indexPattern() {
+    return index + "*";
+  }
+
+  /**
+   * @return the saved events, looking up events not yet visible to search once more after a refresh
+   */
+  private Uni<List<ObjectNode>> fetch(final Set<String> eventIDs) {
+    final String[] fields = Stream.concat(
+                    Stream.of(VocabularyType.allFields()),
+                    Stream.of(EventFields.EVENT_ID, EventFields.RECORD_TIME, EventFields.GROUP, EventFields.ROLES_ALLOWED))
+            .toArray(String[]::new);
+    return eventSearch.findByEventIds(eventIDs, fields).chain(found -> {
+      if (found.size() >= eventIDs.size()) {
+        return Uni.createFrom().item(found);
+      }
+      final Set<String> missing = new LinkedHashSet<>(eventIDs);
+      found.forEach(event -> missing.remove(event.path(EventFields.EVENT_ID).asText()));
+      return Uni.createFrom().voidItem().onItem().delayIt().by(REFRESH_DELAY)
+              .chain(() -> eventSearch.findByEventIds(missing, fields))
+              .map(late -> {
+                if (late.size() < missing.size()) {
+                  log.warn("{} saved events not found, their vocabulary is not indexed", missing.size() - late.size());
+                }
+                final List<ObjectNode> events = new ArrayList<>(found);
+                events.addAll(late);
+                return events;
+              });
+    });
+  }
+
+  /**
+   * Widens the seen range of the given entries, creating those not indexed yet.
+   */
+  Uni<Void> upsert(final Collection<VocabularyEntry> entries) {
+    if (entries.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    final List<BulkOperation> operations = entries.stream()
+            .map(entry -> BulkOperation.of(o -> o.update(u -> u
+                    .index(index)
+                    .id(entry.id())
+                    .retryOnConflict(RETRY_ON_CONFLICT)
+                    .script(script(entry))
+                    .upsert(document(entry)))))
+            .toList();
+    final BulkRequest request = BulkRequest.of(b -> b.operations(operations));
+    return ensureTemplate()
+            .chain(() -> AsyncCalls.call(() -> client.bulk(request)))
+            .invoke(response -> {
+              if (response.errors()) {
+                // upserts are idempotent, the whole bulk is retried
+                final String reason = response.items().stream()
+                        .filter(item -> item.error() != null)
+                        .findFirst()
+                        .map(item -> item.error().reason())
+                        .orElse(null);
+                throw new IllegalStateException("vocabulary upserts failed, first error: " + reason);
+              }
+            })
+            .replaceWithVoid();
+  }
+
+  private static Script script(final VocabularyEntry entry) {
+    return Script.of(s -> s.inline(i -> i
+            .lang("painless")
+            .source(UPSERT)
+            .params(FIRST_SEEN, JsonData.of(entry.firstSeen()))
+            .params(LAST_SEEN, JsonData.of(entry.lastSeen()))));
+  }
+
+  private static Map<String, Object> document(final VocabularyEntry entry) {
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put(TYPE, entry.type());
+    document.put(GROUP, entry.group());
+    document.put(VALUE, entry.value());
+    document.put(FIRST_SEEN, entry.firstSeen());
+    document.put(LAST_SEEN, entry.lastSeen());
+    return document;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import io.openepcis.quarkus.ce.query.AggregationPage;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.opensearch.client.opensearch._types.aggregations.CompositeAggregationSource;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lists the values of a vocabulary visible to a caller in ascending order, from the
+ * {@link VocabularyIndex} or, while {@code repository.epcis.vocabulary.serve} is disabled, from the
+ * events with a composite aggregation per event field holding the vocabulary. Either way a page
+ * continues after the last value of the previous one.
+ * <p>
+ * The index records the values of events restricted with {@code Roles-Allowed} for admins only, so
+ * callers who see events by such roles rather than by {@code app.event.event-access-role} are
+ * always listed from the events.
+ */
+@ApplicationScoped
+public class VocabularyListing {
+
+  static final String VALUE = "value";
+
+  private final VocabularyIndex vocabularyIndex;
+  private final EventSearch eventSearch;
+  private final QueryScopes queryScopes;
+  private final VocabularyConfig config;
+
+  public VocabularyListing(
+          final VocabularyIndex vocabularyIndex,
+          final EventSearch eventSearch,
+          final QueryScopes queryScopes,
+          final VocabularyConfig config) {
+    this.vocabularyIndex = vocabularyIndex;
+    this.eventSearch = eventSearch;
+    this.queryScopes = queryScopes;
+    this.config = config;
+  }
+
+  /**
+   * @return whether the values visible to the caller are listed from the {@link VocabularyIndex}
+   */
+  public boolean indexed(final SecurityIdentity securityIdentity) {
+    return config.serve() && queryScopes.access(securityIdentity).groupWide();
+  }
+
+  /**
+   * @param after the last value of the previous page, {@code null} for the first page
+   * @return up to {@code size} values of {@code type} visible to the caller, in ascending order
+   */
+  public Uni<List<String>> list(
+          final SecurityIdentity securityIdentity, final VocabularyType type, final int size, final String after) {
+    final EventAccess access = queryScopes.access(securityIdentity);
+    if (config.serve() && access.groupWide()) {
+      return vocabularyIndex.list(type, access.admin() ? VocabularyEntry.ALL_GROUPS : access.group(), size, after);
+    }
+    // every field is paged on its own indexed values, the first size values of their union are the page
+    return Multi.createFrom().iterable(type.fields())
+            .onItem().transformToUniAndConcatenate(field -> eventSearch
+                    .distinct(access.filter(), VALUE, source(field), size, after)
+                    .map(page -> page.buckets().stream()
+                            .map(AggregationPage.Bucket::key)
+                            .map(key -> key.get(VALUE))
+                            .filter(Objects::nonNull)
+                            .toList()))
+            .collect().asList()
+            .map(pages -> merge(pages, size));
+  }
+
+  /**
+   * @return all values of {@code type} visible to the caller in ascending order, in pages of
+   * {@code repository.epcis.vocabulary.stream-batch-size} values. Values added while the stream is
+   * read are included only if they sort after the values streamed so far.
+   */
+  public Multi<List<String>> stream(final SecurityIdentity securityIdentity, final VocabularyType type) {
+    final int batchSize = config.streamBatchSize();
+    final AtomicReference<String> after = new AtomicReference<>();
+    final AtomicInteger received = new AtomicInteger();
+    return Multi.createBy().repeating()
+            .uni(() -> list(securityIdentity, type, batchSize, after.get())
+                    .invoke(values -> {
+                      received.set(values.size());
+                      if (!values.isEmpty()) {
+                        after.set(values.get(values.size() - 1));
+                      }
+                    }))
+            .whilst(values -> received.get() == batchSize)
+            .select().where(values -> !values.isEmpty());
+  }
+
+  /**
+   * @return the first {@code size} distinct values of the ascending {@code pages}, in ascending order
+   */
+  static List<String> merge(final List<List<String>> pages, final int size) {
+    final TreeSet<String> values = new TreeSet<>();
+    pages.forEach(values::addAll);
+    return values.stream().limit(size).toList();
+  }
+
+  static CompositeAggregationSource source(final String field) {
+    return CompositeAggregationSource.of(c -> c.terms(t -> t.field(field)));
+  }
+}
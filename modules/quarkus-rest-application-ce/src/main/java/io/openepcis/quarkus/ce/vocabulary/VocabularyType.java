@@ -0,0 +1,115 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventFields;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch._types.Script;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The vocabularies listed by the top-level resources and where their values occur in an event.
+ */
+public enum VocabularyType {
+  EVENT_TYPE("eventTypes", EventFields.TYPE),
+  BIZ_STEP("bizSteps", EventFields.BIZ_STEP),
+  DISPOSITION("dispositions", EventFields.DISPOSITION),
+  READ_POINT("readPoints", EventFields.READ_POINT),
+  BIZ_LOCATION("bizLocations", EventFields.BIZ_LOCATION),
+  EPC("epcs", EventFields.EPC_LIST, EventFields.CHILD_EPCS, EventFields.PARENT_ID,
+          EventFields.INPUT_EPC_LIST, EventFields.OUTPUT_EPC_LIST);
+
+  // collects the values of all fields of a vocabulary, for vocabularies spread over several event fields
+  static final String VALUES = """
+          def values = new ArrayList();
+          for (def field : params.fields) {
+            if (doc.containsKey(field)) { values.addAll(doc[field]); }
+          }
+          return values;""";
+
+  private final String resource;
+  private final List<String> fields;
+
+  VocabularyType(final String resource, final String... fields) {
+    this.resource = resource;
+    this.fields = List.of(fields);
+  }
+
+  /**
+   * @return the path segment of the top-level resource, also the type stored in the vocabulary index
+   */
+  public String resource() {
+    return resource;
+  }
+
+  /**
+   * @return the event fields holding values of this vocabulary
+   */
+  public List<String> fields() {
+    return fields;
+  }
+
+  /**
+   * @return a script returning the values of all {@link #fields()} of an event, for aggregations
+   * over vocabularies spread over several event fields
+   */
+  public Script script() {
+    return Script.of(s -> s.inline(i -> i
+            .lang("painless")
+            .source(VALUES)
+            .params("fields", JsonData.of(fields))));
+  }
+
+  /**
+   * @return the distinct values of this vocabulary in {@code event}, in order of occurrence
+   */
+  public List<String> values(final ObjectNode event) {
+    final List<String> values = new ArrayList<>();
+    for (final String field : fields) {
+      final JsonNode node = event.at("/" + field.replace('.', '/'));
+      if (node.isArray()) {
+        node.forEach(value -> add(values, value));
+      } else {
+        add(values, node);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * @return all event fields holding vocabulary values
+   */
+  public static String[] allFields() {
+    return Arrays.stream(values()).flatMap(type -> type.fields.stream()).toArray(String[]::new);
+  }
+
+  public static Optional<VocabularyType> ofResource(final String resource) {
+    return Stream.of(values()).filter(type -> type.resource.equals(resource)).findFirst();
+  }
+
+  private static void add(final List<String> values, final JsonNode node) {
+    if (node.isTextual() && !node.asText().isBlank() && !values.contains(node.asText())) {
+      values.add(node.asText());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import java.time.Duration;
+
+/**
+ * Exponential backoff between delivery attempts: {@code initial * multiplier^(attempt - 1)}, capped
+ * at {@code max}, of which a random half is waited so retries of many deliveries failing together
+ * spread out.
+ */
+record Backoff(Duration initial, Duration max, double multiplier) {
+
+  static Backoff of(final WebhookConfig.Retry retry) {
+    return new Backoff(retry.initialBackoff(), retry.maxBackoff(), retry.multiplier());
+  }
+
+  /**
+   * @param attempt the number of failed attempts, at least one
+   * @param random a random number in {@code [0, 1)}
+   */
+  Duration delay(final int attempt, final double random) {
+    final double exponential = initial.toMillis() * Math.pow(multiplier, Math.max(0, attempt - 1));
+    final long capped = (long) Math.min(exponential, max.toMillis());
+    return Duration.ofMillis(capped / 2 + (long) (capped / 2 * random));
+  }
+}
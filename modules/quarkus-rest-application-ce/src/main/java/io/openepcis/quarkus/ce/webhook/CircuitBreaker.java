@@ -0,0 +1,97 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker of a webhook destination. After {@code failureThreshold} consecutive failures the
+ * circuit opens and rejects deliveries for {@code openDuration}; then a single trial delivery is let
+ * through, which closes the circuit on success and opens it again on failure.
+ */
+final class CircuitBreaker {
+
+  enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openMillis;
+  private State state = State.CLOSED;
+  private int failures;
+  private long openedAt;
+  private boolean trial;
+
+  CircuitBreaker(final int failureThreshold, final Duration openDuration) {
+    this.failureThreshold = failureThreshold;
+    this.openMillis = openDuration.toMillis();
+  }
+
+  /**
+   * @return whether a delivery may be sent at {@code now}; a trial delivery must be followed by
+   * {@link #success()} or {@link #failure(long)}
+   */
+  synchronized boolean allow(final long now) {
+    switch (state) {
+      case CLOSED -> {
+        return true;
+      }
+      case OPEN -> {
+        if (now - openedAt < openMillis) {
+          return false;
+        }
+        state = State.HALF_OPEN;
+        trial = true;
+        return true;
+      }
+      default -> {
+        if (trial) {
+          return false;
+        }
+        trial = true;
+        return true;
+      }
+    }
+  }
+
+  synchronized void success() {
+    state = State.CLOSED;
+    failures = 0;
+    trial = false;
+  }
+
+  synchronized void failure(final long now) {
+    failures++;
+    if (state == State.HALF_OPEN || failures >= failureThreshold) {
+      state = State.OPEN;
+      openedAt = now;
+      trial = false;
+    }
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  /**
+   * @return when the open circuit lets a trial delivery through, {@code now} if it is not open
+   */
+  synchronized long retryAt(final long now) {
+    return state == State.OPEN ? Math.max(now, openedAt + openMillis) : now;
+  }
+}
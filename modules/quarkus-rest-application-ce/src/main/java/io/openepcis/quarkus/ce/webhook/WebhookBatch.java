@@ -0,0 +1,33 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.List;
+
+/**
+ * Events to be POSTed to a subscription in one request.
+ *
+ * @param attempt the number of failed attempts so far
+ * @param retryId id of the batch in the retry index, {@code null} until it failed once
+ */
+record WebhookBatch(WebhookTarget target, List<ObjectNode> events, int attempt, String retryId) {
+
+  WebhookBatch(final WebhookTarget target, final List<ObjectNode> events) {
+    this(target, events, 0, null);
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import io.smallrye.mutiny.Uni;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * POSTs query documents to webhook destinations over one Vert.x HTTP client. The client pools
+ * connections per destination and prefers HTTP/2, negotiated with ALPN or by cleartext upgrade, so
+ * concurrent deliveries to a destination share {@code max-connections} multiplexed connections;
+ * destinations speaking HTTP/1.1 only get up to {@code max-concurrency} kept-alive connections.
+ */
+@ApplicationScoped
+public class WebhookClient {
+
+  static final String GS1_SIGNATURE = "GS1-Signature";
+  static final String RETRY_AFTER = "Retry-After";
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  /**
+   * The status of a destination's response and its {@code Retry-After} header, if any.
+   */
+  record Response(int status, String retryAfter) {
+
+    boolean successful() {
+      return status >= 200 && status < 300;
+    }
+  }
+
+  private final HttpClient client;
+  private final long requestTimeout;
+
+  public WebhookClient(final Vertx vertx, final WebhookConfig config) {
+    this.client = vertx.createHttpClient(
+            new HttpClientOptions()
+                    .setProtocolVersion(HttpVersion.HTTP_2)
+                    .setUseAlpn(true)
+                    .setKeepAlive(true)
+                    .setConnectTimeout((int) config.connectTimeout().toMillis()),
+            new PoolOptions()
+                    .setHttp2MaxSize(config.maxConnections())
+                    .setHttp1MaxSize(config.maxConcurrency()));
+    this.requestTimeout = config.requestTimeout().toMillis();
+  }
+
+  /**
+   * @param signatureToken the subscription's token signing the delivery, {@code null} if it is not signed
+   * @return the destination's response, failing if it could not be reached or did not respond in time
+   */
+  Uni<Response> post(final WebhookTarget target, final String signatureToken, final String document) {
+    final RequestOptions options = new RequestOptions()
+            .setMethod(HttpMethod.POST)
+            .setAbsoluteURI(target.dest())
+            .setTimeout(requestTimeout)
+            .putHeader("Content-Type", "application/json");
+    if (signatureToken != null && !signatureToken.isBlank()) {
+      options.putHeader(GS1_SIGNATURE, sign(signatureToken, document));
+    }
+    return Uni.createFrom().completionStage(() -> client.request(options)
+            .compose(request -> request.send(Buffer.buffer(document)))
+            // the body is read to the end so the connection can be reused
+            .compose(response -> response.body()
+                    .map(ignored -> new Response(response.statusCode(), response.getHeader(RETRY_AFTER))))
+            .toCompletionStage());
+  }
+
+  @PreDestroy
+  void close() {
+    client.close();
+  }
+
+  /**
+   * @return the Base64 encoded HMAC-SHA256 of {@code document} keyed with the subscription's token
+   */
+  static String sign(final String signatureToken, final String document) {
+    try {
+      final Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(new SecretKeySpec(signatureToken.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+      return Base64.getEncoder().encodeToString(mac.doFinal(document.getBytes(StandardCharsets.UTF_8)));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException(ALGORITHM + " is not available", e);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+
+import java.time.Duration;
+
+/**
+ * Configuration of webhook delivery.
+ * <pre>
+ * repository.epcis.webhook.enabled=false
+ * repository.epcis.webhook.subscription-index=epcis-webhook-subscription
+ * repository.epcis.webhook.subscription-refresh=10S
+ * repository.epcis.webhook.retry-index=epcis-webhook-retry
+ * repository.epcis.webhook.max-batch-events=500
+ * repository.epcis.webhook.linger=200MS
+ * repository.epcis.webhook.max-concurrency=4
+ * repository.epcis.webhook.max-queued-batches=100
+ * repository.epcis.webhook.max-connections=2
+ * repository.epcis.webhook.connect-timeout=5S
+ * repository.epcis.webhook.request-timeout=30S
+ * repository.epcis.webhook.retry.initial-backoff=1S
+ * repository.epcis.webhook.retry.max-backoff=10M
+ * repository.epcis.webhook.retry.multiplier=2
+ * repository.epcis.webhook.retry.max-attempts=12
+ * repository.epcis.webhook.retry.poll-interval=5S
+ * repository.epcis.webhook.retry.poll-size=100
+ * repository.epcis.webhook.retry.lease=2M
+ * repository.epcis.webhook.circuit-breaker.failure-threshold=5
+ * repository.epcis.webhook.circuit-breaker.open-duration=30S
+ * </pre>
+ */
+@ConfigMapping(prefix = "repository.epcis.webhook", namingStrategy = ConfigMapping.NamingStrategy.KEBAB_CASE)
+public interface WebhookConfig {
+
+  /**
+   * @return whether streaming webhook subscriptions created through this application are created and
+   * delivered by it instead of the subscription engine, see {@link WebhookSubscriptionFilter}.
+   */
+  @WithDefault("false")
+  boolean enabled();
+
+  /**
+   * @return the index the streaming webhook subscriptions are kept in, including their signature tokens.
+   */
+  @WithDefault("epcis-webhook-subscription")
+  String subscriptionIndex();
+
+  /**
+   * @return how long a node works with the subscriptions it read before reading them again, which
+   * bounds how late it learns of subscriptions created or deleted through other nodes.
+   */
+  @WithDefault("10S")
+  Duration subscriptionRefresh();
+
+  /**
+   * @return the index failed deliveries are persisted in until they are retried.
+   */
+  @WithDefault("epcis-webhook-retry")
+  String retryIndex();
+
+  /**
+   * @return the maximum number of events sent to a subscription in one POST.
+   */
+  @WithDefault("500")
+  int maxBatchEvents();
+
+  /**
+   * @return how long results for the same subscription are collected into one POST before it is sent.
+   */
+  @WithDefault("200MS")
+  Duration linger();
+
+  /**
+   * @return the maximum number of POSTs in flight to one destination, i.e. scheme, host and port.
+   */
+  @WithDefault("4")
+  int maxConcurrency();
+
+  /**
+   * @return the maximum number of batches waiting for a destination in memory; further batches go
+   * straight to the retry index.
+   */
+  @WithDefault("100")
+  int maxQueuedBatches();
+
+  /**
+   * @return the maximum number of pooled connections per destination; HTTP/2 multiplexes the
+   * concurrent POSTs over them, HTTP/1.1 destinations get {@code max-concurrency} connections.
+   */
+  @WithDefault("2")
+  int maxConnections();
+
+  /**
+   * @return how long opening a connection to a destination may take.
+   */
+  @WithDefault("5S")
+  Duration connectTimeout();
+
+  /**
+   * @return how long a POST may take until the destination responded.
+   */
+  @WithDefault("30S")
+  Duration requestTimeout();
+
+  /**
+   * @return the retries of failed deliveries.
+   */
+  Retry retry();
+
+  /**
+   * @return the circuit breaker of every destination.
+   */
+  CircuitBreaker circuitBreaker();
+
+  interface Retry {
+
+    /**
+     * @return the delay before the first retry, doubled by {@code multiplier} with every further one.
+     */
+    @WithDefault("1S")
+    Duration initialBackoff();
+
+    /**
+     * @return the longest delay between two attempts.
+     */
+    @WithDefault("10M")
+    Duration maxBackoff();
+
+    @WithDefault("2")
+    double multiplier();
+
+    /**
+     * @return the number of attempts after which a delivery is given up.
+     */
+    @WithDefault("12")
+    int maxAttempts();
+
+    /**
+     * @return how often the retry index is polled for deliveries due.
+     */
+    @WithDefault("5S")
+    Duration pollInterval();
+
+    /**
+     * @return the maximum number of deliveries a poll claims.
+     */
+    @WithDefault("100")
+    int pollSize();
+
+    /**
+     * @return how long a node claims the deliveries it polled; deliveries of a node which stopped
+     * meanwhile become due again after this.
+     */
+    @WithDefault("2M")
+    Duration lease();
+  }
+
+  interface CircuitBreaker {
+
+    /**
+     * @return the number of consecutive failures after which a destination is not called anymore.
+     */
+    @WithDefault("5")
+    int failureThreshold();
+
+    /**
+     * @return how long an open circuit rejects deliveries before a single trial is let through.
+     */
+    @WithDefault("30S")
+    Duration openDuration();
+  }
+}
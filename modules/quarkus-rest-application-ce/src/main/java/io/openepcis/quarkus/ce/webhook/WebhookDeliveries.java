@@ -0,0 +1,353 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.openepcis.quarkus.ce.query.ExportFormat;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriter;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import io.quarkus.runtime.StartupEvent;
+import io.vertx.core.Vertx;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers query results to webhook subscriptions.
+ * <p>
+ * {@link #submit(WebhookTarget, List)} never blocks: results for the same subscription submitted
+ * within {@code linger} are collected into one POST of up to {@code max-batch-events} events and
+ * queued for their destination, which sends at most {@code max-concurrency} POSTs at a time over the
+ * pooled connections of the {@link WebhookClient}. Batches which do not fit into the queue, fail
+ * with a server error, a timeout or an unreachable destination, or meet an open circuit breaker are
+ * persisted in the {@link WebhookRetryQueue} and retried with exponential backoff (honouring
+ * {@code Retry-After}) until {@code retry.max-attempts}; client errors other than {@code 408} and
+ * {@code 429} are not retried. Deliveries of subscriptions deleted meanwhile are given up.
+ * <p>
+ * Results are submitted by {@link WebhookPush} for the streaming subscriptions in
+ * {@link WebhookSubscriptions}, which are only served if {@code repository.epcis.webhook.enabled} is set.
+ */
+@Slf4j
+@ApplicationScoped
+public class WebhookDeliveries {
+
+  static final String METRIC_LATENCY = "epcis.webhook.delivery.latency";
+  static final String METRIC_EVENTS = "epcis.webhook.delivery.events";
+  static final String METRIC_FAILURES = "epcis.webhook.delivery.failures";
+  static final String METRIC_GIVEN_UP = "epcis.webhook.delivery.given-up";
+  static final String METRIC_RETRIES = "epcis.webhook.retry.persisted";
+  static final String METRIC_QUEUED = "epcis.webhook.destinations.queued";
+  static final String METRIC_OPEN_CIRCUITS = "epcis.webhook.destinations.open-circuits";
+
+  private final WebhookClient client;
+  private final WebhookSubscriptions subscriptions;
+  private final WebhookRetryQueue retryQueue;
+  private final QueryDocumentWriters writers;
+  private final WebhookConfig config;
+  private final Vertx vertx;
+  private final MeterRegistry registry;
+  private final Backoff backoff;
+  private final Map<String, WebhookDestination> destinations = new ConcurrentHashMap<>();
+  private final AtomicBoolean polling = new AtomicBoolean();
+  private final Timer succeeded;
+  private final Timer failed;
+  private final Counter delivered;
+  private final Counter retries;
+  private long pollTimer = -1;
+
+  public WebhookDeliveries(
+          final WebhookClient client,
+          final WebhookSubscriptions subscriptions,
+          final WebhookRetryQueue retryQueue,
+          final QueryDocumentWriters writers,
+          final WebhookConfig config,
+          final Vertx vertx,
+          final MeterRegistry registry) {
+    this.client = client;
+    this.subscriptions = subscriptions;
+    this.retryQueue = retryQueue;
+    this.writers = writers;
+    this.config = config;
+    this.vertx = vertx;
+    this.registry = registry;
+    this.backoff = Backoff.of(config.retry());
+    this.succeeded = latency(registry, "success");
+    this.failed = latency(registry, "failure");
+    this.delivered = Counter.builder(METRIC_EVENTS)
+            .description("Events delivered to webhook subscriptions")
+            .register(registry);
+    this.retries = Counter.builder(METRIC_RETRIES)
+            .description("Webhook deliveries persisted to be retried")
+            .register(registry);
+    Gauge.builder(METRIC_QUEUED, this, WebhookDeliveries::queued)
+            .description("Webhook batches waiting in memory for their destination")
+            .register(registry);
+    Gauge.builder(METRIC_OPEN_CIRCUITS, this, WebhookDeliveries::openCircuits)
+            .description("Webhook destinations whose circuit breaker is open")
+            .register(registry);
+  }
+
+  /**
+   * Delivers {@code events}, results of the query of {@code target}, to its destination.
+   */
+  public void submit(final WebhookTarget target, final List<ObjectNode> events) {
+    if (events.isEmpty()) {
+      return;
+    }
+    final WebhookDestination destination = destination(target);
+    final WebhookDestination.Collected collected = destination.collect(target, events);
+    persist(collected.overflow(), "queue full");
+    if (collected.started()) {
+      if (config.linger().isZero()) {
+        persist(destination.seal(target), "queue full");
+      } else {
+        vertx.setTimer(config.linger().toMillis(), id -> {
+          persist(destination.seal(target), "queue full");
+          pump(destination);
+        });
+      }
+    }
+    pump(destination);
+  }
+
+  void onStart(@Observes final StartupEvent event) {
+    if (!config.enabled()) {
+      return;
+    }
+    pollTimer = vertx.setPeriodic(config.retry().pollInterval().toMillis(), id -> poll());
+  }
+
+  @PreDestroy
+  void stop() {
+    if (pollTimer != -1) {
+      vertx.cancelTimer(pollTimer);
+    }
+  }
+
+  /**
+   * Claims the deliveries due for retry and queues them for their destinations.
+   */
+  void poll() {
+    if (!polling.compareAndSet(false, true)) {
+      return;
+    }
+    retryQueue.claim(Instant.now(), config.retry().pollSize(), config.retry().lease())
+            .onTermination().invoke(() -> polling.set(false))
+            .subscribe().with(
+                    batches -> batches.forEach(batch -> {
+                      final WebhookDestination destination = destination(batch.target());
+                      // a batch not queued now becomes due again once its lease expired
+                      if (destination.offer(batch)) {
+                        pump(destination);
+                      }
+                    }),
+                    failure -> log.warn("unable to poll the webhook retry queue: {}", failure.getMessage()));
+  }
+
+  private WebhookDestination destination(final WebhookTarget target) {
+    return destinations.computeIfAbsent(target.destination(), ignored -> new WebhookDestination(config));
+  }
+
+  private void pump(final WebhookDestination destination) {
+    WebhookBatch batch;
+    while ((batch = destination.next(System.currentTimeMillis())) != null) {
+      send(destination, batch);
+    }
+    final List<WebhookBatch> rejected = destination.rejected();
+    if (!rejected.isEmpty()) {
+      final Instant retryAt = Instant.ofEpochMilli(destination.circuitBreaker().retryAt(System.currentTimeMillis()));
+      failure("circuit-open").increment(rejected.size());
+      rejected.forEach(rejectedBatch -> persist(rejectedBatch, rejectedBatch.attempt(), retryAt, "circuit open"));
+    }
+  }
+
+  private void send(final WebhookDestination destination, final WebhookBatch batch) {
+    final long start = System.nanoTime();
+    subscriptions.find(batch.target().subscriptionID())
+            .subscribe().with(
+                    subscription -> {
+                      if (subscription.isEmpty()) {
+                        destination.done();
+                        giveUp(batch, "unsubscribed", "the subscription was deleted");
+                        pump(destination);
+                        return;
+                      }
+                      client.post(batch.target(), subscription.get().signatureToken(), document(batch))
+                              .subscribe().with(
+                                      response -> completed(destination, batch, start, response, null),
+                                      failure -> completed(destination, batch, start, null, failure));
+                    },
+                    failure -> completed(destination, batch, start, null, failure));
+  }
+
+  private void completed(
+          final WebhookDestination destination,
+          final WebhookBatch batch,
+          final long start,
+          final WebhookClient.Response response,
+          final Throwable failure) {
+    destination.done();
+    if (response != null && response.successful()) {
+      succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      destination.circuitBreaker().success();
+      delivered.increment(batch.events().size());
+      if (batch.retryId() != null) {
+        forget(batch);
+      }
+    } else {
+      failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      failed(destination, batch, response, failure);
+    }
+    pump(destination);
+  }
+
+  private void failed(
+          final WebhookDestination destination,
+          final WebhookBatch batch,
+          final WebhookClient.Response response,
+          final Throwable failure) {
+    final long now = System.currentTimeMillis();
+    final String reason;
+    if (response != null) {
+      reason = "http-" + response.status() / 100 + "xx";
+    } else {
+      reason = failure instanceof TimeoutException ? "timeout" : "connection";
+    }
+    failure(reason).increment();
+    final String error = response != null ? "HTTP " + response.status() : String.valueOf(failure.getMessage());
+    if (response != null && !retryable(response.status())) {
+      // the destination is up, but does not accept the delivery
+      destination.circuitBreaker().success();
+      giveUp(batch, "rejected", error);
+      return;
+    }
+    destination.circuitBreaker().failure(now);
+    final int attempt = batch.attempt() + 1;
+    if (attempt >= config.retry().maxAttempts()) {
+      giveUp(batch, "exhausted", error);
+      return;
+    }
+    final Duration delay = max(backoff.delay(attempt, ThreadLocalRandom.current().nextDouble()), retryAfter(response));
+    persist(batch, attempt, Instant.ofEpochMilli(now).plus(delay), error);
+  }
+
+  private void giveUp(final WebhookBatch batch, final String reason, final String error) {
+    log.warn("giving up delivering {} events of {} to {} after {} attempts: {}", batch.events().size(),
+            batch.target().queryName(), batch.target().dest(), batch.attempt() + 1, error);
+    Counter.builder(METRIC_GIVEN_UP)
+            .description("Webhook deliveries given up")
+            .tag("reason", reason)
+            .register(registry)
+            .increment();
+    if (batch.retryId() != null) {
+      forget(batch);
+    }
+  }
+
+  private void persist(final List<WebhookBatch> batches, final String reason) {
+    batches.forEach(batch -> persist(batch, batch.attempt(), Instant.now(), reason));
+  }
+
+  private void persist(final WebhookBatch batch, final int attempt, final Instant dueAt, final String error) {
+    retries.increment();
+    retryQueue.persist(batch, attempt, dueAt, error).subscribe().with(
+            ignored -> {},
+            failure -> log.warn("unable to persist the delivery of {} events of {} to {} for retry: {}",
+                    batch.events().size(), batch.target().queryName(), batch.target().dest(), failure.getMessage()));
+  }
+
+  private void forget(final WebhookBatch batch) {
+    retryQueue.delete(batch.retryId()).subscribe().with(
+            ignored -> {},
+            failure -> log.warn("unable to remove delivery {} from the retry queue: {}",
+                    batch.retryId(), failure.getMessage()));
+  }
+
+  private String document(final WebhookBatch batch) {
+    final QueryDocumentWriter writer = writers.forExport(ExportFormat.JSON, batch.target().queryName());
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.writeBytes(writer.header());
+    out.writeBytes(writer.events(batch.events()));
+    out.writeBytes(writer.footer());
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  private Counter failure(final String reason) {
+    return Counter.builder(METRIC_FAILURES)
+            .description("Failed webhook delivery attempts")
+            .tag("reason", reason)
+            .register(registry);
+  }
+
+  private double queued() {
+    return destinations.values().stream().mapToInt(WebhookDestination::queued).sum();
+  }
+
+  private double openCircuits() {
+    return destinations.values().stream()
+            .filter(destination -> destination.circuitBreaker().state() == CircuitBreaker.State.OPEN)
+            .count();
+  }
+
+  /**
+   * @return whether a delivery answered with {@code status} may succeed when sent again
+   */
+  static boolean retryable(final int status) {
+    return status >= 500 || status == 408 || status == 429;
+  }
+
+  /**
+   * @return the delay asked for by a {@code Retry-After} header in seconds, zero if there is none
+   */
+  static Duration retryAfter(final WebhookClient.Response response) {
+    if (response == null || response.retryAfter() == null) {
+      return Duration.ZERO;
+    }
+    try {
+      return Duration.ofSeconds(Math.max(0, Long.parseLong(response.retryAfter().trim())));
+    } catch (NumberFormatException e) {
+      return Duration.ZERO;
+    }
+  }
+
+  private static Duration max(final Duration a, final Duration b) {
+    return a.compareTo(b) >= 0 ? a : b;
+  }
+
+  private static Timer latency(final MeterRegistry registry, final String outcome) {
+    return Timer.builder(METRIC_LATENCY)
+            .description("Time from sending a webhook delivery to the destination's response")
+            .tag("outcome", outcome)
+            .register(registry);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The deliveries to one destination (scheme, host and port): results collected into batches per
+ * subscription, batches waiting for one of {@code maxConcurrency} slots, and the destination's
+ * {@link CircuitBreaker}.
+ */
+final class WebhookDestination {
+
+  /**
+   * @param started whether a new batch was started, which is to be sealed after the linger time
+   * @param overflow batches which did not fit into the queue
+   */
+  record Collected(boolean started, List<WebhookBatch> overflow) {}
+
+  private final CircuitBreaker circuitBreaker;
+  private final int maxConcurrency;
+  private final int maxQueuedBatches;
+  private final int maxBatchEvents;
+  private final Map<WebhookTarget, List<ObjectNode>> collecting = new HashMap<>();
+  private final Deque<WebhookBatch> queue = new ArrayDeque<>();
+  private int inFlight;
+
+  WebhookDestination(final WebhookConfig config) {
+    this.circuitBreaker = new CircuitBreaker(
+            config.circuitBreaker().failureThreshold(), config.circuitBreaker().openDuration());
+    this.maxConcurrency = config.maxConcurrency();
+    this.maxQueuedBatches = config.maxQueuedBatches();
+    this.maxBatchEvents = config.maxBatchEvents();
+  }
+
+  CircuitBreaker circuitBreaker() {
+    return circuitBreaker;
+  }
+
+  /**
+   * Adds {@code events} to the batch collected for {@code target}, queueing every batch filled up.
+   */
+  synchronized Collected collect(final WebhookTarget target, final List<ObjectNode> events) {
+    final boolean started = !collecting.containsKey(target);
+    final List<ObjectNode> batch = collecting.computeIfAbsent(target, ignored -> new ArrayList<>());
+    final List<WebhookBatch> overflow = new ArrayList<>();
+    for (final ObjectNode event : events) {
+      batch.add(event);
+      if (batch.size() >= maxBatchEvents) {
+        offer(new WebhookBatch(target, List.copyOf(batch)), overflow);
+        batch.clear();
+      }
+    }
+    return new Collected(started, overflow);
+  }
+
+  /**
+   * Queues the batch collected for {@code target}.
+   *
+   * @return the batch if it did not fit into the queue
+   */
+  synchronized List<WebhookBatch> seal(final WebhookTarget target) {
+    final List<ObjectNode> batch = collecting.remove(target);
+    final List<WebhookBatch> overflow = new ArrayList<>();
+    if (batch != null && !batch.isEmpty()) {
+      offer(new WebhookBatch(target, List.copyOf(batch)), overflow);
+    }
+    return overflow;
+  }
+
+  /**
+   * @return whether {@code batch}, e.g. one due for retry, was queued
+   */
+  synchronized boolean offer(final WebhookBatch batch) {
+    if (queue.size() >= maxQueuedBatches) {
+      return false;
+    }
+    queue.add(batch);
+    return true;
+  }
+
+  /**
+   * @return the next batch to send if a slot is free and the circuit lets it through, {@code null} otherwise
+   */
+  synchronized WebhookBatch next(final long now) {
+    if (inFlight >= maxConcurrency || queue.isEmpty() || !circuitBreaker.allow(now)) {
+      return null;
+    }
+    inFlight++;
+    return queue.removeFirst();
+  }
+
+  synchronized void done() {
+    inFlight--;
+  }
+
+  /**
+   * @return the queued batches if the circuit is open, which are then no longer queued
+   */
+  synchronized List<WebhookBatch> rejected() {
+    if (circuitBreaker.state() != CircuitBreaker.State.OPEN || queue.isEmpty()) {
+      return List.of();
+    }
+    final List<WebhookBatch> rejected = new ArrayList<>(queue);
+    queue.clear();
+    return rejected;
+  }
+
+  synchronized int queued() {
+    return queue.size();
+  }
+
+  private void offer(final WebhookBatch batch, final List<WebhookBatch> overflow) {
+    if (!offer(batch)) {
+      overflow.add(batch);
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.capture.context.message.EventSavedMessage;
+import io.openepcis.quarkus.ce.query.EventFields;
+import io.openepcis.quarkus.ce.query.EventSearch;
+import io.openepcis.quarkus.ce.subscription.PercolatorQueries;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Submits saved events to the streaming {@link WebhookSubscriptions} their query matches. Unlike the
+ * streaming sessions, which every node serves for its own sockets, the subscriptions are shared, so
+ * {@code webhook-push-in} is consumed by one consumer group and each saved event is matched once in
+ * the cluster. Every batch is looked up with one search and percolated once against the queries of
+ * all subscriptions; each subscription gets the matching events its creator may see.
+ */
+@Slf4j
+@ApplicationScoped
+public class WebhookPush {
+
+  // the full events including their access fields, which the subscriptions are checked against
+  private static final String ALL_FIELDS = "*";
+  // events are announced once they are indexed, but only become searchable with the next refresh
+  private static final Duration REFRESH_DELAY = Duration.ofSeconds(1);
+  private static final int MAX_RETRIES = 5;
+
+  private final WebhookConfig config;
+  private final WebhookSubscriptions subscriptions;
+  private final WebhookDeliveries deliveries;
+  private final PercolatorQueries percolatorQueries;
+  private final EventSearch eventSearch;
+
+  public WebhookPush(
+          final WebhookConfig config,
+          final WebhookSubscriptions subscriptions,
+          final WebhookDeliveries deliveries,
+          final PercolatorQueries percolatorQueries,
+          final EventSearch eventSearch) {
+    this.config = config;
+    this.subscriptions = subscriptions;
+    this.deliveries = deliveries;
+    this.percolatorQueries = percolatorQueries;
+    this.eventSearch = eventSearch;
+  }
+
+  /**
+   * Fails the batch once the retries are exhausted, which parks it on the channel's dead-letter topic;
+   * there is no catch-up for webhook subscriptions that would find the events later.
+   */
+  @Incoming("webhook-push-in")
+  public Uni<Void> onEventsSaved(final ConsumerRecords<String, EventSavedMessage> records) {
+    if (!config.enabled()) {
+      return Uni.createFrom().voidItem();
+    }
+    final Set<String> eventIDs = StreamSupport.stream(records.spliterator(), false)
+            .map(ConsumerRecord::value)
+            .filter(Objects::nonNull)
+            .map(EventSavedMessage::getEventID)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+    if (eventIDs.isEmpty()) {
+      return Uni.createFrom().voidItem();
+    }
+    return subscriptions.active()
+            .chain(active -> active.isEmpty() ? Uni.createFrom().voidItem() : push(eventIDs, active))
+            .onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(30)).atMost(MAX_RETRIES)
+            .onFailure().invoke(failure -> log.error("unable to push {} saved events to webhook subscriptions: {}",
+                    eventIDs.size(), failure.getMessage()));
+  }
+
+  private Uni<Void> push(final Set<String> eventIDs, final Collection<WebhookSubscription> active) {
+    final Set<String> queryNames = active.stream().map(WebhookSubscription::queryName).collect(Collectors.toSet());
+    return fetch(eventIDs)
+            .chain(found -> percolatorQueries.percolate(found, queryNames)
+                    .invoke(matches -> dispatch(found, matches, active)))
+            .replaceWithVoid();
+  }
+
+  /**
+   * @return the events matched by the query of each subscription and visible to its creator, without
+   * their access fields, in the order they were found
+   */
+  static Map<WebhookSubscription, List<ObjectNode>> matched(
+          final List<ObjectNode> found,
+          final Map<Integer, Set<String>> matches,
+          final Collection<WebhookSubscription> active) {
+    final Map<String, List<WebhookSubscription>> byQuery = active.stream()
+            .collect(Collectors.groupingBy(WebhookSubscription::queryName));
+    final Map<WebhookSubscription, List<ObjectNode>> bySubscription = new LinkedHashMap<>();
+    for (int slot = 0; slot < found.size(); slot++) {
+      final Set<String> queryNames = matches.get(slot);
+      if (queryNames == null) {
+        continue;
+      }
+      final ObjectNode event = found.get(slot);
+      ObjectNode delivered = null;
+      for (final String queryName : queryNames) {
+        for (final WebhookSubscription subscription : byQuery.getOrDefault(queryName, List.of())) {
+          if (subscription.access().admits(event)) {
+            if (delivered == null) {
+              delivered = event.deepCopy().without(EventFields.ACCESS);
+            }
+            bySubscription.computeIfAbsent(subscription, ignored -> new ArrayList<>()).add(delivered);
+          }
+        }
+      }
+    }
+    return bySubscription;
+  }
+
+  private void dispatch(
+          final List<ObjectNode> found,
+          final Map<Integer, Set<String>> matches,
+          final Collection<WebhookSubscription> active) {
+    matched(found, matches, active).forEach((subscription, events) -> deliveries.submit(subscription.target(), events));
+  }
+
+  private Uni<List<ObjectNode>> fetch(final Set<String> eventIDs) {
+    return eventSearch.findByEventIds(eventIDs, ALL_FIELDS)
+            .chain(found -> found.size() >= eventIDs.size()
+                    ? Uni.createFrom().item(found)
+                    : Uni.createFrom().voidItem().onItem().delayIt().by(REFRESH_DELAY)
+                            .chain(() -> eventSearch.findByEventIds(eventIDs, ALL_FIELDS)));
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Deliveries waiting for a retry, persisted in {@code repository.epcis.webhook.retry-index} so
+ * neither a restart nor a destination failing for hours loses them or holds them in memory.
+ * <p>
+ * Every node polls the deliveries due and claims them by moving their due time a lease ahead,
+ * conditional on the sequence number it read, so a delivery is taken by one node at a time; a
+ * delivery claimed by a node which stopped becomes due again once the lease expired.
+ */
+@Slf4j
+@ApplicationScoped
+public class WebhookRetryQueue {
+
+  static final String QUERY_NAME = "queryName";
+  static final String DEST = "dest";
+  static final String SUBSCRIPTION_ID = "subscriptionID";
+  static final String EVENTS = "events";
+  static final String ATTEMPT = "attempt";
+  static final String DUE_AT = "dueAt";
+  static final String LAST_ERROR = "lastError";
+
+  private final OpenSearchAsyncClient client;
+  private final WebhookConfig config;
+  private final AtomicBoolean indexReady = new AtomicBoolean();
+
+  public WebhookRetryQueue(final OpenSearchAsyncClient client, final WebhookConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  /**
+   * Stores {@code batch} to be delivered again at {@code dueAt}, replacing its previous entry.
+   *
+   * @param attempt the number of failed attempts, including the one just failed
+   */
+  Uni<Void> persist(final WebhookBatch batch, final int attempt, final Instant dueAt, final String lastError) {
+    final String id = batch.retryId() != null ? batch.retryId() : UUID.randomUUID().toString();
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put(SUBSCRIPTION_ID, batch.target().subscriptionID());
+    document.put(QUERY_NAME, batch.target().queryName());
+    document.put(DEST, batch.target().dest());
+    document.put(EVENTS, batch.events());
+    document.put(ATTEMPT, attempt);
+    document.put(DUE_AT, dueAt.toString());
+    document.put(LAST_ERROR, lastError);
+    return ensureIndex()
+            .chain(() -> AsyncCalls.call(() -> client.index(i -> i
+                    .index(config.retryIndex())
+                    .id(id)
+                    .document(document))))
+            .replaceWithVoid();
+  }
+
+  /**
+   * @return up to {@code size} deliveries due at {@code now}, claimed by this node for {@code lease}
+   */
+  Uni<List<WebhookBatch>> claim(final Instant now, final int size, final Duration lease) {
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(config.retryIndex())
+            .size(size)
+            .seqNoPrimaryTerm(true)
+            .query(q -> q.range(r -> r.field(DUE_AT).lte(JsonData.of(now.toString()))))
+            .sort(so -> so.field(f -> f.field(DUE_AT).order(SortOrder.Asc))));
+    return ensureIndex()
+            .chain(() -> AsyncCalls.call(() -> client.search(request, ObjectNode.class)))
+            .chain(response -> {
+              final List<Hit<ObjectNode>> hits = response.hits().hits();
+              if (hits.isEmpty()) {
+                return Uni.createFrom().item(List.<WebhookBatch>of());
+              }
+              final String leasedUntil = now.plus(lease).toString();
+              final List<BulkOperation> operations = hits.stream()
+                      .map(hit -> BulkOperation.of(o -> o.update(u -> u
+                              .index(config.retryIndex())
+                              .id(hit.id())
+                              .ifSeqNo(hit.seqNo())
+                              .ifPrimaryTerm(hit.primaryTerm())
+                              .document(Map.of(DUE_AT, leasedUntil)))))
+                      .toList();
+              return AsyncCalls.call(() -> client.bulk(BulkRequest.of(b -> b.operations(operations))))
+                      .map(bulk -> {
+                        // deliveries claimed by another node meanwhile fail with a version conflict
+                        final Set<String> claimed = bulk.items().stream()
+                                .filter(item -> item.error() == null)
+                                .map(BulkResponseItem::id)
+                                .collect(Collectors.toSet());
+                        final List<WebhookBatch> batches = new ArrayList<>(claimed.size());
+                        for (final Hit<ObjectNode> hit : hits) {
+                          if (claimed.contains(hit.id()) && hit.source() != null) {
+                            batches.add(batch(hit.id(), hit.source()));
+                          }
+                        }
+                        return batches;
+                      });
+            });
+  }
+
+  /**
+   * Removes a delivery which succeeded or was given up.
+   */
+  Uni<Void> delete(final String retryId) {
+    return AsyncCalls.call(() -> client.delete(d -> d.index(config.retryIndex()).id(retryId))).replaceWithVoid();
+  }
+
+  private static WebhookBatch batch(final String id, final ObjectNode source) {
+    final List<ObjectNode> events = new ArrayList<>();
+    for (final JsonNode event : source.path(EVENTS)) {
+      if (event instanceof ObjectNode object) {
+        events.add(object);
+      }
+    }
+    final WebhookTarget target = new WebhookTarget(
+            source.path(SUBSCRIPTION_ID).asText(), source.path(QUERY_NAME).asText(), source.path(DEST).asText());
+    return new WebhookBatch(target, events, source.path(ATTEMPT).asInt(), id);
+  }
+
+  private Uni<Void> ensureIndex() {
+    if (indexReady.get()) {
+      return Uni.createFrom().voidItem();
+    }
+    return AsyncCalls.call(() -> client.indices().exists(e -> e.index(config.retryIndex())))
+            .chain(exists -> exists.value()
+                    ? Uni.createFrom().voidItem()
+                    : AsyncCalls.call(() -> client.indices().create(c -> c
+                                    .index(config.retryIndex())
+                                    .mappings(m -> m
+                                            .properties(SUBSCRIPTION_ID, p -> p.keyword(k -> k))
+                                            .properties(QUERY_NAME, p -> p.keyword(k -> k))
+                                            .properties(DEST, p -> p.keyword(k -> k))
+                                            // delivered as stored, never searched
+                                            .properties(EVENTS, p -> p.object(o -> o.enabled(false)))
+                                            .properties(ATTEMPT, p -> p.integer(i -> i))
+                                            .properties(DUE_AT, p -> p.date(d -> d))
+                                            .properties(LAST_ERROR, p -> p.text(t -> t.index(false))))))
+                            .invoke(() -> log.info("created webhook retry index {}", config.retryIndex()))
+                            .replaceWithVoid())
+            .invoke(() -> indexReady.set(true));
+  }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import io.openepcis.quarkus.ce.query.EventAccess;
+
+/**
+ * A streaming webhook subscription, kept with the access of its creator so only the events the
+ * creator may see are delivered.
+ *
+ * @param signatureToken the client's token signing deliveries, {@code null} if they are not signed
+ */
+public record WebhookSubscription(
+        String subscriptionID, String queryName, String dest, String signatureToken, EventAccess access) {
+
+  WebhookTarget target() {
+    return new WebhookTarget(subscriptionID, queryName, dest);
+  }
+}
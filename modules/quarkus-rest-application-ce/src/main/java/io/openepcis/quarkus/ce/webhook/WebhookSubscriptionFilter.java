@@ -0,0 +1,238 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.quarkus.ce.query.EpcFormats;
+import io.openepcis.quarkus.ce.query.NamedQueryPlans;
+import io.openepcis.quarkus.ce.query.QueryScopes;
+import io.openepcis.quarkus.ce.subscription.PercolatorQueries;
+import io.openepcis.rest.api.common.QueryApi;
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Takes the streaming webhook subscriptions of {@link QueryApi} over from the subscription engine
+ * once {@code repository.epcis.webhook.enabled} is set, so they are delivered by
+ * {@link WebhookDeliveries} only: a subscription created with {@code stream: true} and an
+ * {@code http(s)} {@code dest} is answered here without reaching the resource, its query registered
+ * with the {@link PercolatorQueries} and the subscription, with the creator's access, in the
+ * {@link WebhookSubscriptions}. Reading and deleting such a subscription is answered here as well.
+ * <p>
+ * Subscriptions with parameters {@link WebhookDeliveries} doesn't implement ({@code initialRecordTime},
+ * {@code reportIfEmpty}, an EPC format other than the stored one) and scheduled subscriptions are
+ * left to the subscription engine. Deleting a subscription registered with both, before the engine
+ * was handed over, removes it from both.
+ */
+@Slf4j
+public class WebhookSubscriptionFilter {
+
+  static final String OWNED = WebhookSubscriptionFilter.class.getName() + ".owned";
+  static final String SUBSCRIBE = "queriesQueryNameSubscriptionPost";
+  static final String SUBSCRIPTION = "queriesSubscriptionIDGet";
+  static final String UNSUBSCRIBE = "queriesSubscriptionIDDelete";
+  static final String QUERY_NAME = "queryName";
+  static final String SUBSCRIPTION_ID = "subscriptionID";
+  static final String DEST = "dest";
+  static final String STREAM = "stream";
+  static final String SIGNATURE_TOKEN = "signatureToken";
+  static final String CREATED_AT = "createdAt";
+  static final String REPORT_IF_EMPTY = "reportIfEmpty";
+
+  // the parameters of a streaming subscription WebhookDeliveries implements
+  static final Set<String> PARAMETERS = Set.of(DEST, STREAM, SIGNATURE_TOKEN, REPORT_IF_EMPTY);
+
+  @Inject
+  SecurityIdentity securityIdentity;
+
+  @Inject
+  WebhookConfig config;
+
+  @Inject
+  WebhookSubscriptions subscriptions;
+
+  @Inject
+  NamedQueryPlans namedQueryPlans;
+
+  @Inject
+  PercolatorQueries percolatorQueries;
+
+  @Inject
+  QueryScopes queryScopes;
+
+  @Inject
+  ObjectMapper objectMapper;
+
+  /**
+   * Creates a streaming webhook subscription instead of the resource.
+   */
+  @ServerRequestFilter(readBody = true)
+  public Uni<Response> subscribe(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo)
+          throws IOException {
+    if (!config.enabled() || !invokes(resourceInfo, SUBSCRIBE) || !requestContext.hasEntity()
+            || !EpcFormats.asStored(requestContext.getHeaderString(HeaderConstants.GS1_EPC_FORMAT))) {
+      return Uni.createFrom().nullItem();
+    }
+    final byte[] body = requestContext.getEntityStream().readAllBytes();
+    requestContext.setEntityStream(new ByteArrayInputStream(body));
+    final JsonNode subscription;
+    try {
+      subscription = objectMapper.readTree(body);
+    } catch (JsonProcessingException e) {
+      // left to the resource to reject
+      return Uni.createFrom().nullItem();
+    }
+    if (subscription == null || !streamed(subscription) || !implemented(subscription)) {
+      return Uni.createFrom().nullItem();
+    }
+    final String queryName = requestContext.getUriInfo().getPathParameters().getFirst(QUERY_NAME);
+    final WebhookSubscription webhook = new WebhookSubscription(
+            UUID.randomUUID().toString(),
+            queryName,
+            subscription.path(DEST).asText(),
+            subscription.path(SIGNATURE_TOKEN).asText(null),
+            queryScopes.access(securityIdentity));
+    final Instant createdAt = Instant.now();
+    return namedQueryPlans.plan(queryName)
+            .chain(plan -> percolatorQueries.register(queryName, plan.query().query()))
+            .chain(() -> subscriptions.register(webhook))
+            .map(ignored -> Response
+                    .created(requestContext.getUriInfo().getAbsolutePathBuilder().path(webhook.subscriptionID()).build())
+                    .entity(representation(webhook, createdAt))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build());
+  }
+
+  /**
+   * Answers reading a streaming webhook subscription, subscriptions of the engine are left to the resource.
+   */
+  @ServerRequestFilter
+  public Uni<Response> subscription(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo) {
+    if (!config.enabled() || !invokes(resourceInfo, SUBSCRIPTION)) {
+      return Uni.createFrom().nullItem();
+    }
+    final String subscriptionID = requestContext.getUriInfo().getPathParameters().getFirst(SUBSCRIPTION_ID);
+    final String queryName = requestContext.getUriInfo().getPathParameters().getFirst(QUERY_NAME);
+    if (subscriptionID == null) {
+      return Uni.createFrom().nullItem();
+    }
+    return subscriptions.find(subscriptionID).map(found -> found
+            .filter(webhook -> webhook.queryName().equals(queryName))
+            .map(webhook -> Response.ok(representation(webhook, null), MediaType.APPLICATION_JSON_TYPE).build())
+            .orElse(null));
+  }
+
+  /**
+   * Removes a streaming webhook subscription; the resource still runs for subscriptions the engine
+   * knows as well, see {@link #unsubscribed}.
+   */
+  @ServerRequestFilter
+  public Uni<Response> unsubscribe(final ContainerRequestContext requestContext, final ResourceInfo resourceInfo) {
+    if (!config.enabled() || !invokes(resourceInfo, UNSUBSCRIBE)) {
+      return Uni.createFrom().nullItem();
+    }
+    final String subscriptionID = requestContext.getUriInfo().getPathParameters().getFirst(SUBSCRIPTION_ID);
+    if (subscriptionID == null) {
+      return Uni.createFrom().nullItem();
+    }
+    return subscriptions.find(subscriptionID).chain(found -> {
+      if (found.isEmpty()) {
+        return Uni.createFrom().nullItem();
+      }
+      requestContext.setProperty(OWNED, subscriptionID);
+      return subscriptions.remove(subscriptionID).replaceWith((Response) null);
+    });
+  }
+
+  /**
+   * A subscription owned here is unknown to the engine unless it was created before the hand-over,
+   * so its {@code 404} means the subscription was removed.
+   */
+  @ServerResponseFilter
+  public void unsubscribed(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+    if (requestContext.getProperty(OWNED) != null
+            && responseContext.getStatus() == Response.Status.NOT_FOUND.getStatusCode()) {
+      responseContext.setStatus(Response.Status.NO_CONTENT.getStatusCode());
+      responseContext.setEntity(null);
+    }
+  }
+
+  /**
+   * @return whether {@code subscription} streams to an HTTP endpoint
+   */
+  static boolean streamed(final JsonNode subscription) {
+    final String dest = subscription.path(DEST).asText("");
+    return subscription.path(STREAM).asBoolean(false)
+            && (dest.startsWith("http://") || dest.startsWith("https://"));
+  }
+
+  /**
+   * @return whether {@link WebhookDeliveries} implements all parameters of {@code subscription}
+   */
+  static boolean implemented(final JsonNode subscription) {
+    final Iterator<String> names = subscription.fieldNames();
+    while (names.hasNext()) {
+      if (!PARAMETERS.contains(names.next())) {
+        return false;
+      }
+    }
+    return !subscription.path(REPORT_IF_EMPTY).asBoolean(false);
+  }
+
+  /**
+   * @return the subscription as answered to clients, without the signature token
+   */
+  static Map<String, Object> representation(final WebhookSubscription webhook, final Instant createdAt) {
+    final Map<String, Object> representation = new LinkedHashMap<>();
+    representation.put(DEST, webhook.dest());
+    representation.put(SUBSCRIPTION_ID, webhook.subscriptionID());
+    representation.put(QUERY_NAME, webhook.queryName());
+    representation.put(STREAM, true);
+    if (createdAt != null) {
+      representation.put(CREATED_AT, createdAt.toString());
+    }
+    return representation;
+  }
+
+  private static boolean invokes(final ResourceInfo resourceInfo, final String method) {
+    return resourceInfo != null
+            && resourceInfo.getResourceClass() != null
+            && resourceInfo.getResourceMethod() != null
+            && QueryApi.class.isAssignableFrom(resourceInfo.getResourceClass())
+            && method.equals(resourceInfo.getResourceMethod().getName());
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.AsyncCalls;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.client.opensearch.OpenSearchAsyncClient;
+import org.opensearch.client.opensearch._types.OpenSearchException;
+import org.opensearch.client.opensearch._types.Refresh;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * The streaming webhook subscriptions delivered by {@link WebhookDeliveries}, persisted in
+ * {@code repository.epcis.webhook.subscription-index} by the {@link WebhookSubscriptionFilter}.
+ * <p>
+ * Every node reads all of them at most once per {@code subscription-refresh} and works with that
+ * snapshot in between; subscriptions created or deleted through a node are applied to its snapshot
+ * right away.
+ */
+@Slf4j
+@ApplicationScoped
+public class WebhookSubscriptions {
+
+  static final String SUBSCRIPTION_ID = "subscriptionID";
+  static final String QUERY_NAME = "queryName";
+  static final String DEST = "dest";
+  static final String SIGNATURE_TOKEN = "signatureToken";
+  static final String GROUP = "group";
+  static final String ROLES = "roles";
+  static final String EVENT_ACCESS_ROLE = "eventAccessRole";
+  static final int MAX_SUBSCRIPTIONS = 10_000;
+
+  /**
+   * The subscriptions by id, as read at {@link System#nanoTime()} {@code loadedAt}.
+   */
+  private record Snapshot(long loadedAt, Map<String, WebhookSubscription> subscriptions) {}
+
+  private final OpenSearchAsyncClient client;
+  private final WebhookConfig config;
+  private final AtomicBoolean indexReady = new AtomicBoolean();
+  private volatile Snapshot snapshot;
+
+  public WebhookSubscriptions(final OpenSearchAsyncClient client, final WebhookConfig config) {
+    this.client = client;
+    this.config = config;
+  }
+
+  /**
+   * @return the streaming webhook subscriptions
+   */
+  public Uni<Collection<WebhookSubscription>> active() {
+    return current().map(Map::values);
+  }
+
+  /**
+   * @return the subscription, empty if it does not exist (anymore)
+   */
+  public Uni<Optional<WebhookSubscription>> find(final String subscriptionID) {
+    return current().map(subscriptions -> Optional.ofNullable(subscriptions.get(subscriptionID)));
+  }
+
+  public Uni<Void> register(final WebhookSubscription subscription) {
+    final Map<String, Object> document = new LinkedHashMap<>();
+    document.put(SUBSCRIPTION_ID, subscription.subscriptionID());
+    document.put(QUERY_NAME, subscription.queryName());
+    document.put(DEST, subscription.dest());
+    document.put(SIGNATURE_TOKEN, subscription.signatureToken());
+    document.put(GROUP, subscription.access().group());
+    document.put(ROLES, subscription.access().roles());
+    document.put(EVENT_ACCESS_ROLE, subscription.access().eventAccessRole());
+    return ensureIndex()
+            .chain(() -> AsyncCalls.call(() -> client.index(i -> i
+                    .index(config.subscriptionIndex())
+                    .id(subscription.subscriptionID())
+                    .document(document)
+                    .refresh(Refresh.True))))
+            .invoke(() -> update(subscriptions -> subscriptions.put(subscription.subscriptionID(), subscription)))
+            .replaceWithVoid();
+  }
+
+  public Uni<Void> remove(final String subscriptionID) {
+    return AsyncCalls.call(() -> client.delete(d -> d
+                    .index(config.subscriptionIndex())
+                    .id(subscriptionID)
+                    .refresh(Refresh.True)))
+            .replaceWithVoid()
+            // subscriptions created while webhook delivery was disabled were never registered
+            .onFailure(failure -> failure instanceof OpenSearchException e && e.status() == 404).recoverWithNull()
+            .invoke(() -> update(subscriptions -> subscriptions.remove(subscriptionID)));
+  }
+
+  private Uni<Map<String, WebhookSubscription>> current() {
+    final Snapshot current = snapshot;
+    if (current != null && System.nanoTime() - current.loadedAt() < config.subscriptionRefresh().toNanos()) {
+      return Uni.createFrom().item(current.subscriptions());
+    }
+    final long loadedAt = System.nanoTime();
+    final SearchRequest request = SearchRequest.of(s -> s
+            .index(config.subscriptionIndex())
+            .size(MAX_SUBSCRIPTIONS));
+    return ensureIndex()
+            .chain(() -> AsyncCalls.call(() -> client.search(request, ObjectNode.class)))
+            .map(response -> {
+              if (response.hits().hits().size() >= MAX_SUBSCRIPTIONS) {
+                log.warn("more than {} webhook subscriptions, only the first are delivered", MAX_SUBSCRIPTIONS);
+              }
+              final Map<String, WebhookSubscription> subscriptions = new HashMap<>();
+              for (final Hit<ObjectNode> hit : response.hits().hits()) {
+                if (hit.source() != null) {
+                  subscriptions.put(hit.id(), subscription(hit.id(), hit.source()));
+                }
+              }
+              snapshot = new Snapshot(loadedAt, Map.copyOf(subscriptions));
+              return snapshot.subscriptions();
+            });
+  }
+
+  private synchronized void update(final Consumer<Map<String, WebhookSubscription>> change) {
+    final Snapshot current = snapshot;
+    if (current == null) {
+      return;
+    }
+    final Map<String, WebhookSubscription> subscriptions = new HashMap<>(current.subscriptions());
+    change.accept(subscriptions);
+    snapshot = new Snapshot(current.loadedAt(), Map.copyOf(subscriptions));
+  }
+
+  static WebhookSubscription subscription(final String id, final ObjectNode source) {
+    final Set<String> roles = new HashSet<>();
+    source.path(ROLES).forEach(role -> roles.add(role.asText()));
+    final JsonNode group = source.path(GROUP);
+    final EventAccess access = group.isTextual()
+            ? new EventAccess(group.asText(), Set.copyOf(roles), source.path(EVENT_ACCESS_ROLE).asText(null))
+            : EventAccess.ADMIN;
+    return new WebhookSubscription(
+            id,
+            source.path(QUERY_NAME).asText(),
+            source.path(DEST).asText(),
+            source.path(SIGNATURE_TOKEN).asText(null),
+            access);
+  }
+
+  private Uni<Void> ensureIndex() {
+    if (indexReady.get()) {
+      return Uni.createFrom().voidItem();
+    }
+    return AsyncCalls.call(() -> client.indices().exists(e -> e.index(config.subscriptionIndex())))
+            .chain(exists -> exists.value()
+                    ? Uni.createFrom().voidItem()
+                    : AsyncCalls.call(() -> client.indices().create(c -> c
+                                    .index(config.subscriptionIndex())
+                                    .mappings(m -> m
+                                            .properties(SUBSCRIPTION_ID, p -> p.keyword(k -> k))
+                                            .properties(QUERY_NAME, p -> p.keyword(k -> k))
+                                            .properties(DEST, p -> p.keyword(k -> k))
+                                            .properties(SIGNATURE_TOKEN, p -> p.keyword(k -> k.index(false)))
+                                            .properties(GROUP, p -> p.keyword(k -> k))
+                                            .properties(ROLES, p -> p.keyword(k -> k))
+                                            .properties(EVENT_ACCESS_ROLE, p -> p.keyword(k -> k)))))
+                            .invoke(() -> log.info("created webhook subscription index {}", config.subscriptionIndex()))
+                            .replaceWithVoid())
+            .invoke(() -> indexReady.set(true));
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import java.net.URI;
+
+/**
+ * A webhook query subscription results are delivered to, as {@code EPCISQueryDocument}s POSTed to
+ * {@code dest}. The signature token is not part of the target, it is looked up from the
+ * {@link WebhookSubscriptions} by {@code subscriptionID} whenever a delivery is sent, so it is never
+ * copied into the retry index.
+ */
+public record WebhookTarget(String subscriptionID, String queryName, String dest) {
+
+  /**
+   * @return the scheme, host and port of {@code dest}, which connections, concurrency and circuit
+   * breaker are shared by
+   */
+  public String destination() {
+    final URI uri = URI.create(dest);
+    final int port = uri.getPort() != -1 ? uri.getPort() : "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.runtime.LaunchMode;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+public class PageTokensTest {
+
+  record Cursor(String pit, List<String> searchAfter) {
+  }
+
+  private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+  private final PageTokens pageTokens = new PageTokens(new ObjectMapper(), Optional.of(SECRET));
+
+  @Test
+  void roundTripsCursor() {
+    final Cursor cursor = new Cursor("pit-id", List.of("1724261548000", "event-1"));
+    Assertions.assertEquals(cursor, pageTokens.verify(pageTokens.sign(cursor), Cursor.class));
+  }
+
+  @Test
+  void resumesOnInstanceWithSameSecret() {
+    final PageTokens other = new PageTokens(new ObjectMapper(), Optional.of(SECRET));
+    final Cursor cursor = new Cursor("pit-id", List.of("1"));
+    Assertions.assertEquals(cursor, other.verify(pageTokens.sign(cursor), Cursor.class));
+  }
+
+  @Test
+  void rejectsTamperedToken() {
+    final String token = pageTokens.sign(new Cursor("pit-id", List.of("1")));
+    final String forged = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"pit\":\"other\",\"searchAfter\":[\"1\"]}".getBytes()) + token.substring(token.indexOf('.'));
+    Assertions.assertThrows(WebApplicationException.class, () -> pageTokens.verify(forged, Cursor.class));
+    Assertions.assertThrows(WebApplicationException.class, () -> pageTokens.verify("garbage", Cursor.class));
+  }
+
+  @Test
+  void rejectsTokenOfOtherInstance() {
+    final PageTokens other = new PageTokens(new ObjectMapper(), Optional.empty(), LaunchMode.TEST);
+    final String token = other.sign(new Cursor("pit-id", List.of("1")));
+    Assertions.assertThrows(WebApplicationException.class, () -> pageTokens.verify(token, Cursor.class));
+  }
+
+  @Test
+  void fallsBackToInstanceKeyInProduction() {
+    final PageTokens instance = new PageTokens(new ObjectMapper(), Optional.empty(), LaunchMode.NORMAL);
+    final Cursor cursor = new Cursor("pit-id", List.of("1"));
+    Assertions.assertEquals(cursor, instance.verify(instance.sign(cursor), Cursor.class));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+public class CaptureContentEncodingInterceptorTest {
+
+  private static final byte[] DOCUMENT = "{\"type\": \"EPCISDocument\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  void decodesGzipBodies() throws IOException {
+    for (final String encoding : new String[]{"gzip", "x-gzip"}) {
+      try (InputStream decoded = CaptureContentEncodingInterceptor.decoder(encoding, body(gzip(DOCUMENT)))) {
+        Assertions.assertArrayEquals(DOCUMENT, decoded.readAllBytes());
+      }
+    }
+  }
+
+  @Test
+  void passesIdentityBodiesThrough() throws IOException {
+    final InputStream body = body(DOCUMENT);
+    Assertions.assertSame(body, CaptureContentEncodingInterceptor.decoder("identity", body));
+  }
+
+  @Test
+  void rejectsBodyWhichIsNotGzipAsInvalid() {
+    final WebApplicationException e = Assertions.assertThrows(WebApplicationException.class,
+            () -> CaptureContentEncodingInterceptor.decoder("gzip", body(DOCUMENT)));
+    Assertions.assertEquals(400, e.getResponse().getStatus());
+  }
+
+  @Test
+  void rejectsTruncatedGzipHeaderAsInvalid() throws IOException {
+    final byte[] truncated = Arrays.copyOf(gzip(DOCUMENT), 4);
+    final WebApplicationException e = Assertions.assertThrows(WebApplicationException.class,
+            () -> CaptureContentEncodingInterceptor.decoder("gzip", body(truncated)));
+    Assertions.assertEquals(400, e.getResponse().getStatus());
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> CaptureContentEncodingInterceptor.decoder("gzip", body(new byte[0]))).getResponse().getStatus());
+  }
+
+  @Test
+  void rejectsUnsupportedEncodings() {
+    Assertions.assertEquals(415, Assertions.assertThrows(WebApplicationException.class,
+            () -> CaptureContentEncodingInterceptor.decoder("br", body(DOCUMENT))).getResponse().getStatus());
+  }
+
+  private static InputStream body(final byte[] bytes) {
+    return new ByteArrayInputStream(bytes);
+  }
+
+  private static byte[] gzip(final byte[] payload) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(payload);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CaptureJobCursorTest {
+
+  @Test
+  void roundTripsSortValues() {
+    final List<String> sortValues = List.of("1724261548000", "f3b1c2a0-2d6e-4c8b-9a51-0c1e2f3a4b5c");
+    final String token = CaptureJobCursor.encode(sortValues);
+    Assertions.assertFalse(token.contains("="));
+    Assertions.assertEquals(sortValues, CaptureJobCursor.decode(token));
+  }
+
+  @Test
+  void startsAtFirstPageWithoutToken() {
+    Assertions.assertTrue(CaptureJobCursor.decode(null).isEmpty());
+    Assertions.assertTrue(CaptureJobCursor.decode("").isEmpty());
+  }
+
+  @Test
+  void rejectsMalformedToken() {
+    Assertions.assertThrows(WebApplicationException.class, () -> CaptureJobCursor.decode("not base64!"));
+    Assertions.assertThrows(WebApplicationException.class,
+            () -> CaptureJobCursor.decode(CaptureJobCursor.encode(List.of("1724261548000"))));
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.model.dto.CaptureJobStatusMessage;
+import io.openepcis.quarkus.ce.RestResources;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class CaptureJobProgressResourceTest {
+
+  private static final UUID CAPTURE_ID = UUID.fromString("0b8a3c0e-8f1e-4b5e-9a43-2a8f4f0c6d11");
+
+  private final ObjectMapper objectMapper = new ObjectMapper()
+          .findAndRegisterModules()
+          .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  private final CaptureJobProgressBroadcaster broadcaster =
+          new CaptureJobProgressBroadcaster(100, Duration.ofMinutes(1), Duration.ofDays(1));
+
+  @Test
+  void streamsUpdatesUntilTheCaptureJobFinished() throws Exception {
+    broadcaster.onCaptureJobUpdate(update(status("acme", null)));
+    final CompletableFuture<List<CaptureJobStatusMessage>> stream = resource(identity("acme", false))
+            .captureIDProgress(CAPTURE_ID)
+            .collect().asList()
+            .subscribeAsCompletionStage();
+    // updates of other capture jobs are not part of the stream
+    broadcaster.onCaptureJobUpdate(new ConsumerRecord<>("capture-documents", 0, 1, "other", status("acme", null)));
+    broadcaster.onCaptureJobUpdate(update(status("acme", "2024-05-01T10:03:12Z")));
+    final List<CaptureJobStatusMessage> updates = stream.get(5, TimeUnit.SECONDS);
+    Assertions.assertEquals(2, updates.size());
+    Assertions.assertNull(updates.get(0).getFinishedAt());
+    Assertions.assertNotNull(updates.get(1).getFinishedAt());
+  }
+
+  @Test
+  void answersCaptureJobsOfOtherGroupsLikeUnknownOnes() throws Exception {
+    broadcaster.onCaptureJobUpdate(update(status("other", null)));
+    Assertions.assertThrows(WebApplicationException.class, () -> resource(identity("acme", false))
+            .captureIDProgress(CAPTURE_ID).collect().asList().await().atMost(Duration.ofSeconds(5)));
+    Assertions.assertEquals(1, resource(identity("acme", true))
+            .captureIDProgress(CAPTURE_ID).select().first().collect().asList().await().atMost(Duration.ofSeconds(5))
+            .size());
+  }
+
+  @Test
+  void remembersTheLatestStatePerCaptureJob() throws Exception {
+    broadcaster.onCaptureJobUpdate(update(status("acme", null)));
+    broadcaster.onCaptureJobUpdate(update(status("acme", "2024-05-01T10:03:12Z")));
+    broadcaster.onCaptureJobUpdate(new ConsumerRecord<>("capture-documents", 0, 2, null, status("acme", null)));
+    Assertions.assertNotNull(broadcaster.latest(CAPTURE_ID.toString()).orElseThrow().getFinishedAt());
+    Assertions.assertTrue(broadcaster.latest("unknown").isEmpty());
+  }
+
+  @Test
+  void picksUpUpdatesDeliveredWhileTheStateIsLookedUp() throws Exception {
+    final CaptureJobStatusMessage running = status("acme", null);
+    final CaptureJobStatusMessage finished = status("acme", "2024-05-01T10:03:12Z");
+    // the capture job starts and finishes while the index, which knows neither state yet, is searched
+    final CaptureJobIndex index = new CaptureJobIndex(null, objectMapper, "capture-job") {
+      @Override
+      public Uni<Optional<CaptureJobStatusMessage>> findById(final String captureID) {
+        return Uni.createFrom().item(() -> {
+          broadcaster.onCaptureJobUpdate(update(running));
+          broadcaster.onCaptureJobUpdate(update(finished));
+          return Optional.empty();
+        });
+      }
+    };
+    final List<CaptureJobStatusMessage> updates = new CaptureJobProgressResource(
+            broadcaster, index, Duration.ofMinutes(1), identity("acme", false), "default")
+            .captureIDProgress(CAPTURE_ID)
+            .collect().asList()
+            .await().atMost(Duration.ofSeconds(5));
+    // the finished state is streamed once, although it was buffered and read as the current state
+    Assertions.assertEquals(List.of(finished), updates);
+  }
+
+  @Test
+  void streamsBufferedUpdatesNewerThanTheCurrentState() throws Exception {
+    final CaptureJobStatusMessage running = status("acme", null);
+    final CaptureJobStatusMessage finished = status("acme", "2024-05-01T10:03:12Z");
+    // a finished capture job not seen on this node is read from the index, the update arrives meanwhile
+    final CaptureJobIndex index = new CaptureJobIndex(null, objectMapper, "capture-job") {
+      @Override
+      public Uni<Optional<CaptureJobStatusMessage>> findById(final String captureID) {
+        return Uni.createFrom().item(() -> {
+          broadcaster.onCaptureJobUpdate(update(finished));
+          return Optional.of(running);
+        });
+      }
+    };
+    final List<CaptureJobStatusMessage> updates = new CaptureJobProgressResource(
+            broadcaster, index, Duration.ofMinutes(1), identity("acme", false), "default")
+            .captureIDProgress(CAPTURE_ID)
+            .collect().asList()
+            .await().atMost(Duration.ofSeconds(5));
+    Assertions.assertEquals(List.of(running, finished), updates);
+  }
+
+  private CaptureJobProgressResource resource(final SecurityIdentity identity) {
+    // the capture job index is only asked for capture jobs this node has not seen an update of
+    return new CaptureJobProgressResource(broadcaster, null, Duration.ofMinutes(1), identity, "default");
+  }
+
+  private static ConsumerRecord<String, CaptureJobStatusMessage> update(final CaptureJobStatusMessage status) {
+    return new ConsumerRecord<>("capture-documents", 0, 0, CAPTURE_ID.toString(), status);
+  }
+
+  private CaptureJobStatusMessage status(final String group, final String finishedAt) throws Exception {
+    return objectMapper.readValue("""
+            {"captureID": "%s", "createdAt": "2024-05-01T10:00:00Z", %s "running": %s, "defaultGroup": "%s"}
+            """.formatted(CAPTURE_ID, finishedAt != null ? "\"finishedAt\": \"" + finishedAt + "\"," : "",
+            finishedAt == null, group), CaptureJobStatusMessage.class);
+  }
+
+  private static SecurityIdentity identity(final String group, final boolean admin) {
+    final Set<String> roles = admin ? Set.of(RestResources.ADMIN_ROLE) : Set.of();
+    return (SecurityIdentity) Proxy.newProxyInstance(SecurityIdentity.class.getClassLoader(),
+            new Class<?>[]{SecurityIdentity.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "hasRole" -> roles.contains((String) args[0]);
+              case "isAnonymous" -> false;
+              case "getAttribute" -> RestResources.DEFAULT_GROUP_ATTRIBUTE.equals(args[0]) ? group : null;
+              default -> throw new UnsupportedOperationException(method.getName());
+            });
+  }
+}
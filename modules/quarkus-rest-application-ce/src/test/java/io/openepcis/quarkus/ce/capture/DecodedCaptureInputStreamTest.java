@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class DecodedCaptureInputStreamTest {
+
+  private static final byte[] PAYLOAD = payload(10_000);
+
+  private final List<long[]> completions = new ArrayList<>();
+
+  @Test
+  void reportsCompressedAndRawBytesOnce() throws IOException {
+    final byte[] gzipped = gzip(PAYLOAD);
+    try (InputStream decoded = decoded(gzipped, 0)) {
+      Assertions.assertArrayEquals(PAYLOAD, decoded.readAllBytes());
+    }
+    Assertions.assertEquals(1, completions.size());
+    Assertions.assertEquals(gzipped.length, completions.get(0)[0]);
+    Assertions.assertEquals(PAYLOAD.length, completions.get(0)[1]);
+    Assertions.assertTrue(gzipped.length < PAYLOAD.length);
+  }
+
+  @Test
+  void enforcesLimitOnDecompressedBytes() throws IOException {
+    final byte[] gzipped = gzip(PAYLOAD);
+    // the compressed body is well within the limit, the payload it expands to is not
+    Assertions.assertTrue(gzipped.length < 1_000);
+    try (InputStream decoded = decoded(gzipped, 1_000)) {
+      Assertions.assertThrows(WebApplicationException.class, decoded::readAllBytes);
+    }
+    Assertions.assertEquals(1, completions.size());
+    Assertions.assertTrue(completions.get(0)[1] > 1_000);
+  }
+
+  @Test
+  void acceptsPayloadAtTheLimit() throws IOException {
+    try (InputStream decoded = decoded(gzip(PAYLOAD), PAYLOAD.length)) {
+      Assertions.assertEquals(PAYLOAD.length, decoded.readAllBytes().length);
+    }
+  }
+
+  @Test
+  void rejectsTruncatedBodyAsInvalid() throws IOException {
+    final byte[] gzipped = gzip(PAYLOAD);
+    try (InputStream decoded = decoded(Arrays.copyOf(gzipped, gzipped.length / 2), 0)) {
+      Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class, decoded::readAllBytes)
+              .getResponse().getStatus());
+    }
+    Assertions.assertEquals(1, completions.size());
+  }
+
+  @Test
+  void rejectsCorruptBodyAsInvalid() throws IOException {
+    final byte[] gzipped = gzip(PAYLOAD);
+    // keep the gzip header intact, corrupt the deflate stream behind it
+    Arrays.fill(gzipped, 10, gzipped.length, (byte) 0xff);
+    try (InputStream decoded = decoded(gzipped, 0)) {
+      Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class, decoded::readAllBytes)
+              .getResponse().getStatus());
+    }
+  }
+
+  private InputStream decoded(final byte[] body, final long limit) throws IOException {
+    final DecodedCaptureInputStream.ByteCountingInputStream compressed =
+            new DecodedCaptureInputStream.ByteCountingInputStream(new ByteArrayInputStream(body));
+    return new DecodedCaptureInputStream(new GZIPInputStream(compressed), compressed, limit,
+            (compressedBytes, rawBytes) -> completions.add(new long[]{compressedBytes, rawBytes}));
+  }
+
+  private static byte[] gzip(final byte[] payload) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(payload);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] payload(final int size) {
+    final byte[] payload = new byte[size];
+    Arrays.fill(payload, (byte) '{');
+    return payload;
+  }
+}
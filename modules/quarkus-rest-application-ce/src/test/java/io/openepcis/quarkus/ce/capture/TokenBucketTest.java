@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.capture;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class TokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void allowsBurstUpToCapacity() {
+    final TokenBucket bucket = new TokenBucket(3, 1, 0);
+    Assertions.assertEquals(0, bucket.tryAcquire(0));
+    Assertions.assertEquals(0, bucket.tryAcquire(0));
+    Assertions.assertEquals(0, bucket.tryAcquire(0));
+    Assertions.assertTrue(bucket.tryAcquire(0) > 0);
+  }
+
+  @Test
+  void reportsWaitUntilNextToken() {
+    final TokenBucket bucket = new TokenBucket(1, 2, 0);
+    Assertions.assertEquals(0, bucket.tryAcquire(0));
+    final long wait = bucket.tryAcquire(0);
+    Assertions.assertTrue(Math.abs(wait - SECOND / 2) <= 1, "wait was " + wait);
+    Assertions.assertEquals(0, bucket.tryAcquire(wait));
+  }
+
+  @Test
+  void refillNeverExceedsCapacity() {
+    final TokenBucket bucket = new TokenBucket(2, 10, 0);
+    Assertions.assertEquals(2d, bucket.available(100 * SECOND), 0.0001);
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.conditional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+
+public class ConditionalGetFilterTest {
+
+  private static final String DECLARED = "urn:uuid:1|2024-05-01T10:00:00Z";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void derivesTheVersionFromTheAnsweredEvent() throws Exception {
+    final ObjectNode event = (ObjectNode) objectMapper.readTree("""
+            {"eventID": "urn:uuid:1", "errorDeclaration": {"declarationTime": "2024-05-01T10:00:00Z"}}""");
+    Assertions.assertEquals(Optional.of(DECLARED), ConditionalGetFilter.answeredVersion("urn:uuid:1", event));
+    Assertions.assertEquals(Optional.of(DECLARED), ConditionalGetFilter.answeredVersion("urn:uuid:1",
+            Map.of("errorDeclaration", Map.of("declarationTime", "2024-05-01T10:00:00Z"))));
+    Assertions.assertEquals(Optional.of(DECLARED),
+            ConditionalGetFilter.answeredVersion("urn:uuid:1", objectMapper.writeValueAsString(event)));
+    Assertions.assertEquals(Optional.of(DECLARED), ConditionalGetFilter.answeredVersion("urn:uuid:1", """
+            <ObjectEvent><eventID>urn:uuid:1</eventID><errorDeclaration>
+            <declarationTime>2024-05-01T10:00:00Z</declarationTime></errorDeclaration></ObjectEvent>"""
+            .getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void versionsEventsWithoutErrorDeclarationByIdAlone() {
+    final ObjectNode event = objectMapper.createObjectNode().put("eventID", "urn:uuid:1");
+    Assertions.assertEquals(Optional.of("urn:uuid:1|"), ConditionalGetFilter.answeredVersion("urn:uuid:1", event));
+    Assertions.assertEquals(Optional.of("urn:uuid:1|"),
+            ConditionalGetFilter.answeredVersion("urn:uuid:1", "<ObjectEvent><eventID>urn:uuid:1</eventID></ObjectEvent>"));
+  }
+
+  @Test
+  void derivesNoVersionFromUnknownRepresentations() {
+    Assertions.assertEquals(Optional.empty(), ConditionalGetFilter.answeredVersion("urn:uuid:1", new Object()));
+    Assertions.assertEquals(Optional.empty(), ConditionalGetFilter.answeredVersion("urn:uuid:1", null));
+    Assertions.assertEquals(Optional.empty(), ConditionalGetFilter.answeredVersion(null, "{}"));
+  }
+}
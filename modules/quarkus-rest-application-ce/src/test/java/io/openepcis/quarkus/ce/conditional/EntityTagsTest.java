@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.conditional;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class EntityTagsTest {
+
+  @Test
+  void tagsDependOnEveryPart() {
+    final String tag = EntityTags.of(List.of("urn:uuid:1|", "acme", "/events/urn:uuid:1"));
+    Assertions.assertTrue(tag.startsWith("\"") && tag.endsWith("\""));
+    Assertions.assertEquals(tag, EntityTags.of(List.of("urn:uuid:1|", "acme", "/events/urn:uuid:1")));
+    Assertions.assertNotEquals(tag, EntityTags.of(List.of("urn:uuid:1|2024-05-01T10:00:00Z", "acme", "/events/urn:uuid:1")));
+    Assertions.assertNotEquals(EntityTags.of(Arrays.asList("ab", null)), EntityTags.of(Arrays.asList("a", "b")));
+  }
+
+  @Test
+  void matchesIfNoneMatchLists() {
+    final String tag = EntityTags.of(List.of("v1"));
+    Assertions.assertTrue(EntityTags.matches(tag, tag));
+    Assertions.assertTrue(EntityTags.matches("\"other\", W/" + tag, tag));
+    Assertions.assertTrue(EntityTags.matches("*", tag));
+    Assertions.assertFalse(EntityTags.matches("\"other\"", tag));
+    Assertions.assertFalse(EntityTags.matches(null, tag));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class EpcHistoryTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void ordersEventsNewestFirst() throws Exception {
+    final EpcHistory history = EpcHistory.of(List.of(
+            event("e1", "2024-05-01T10:00:00Z", "acme"),
+            event("e3", "2024-05-03T10:00:00Z", "acme"),
+            event("e2", "2024-05-02T10:00:00+02:00", "acme")), 10);
+    Assertions.assertEquals(List.of("e3", "e2", "e1"), ids(history.entries()));
+  }
+
+  @Test
+  void insertsSavedEventsInOrderOnce() throws Exception {
+    final EpcHistory history = EpcHistory.of(List.of(
+            event("e1", "2024-05-01T10:00:00Z", "acme"),
+            event("e3", "2024-05-03T10:00:00Z", "acme")), 10);
+    final EpcHistory.Entry saved = EpcHistory.Entry.of(event("e2", "2024-05-02T10:00:00Z", "acme"));
+    final EpcHistory appended = history.with(saved, 10).with(saved, 10);
+    Assertions.assertEquals(List.of("e3", "e2", "e1"), ids(appended.entries()));
+    Assertions.assertEquals(List.of("e3", "e1"), ids(history.entries()));
+  }
+
+  @Test
+  void becomesOversizedBeyondMaxEvents() throws Exception {
+    final List<ObjectNode> events = List.of(
+            event("e1", "2024-05-01T10:00:00Z", "acme"),
+            event("e2", "2024-05-02T10:00:00Z", "acme"));
+    Assertions.assertTrue(EpcHistory.of(events, 1).oversized());
+    final EpcHistory full = EpcHistory.of(events, 2);
+    Assertions.assertFalse(full.oversized());
+    Assertions.assertTrue(full.with(EpcHistory.Entry.of(event("e3", "2024-05-03T10:00:00Z", "acme")), 2).oversized());
+  }
+
+  @Test
+  void pagesVisibleEventsAfterCursor() throws Exception {
+    final EpcHistory history = EpcHistory.of(List.of(
+            event("e1", "2024-05-01T10:00:00Z", "acme"),
+            event("e2", "2024-05-02T10:00:00Z", "other"),
+            event("e3", "2024-05-03T10:00:00Z", "acme"),
+            event("e4", "2024-05-03T10:00:00Z", "acme")), 10);
+    final EventAccess acme = new EventAccess("acme", Set.of("query"), "query");
+    final List<EpcHistory.Entry> first = history.page(acme, null, 2);
+    Assertions.assertEquals(List.of("e4", "e3"), ids(first));
+    final EpcEventsCursor cursor = EpcEventsCursor.of("urn:epc:id:sgtin:4012345.011111.1", "group:acme", first.get(1));
+    Assertions.assertEquals(List.of("e1"), ids(history.page(acme, cursor.after(), 2)));
+    Assertions.assertEquals(List.of("e2", "e1"), ids(history.page(EventAccess.ADMIN, cursor.after(), 2)));
+  }
+
+  @Test
+  void continuesIndexSearchInHistoryOrder() throws Exception {
+    final EpcHistory.Entry last = EpcHistory.Entry.of(event("e3", "2024-05-03T12:00:00+02:00", "acme"));
+    final EpcEventsCursor cursor = EpcEventsCursor.of("urn:epc:id:sgtin:4012345.011111.1", "group:acme", last);
+    Assertions.assertEquals(List.of("1714730400000", "e3"), cursor.searchAfter());
+    Assertions.assertEquals(0, EpcHistory.ORDER.compare(last, cursor.after()));
+    final EpcHistory.Entry undated = new EpcHistory.Entry("e0", null, "acme", List.of());
+    Assertions.assertEquals(
+            List.of(String.valueOf(Long.MIN_VALUE), "e0"),
+            EpcEventsCursor.of("urn:epc:id:sgtin:4012345.011111.1", "group:acme", undated).searchAfter());
+  }
+
+  private ObjectNode event(final String eventID, final String eventTime, final String group) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {
+              "eventID": "%s",
+              "eventTime": "%s",
+              "defaultGroup": "%s"
+            }
+            """.formatted(eventID, eventTime, group));
+  }
+
+  private static List<String> ids(final List<EpcHistory.Entry> entries) {
+    return entries.stream().map(EpcHistory.Entry::eventID).toList();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.epc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class EpcTraversalTest {
+
+  private static final String PALLET = "urn:epc:id:sscc:4012345.0000000001";
+  private static final String CASE = "urn:epc:id:sgtin:4012345.011111.1";
+  private static final String ITEM = "urn:epc:id:sgtin:4012345.022222.1";
+  private static final String INPUT = "urn:epc:id:sgtin:4012345.033333.1";
+  private static final String LOT = "urn:epc:class:lgtin:4012345.044444.L1";
+  private static final String TRANSFORMATION = "urn:uuid:5c4fd1c4-0b3a-4b4b-9a5e-2c2b8c7a9f10";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void followsAggregationsAndTransformationsDown() throws Exception {
+    final ObjectNode packing = aggregation("e1", PALLET, CASE);
+    final ObjectNode making = transformation("e2", INPUT, CASE);
+    Assertions.assertEquals(Set.of(CASE), TraceDirection.DOWN.reached(packing, Set.of(PALLET)));
+    Assertions.assertEquals(Set.of(), TraceDirection.DOWN.reached(packing, Set.of(CASE)));
+    Assertions.assertEquals(Set.of(CASE), TraceDirection.DOWN.reached(making, Set.of(INPUT)));
+  }
+
+  @Test
+  void followsAggregationsAndTransformationsUp() throws Exception {
+    final ObjectNode packing = aggregation("e1", PALLET, CASE);
+    final ObjectNode making = transformation("e2", INPUT, CASE);
+    Assertions.assertEquals(Set.of(PALLET), TraceDirection.UP.reached(packing, Set.of(CASE)));
+    Assertions.assertEquals(Set.of(INPUT), TraceDirection.UP.reached(making, Set.of(CASE)));
+    Assertions.assertEquals(Set.of(PALLET, INPUT),
+            new EpcTraversal(TraceDirection.BOTH, 10).reached(List.of(packing, making), Set.of(CASE)));
+  }
+
+  @Test
+  void followsEpcClassesOfQuantityLists() throws Exception {
+    final ObjectNode blending = (ObjectNode) objectMapper.readTree("""
+            {"eventID": "e3", "type": "TransformationEvent", "inputQuantityList": [{"epcClass": "%s", "quantity": 5}],
+             "outputEPCList": ["%s"]}
+            """.formatted(LOT, CASE));
+    Assertions.assertEquals(Set.of(CASE), TraceDirection.DOWN.reached(blending, Set.of(LOT)));
+    Assertions.assertEquals(Set.of(LOT), TraceDirection.UP.reached(blending, Set.of(CASE)));
+  }
+
+  @Test
+  void followsTransformationsSplitAcrossEvents() throws Exception {
+    final ObjectNode consuming = (ObjectNode) objectMapper.readTree("""
+            {"eventID": "e4", "type": "TransformationEvent", "transformationID": "%s", "inputEPCList": ["%s"]}
+            """.formatted(TRANSFORMATION, INPUT));
+    final ObjectNode producing = (ObjectNode) objectMapper.readTree("""
+            {"eventID": "e5", "type": "TransformationEvent", "transformationID": "%s", "outputEPCList": ["%s"]}
+            """.formatted(TRANSFORMATION, CASE));
+    Assertions.assertEquals(Set.of(TRANSFORMATION), TraceDirection.DOWN.reached(consuming, Set.of(INPUT)));
+    Assertions.assertEquals(Set.of(), TraceDirection.DOWN.reached(producing, Set.of(INPUT)));
+    Assertions.assertEquals(Set.of(CASE), TraceDirection.DOWN.reached(producing, Set.of(TRANSFORMATION)));
+    Assertions.assertEquals(Set.of(TRANSFORMATION), TraceDirection.UP.reached(producing, Set.of(CASE)));
+    Assertions.assertEquals(Set.of(INPUT), TraceDirection.UP.reached(consuming, Set.of(TRANSFORMATION)));
+  }
+
+  @Test
+  void visitsEveryEpcAndReturnsEveryEventOnce() throws Exception {
+    final EpcTraversal traversal = new EpcTraversal(TraceDirection.BOTH, 3);
+    Assertions.assertEquals(Set.of(PALLET), traversal.visit(List.of(PALLET)));
+    Assertions.assertEquals(Set.of(CASE), traversal.visit(List.of(PALLET, CASE)));
+    Assertions.assertEquals(Set.of(ITEM), traversal.visit(List.of(ITEM, INPUT)));
+    Assertions.assertTrue(traversal.exhausted());
+    final ObjectNode packing = aggregation("e1", PALLET, CASE);
+    Assertions.assertEquals(1, traversal.unseen(List.of(packing)).size());
+    Assertions.assertEquals(0, traversal.unseen(List.of(packing)).size());
+  }
+
+  @Test
+  void rejectsUnknownDirections() {
+    Assertions.assertEquals(TraceDirection.DOWN, TraceDirection.of(null));
+    Assertions.assertEquals(TraceDirection.BOTH, TraceDirection.of("Both"));
+    Assertions.assertThrows(WebApplicationException.class, () -> TraceDirection.of("sideways"));
+  }
+
+  private ObjectNode aggregation(final String eventID, final String parent, final String child) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {"eventID": "%s", "type": "AggregationEvent", "parentID": "%s", "childEPCs": ["%s"]}
+            """.formatted(eventID, parent, child));
+  }
+
+  private ObjectNode transformation(final String eventID, final String input, final String output) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {"eventID": "%s", "type": "TransformationEvent", "inputEPCList": ["%s"], "outputEPCList": ["%s"]}
+            """.formatted(eventID, input, output));
+  }
+}
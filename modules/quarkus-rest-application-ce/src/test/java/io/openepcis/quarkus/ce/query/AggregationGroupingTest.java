@@ -0,0 +1,63 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class AggregationGroupingTest {
+
+  @Test
+  void splitsAndDeduplicatesDimensions() {
+    final AggregationGrouping grouping = AggregationGrouping.of(List.of("bizStep,disposition", "bizStep"), null, null);
+    Assertions.assertEquals(List.of("bizStep", "disposition"), grouping.groupBy());
+    Assertions.assertNull(grouping.interval());
+    Assertions.assertEquals(2, grouping.sources().size());
+  }
+
+  @Test
+  void intervalImpliesEventTime() {
+    final AggregationGrouping grouping = AggregationGrouping.of(List.of("bizStep"), "DAY", "Europe/Berlin");
+    Assertions.assertEquals(List.of("bizStep", "eventTime"), grouping.groupBy());
+    Assertions.assertEquals("day", grouping.interval());
+    Assertions.assertEquals("Europe/Berlin", grouping.timeZone());
+  }
+
+  @Test
+  void eventTimeDefaultsToDailyIntervalInUtc() {
+    final AggregationGrouping grouping = AggregationGrouping.of(List.of("eventTime"), null, null);
+    Assertions.assertEquals(AggregationGrouping.DEFAULT_INTERVAL, grouping.interval());
+    Assertions.assertEquals(AggregationGrouping.DEFAULT_TIME_ZONE, grouping.timeZone());
+  }
+
+  @Test
+  void noGroupingCountsOnly() {
+    Assertions.assertTrue(AggregationGrouping.of(null, null, null).groupBy().isEmpty());
+  }
+
+  @Test
+  void rejectsUnknownDimensionsIntervalsAndZones() {
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> AggregationGrouping.of(List.of("epc"), null, null)).getResponse().getStatus());
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> AggregationGrouping.of(List.of(), "fortnight", null)).getResponse().getStatus());
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> AggregationGrouping.of(List.of(), "day", "Mars/Olympus")).getResponse().getStatus());
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class CacheScopeTest {
+
+  private static final Instant NOW = Instant.parse("2024-06-30T12:00:00Z");
+
+  @Test
+  void unrestrictedQueryIsAffectedByEveryEvent() {
+    final CacheScope scope = CacheScope.of(Map.of());
+    Assertions.assertTrue(scope.affectedBy(new SavedEvent("ObjectEvent", "shipping", NOW, NOW)));
+  }
+
+  @Test
+  void matchesEventTypeAndBizStepInAnyForm() {
+    final CacheScope scope = CacheScope.of(Map.of(
+            "eventType", List.of("ObjectEvent|AggregationEvent"),
+            "EQ_bizStep", List.of("shipping")));
+    Assertions.assertTrue(scope.affectedBy(
+            new SavedEvent("ObjectEvent", "https://ref.gs1.org/cbv/BizStep-shipping", NOW, NOW)));
+    Assertions.assertFalse(scope.affectedBy(new SavedEvent("TransformationEvent", "shipping", NOW, NOW)));
+    Assertions.assertFalse(scope.affectedBy(new SavedEvent("ObjectEvent", "receiving", NOW, NOW)));
+  }
+
+  @Test
+  void closedTimeRangeIsNotAffectedByNewEvents() {
+    final CacheScope scope = CacheScope.of(Map.of(
+            "GE_recordTime", List.of("2024-06-01T00:00:00Z"),
+            "LT_recordTime", List.of("2024-06-30T00:00:00Z")));
+    Assertions.assertFalse(scope.affectedBy(new SavedEvent("ObjectEvent", null, NOW, NOW)));
+    Assertions.assertTrue(scope.affectedBy(
+            new SavedEvent("ObjectEvent", null, NOW, Instant.parse("2024-06-29T23:59:59Z"))));
+  }
+
+  @Test
+  void unknownPropertiesInvalidate() {
+    final CacheScope scope = CacheScope.of(Map.of("eventType", List.of("ObjectEvent")));
+    Assertions.assertTrue(scope.affectedBy(new SavedEvent(null, null, null, null)));
+  }
+}
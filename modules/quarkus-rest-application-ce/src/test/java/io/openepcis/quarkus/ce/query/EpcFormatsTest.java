@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EpcFormatsTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void rendersAnyEventAsStoredWithoutPreference() throws Exception {
+    final ObjectNode event = event("urn:epc:id:sgtin:4012345.011111.1", "https://id.gs1.org/01/04012345111118/21/2");
+    Assertions.assertTrue(EpcFormats.asStored(null, event));
+    Assertions.assertTrue(EpcFormats.asStored(EpcFormats.NO_PREFERENCE, event));
+    Assertions.assertTrue(EpcFormats.asStored(EpcFormats.NEVER_TRANSLATES, event));
+  }
+
+  @Test
+  void rendersEventsAsStoredOnlyIfAllIdentifiersAreInTheRequestedFormat() throws Exception {
+    final ObjectNode urns = event("urn:epc:id:sgtin:4012345.011111.1", "urn:epc:id:sgtin:4012345.011111.2");
+    final ObjectNode links = event(
+            "https://id.gs1.org/01/04012345111118/21/1", "https://example.com/01/04012345111118/21/2");
+    final ObjectNode mixed = event("urn:epc:id:sgtin:4012345.011111.1", "https://id.gs1.org/01/04012345111118/21/2");
+    Assertions.assertTrue(EpcFormats.asStored(EpcFormats.ALWAYS_EPC_URN, urns));
+    Assertions.assertFalse(EpcFormats.asStored(EpcFormats.ALWAYS_GS1_DIGITAL_LINK, urns));
+    Assertions.assertTrue(EpcFormats.asStored(EpcFormats.ALWAYS_GS1_DIGITAL_LINK, links));
+    Assertions.assertFalse(EpcFormats.asStored(EpcFormats.ALWAYS_EPC_URN, links));
+    Assertions.assertFalse(EpcFormats.asStored(EpcFormats.ALWAYS_EPC_URN, mixed));
+    Assertions.assertFalse(EpcFormats.asStored(EpcFormats.ALWAYS_GS1_DIGITAL_LINK, mixed));
+    Assertions.assertFalse(EpcFormats.asStored("Always_Something", urns));
+  }
+
+  private ObjectNode event(final String epc, final String readPoint) throws Exception {
+    return (ObjectNode) objectMapper.readTree(String.format("""
+            {"@context": ["https://ref.gs1.org/standards/epcis/2.0.0/epcis-context.jsonld"],
+             "type": "ObjectEvent", "eventID": "ni:///sha-256;abc", "epcList": ["%s"],
+             "readPoint": {"id": "%s"}, "bizStep": "https://ref.gs1.org/cbv/BizStep-shipping"}""", epc, readPoint));
+  }
+}
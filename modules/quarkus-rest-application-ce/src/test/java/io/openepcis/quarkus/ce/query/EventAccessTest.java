@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class EventAccessTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void hidesEventsOfUnfinishedOrRolledBackCapturesFromEverybody() throws Exception {
+    final ObjectNode hidden = event("{\"defaultGroup\":\"acme\",\"visible\":false}");
+    Assertions.assertFalse(EventAccess.ADMIN.admits(hidden));
+    Assertions.assertFalse(new EventAccess("acme", Set.of("query"), "query").admits(hidden));
+    Assertions.assertTrue(EventAccess.ADMIN.admits(event("{\"defaultGroup\":\"acme\",\"visible\":true}")));
+    Assertions.assertTrue(EventAccess.ADMIN.admits(event("{\"defaultGroup\":\"acme\"}")));
+  }
+
+  @Test
+  void restrictsEventsToTheCallersGroupAndRoles() throws Exception {
+    final EventAccess querying = new EventAccess("acme", Set.of("query"), "query");
+    final EventAccess auditing = new EventAccess("acme", Set.of("audit"), "query");
+    final ObjectNode unrestricted = event("{\"defaultGroup\":\"acme\"}");
+    final ObjectNode restricted = event("{\"defaultGroup\":\"acme\",\"rolesAllowed\":[\"audit\"]}");
+    Assertions.assertTrue(querying.admits(unrestricted));
+    Assertions.assertFalse(querying.admits(restricted));
+    Assertions.assertFalse(auditing.admits(unrestricted));
+    Assertions.assertTrue(auditing.admits(restricted));
+    Assertions.assertFalse(querying.admits(event("{\"defaultGroup\":\"other\"}")));
+    Assertions.assertTrue(EventAccess.ADMIN.admits(restricted));
+    Assertions.assertEquals(List.of("audit"), EventAccess.rolesAllowed(restricted));
+  }
+
+  @Test
+  void scopesDependOnGroupAndRoles() {
+    Assertions.assertEquals("role:admin", EventAccess.ADMIN.scope());
+    Assertions.assertEquals("group:acme;roles:audit,query",
+            new EventAccess("acme", Set.of("query", "audit"), "query").scope());
+    Assertions.assertTrue(new EventAccess("acme", Set.of("query"), "query").groupWide());
+    Assertions.assertFalse(new EventAccess("acme", Set.of("audit"), "query").groupWide());
+  }
+
+  private ObjectNode event(final String json) throws Exception {
+    return (ObjectNode) objectMapper.readTree(json);
+  }
+}
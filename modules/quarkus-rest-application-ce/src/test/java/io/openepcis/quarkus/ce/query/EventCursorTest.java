@@ -0,0 +1,49 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EventCursorTest {
+
+  @Test
+  void fingerprintIgnoresOrderAndPagination() {
+    final Map<String, List<String>> first = new LinkedHashMap<>();
+    first.put("eventType", List.of("ObjectEvent", "AggregationEvent"));
+    first.put("EQ_bizStep", List.of("shipping"));
+    final Map<String, List<String>> second = new LinkedHashMap<>();
+    second.put("EQ_bizStep", List.of("shipping"));
+    second.put("eventType", List.of("AggregationEvent", "ObjectEvent"));
+    second.put("perPage", List.of("50"));
+    Assertions.assertEquals(EventCursor.fingerprint(first, "group:query"), EventCursor.fingerprint(second, "group:query"));
+  }
+
+  @Test
+  void fingerprintDependsOnQueryAndScope() {
+    final Map<String, List<String>> query = Map.of("EQ_bizStep", List.of("shipping"));
+    Assertions.assertNotEquals(
+            EventCursor.fingerprint(query, "group:query"),
+            EventCursor.fingerprint(Map.of("EQ_bizStep", List.of("receiving")), "group:query"));
+    Assertions.assertNotEquals(
+            EventCursor.fingerprint(query, "group:query"),
+            EventCursor.fingerprint(query, "group:other"));
+  }
+}
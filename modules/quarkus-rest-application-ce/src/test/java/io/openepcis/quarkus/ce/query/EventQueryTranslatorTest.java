@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class EventQueryTranslatorTest {
+
+  @Test
+  void expandsCbvValuesToAllForms() {
+    final List<String> expected = List.of(
+            "shipping", "https://ref.gs1.org/cbv/BizStep-shipping", "urn:epcglobal:cbv:bizstep:shipping");
+    Assertions.assertEquals(expected, EventQueryTranslator.cbv("BizStep", "bizstep", List.of("shipping")));
+    Assertions.assertEquals(expected,
+            EventQueryTranslator.cbv("BizStep", "bizstep", List.of("https://ref.gs1.org/cbv/BizStep-shipping")));
+    Assertions.assertEquals(List.of("https://example.com/bizstep/custom"),
+            EventQueryTranslator.cbv("BizStep", "bizstep", List.of("https://example.com/bizstep/custom")));
+  }
+
+  @Test
+  void derivesPrefixFromEpcPattern() {
+    Assertions.assertEquals("urn:epc:id:sgtin:4012345.098765.",
+            EventQueryTranslator.epcPatternPrefix("urn:epc:idpat:sgtin:4012345.098765.*"));
+    Assertions.assertEquals("urn:epc:id:sgtin:4012345.",
+            EventQueryTranslator.epcPatternPrefix("urn:epc:idpat:sgtin:4012345.*.*"));
+    Assertions.assertNull(EventQueryTranslator.epcPatternPrefix("urn:epc:id:sgtin:4012345.098765.1"));
+  }
+
+  @Test
+  void ignoresControlParameters() {
+    final EventQuery query = new EventQueryTranslator().translate(Map.of(
+            EventQueryTranslator.EXPLAIN, List.of("true"),
+            EventQueryTranslator.PER_PAGE, List.of("10"),
+            "orderBy", List.of("recordTime")));
+    Assertions.assertEquals(EventFields.RECORD_TIME, query.orderBy());
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> new EventQueryTranslator().translate(Map.of("orderBy", List.of("bizStep")))).getResponse().getStatus());
+  }
+
+  @Test
+  void raisesUnsupportedForParametersToDelegate() {
+    final EventQueryTranslator translator = new EventQueryTranslator();
+    for (final String parameter : List.of("WD_readPoint", "EQ_bizTransaction_po", "EQ_source_owning_party",
+            "EQ_INNER_ILMD_example:lot", "GE_value", "EXISTS_sensorElementList", "explained")) {
+      final UnsupportedQueryParameterException e = Assertions.assertThrows(UnsupportedQueryParameterException.class,
+              () -> translator.translate(Map.of(parameter, List.of("x"))));
+      Assertions.assertEquals(parameter, e.parameter());
+      Assertions.assertEquals(501, e.getResponse().getStatus());
+    }
+  }
+
+  @Test
+  void translatesFieldParameters() {
+    final EventQueryTranslator translator = new EventQueryTranslator();
+    Assertions.assertDoesNotThrow(() -> translator.translate(Map.of(
+            "MATCH_anyEPCClass", List.of("urn:epc:idpat:sgtin:4012345.098765.*"),
+            "EQ_transformationID", List.of("urn:uuid:b6b7c3e4-8d2d-4a6f-9d4c-2c9e5a1f0b11"),
+            "EQ_errorReason", List.of("incorrect_data"),
+            "GE_errorDeclarationTime", List.of("2025-01-01T00:00:00Z"),
+            // void parameters carry no value
+            "EXISTS_errorDeclaration", List.of())));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.model.EventBatchGetRequest;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class EventsBatchGetResourceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicReference<Uni<List<ObjectNode>>> found = new AtomicReference<>();
+  private final EventSearch eventSearch = new EventSearch(null, "events", "5m") {
+    @Override
+    public Uni<List<ObjectNode>> findByEventIds(
+            final Collection<String> eventIDs, final Query filter, final String... includes) {
+      return found.get();
+    }
+  };
+  private final EventsBatchGetResource resource = new EventsBatchGetResource(
+          eventSearch, new QueryDocumentWriters(objectMapper), new QueryScopes("default", "query"), 1, 10);
+
+  @Test
+  void writesFoundEventsInRequestedOrder() throws Exception {
+    found.set(Uni.createFrom().item(List.of(event("e2"), event("e1"))));
+    final ByteArrayOutputStream document = new ByteArrayOutputStream();
+    for (final byte[] chunk : get("e1", "e3", "e2").collect().asList().await().indefinitely()) {
+      document.write(chunk);
+    }
+
+    final JsonNode body = objectMapper.readTree(document.toByteArray());
+    final JsonNode eventList = body.at("/epcisBody/queryResults/resultsBody/eventList");
+    Assertions.assertEquals(2, eventList.size());
+    Assertions.assertEquals("e1", eventList.get(0).get("eventID").asText());
+    Assertions.assertEquals("e2", eventList.get(1).get("eventID").asText());
+    Assertions.assertEquals("e3", body.findValue("missingEventIDs").get(0).asText());
+  }
+
+  @Test
+  void writesNothingBeforeTheLookupSucceeded() {
+    found.set(Uni.createFrom().failure(new IllegalStateException("search unavailable")));
+    final List<byte[]> written = new ArrayList<>();
+    Assertions.assertThrows(IllegalStateException.class,
+            () -> get("e1").onItem().invoke(written::add).collect().asList().await().indefinitely());
+    Assertions.assertTrue(written.isEmpty());
+  }
+
+  private Multi<byte[]> get(final String... eventIDs) {
+    return resource.eventsBatchGet(admin(), new EventBatchGetRequest(List.of(eventIDs)), headers());
+  }
+
+  private ObjectNode event(final String eventID) {
+    return objectMapper.createObjectNode().put("type", "ObjectEvent").put(EventFields.EVENT_ID, eventID);
+  }
+
+  private static HttpHeaders headers() {
+    return (HttpHeaders) Proxy.newProxyInstance(HttpHeaders.class.getClassLoader(),
+            new Class<?>[]{HttpHeaders.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "getAcceptableMediaTypes" -> List.of(MediaType.APPLICATION_JSON_TYPE);
+              default -> throw new UnsupportedOperationException(method.getName());
+            });
+  }
+
+  private static SecurityIdentity admin() {
+    return (SecurityIdentity) Proxy.newProxyInstance(SecurityIdentity.class.getClassLoader(),
+            new Class<?>[]{SecurityIdentity.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "hasRole" -> RestResources.ADMIN_ROLE.equals(args[0]);
+              case "isAnonymous" -> false;
+              default -> throw new UnsupportedOperationException(method.getName());
+            });
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.quarkus.ce.RestResources;
+import io.openepcis.rest.api.common.EventsApi;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+public class EventsExplainFilterTest {
+
+  private final List<Map<String, List<String>>> explained = new ArrayList<>();
+  private final EventsExplainFilter filter = new EventsExplainFilter();
+
+  EventsExplainFilterTest() {
+    filter.writers = new QueryDocumentWriters(new ObjectMapper());
+    filter.queryExplainer = new QueryExplainer(null, null, null, null, 30) {
+      @Override
+      public Uni<Map<String, Object>> explain(
+              final SecurityIdentity securityIdentity,
+              final String queryName,
+              final Map<String, List<String>> parameters,
+              final Integer perPage,
+              final SourceFields fields,
+              final QueryDocumentWriter writer) {
+        explained.add(parameters);
+        return Uni.createFrom().item(Map.of("perPage", perPage));
+      }
+    };
+  }
+
+  @Test
+  void rejectsExplainForNonAdmins() {
+    filter.securityIdentity = identity(false);
+    final WebApplicationException e = Assertions.assertThrows(WebApplicationException.class,
+            () -> filter.explain(request(HttpMethod.GET, true), eventsGet(), headers()).await().indefinitely());
+    Assertions.assertEquals(403, e.getResponse().getStatus());
+    Assertions.assertTrue(explained.isEmpty());
+  }
+
+  @Test
+  void explainsEventsForAdmins() {
+    filter.securityIdentity = identity(true);
+    final Response response = filter.explain(request(HttpMethod.GET, true), eventsGet(), headers()).await().indefinitely();
+    Assertions.assertEquals(200, response.getStatus());
+    Assertions.assertEquals(Map.of("perPage", 10), response.getEntity());
+    Assertions.assertEquals(List.of("shipping"), explained.get(0).get("EQ_bizStep"));
+  }
+
+  @Test
+  void leavesOtherRequestsToTheResource() {
+    filter.securityIdentity = identity(false);
+    Assertions.assertNull(filter.explain(request(HttpMethod.GET, false), eventsGet(), headers()).await().indefinitely());
+    Assertions.assertNull(filter.explain(request(HttpMethod.HEAD, true), eventsGet(), headers()).await().indefinitely());
+    Assertions.assertNull(filter.explain(request(HttpMethod.GET, true), resource(null, null), headers())
+            .await().indefinitely());
+    Assertions.assertTrue(explained.isEmpty());
+  }
+
+  private static ContainerRequestContext request(final String method, final boolean explain) {
+    final MultivaluedMap<String, String> query = new MultivaluedHashMap<>();
+    query.putSingle(EventQueryTranslator.EXPLAIN, String.valueOf(explain));
+    query.putSingle(EventQueryTranslator.PER_PAGE, "10");
+    query.putSingle("EQ_bizStep", "shipping");
+    final UriInfo uriInfo = proxy(UriInfo.class, name -> switch (name) {
+      case "getQueryParameters" -> query;
+      default -> throw new UnsupportedOperationException(name);
+    });
+    return proxy(ContainerRequestContext.class, name -> switch (name) {
+      case "getMethod" -> method;
+      case "getUriInfo" -> uriInfo;
+      default -> throw new UnsupportedOperationException(name);
+    });
+  }
+
+  private static ResourceInfo eventsGet() {
+    final Method eventsGet = Arrays.stream(EventsApi.class.getMethods())
+            .filter(method -> EventsExplainFilter.EVENTS_GET.equals(method.getName()))
+            .findFirst()
+            .orElseThrow();
+    return resource(EventsApi.class, eventsGet);
+  }
+
+  private static ResourceInfo resource(final Class<?> resourceClass, final Method resourceMethod) {
+    return proxy(ResourceInfo.class, name -> switch (name) {
+      case "getResourceClass" -> resourceClass;
+      case "getResourceMethod" -> resourceMethod;
+      default -> throw new UnsupportedOperationException(name);
+    });
+  }
+
+  private static HttpHeaders headers() {
+    return proxy(HttpHeaders.class, name -> switch (name) {
+      case "getAcceptableMediaTypes" -> List.of(MediaType.APPLICATION_JSON_TYPE);
+      default -> throw new UnsupportedOperationException(name);
+    });
+  }
+
+  private static SecurityIdentity identity(final boolean admin) {
+    final Set<String> roles = admin ? Set.of(RestResources.ADMIN_ROLE) : Set.of("query");
+    return (SecurityIdentity) Proxy.newProxyInstance(SecurityIdentity.class.getClassLoader(),
+            new Class<?>[]{SecurityIdentity.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "hasRole" -> roles.contains((String) args[0]);
+              case "isAnonymous" -> false;
+              default -> throw new UnsupportedOperationException(method.getName());
+            });
+  }
+
+  private static <T> T proxy(final Class<T> type, final Function<String, Object> answers) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+            (proxy, method, args) -> answers.apply(method.getName())));
+  }
+}
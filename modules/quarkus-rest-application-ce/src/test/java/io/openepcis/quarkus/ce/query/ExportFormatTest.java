@@ -0,0 +1,42 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExportFormatTest {
+
+  @Test
+  void defaultsToNdjson() {
+    Assertions.assertEquals(ExportFormat.NDJSON, ExportFormat.of(null));
+    Assertions.assertEquals(ExportFormat.NDJSON, ExportFormat.of(" "));
+  }
+
+  @Test
+  void parsesFormatsCaseInsensitively() {
+    Assertions.assertEquals(ExportFormat.XML, ExportFormat.of("XML"));
+    Assertions.assertEquals(ExportFormat.JSON, ExportFormat.of(" json "));
+    Assertions.assertEquals(".ndjson.gz", ExportFormat.NDJSON.extension());
+  }
+
+  @Test
+  void rejectsUnknownFormats() {
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> ExportFormat.of("csv")).getResponse().getStatus());
+  }
+}
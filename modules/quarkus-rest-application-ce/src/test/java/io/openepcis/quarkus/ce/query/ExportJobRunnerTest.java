@@ -0,0 +1,73 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.openepcis.rest.api.common.model.ExportJob;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class ExportJobRunnerTest {
+
+  private static final Instant NOW = Instant.parse("2026-10-19T10:00:00Z");
+  private static final Instant HEARTBEAT_BEFORE = NOW.minus(Duration.ofMinutes(1));
+
+  @Test
+  void runningJobWithoutRecentHeartbeatIsOrphaned() {
+    Assertions.assertTrue(ExportJobRunner.orphaned(stored(job(true), HEARTBEAT_BEFORE.minusMillis(1)), HEARTBEAT_BEFORE));
+    Assertions.assertTrue(ExportJobRunner.orphaned(stored(job(true), null), HEARTBEAT_BEFORE));
+    Assertions.assertFalse(ExportJobRunner.orphaned(stored(job(true), HEARTBEAT_BEFORE), HEARTBEAT_BEFORE));
+  }
+
+  @Test
+  void finishedJobIsNeverOrphaned() {
+    Assertions.assertFalse(ExportJobRunner.orphaned(stored(job(false), Instant.EPOCH), HEARTBEAT_BEFORE));
+  }
+
+  @Test
+  void interruptedJobIsFailedWithoutParts() {
+    final ExportJob interrupted = ExportJobRunner.interrupted(job(true), NOW);
+    Assertions.assertFalse(interrupted.running());
+    Assertions.assertFalse(interrupted.success());
+    Assertions.assertEquals(NOW, interrupted.finishedAt());
+    Assertions.assertEquals(4, interrupted.exportedEvents());
+    Assertions.assertTrue(interrupted.parts().isEmpty());
+    Assertions.assertEquals(List.of(ExportJobRunner.INTERRUPTED), interrupted.errors());
+  }
+
+  private static ExportJobIndex.StoredExport stored(final ExportJob job, final Instant heartbeatAt) {
+    return new ExportJobIndex.StoredExport(job, "group", heartbeatAt);
+  }
+
+  private static ExportJob job(final boolean running) {
+    return new ExportJob(
+            "9d1c7e52-3f0a-4a8e-b1a2-6f3c2d4e5a10",
+            "myQuery",
+            "ndjson",
+            2,
+            Instant.EPOCH,
+            running ? null : Instant.EPOCH,
+            running,
+            true,
+            10L,
+            4,
+            List.of(new ExportJob.Part("part-0-0.ndjson.gz", 4, 100, null)),
+            List.of());
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.capture.context.StorageService;
+import io.openepcis.rest.api.common.model.ExportJob;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+public class ExportPartWriterTest {
+
+  private static final String EXPORT_ID = "9d1c7e52-3f0a-4a8e-b1a2-6f3c2d4e5a10";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final QueryDocumentWriters writers = new QueryDocumentWriters(objectMapper);
+  private final Map<String, byte[]> stored = new LinkedHashMap<>();
+  private final List<String> deleted = new ArrayList<>();
+  private final StorageService storageService = (StorageService) Proxy.newProxyInstance(
+          StorageService.class.getClassLoader(),
+          new Class<?>[]{StorageService.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "put" -> {
+              stored.put((String) args[0], ((InputStream) args[4]).readAllBytes());
+              yield Uni.createFrom().nullItem();
+            }
+            case "delete" -> {
+              deleted.add((String) args[0]);
+              yield ExportPartWriter.storageKey("failing-export", "part-0-0.ndjson.gz").equals(args[0])
+                      ? Uni.createFrom().failure(new IOException("storage unavailable"))
+                      : Uni.createFrom().voidItem();
+            }
+            default -> throw new UnsupportedOperationException(method.getName());
+          });
+  private final ExportProgress progress = new ExportProgress(
+          new ExportJob(EXPORT_ID, "myQuery", "ndjson", 1, Instant.EPOCH, null, true, true, null, 0, List.of(), List.of()),
+          "group");
+
+  @Test
+  void startsNewPartOnceCurrentOneIsFull() throws IOException {
+    final ExportPartWriter writer = writer(ExportFormat.NDJSON, 2);
+    writer.write(events(0, 3)).await().indefinitely();
+    writer.write(events(3, 5)).await().indefinitely();
+    writer.finish().await().indefinitely();
+
+    Assertions.assertEquals(List.of(
+            ExportPartWriter.storageKey(EXPORT_ID, "part-0-0.ndjson.gz"),
+            ExportPartWriter.storageKey(EXPORT_ID, "part-0-1.ndjson.gz"),
+            ExportPartWriter.storageKey(EXPORT_ID, "part-0-2.ndjson.gz")), List.copyOf(stored.keySet()));
+    Assertions.assertEquals(List.of("e0", "e1"), eventIDs(part("part-0-0.ndjson.gz")));
+    Assertions.assertEquals(List.of("e4"), eventIDs(part("part-0-2.ndjson.gz")));
+
+    final ExportJob job = progress.snapshot();
+    Assertions.assertEquals(5, job.exportedEvents());
+    Assertions.assertEquals(List.of(2L, 2L, 1L), job.parts().stream().map(ExportJob.Part::events).toList());
+    Assertions.assertEquals(part("part-0-1.ndjson.gz").length, job.parts().get(1).bytes());
+  }
+
+  @Test
+  void writesEveryPartAsCompleteGzipDocument() throws IOException {
+    final ExportPartWriter writer = writer(ExportFormat.JSON, 2);
+    writer.write(events(0, 3)).await().indefinitely();
+    writer.finish().await().indefinitely();
+
+    Assertions.assertEquals(2, stored.size());
+    for (final byte[] part : stored.values()) {
+      final JsonNode document = objectMapper.readTree(gunzip(part));
+      Assertions.assertEquals("EPCISQueryDocument", document.get("type").asText());
+      Assertions.assertEquals("myQuery", document.at("/epcisBody/queryResults/queryName").asText());
+    }
+    final JsonNode last = objectMapper.readTree(gunzip(part("part-0-1.json.gz")));
+    Assertions.assertEquals(1, last.at("/epcisBody/queryResults/resultsBody/eventList").size());
+  }
+
+  @Test
+  void finishWithoutEventsUploadsNothing() {
+    writer(ExportFormat.NDJSON, 2).finish().await().indefinitely();
+    Assertions.assertTrue(stored.isEmpty());
+    Assertions.assertTrue(progress.snapshot().parts().isEmpty());
+  }
+
+  @Test
+  void abandonRemovesSpooledPartWithoutUploadingIt() throws IOException {
+    final Set<Path> before = spooled();
+    final ExportPartWriter writer = writer(ExportFormat.NDJSON, 10);
+    writer.write(events(0, 3)).await().indefinitely();
+    Assertions.assertEquals(1, spooled().size() - before.size());
+
+    writer.abandon();
+    Assertions.assertEquals(before, spooled());
+    Assertions.assertTrue(stored.isEmpty());
+  }
+
+  @Test
+  void uploadRemovesSpooledPart() throws IOException {
+    final Set<Path> before = spooled();
+    final ExportPartWriter writer = writer(ExportFormat.NDJSON, 2);
+    writer.write(events(0, 3)).await().indefinitely();
+    writer.finish().await().indefinitely();
+    Assertions.assertEquals(before, spooled());
+  }
+
+  @Test
+  void deletesEveryPartOfFailedExport() {
+    final List<ExportJob.Part> parts = List.of(
+            new ExportJob.Part("part-0-0.ndjson.gz", 2, 10, null),
+            new ExportJob.Part("part-1-0.ndjson.gz", 2, 10, null));
+    ExportPartWriter.delete(storageService, EXPORT_ID, parts).await().indefinitely();
+    Assertions.assertEquals(List.of(
+            ExportPartWriter.storageKey(EXPORT_ID, "part-0-0.ndjson.gz"),
+            ExportPartWriter.storageKey(EXPORT_ID, "part-1-0.ndjson.gz")), deleted);
+  }
+
+  @Test
+  void partWhichCannotBeDeletedDoesNotStopTheOthers() {
+    final List<ExportJob.Part> parts = List.of(
+            new ExportJob.Part("part-0-0.ndjson.gz", 2, 10, null),
+            new ExportJob.Part("part-1-0.ndjson.gz", 2, 10, null));
+    ExportPartWriter.delete(storageService, "failing-export", parts).await().indefinitely();
+    Assertions.assertEquals(2, deleted.size());
+  }
+
+  private ExportPartWriter writer(final ExportFormat format, final long partSize) {
+    return new ExportPartWriter(writers, format, "myQuery", 0, partSize, storageService, progress);
+  }
+
+  private byte[] part(final String name) {
+    return stored.get(ExportPartWriter.storageKey(EXPORT_ID, name));
+  }
+
+  private List<ObjectNode> events(final int from, final int to) {
+    return IntStream.range(from, to)
+            .mapToObj(i -> objectMapper.createObjectNode().put("type", "ObjectEvent").put("eventID", "e" + i))
+            .toList();
+  }
+
+  private List<String> eventIDs(final byte[] part) throws IOException {
+    final List<String> eventIDs = new ArrayList<>();
+    for (final String line : new String(gunzip(part), StandardCharsets.UTF_8).split("\n")) {
+      eventIDs.add(objectMapper.readTree(line).get("eventID").asText());
+    }
+    return eventIDs;
+  }
+
+  private static byte[] gunzip(final byte[] part) throws IOException {
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(part))) {
+      return in.readAllBytes();
+    }
+  }
+
+  private static Set<Path> spooled() throws IOException {
+    try (Stream<Path> files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+      return files.filter(file -> file.getFileName().toString().startsWith("epcis-export-")).collect(Collectors.toSet());
+    }
+  }
+}
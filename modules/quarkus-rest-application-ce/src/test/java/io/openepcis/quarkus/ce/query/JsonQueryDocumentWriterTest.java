@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+
+public class JsonQueryDocumentWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void writesWellFormedDocumentAcrossChunks() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    out.write(writer.events(List.of(event("a"), event("b"))));
+    out.write(writer.events(List.of(event("c"))));
+    out.write(writer.footer());
+
+    final JsonNode document = objectMapper.readTree(out.toByteArray());
+    Assertions.assertEquals("EPCISQueryDocument", document.get("type").asText());
+    Assertions.assertEquals(JsonQueryDocumentWriter.EPCIS_CONTEXT, document.get("@context").get(0).asText());
+    final JsonNode eventList = document.at("/epcisBody/queryResults/resultsBody/eventList");
+    Assertions.assertEquals(3, eventList.size());
+    Assertions.assertEquals("c", eventList.get(2).get("eventID").asText());
+  }
+
+  @Test
+  void writesEmptyEventList() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    out.write(writer.footer());
+
+    final JsonNode document = objectMapper.readTree(out.toByteArray());
+    Assertions.assertEquals(0, document.at("/epcisBody/queryResults/resultsBody/eventList").size());
+  }
+
+  @Test
+  void listsMissingEventIdsInFooter() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    out.write(writer.events(List.of(event("a"))));
+    out.write(writer.footer(List.of("b", "c")));
+
+    final JsonNode document = objectMapper.readTree(out.toByteArray());
+    Assertions.assertEquals(1, document.at("/epcisBody/queryResults/resultsBody/eventList").size());
+    Assertions.assertEquals("b", document.get("missingEventIDs").get(0).asText());
+    Assertions.assertEquals(2, document.get("missingEventIDs").size());
+  }
+
+  @Test
+  void carriesNextPageTokenInFooter() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    out.write(writer.events(List.of(event("a"))));
+    out.write(writer.footer("token"));
+
+    final JsonNode document = objectMapper.readTree(out.toByteArray());
+    Assertions.assertEquals(1, document.at("/epcisBody/queryResults/resultsBody/eventList").size());
+    Assertions.assertEquals("token", document.get("nextPageToken").asText());
+    Assertions.assertArrayEquals(writer.footer(), writer.footer((String) null));
+  }
+
+  @Test
+  void declaresExtensionNamespacesOfTheEventsInTheContext() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ObjectNode extended = (ObjectNode) objectMapper.readTree("""
+            {"@context": [{"ex": "https://example.com/ext/"}], "type": "ObjectEvent", "eventID": "a",
+             "bizStep": "shipping", "ex:temperature": {"ex:unit": "celsius"}, "gs1:note": "x"}""");
+    final List<ObjectNode> events = List.of(extended, event("b"));
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header(events));
+    out.write(writer.events(events));
+    out.write(writer.footer());
+
+    final JsonNode context = objectMapper.readTree(out.toByteArray()).get("@context");
+    Assertions.assertEquals(2, context.size());
+    Assertions.assertEquals(JsonQueryDocumentWriter.EPCIS_CONTEXT, context.get(0).asText());
+    Assertions.assertEquals(objectMapper.readTree("{\"ex\": \"https://example.com/ext/\"}"), context.get(1));
+    Assertions.assertArrayEquals(writer.header(), writer.header(List.of(event("c"))));
+  }
+
+  @Test
+  void failsOnNamespacesThatCantShareADocument() throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+    final ObjectNode first = (ObjectNode) objectMapper.readTree("""
+            {"@context": [{"ex": "https://example.com/a/"}], "type": "ObjectEvent", "ex:a": "1"}""");
+    final ObjectNode second = (ObjectNode) objectMapper.readTree("""
+            {"@context": [{"ex": "https://example.com/b/"}], "type": "ObjectEvent", "ex:a": "1"}""");
+    final ObjectNode undeclared = (ObjectNode) objectMapper.readTree("""
+            {"type": "ObjectEvent", "other:a": "1"}""");
+    Assertions.assertThrows(IllegalStateException.class, () -> writer.header(List.of(first, second)));
+    Assertions.assertThrows(IllegalStateException.class, () -> writer.header(List.of(undeclared)));
+  }
+
+  private ObjectNode event(final String eventID) {
+    return objectMapper.createObjectNode().put("type", "ObjectEvent").put("eventID", eventID);
+  }
+}
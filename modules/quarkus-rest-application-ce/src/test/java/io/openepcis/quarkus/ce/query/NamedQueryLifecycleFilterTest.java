@@ -0,0 +1,76 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+public class NamedQueryLifecycleFilterTest {
+
+  private final List<String> calls = new ArrayList<>();
+  private final NamedQueryLifecycleFilter filter = new NamedQueryLifecycleFilter();
+
+  NamedQueryLifecycleFilterTest() {
+    filter.plans = new NamedQueryPlans(null, new EventQueryTranslator(), 10) {
+      @Override
+      public Uni<Plan> plan(final String queryName) {
+        calls.add("plan " + queryName);
+        return Uni.createFrom().failure(new IllegalStateException("not stored"));
+      }
+
+      @Override
+      public void invalidate(final String queryName) {
+        calls.add("invalidate " + queryName);
+      }
+    };
+  }
+
+  @Test
+  void dropsPlanOfDeletedQuery() {
+    filter.filter(HttpMethod.DELETE, pathParameters("myQuery"), 204, null);
+    Assertions.assertEquals(List.of("invalidate myQuery"), calls);
+  }
+
+  @Test
+  void recompilesCreatedQuery() {
+    filter.filter(HttpMethod.POST, new MultivaluedHashMap<>(), 201, URI.create("http://localhost/queries/myQuery"));
+    Assertions.assertEquals(List.of("invalidate myQuery", "plan myQuery"), calls);
+  }
+
+  @Test
+  void ignoresFailedAndNestedRequests() {
+    filter.filter(HttpMethod.DELETE, pathParameters("myQuery"), 404, null);
+    filter.filter(HttpMethod.POST, new MultivaluedHashMap<>(), 400, URI.create("http://localhost/queries/myQuery"));
+    final MultivaluedMap<String, String> subscription = pathParameters("myQuery");
+    subscription.add("subscriptionID", "s1");
+    filter.filter(HttpMethod.DELETE, subscription, 204, null);
+    Assertions.assertEquals(List.of(), calls);
+  }
+
+  private static MultivaluedMap<String, String> pathParameters(final String queryName) {
+    final MultivaluedMap<String, String> parameters = new MultivaluedHashMap<>();
+    parameters.add(NamedQueryLifecycleFilter.QUERY_NAME, queryName);
+    return parameters;
+  }
+}
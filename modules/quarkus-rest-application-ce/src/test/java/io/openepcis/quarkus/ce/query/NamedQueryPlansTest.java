@@ -0,0 +1,108 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class NamedQueryPlansTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+  private final AtomicInteger versions = new AtomicInteger();
+  private final AtomicReference<NamedQueryStore.StoredQuery> stored =
+          new AtomicReference<>(new NamedQueryStore.StoredQuery("myQuery", Map.of(), 3L, 1L));
+  private final NamedQueryStore store = new NamedQueryStore(null, "epcis-query") {
+    @Override
+    public Uni<StoredQuery> load(final String queryName) {
+      loads.incrementAndGet();
+      return stored.get() == null
+              ? Uni.createFrom().failure(new WebApplicationException(404))
+              : Uni.createFrom().item(stored.get());
+    }
+
+    @Override
+    public Uni<Version> version(final String queryName) {
+      versions.incrementAndGet();
+      return stored.get() == null
+              ? Uni.createFrom().failure(new WebApplicationException(404))
+              : Uni.createFrom().item(stored.get().version());
+    }
+  };
+  private final NamedQueryPlans plans = new NamedQueryPlans(store, new EventQueryTranslator(), 10);
+
+  @Test
+  void compilesStoredParameters() {
+    final Map<String, List<String>> parameters = Map.of("EQ_bizStep", List.of("shipping"), "orderBy", List.of("recordTime"));
+    final NamedQueryPlans.Plan plan = plans.compile(new NamedQueryStore.StoredQuery("myQuery", parameters, 3L, 1L));
+    Assertions.assertEquals("myQuery", plan.queryName());
+    Assertions.assertSame(parameters, plan.parameters());
+    Assertions.assertEquals(EventFields.RECORD_TIME, plan.query().orderBy());
+  }
+
+  @Test
+  void planIsBoundToStoredVersion() {
+    final NamedQueryStore.StoredQuery stored = new NamedQueryStore.StoredQuery("myQuery", Map.of(), 3L, 1L);
+    final NamedQueryPlans.Plan plan = plans.compile(stored);
+    Assertions.assertTrue(plan.compiledFrom(stored));
+    Assertions.assertFalse(plan.compiledFrom(new NamedQueryStore.StoredQuery("myQuery", Map.of(), 7L, 1L)));
+    Assertions.assertFalse(plan.compiledFrom(new NamedQueryStore.Version(3L, 2L)));
+  }
+
+  @Test
+  void servesCachedPlanAfterCheckingTheStoredVersion() {
+    final NamedQueryPlans.Plan plan = plans.plan("myQuery").await().indefinitely();
+    Assertions.assertSame(plan, plans.plan("myQuery").await().indefinitely());
+    Assertions.assertSame(plan, plans.plan("myQuery").await().indefinitely());
+    Assertions.assertEquals(1, loads.get());
+    Assertions.assertEquals(2, versions.get());
+  }
+
+  @Test
+  void recompilesRecreatedQuery() {
+    final NamedQueryPlans.Plan plan = plans.plan("myQuery").await().indefinitely();
+    stored.set(new NamedQueryStore.StoredQuery("myQuery", Map.of(), 9L, 1L));
+    final NamedQueryPlans.Plan recompiled = plans.plan("myQuery").await().indefinitely();
+    Assertions.assertNotSame(plan, recompiled);
+    Assertions.assertEquals(9L, recompiled.seqNo());
+    Assertions.assertEquals(2, loads.get());
+  }
+
+  @Test
+  void neverServesQueryDeletedOnAnotherNode() {
+    plans.plan("myQuery").await().indefinitely();
+    stored.set(null);
+    Assertions.assertThrows(WebApplicationException.class, () -> plans.plan("myQuery").await().indefinitely());
+
+    stored.set(new NamedQueryStore.StoredQuery("myQuery", Map.of(), 12L, 1L));
+    Assertions.assertEquals(12L, plans.plan("myQuery").await().indefinitely().seqNo());
+    Assertions.assertEquals(2, loads.get());
+  }
+
+  @Test
+  void invalidatedPlanIsLoadedAgain() {
+    plans.plan("myQuery").await().indefinitely();
+    plans.invalidate("myQuery");
+    plans.plan("myQuery").await().indefinitely();
+    Assertions.assertEquals(2, loads.get());
+  }
+}
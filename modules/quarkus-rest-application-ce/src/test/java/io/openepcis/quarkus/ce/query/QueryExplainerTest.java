@@ -0,0 +1,163 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.RestResources;
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.json.JsonpSerializable;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.Profile;
+import org.opensearch.client.opensearch.core.search.ShardProfile;
+import org.opensearch.client.opensearch.core.search.TotalHitsRelation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class QueryExplainerTest {
+
+  private static final String SHARD = "[node-1][events-2026][0]";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<Integer> sizes = new ArrayList<>();
+  private final ObjectNode event = objectMapper.createObjectNode().put("type", "ObjectEvent").put("eventID", "e1");
+  private final EventSearch eventSearch = new EventSearch(null, "events", "5m") {
+    @Override
+    public Uni<Profiled> profile(final EventQuery query, final int size, final SourceFields fields) {
+      sizes.add(size);
+      final SearchRequest request = SearchRequest.of(s -> s
+              .index(indexPattern())
+              .size(size)
+              .query(query.query())
+              .profile(true));
+      final SearchResponse<ObjectNode> response = SearchResponse.of(r -> r
+              .took(7)
+              .timedOut(false)
+              .shards(sh -> sh.total(1).successful(1).failed(0))
+              .hits(h -> h
+                      .total(t -> t.value(1).relation(TotalHitsRelation.Eq))
+                      .hits(List.of(Hit.of(hit -> hit.index("events-2026").id("e1").source(event)))))
+              .profile(Profile.of(p -> p.shards(List.of(ShardProfile.of(sp -> sp
+                      .id(SHARD)
+                      .searches(List.of())
+                      .aggregations(List.of())))))));
+      return Uni.createFrom().item(new Profiled(request, response));
+    }
+
+    @Override
+    public String toJson(final JsonpSerializable value) {
+      final JacksonJsonpMapper mapper = new JacksonJsonpMapper();
+      final StringWriter json = new StringWriter();
+      try (JsonGenerator generator = mapper.jsonProvider().createGenerator(json)) {
+        value.serialize(generator, mapper);
+      }
+      return json.toString();
+    }
+  };
+  private final QueryExplainer explainer = new QueryExplainer(
+          new EventQueryTranslator(), eventSearch, new QueryScopes("default", "query"), objectMapper, 30);
+
+  @Test
+  void explainsTranslatedQueryAndItsProfile() {
+    final Map<String, Object> body = explain("myQuery", Map.of("EQ_bizStep", List.of("shipping")), 2);
+
+    Assertions.assertEquals("myQuery", body.get("queryName"));
+    Assertions.assertEquals(MediaType.APPLICATION_JSON, body.get("mediaType"));
+    final JsonNode search = (JsonNode) body.get("search");
+    Assertions.assertEquals(2, search.get("size").asInt());
+    Assertions.assertTrue(search.get("profile").asBoolean());
+    Assertions.assertTrue(search.get("query").toString().contains("urn:epcglobal:cbv:bizstep:shipping"));
+    Assertions.assertEquals(SHARD, ((JsonNode) body.get("profile")).at("/shards/0/id").asText());
+    Assertions.assertEquals(7L, body.get("took"));
+    Assertions.assertEquals(1L, body.get("totalHits"));
+    Assertions.assertEquals(1, body.get("events"));
+  }
+
+  @Test
+  void reportsSizeOfDiscardedPage() throws IOException {
+    final Map<String, Object> body = explain(null, Map.of(), null);
+
+    final JsonQueryDocumentWriter writer = writer();
+    final ByteArrayOutputStream page = new ByteArrayOutputStream();
+    page.write(writer.header());
+    page.write(writer.events(List.of(event)));
+    page.write(writer.footer());
+    Assertions.assertEquals((long) page.size(), body.get("bytes"));
+    Assertions.assertFalse(body.containsKey("queryName"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void timesEveryPhase() {
+    final Map<String, Double> phases = (Map<String, Double>) explain(null, Map.of(), null).get("phases");
+    Assertions.assertEquals(List.of(QueryExplainer.TRANSLATION, QueryExplainer.SEARCH, QueryExplainer.HYDRATION,
+            QueryExplainer.CONTEXT, QueryExplainer.SERIALIZATION), List.copyOf(phases.keySet()));
+    phases.values().forEach(millis -> Assertions.assertTrue(millis >= 0, "phase took " + millis));
+  }
+
+  @Test
+  void profilesFirstPageOnly() {
+    explain(null, Map.of(), null);
+    explain(null, Map.of(), 50_000);
+    explain(null, Map.of("eventCountLimit", List.of("5")), 20);
+    Assertions.assertEquals(List.of(30, EventSearch.MAX_BATCH_SIZE, 5), sizes);
+  }
+
+  @Test
+  void rejectsNonPositivePerPage() {
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> explain(null, Map.of(), 0)).getResponse().getStatus());
+  }
+
+  private Map<String, Object> explain(
+          final String queryName, final Map<String, List<String>> parameters, final Integer perPage) {
+    return explainer.explain(admin(), queryName, parameters, perPage, SourceFields.ALL, writer())
+            .await().indefinitely();
+  }
+
+  private JsonQueryDocumentWriter writer() {
+    return new JsonQueryDocumentWriter(objectMapper, MediaType.APPLICATION_JSON_TYPE, "SimpleEventQuery", Instant.EPOCH);
+  }
+
+  private static SecurityIdentity admin() {
+    final Set<String> roles = Set.of(RestResources.ADMIN_ROLE);
+    return (SecurityIdentity) Proxy.newProxyInstance(SecurityIdentity.class.getClassLoader(),
+            new Class<?>[]{SecurityIdentity.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "hasRole" -> roles.contains((String) args[0]);
+              case "getRoles" -> roles;
+              case "isAnonymous" -> false;
+              default -> throw new UnsupportedOperationException(method.getName());
+            });
+  }
+}
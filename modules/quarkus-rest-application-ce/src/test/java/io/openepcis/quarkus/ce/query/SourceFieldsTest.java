@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import jakarta.ws.rs.WebApplicationException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class SourceFieldsTest {
+
+  @Test
+  void omittedFieldsReturnCompleteEvents() {
+    Assertions.assertTrue(SourceFields.of(null).all());
+    Assertions.assertTrue(SourceFields.of(List.of(" , ")).all());
+  }
+
+  @Test
+  void alwaysIncludesType() {
+    final SourceFields fields = SourceFields.of(List.of("eventID,eventTime", "epcList", "bizLocation.id", "eventID"));
+    Assertions.assertEquals(List.of("type", "eventID", "eventTime", "epcList", "bizLocation.id"), fields.includes());
+  }
+
+  @Test
+  void rejectsWildcardsAndInternalFields() {
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> SourceFields.of(List.of("*"))).getResponse().getStatus());
+    Assertions.assertEquals(400, Assertions.assertThrows(WebApplicationException.class,
+            () -> SourceFields.of(List.of(EventFields.GROUP))).getResponse().getStatus());
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.constants.EPCISFormat;
+import io.openepcis.constants.EPCISVersion;
+import io.openepcis.converter.Conversion;
+import io.openepcis.converter.VersionTransformer;
+import jakarta.ws.rs.core.MediaType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the streaming {@link XmlQueryDocumentWriter} with building the JSON document first and
+ * converting it as a whole with the document converter. Run with {@code -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class XmlQueryDocumentWriterBenchmarkTest {
+
+  private static final int EVENTS = 50_000;
+  private static final int BATCH_SIZE = 500;
+  private static final int ROUNDS = 5;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void streamingWriterAgainstDocumentConversion() throws Exception {
+    final List<List<ObjectNode>> batches = batches();
+    for (int round = 0; round < ROUNDS; round++) {
+      final long streamingStart = System.nanoTime();
+      final long streamingBuffer = streaming(batches);
+      final long streamingNanos = System.nanoTime() - streamingStart;
+
+      final long convertingStart = System.nanoTime();
+      final long convertingBuffer = converting(batches);
+      final long convertingNanos = System.nanoTime() - convertingStart;
+
+      log.info("round {}: streaming {} ms, largest buffer {} bytes; converting {} ms, buffered {} bytes",
+              round, streamingNanos / 1_000_000, streamingBuffer, convertingNanos / 1_000_000, convertingBuffer);
+      Assertions.assertTrue(streamingBuffer < convertingBuffer);
+    }
+  }
+
+  /**
+   * @return the largest chunk held in memory at once
+   */
+  private long streaming(final List<List<ObjectNode>> batches) {
+    final XmlQueryDocumentWriter writer = new XmlQueryDocumentWriter(
+            MediaType.APPLICATION_XML_TYPE, "benchmark", Instant.now(), null);
+    long largest = writer.header().length;
+    for (final List<ObjectNode> batch : batches) {
+      largest = Math.max(largest, writer.events(batch).length);
+    }
+    return Math.max(largest, writer.footer().length);
+  }
+
+  /**
+   * @return the size of the JSON document held in memory before conversion
+   */
+  private long converting(final List<List<ObjectNode>> batches) throws Exception {
+    final JsonQueryDocumentWriter writer = new JsonQueryDocumentWriter(
+            objectMapper, MediaType.APPLICATION_JSON_TYPE, "benchmark", Instant.now());
+    final ByteArrayOutputStream json = new ByteArrayOutputStream();
+    json.write(writer.header());
+    for (final List<ObjectNode> batch : batches) {
+      json.write(writer.events(batch));
+    }
+    json.write(writer.footer());
+    final Conversion conversion = Conversion.builder()
+            .fromMediaType(EPCISFormat.JSON_LD)
+            .fromVersion(EPCISVersion.VERSION_2_0_0)
+            .toMediaType(EPCISFormat.XML)
+            .toVersion(EPCISVersion.VERSION_2_0_0)
+            .build();
+    try (InputStream xml = new VersionTransformer().convert(new ByteArrayInputStream(json.toByteArray()), conversion)) {
+      xml.transferTo(OutputStream.nullOutputStream());
+    }
+    return json.size();
+  }
+
+  private List<List<ObjectNode>> batches() throws Exception {
+    final List<List<ObjectNode>> batches = new ArrayList<>();
+    List<ObjectNode> batch = new ArrayList<>(BATCH_SIZE);
+    for (int i = 0; i < EVENTS; i++) {
+      batch.add(event(i));
+      if (batch.size() == BATCH_SIZE) {
+        batches.add(batch);
+        batch = new ArrayList<>(BATCH_SIZE);
+      }
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private ObjectNode event(final int i) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {
+              "type": "ObjectEvent",
+              "eventID": "ni:///sha-256;%064d?ver=CBV2.0",
+              "eventTime": "2024-05-01T10:00:00.000Z",
+              "eventTimeZoneOffset": "+02:00",
+              "action": "OBSERVE",
+              "bizStep": "shipping",
+              "disposition": "in_transit",
+              "epcList": ["urn:epc:id:sgtin:4012345.011111.%d"],
+              "readPoint": {"id": "urn:epc:id:sgln:4012345.00001.0"},
+              "sensorElementList": [{"sensorMetadata": {"time": "2024-05-01T10:00:00.000Z"},
+                                     "sensorReport": [{"type": "gs1:Temperature", "value": 22.5, "uom": "CEL"},
+                                                      {"type": "gs1:RelativeHumidity", "value": 61, "uom": "A93"}]}]
+            }
+            """.formatted(i, i));
+  }
+}
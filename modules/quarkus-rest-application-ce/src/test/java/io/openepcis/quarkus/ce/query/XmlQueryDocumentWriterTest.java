@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.List;
+
+public class XmlQueryDocumentWriterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void writesWellFormedDocumentAcrossChunks() throws Exception {
+    final Document document = render(null, List.of(event("a"), event("b")), List.of(event("c")));
+    final Element root = document.getDocumentElement();
+    Assertions.assertEquals(XmlQueryDocumentWriter.EPCIS_QUERY_NAMESPACE, root.getNamespaceURI());
+    Assertions.assertEquals("EPCISQueryDocument", root.getLocalName());
+    Assertions.assertEquals("myQuery", document.getElementsByTagName("queryName").item(0).getTextContent());
+    Assertions.assertEquals(3, document.getElementsByTagName("ObjectEvent").getLength());
+  }
+
+  @Test
+  void writesEmptyEventList() throws Exception {
+    final Document document = render(null);
+    Assertions.assertEquals(0, document.getElementsByTagName("EventList").item(0).getChildNodes().getLength());
+  }
+
+  @Test
+  void writesStandardFieldsInSchemaOrder() throws Exception {
+    final Element event = (Element) render(null, List.of(event("a"))).getElementsByTagName("ObjectEvent").item(0);
+    final List<String> expected = List.of(
+            "eventTime", "eventTimeZoneOffset", "eventID", "epcList", "action", "bizStep", "readPoint",
+            "bizTransactionList", "quantityList", "sensorElementList", "ex:temperature");
+    for (int i = 0; i < expected.size(); i++) {
+      Assertions.assertEquals(expected.get(i), event.getChildNodes().item(i).getNodeName());
+    }
+    Assertions.assertEquals(2, event.getElementsByTagName("epc").getLength());
+    Assertions.assertEquals("22.5", event.getElementsByTagName("sensorReport").item(0)
+            .getAttributes().getNamedItem("value").getNodeValue());
+  }
+
+  @Test
+  void writesCbvValuesAsUrnByDefault() throws Exception {
+    final Document document = render(null, List.of(event("a")));
+    Assertions.assertEquals("urn:epcglobal:cbv:bizstep:shipping",
+            document.getElementsByTagName("bizStep").item(0).getTextContent());
+    Assertions.assertEquals("urn:epcglobal:cbv:btt:po",
+            ((Element) document.getElementsByTagName("bizTransaction").item(0)).getAttribute("type"));
+  }
+
+  @Test
+  void honorsWebUriCbvFormat() throws Exception {
+    final Document document = render(XmlQueryDocumentWriter.ALWAYS_WEB_URI, List.of(event("a")));
+    Assertions.assertEquals("https://ref.gs1.org/cbv/BizStep-shipping",
+            document.getElementsByTagName("bizStep").item(0).getTextContent());
+  }
+
+  @Test
+  void honorsUrnAndUntranslatedCbvFormats() throws Exception {
+    Assertions.assertEquals("urn:epcglobal:cbv:bizstep:shipping",
+            render(XmlQueryDocumentWriter.ALWAYS_URN, List.of(event("a"))).getElementsByTagName("bizStep").item(0)
+                    .getTextContent());
+    Assertions.assertEquals("shipping",
+            render(XmlQueryDocumentWriter.NEVER_TRANSLATES, List.of(event("a"))).getElementsByTagName("bizStep").item(0)
+                    .getTextContent());
+    Assertions.assertThrows(WebApplicationException.class, () -> render("Always_Something", List.of(event("a"))));
+  }
+
+  @Test
+  void declaresPrefixesUsedInValues() throws Exception {
+    final Element event = (Element) render(null, List.of(event("a"))).getElementsByTagName("ObjectEvent").item(0);
+    Assertions.assertEquals("https://gs1.org/voc/", event.lookupNamespaceURI("gs1"));
+    Assertions.assertNull(event.lookupNamespaceURI("urn"));
+  }
+
+  @Test
+  void failsOnUnknownEventTypesAndUnresolvedPrefixes() throws Exception {
+    final ObjectNode unknownType = event("a").put("type", "SensorEvent");
+    Assertions.assertThrows(IllegalStateException.class, () -> render(null, List.of(unknownType)));
+    final ObjectNode unresolved = event("b");
+    unresolved.put("other:note", "undeclared");
+    Assertions.assertThrows(IllegalStateException.class, () -> render(null, List.of(unresolved)));
+  }
+
+  @Test
+  void resolvesExtensionNamespacesFromContext() throws Exception {
+    final Element extension = (Element) render(null, List.of(event("a")))
+            .getElementsByTagNameNS("https://example.com/ext/", "temperature").item(0);
+    Assertions.assertNotNull(extension);
+    Assertions.assertEquals("celsius", extension.getElementsByTagNameNS("https://example.com/ext/", "unit")
+            .item(0).getTextContent());
+  }
+
+  @Test
+  void carriesNextPageTokenAfterBody() throws Exception {
+    final XmlQueryDocumentWriter writer = new XmlQueryDocumentWriter(
+            MediaType.APPLICATION_XML_TYPE, "myQuery", Instant.EPOCH, null);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    out.write(writer.events(List.of(event("a"))));
+    out.write(writer.footer("eyJwaXQiOiJwIn0.c2ln"));
+    final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    final Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+
+    final Element token = (Element) document
+            .getElementsByTagNameNS(XmlQueryDocumentWriter.OPENEPCIS_NAMESPACE, "nextPageToken").item(0);
+    Assertions.assertEquals("eyJwaXQiOiJwIn0.c2ln", token.getTextContent());
+    Assertions.assertEquals("EPCISBody", token.getPreviousSibling().getLocalName());
+    Assertions.assertArrayEquals(writer.footer(), writer.footer((String) null));
+  }
+
+  @SafeVarargs
+  private Document render(final String cbvFormat, final List<ObjectNode>... batches) throws Exception {
+    final XmlQueryDocumentWriter writer = new XmlQueryDocumentWriter(
+            MediaType.APPLICATION_XML_TYPE, "myQuery", Instant.EPOCH, cbvFormat);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(writer.header());
+    for (final List<ObjectNode> batch : batches) {
+      out.write(writer.events(batch));
+    }
+    out.write(writer.footer());
+    final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+    factory.setNamespaceAware(true);
+    return factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  private ObjectNode event(final String eventID) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {
+              "@context": [{"ex": "https://example.com/ext/"}],
+              "type": "ObjectEvent",
+              "eventID": "%s",
+              "ex:temperature": {"ex:unit": "celsius", "ex:value": "22.5"},
+              "action": "OBSERVE",
+              "bizStep": "shipping",
+              "epcList": ["urn:epc:id:sgtin:4012345.011111.1", "urn:epc:id:sgtin:4012345.011111.2"],
+              "eventTime": "2024-05-01T10:00:00.000Z",
+              "eventTimeZoneOffset": "+02:00",
+              "readPoint": {"id": "urn:epc:id:sgln:4012345.00001.0"},
+              "bizTransactionList": [{"type": "po", "bizTransaction": "urn:epcglobal:cbv:bt:4012345000009:1"}],
+              "quantityList": [{"epcClass": "urn:epc:class:lgtin:4012345.011111.A1", "quantity": 10, "uom": "KGM"}],
+              "sensorElementList": [{"sensorMetadata": {"time": "2024-05-01T10:00:00.000Z"},
+                                     "sensorReport": [{"type": "gs1:Temperature", "value": 22.5, "uom": "CEL"}]}]
+            }
+            """.formatted(eventID));
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.statistics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+public class StatisticsRequestTest {
+
+  @Test
+  void sameFiltersInAnyOrderAreTheSameRequest() {
+    final StatisticsRequest a = StatisticsRequest.of("query", List.of("urn:b", "urn:a|urn:b"), null, List.of("shipping"),
+            "2025-01-06T00:00:00Z", " ", 3000);
+    final StatisticsRequest b = StatisticsRequest.of("query", List.of("urn:a", "urn:b"), List.of(), List.of("shipping"),
+            "2025-01-06T00:00:00Z", null, 3000);
+    Assertions.assertEquals(a, b);
+    Assertions.assertEquals(List.of("urn:a", "urn:b"), a.bizLocations());
+    Assertions.assertNotEquals(a, StatisticsRequest.of("admin", List.of("urn:a", "urn:b"), null, List.of("shipping"),
+            "2025-01-06T00:00:00Z", null, 3000));
+  }
+
+  @Test
+  void rangesEndingInThePastAreClosed() {
+    final Instant now = Instant.parse("2025-02-01T00:00:00Z");
+    Assertions.assertTrue(request("2025-01-13T00:00:00Z").closed(now));
+    Assertions.assertFalse(request("2025-03-01T00:00:00+01:00").closed(now));
+    Assertions.assertFalse(request(null).closed(now));
+    Assertions.assertFalse(request("last week").closed(now));
+  }
+
+  private static StatisticsRequest request(final String ltEventTime) {
+    return StatisticsRequest.of("query", null, null, null, null, ltEventTime, 3000);
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.vertx.core.Handler;
+import io.vertx.core.http.ServerWebSocket;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The parts of a {@link ServerWebSocket} a session uses, with a write queue filled and drained by the test.
+ */
+final class FakeWebSocket {
+  final List<String> messages = new ArrayList<>();
+  boolean full;
+  private boolean closed;
+  private Handler<Void> drainHandler;
+  Short closeStatus;
+  String closeReason;
+
+  @SuppressWarnings("unchecked")
+  ServerWebSocket proxy() {
+    return (ServerWebSocket) Proxy.newProxyInstance(ServerWebSocket.class.getClassLoader(),
+            new Class<?>[]{ServerWebSocket.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "writeQueueFull" -> full;
+              case "isClosed" -> closed;
+              case "writeTextMessage" -> {
+                messages.add((String) args[0]);
+                yield null;
+              }
+              case "drainHandler" -> {
+                drainHandler = (Handler<Void>) args[0];
+                yield proxy;
+              }
+              case "close" -> {
+                closed = true;
+                closeStatus = args != null && args.length > 0 ? (Short) args[0] : null;
+                closeReason = args != null && args.length > 1 ? (String) args[1] : null;
+                yield null;
+              }
+              case "hashCode" -> System.identityHashCode(proxy);
+              case "equals" -> proxy == args[0];
+              default -> null;
+            });
+  }
+
+  void drain() {
+    full = false;
+    drainHandler.handle(null);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PredicateIndexTest {
+
+  @Test
+  void findsPredicatesUnderEveryKindOfAnchor() throws JsonProcessingException {
+    final PredicateIndex index = PredicateIndex.of(List.of(
+            predicate("byEpc", Map.of("MATCH_epc", List.of("urn:epc:id:sgtin:4012345.011111.9"))),
+            predicate("byPattern", Map.of("MATCH_anyEPC", List.of("urn:epc:idpat:sgtin:4012345.*"))),
+            predicate("byReadPoint", Map.of("EQ_readPoint", List.of("urn:epc:id:sgln:4012345.00001.0"))),
+            predicate("byBizStep", Map.of("EQ_bizStep", List.of("shipping"), "eventType", List.of("ObjectEvent"))),
+            predicate("byEventTime", Map.of("GE_eventTime", List.of("2025-01-01T00:00:00Z"))),
+            predicate("byRecordTime", Map.of("LT_recordTime", List.of("2025-01-01T00:00:00Z"))),
+            predicate("all", Map.of()),
+            predicate("otherEpc", Map.of("MATCH_epc", List.of("urn:epc:idpat:sgtin:4099999.*"))),
+            predicate("otherReadPoint", Map.of("EQ_readPoint", List.of("urn:epc:id:sgln:4099999.00001.0"))),
+            predicate("otherBizStep", Map.of("EQ_bizStep", List.of("receiving"))),
+            predicate("otherEventTime", Map.of("LT_eventTime", List.of("2025-01-01T00:00:00Z")))));
+    final ObjectNode event = SubscriptionPredicateTest.event("ObjectEvent", "urn:epcglobal:cbv:bizstep:shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-01-15T10:00:00Z");
+    Assertions.assertEquals(11, index.size());
+    Assertions.assertEquals(Set.of("byEpc", "byPattern", "byReadPoint", "byBizStep", "byEventTime", "all"), index.match(event));
+  }
+
+  @Test
+  void candidatesAreVerifiedInFull() throws JsonProcessingException {
+    final PredicateIndex index = PredicateIndex.of(List.of(predicate("q", Map.of(
+            "MATCH_epc", List.of("urn:epc:id:sgtin:4012345.011111.9"), "EQ_bizStep", List.of("receiving")))));
+    Assertions.assertEquals(Set.of(), index.match(SubscriptionPredicateTest.event("ObjectEvent", "shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-01-15T10:00:00Z")));
+  }
+
+  @Test
+  void intervalTreeFindsAllIntervalsContainingAPoint() {
+    final List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      intervals.add(new IntervalTree.Interval<>(i * 7L % 101, i * 7L % 101 + i % 13, i));
+    }
+    final IntervalTree<Integer> tree = new IntervalTree<>(intervals);
+    for (long point = -1; point < 120; point++) {
+      final Set<Integer> expected = new HashSet<>();
+      for (final IntervalTree.Interval<Integer> interval : intervals) {
+        if (interval.from() <= point && point < interval.to()) {
+          expected.add(interval.value());
+        }
+      }
+      final Set<Integer> found = new HashSet<>();
+      tree.forEachContaining(point, found::add);
+      Assertions.assertEquals(expected, found, "point " + point);
+    }
+  }
+
+  private static SubscriptionPredicate predicate(final String queryName, final Map<String, List<String>> parameters) {
+    return SubscriptionPredicate.compile(queryName, parameters).orElseThrow();
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import java.time.Duration;
+
+/**
+ * Streaming configurations for tests.
+ */
+final class StreamingConfigs {
+
+  private StreamingConfigs() {
+  }
+
+  static StreamingConfig config(final int maxQueuedEvents, final int maxBatch, final OverflowPolicy overflow) {
+    return new StreamingConfig() {
+      @Override
+      public String subscription() {
+        return "epcis-percolator-queries";
+      }
+
+      @Override
+      public String percolatorIndex() {
+        return "epcis-streaming-percolator";
+      }
+
+      @Override
+      public String percolatorField() {
+        return "query";
+      }
+
+      @Override
+      public Duration catchUpInterval() {
+        return Duration.ofSeconds(60);
+      }
+
+      @Override
+      public Duration catchUpOverlap() {
+        return Duration.ofSeconds(10);
+      }
+
+      @Override
+      public int catchUpPerPage() {
+        return 100;
+      }
+
+      @Override
+      public int recentEventIds() {
+        return 1000;
+      }
+
+      @Override
+      public boolean inMemoryMatching() {
+        return true;
+      }
+
+      @Override
+      public BackPressure backPressure() {
+        return new BackPressure() {
+          @Override
+          public int maxQueuedEvents() {
+            return maxQueuedEvents;
+          }
+
+          @Override
+          public int maxBatch() {
+            return maxBatch;
+          }
+
+          @Override
+          public OverflowPolicy overflow() {
+            return overflow;
+          }
+
+          @Override
+          public boolean perSessionMetrics() {
+            return false;
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class StreamingSessionTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Instant SINCE = Instant.parse("2025-01-01T00:00:00Z");
+
+  @Test
+  void queuedEventsAreCoalescedOnceTheSocketDrains() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 10, 2, OverflowPolicy.COALESCE);
+    socket.full = true;
+    Assertions.assertEquals(3, session.deliver(List.of(event("a", 1), event("b", 2), event("c", 3))));
+    Assertions.assertEquals(3, session.queued());
+    Assertions.assertTrue(socket.messages.isEmpty());
+    socket.drain();
+    Assertions.assertEquals(0, session.queued());
+    Assertions.assertEquals(2, socket.messages.size());
+    Assertions.assertTrue(socket.messages.get(0).contains("\"a\"") && socket.messages.get(0).contains("\"b\""));
+    Assertions.assertTrue(socket.messages.get(1).contains("\"c\""));
+    session.deliver(List.of(event("c", 3)));
+    Assertions.assertEquals(2, socket.messages.size());
+  }
+
+  @Test
+  void coalesceLeavesEventsOutForTheCatchUp() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 2, 10, OverflowPolicy.COALESCE);
+    final AtomicBoolean caughtUp = new AtomicBoolean();
+    session.behindHandler(() -> caughtUp.set(true));
+    socket.full = true;
+    Assertions.assertEquals(2, session.deliver(List.of(event("a", 10), event("b", 20), event("c", -5))));
+    Assertions.assertEquals(1, session.overflowed());
+    Assertions.assertEquals(SINCE.minusSeconds(5), session.caughtUpTo());
+    Assertions.assertFalse(caughtUp.get());
+    socket.drain();
+    Assertions.assertTrue(caughtUp.get());
+    // left out, so not remembered as delivered
+    Assertions.assertEquals(1, session.deliver(List.of(event("c", -5))));
+  }
+
+  @Test
+  void catchUpPollDoesNotUndoARewind() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 1, 10, OverflowPolicy.COALESCE);
+    final StreamingSession.Position started = session.position();
+    socket.full = true;
+    Assertions.assertEquals(1, session.deliver(List.of(event("a", 10), event("b", -5))));
+    session.caughtUpTo(started, SINCE.plusSeconds(30), List.of());
+    Assertions.assertEquals(SINCE.minusSeconds(5), session.caughtUpTo());
+    final StreamingSession.Position next = session.position();
+    Assertions.assertEquals(List.of(), next.catchUpAfter());
+    session.caughtUpTo(next, SINCE.plusSeconds(30), List.of());
+    Assertions.assertEquals(SINCE.plusSeconds(30), session.caughtUpTo());
+  }
+
+  @Test
+  void dropOldestKeepsTheNewestEvents() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 2, 10, OverflowPolicy.DROP_OLDEST);
+    socket.full = true;
+    Assertions.assertEquals(3, session.deliver(List.of(event("a", 1), event("b", 2), event("c", 3))));
+    Assertions.assertEquals(1, session.overflowed());
+    socket.drain();
+    Assertions.assertEquals(1, socket.messages.size());
+    Assertions.assertFalse(socket.messages.get(0).contains("\"a\""));
+  }
+
+  @Test
+  void disconnectClosesWithTheRecordTimeToResumeFrom() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 2, 10, OverflowPolicy.DISCONNECT);
+    socket.full = true;
+    Assertions.assertEquals(2, session.deliver(List.of(event("a", 1), event("b", -2), event("c", 3))));
+    Assertions.assertTrue(session.disconnected());
+    Assertions.assertEquals(3, session.overflowed());
+    Assertions.assertEquals(StreamingSession.CLOSE_TRY_AGAIN_LATER, socket.closeStatus);
+    Assertions.assertEquals(SINCE.minusSeconds(2).toString(), socket.closeReason);
+    Assertions.assertEquals(0, session.queued());
+  }
+
+  @Test
+  void messagesNameTheQueryAndTheSubscription() throws JsonProcessingException {
+    final FakeWebSocket socket = new FakeWebSocket();
+    final StreamingSession session = session(socket, 10, 10, OverflowPolicy.COALESCE);
+    session.deliver(List.of(event("a", 1)));
+    final JsonNode results = MAPPER.readTree(socket.messages.get(0)).at("/epcisBody/queryResults");
+    Assertions.assertEquals("q", results.path("queryName").asText());
+    Assertions.assertEquals(session.subscriptionID(), results.path("subscriptionID").asText());
+    Assertions.assertEquals("a", results.at("/resultsBody/eventList/0/eventID").asText());
+  }
+
+  private static StreamingSession session(
+          final FakeWebSocket socket, final int maxQueuedEvents, final int maxBatch, final OverflowPolicy overflow) {
+    return new StreamingSession(socket.proxy(), "q", EventAccess.ADMIN, null, null, new QueryDocumentWriters(MAPPER),
+            StreamingConfigs.config(maxQueuedEvents, maxBatch, overflow), SINCE);
+  }
+
+  private static ObjectNode event(final String eventID, final long recordedAfterSeconds) throws JsonProcessingException {
+    return (ObjectNode) MAPPER.readTree(String.format("{\"type\":\"ObjectEvent\",\"eventID\":\"%s\",\"recordTime\":\"%s\"}",
+            eventID, SINCE.plusSeconds(recordedAfterSeconds)));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import io.openepcis.rest.api.common.constants.HeaderConstants;
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.RoutingContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+public class StreamingSocketRouteTest {
+
+  @Test
+  void servesStreamsWithAnInitialRecordTime() {
+    Assertions.assertTrue(StreamingSocketRoute.implemented(context(Map.of("stream", "true"), null)));
+    Assertions.assertTrue(StreamingSocketRoute.implemented(
+            context(Map.of("stream", "true", "initialRecordTime", "2025-01-01T00:00:00Z", "reportIfEmpty", "false"),
+                    "No_Preference")));
+  }
+
+  @Test
+  void leavesOtherSubscriptionParametersToTheResource() {
+    Assertions.assertFalse(StreamingSocketRoute.implemented(
+            context(Map.of("stream", "true", "reportIfEmpty", "true"), null)));
+    Assertions.assertFalse(StreamingSocketRoute.implemented(context(Map.of("stream", "true", "minute", "5"), null)));
+    Assertions.assertFalse(StreamingSocketRoute.implemented(context(Map.of("stream", "true"), "Always_EPC_URN")));
+    Assertions.assertFalse(StreamingSocketRoute.implemented(context(Map.of("stream", "true"), "Always_GS1_Digital_Link")));
+  }
+
+  private static RoutingContext context(final Map<String, String> parameters, final String epcFormat) {
+    final MultiMap queryParams = MultiMap.caseInsensitiveMultiMap().addAll(parameters);
+    final HttpServerRequest request = (HttpServerRequest) Proxy.newProxyInstance(HttpServerRequest.class.getClassLoader(),
+            new Class<?>[]{HttpServerRequest.class}, (proxy, method, args) -> "getHeader".equals(method.getName())
+                    && HeaderConstants.GS1_EPC_FORMAT.equals(args[0]) ? epcFormat : null);
+    return (RoutingContext) Proxy.newProxyInstance(RoutingContext.class.getClassLoader(),
+            new Class<?>[]{RoutingContext.class}, (proxy, method, args) -> switch (method.getName()) {
+              case "queryParams" -> queryParams;
+              case "request" -> request;
+              default -> null;
+            });
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class SubscriptionPredicateTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  void matchesEqualitiesEpcPatternsAndTimeBounds() throws JsonProcessingException {
+    final SubscriptionPredicate predicate = compile(Map.of(
+            "eventType", List.of("ObjectEvent|AggregationEvent"),
+            "EQ_bizStep", List.of("shipping"),
+            "EQ_readPoint", List.of("urn:epc:id:sgln:4012345.00001.0"),
+            "MATCH_epc", List.of("urn:epc:idpat:sgtin:4012345.011111.*"),
+            "GE_eventTime", List.of("2025-01-01T00:00:00+01:00"),
+            "LT_eventTime", List.of("2025-02-01T00:00:00Z"),
+            "orderBy", List.of("eventTime")));
+    Assertions.assertTrue(predicate.matches(event("ObjectEvent", "https://ref.gs1.org/cbv/BizStep-shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-01-15T10:00:00.000+01:00")));
+    Assertions.assertTrue(predicate.matches(event("ObjectEvent", "urn:epcglobal:cbv:bizstep:shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2024-12-31T23:00:00Z")));
+    Assertions.assertFalse(predicate.matches(event("ObjectEvent", "shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-02-01T00:00:00Z")));
+    Assertions.assertFalse(predicate.matches(event("TransformationEvent", "shipping",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-01-15T10:00:00Z")));
+    Assertions.assertFalse(predicate.matches(event("ObjectEvent", "receiving",
+            "urn:epc:id:sgtin:4012345.011111.9", "2025-01-15T10:00:00Z")));
+    Assertions.assertFalse(predicate.matches(event("ObjectEvent", "shipping",
+            "urn:epc:id:sgtin:4012345.022222.9", "2025-01-15T10:00:00Z")));
+  }
+
+  @Test
+  void matchEpcLooksAtItsFieldsOnly() throws JsonProcessingException {
+    final ObjectNode aggregation = (ObjectNode) MAPPER.readTree("""
+            {"type":"AggregationEvent","parentID":"urn:epc:id:sscc:4012345.0000000001",
+             "childEPCs":["urn:epc:id:sgtin:4012345.011111.1"]}""");
+    Assertions.assertTrue(compile(Map.of("MATCH_epc", List.of("urn:epc:id:sgtin:4012345.011111.1"))).matches(aggregation));
+    Assertions.assertFalse(compile(Map.of("MATCH_epc", List.of("urn:epc:id:sscc:4012345.0000000001"))).matches(aggregation));
+    Assertions.assertTrue(compile(Map.of("MATCH_parentID", List.of("urn:epc:id:sscc:4012345.0000000001"))).matches(aggregation));
+    Assertions.assertTrue(compile(Map.of("MATCH_anyEPC", List.of("urn:epc:idpat:sscc:4012345.*"))).matches(aggregation));
+  }
+
+  @Test
+  void unsupportedParametersAreLeftToThePercolator() {
+    Assertions.assertTrue(SubscriptionPredicate.compile("q", Map.of("EQ_quantity", List.of("1"))).isEmpty());
+    Assertions.assertTrue(SubscriptionPredicate.compile("q", Map.of("GE_eventTime", List.of("yesterday"))).isEmpty());
+    Assertions.assertTrue(SubscriptionPredicate.compile(
+            "q", Map.of("LT_recordTime", List.of("2025-01-01T00:00:00Z|2025-02-01T00:00:00Z"))).isEmpty());
+    Assertions.assertTrue(SubscriptionPredicate.compile("q", Map.of("eventCountLimit", List.of("10"))).isPresent());
+  }
+
+  private static SubscriptionPredicate compile(final Map<String, List<String>> parameters) {
+    return SubscriptionPredicate.compile("q", parameters).orElseThrow();
+  }
+
+  static ObjectNode event(final String type, final String bizStep, final String epc, final String eventTime)
+          throws JsonProcessingException {
+    return (ObjectNode) MAPPER.readTree(String.format("""
+            {"type":"%s","bizStep":"%s","epcList":["%s"],"eventTime":"%s",
+             "readPoint":{"id":"urn:epc:id:sgln:4012345.00001.0"}}""", type, bizStep, epc, eventTime));
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.subscription;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.QueryDocumentWriters;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SubscriptionPushTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final Instant SINCE = Instant.parse("2025-01-01T00:00:00Z");
+  private static final StreamingConfig CONFIG = StreamingConfigs.config(10, 10, OverflowPolicy.COALESCE);
+
+  private MeterRegistry registry;
+  private StreamingSessions sessions;
+  private SubscriptionPush push;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    sessions = new StreamingSessions(registry, CONFIG);
+    push = new SubscriptionPush(sessions, null, null, registry);
+  }
+
+  @Test
+  void matchingEventsAreDeliveredInOneMessagePerSession() throws JsonProcessingException {
+    final FakeWebSocket shipping = open("shipping", EventAccess.ADMIN);
+    final FakeWebSocket receiving = open("receiving", EventAccess.ADMIN);
+    final FakeWebSocket unmatched = open("returns", EventAccess.ADMIN);
+    push.dispatch(List.of(event("a", "acme"), event("b", "acme")),
+            Map.of(0, Set.of("shipping", "receiving"), 1, Set.of("shipping")), Map.of());
+    Assertions.assertEquals(1, shipping.messages.size());
+    Assertions.assertTrue(shipping.messages.get(0).contains("\"a\"") && shipping.messages.get(0).contains("\"b\""));
+    Assertions.assertEquals(1, receiving.messages.size());
+    Assertions.assertTrue(receiving.messages.get(0).contains("\"a\""));
+    Assertions.assertFalse(receiving.messages.get(0).contains("\"b\""));
+    Assertions.assertTrue(unmatched.messages.isEmpty());
+    Assertions.assertEquals(3, registry.get(SubscriptionPush.METRIC_DELIVERIES).counter().count());
+  }
+
+  @Test
+  void sessionsOnlyReceiveTheEventsTheyMaySee() throws JsonProcessingException {
+    final FakeWebSocket acme = open("shipping", new EventAccess("acme", Set.of("query"), "query"));
+    final FakeWebSocket other = open("shipping", new EventAccess("other", Set.of("query"), "query"));
+    push.dispatch(List.of(event("a", "acme"), event("b", "other")),
+            Map.of(0, Set.of("shipping"), 1, Set.of("shipping")), Map.of());
+    Assertions.assertEquals(1, acme.messages.size());
+    Assertions.assertTrue(acme.messages.get(0).contains("\"a\""));
+    Assertions.assertFalse(acme.messages.get(0).contains("\"b\""));
+    // the access fields the visibility is checked against are not delivered
+    Assertions.assertFalse(acme.messages.get(0).contains("defaultGroup"));
+    Assertions.assertEquals(1, other.messages.size());
+    Assertions.assertTrue(other.messages.get(0).contains("\"b\""));
+    Assertions.assertFalse(other.messages.get(0).contains("\"a\""));
+  }
+
+  @Test
+  void latencyIsRecordedForEveryMatchedEvent() throws JsonProcessingException {
+    open("shipping", EventAccess.ADMIN);
+    final long now = System.currentTimeMillis();
+    push.dispatch(List.of(event("a", "acme"), event("b", "acme"), event("c", "acme")),
+            Map.of(0, Set.of("shipping"), 1, Set.of("shipping")), Map.of("a", now - 100, "b", now - 200, "c", now));
+    Assertions.assertEquals(2, registry.get(SubscriptionPush.METRIC_LATENCY).timer().count());
+  }
+
+  private FakeWebSocket open(final String queryName, final EventAccess access) {
+    final FakeWebSocket socket = new FakeWebSocket();
+    sessions.open(new StreamingSession(socket.proxy(), queryName, access, null, null, new QueryDocumentWriters(MAPPER),
+            CONFIG, SINCE));
+    return socket;
+  }
+
+  private static ObjectNode event(final String eventID, final String group) throws JsonProcessingException {
+    return (ObjectNode) MAPPER.readTree(String.format(
+            "{\"type\":\"ObjectEvent\",\"eventID\":\"%s\",\"recordTime\":\"%s\",\"defaultGroup\":\"%s\"}",
+            eventID, SINCE.plusSeconds(1), group));
+  }
+}
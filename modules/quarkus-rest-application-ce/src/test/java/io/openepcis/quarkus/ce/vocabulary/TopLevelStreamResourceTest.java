@@ -0,0 +1,45 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class TopLevelStreamResourceTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final TopLevelStreamResource resource = new TopLevelStreamResource(null, objectMapper);
+
+  @Test
+  void writesOneJsonObjectPerLine() throws Exception {
+    final String lines = new String(resource.lines(List.of("urn:epcglobal:cbv:bizstep:shipping", "say \"hi\"")),
+            StandardCharsets.UTF_8);
+    Assertions.assertTrue(lines.endsWith("\n"));
+    final String[] split = lines.split("\n");
+    Assertions.assertEquals(2, split.length);
+    Assertions.assertEquals("urn:epcglobal:cbv:bizstep:shipping", objectMapper.readTree(split[0]).path("value").asText());
+    Assertions.assertEquals("say \"hi\"", objectMapper.readTree(split[1]).path("value").asText());
+  }
+
+  @Test
+  void writesNothingForAnEmptyPage() {
+    Assertions.assertEquals(0, resource.lines(List.of()).length);
+  }
+}
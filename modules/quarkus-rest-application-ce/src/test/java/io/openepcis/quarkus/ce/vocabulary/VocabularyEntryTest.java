@@ -0,0 +1,79 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public class VocabularyEntryTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void extractsValuesOfNestedAndRepeatedFields() throws Exception {
+    final ObjectNode event = event("urn:epc:id:sgtin:4012345.011111.1", "2024-05-01T10:00:00Z");
+    Assertions.assertEquals(List.of("urn:epc:id:sgtin:4012345.011111.1", "urn:epc:id:sscc:4012345.0000000001"),
+            VocabularyType.EPC.values(event));
+    Assertions.assertEquals(List.of("urn:epc:id:sgln:4012345.00001.0"), VocabularyType.READ_POINT.values(event));
+    Assertions.assertEquals(List.of(), VocabularyType.BIZ_LOCATION.values(event));
+  }
+
+  @Test
+  void mergesValuesPerGroupAndForAllGroups() throws Exception {
+    final Collection<VocabularyEntry> entries = VocabularyEntry.merged(List.of(
+            event("urn:epc:id:sgtin:4012345.011111.1", "2024-05-01T10:00:00Z"),
+            event("urn:epc:id:sgtin:4012345.011111.2", "2024-05-02T10:00:00Z")), 0);
+    final VocabularyEntry all = find(entries, "bizSteps", VocabularyEntry.ALL_GROUPS, "shipping");
+    final VocabularyEntry group = find(entries, "bizSteps", "acme", "shipping");
+    Assertions.assertEquals(2, entries.stream().filter(entry -> entry.type().equals("bizSteps")).count());
+    Assertions.assertEquals(Instant.parse("2024-05-01T10:00:00Z").toEpochMilli(), all.firstSeen());
+    Assertions.assertEquals(Instant.parse("2024-05-02T10:00:00Z").toEpochMilli(), all.lastSeen());
+    final VocabularyEntry child = find(entries, "epcs", "acme", "urn:epc:id:sgtin:4012345.011111.2");
+    final VocabularyEntry parent = find(entries, "epcs", "acme", "urn:epc:id:sscc:4012345.0000000001");
+    Assertions.assertEquals(group.lastSeen(), child.firstSeen());
+    Assertions.assertEquals(group.firstSeen(), parent.firstSeen());
+    Assertions.assertEquals(group.lastSeen(), parent.lastSeen());
+    Assertions.assertNotEquals(all.id(), group.id());
+  }
+
+  private ObjectNode event(final String epc, final String recordTime) throws Exception {
+    return (ObjectNode) objectMapper.readTree("""
+            {
+              "type": "AggregationEvent",
+              "recordTime": "%s",
+              "parentID": "urn:epc:id:sscc:4012345.0000000001",
+              "childEPCs": ["%s"],
+              "bizStep": "shipping",
+              "readPoint": { "id": "urn:epc:id:sgln:4012345.00001.0" },
+              "defaultGroup": "acme"
+            }
+            """.formatted(recordTime, epc));
+  }
+
+  private static VocabularyEntry find(
+          final Collection<VocabularyEntry> entries, final String type, final String group, final String value) {
+    return entries.stream()
+            .filter(entry -> entry.type().equals(type) && entry.group().equals(group) && entry.value().equals(value))
+            .findFirst()
+            .orElseThrow();
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.vocabulary;
+
+import io.quarkus.security.identity.SecurityIdentity;
+import io.smallrye.mutiny.Uni;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class VocabularyListingTest {
+
+  @Test
+  void streamsAllValuesPageByPage() {
+    final FixedListing listing = new FixedListing(2, List.of("a", "b", "c", "d", "e"));
+    Assertions.assertEquals(List.of(List.of("a", "b"), List.of("c", "d"), List.of("e")), stream(listing));
+    Assertions.assertEquals(List.of("null", "b", "d"), listing.afters);
+  }
+
+  @Test
+  void endsWithoutAnEmptyPageAfterAFullOne() {
+    final FixedListing listing = new FixedListing(2, List.of("a", "b", "c", "d"));
+    Assertions.assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), stream(listing));
+    Assertions.assertEquals(3, listing.afters.size());
+  }
+
+  @Test
+  void streamsNothingForAnEmptyListing() {
+    Assertions.assertEquals(List.of(), stream(new FixedListing(2, List.of())));
+  }
+
+  @Test
+  void mergesFieldPagesIntoOneAscendingPage() {
+    final List<List<String>> pages = List.of(List.of("a", "c", "e"), List.of("b", "c"), List.of(), List.of("d", "f"));
+    Assertions.assertEquals(List.of("a", "b", "c", "d"), VocabularyListing.merge(pages, 4));
+    Assertions.assertEquals(List.of("a", "b", "c", "d", "e", "f"), VocabularyListing.merge(pages, 10));
+  }
+
+  private static List<List<String>> stream(final VocabularyListing listing) {
+    return listing.stream(null, VocabularyType.BIZ_STEP).collect().asList().await().atMost(Duration.ofSeconds(5));
+  }
+
+  /**
+   * Lists sorted values from memory, like a search continuing after the last value of the previous page.
+   */
+  private static final class FixedListing extends VocabularyListing {
+    private final List<String> values;
+    private final List<String> afters = new ArrayList<>();
+
+    FixedListing(final int streamBatchSize, final List<String> values) {
+      super(null, null, null, config(streamBatchSize));
+      this.values = values;
+    }
+
+    @Override
+    public Uni<List<String>> list(
+            final SecurityIdentity securityIdentity, final VocabularyType type, final int size, final String after) {
+      afters.add(String.valueOf(after));
+      return Uni.createFrom().item(values.stream()
+              .filter(value -> after == null || value.compareTo(after) > 0)
+              .limit(size)
+              .toList());
+    }
+  }
+
+  private static VocabularyConfig config(final int streamBatchSize) {
+    return new VocabularyConfig() {
+      @Override
+      public String index() {
+        return "epcis-vocabulary";
+      }
+
+      @Override
+      public boolean serve() {
+        return true;
+      }
+
+      @Override
+      public boolean backfill() {
+        return false;
+      }
+
+      @Override
+      public int backfillBatchSize() {
+        return 1000;
+      }
+
+      @Override
+      public int streamBatchSize() {
+        return streamBatchSize;
+      }
+    };
+  }
+}
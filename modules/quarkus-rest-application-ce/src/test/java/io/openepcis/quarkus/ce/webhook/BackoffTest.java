@@ -0,0 +1,34 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class BackoffTest {
+
+  @Test
+  void growsExponentiallyUpToTheMaximum() {
+    final Backoff backoff = new Backoff(Duration.ofSeconds(1), Duration.ofSeconds(60), 2);
+    Assertions.assertEquals(Duration.ofMillis(500), backoff.delay(1, 0));
+    Assertions.assertEquals(Duration.ofMillis(1_000), backoff.delay(1, 1));
+    Assertions.assertEquals(Duration.ofMillis(6_000), backoff.delay(4, 0.5));
+    Assertions.assertEquals(Duration.ofSeconds(30), backoff.delay(20, 0));
+    Assertions.assertEquals(Duration.ofSeconds(60), backoff.delay(20, 1));
+  }
+}
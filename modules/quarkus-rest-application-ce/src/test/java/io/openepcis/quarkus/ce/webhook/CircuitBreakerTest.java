@@ -0,0 +1,56 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class CircuitBreakerTest {
+
+  @Test
+  void opensAfterConsecutiveFailures() {
+    final CircuitBreaker breaker = new CircuitBreaker(3, Duration.ofSeconds(30));
+    breaker.failure(0);
+    breaker.failure(0);
+    breaker.success();
+    breaker.failure(0);
+    breaker.failure(0);
+    Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    breaker.failure(1_000);
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    Assertions.assertFalse(breaker.allow(2_000));
+    Assertions.assertEquals(31_000, breaker.retryAt(2_000));
+  }
+
+  @Test
+  void letsOneTrialThroughOnceTheOpenDurationElapsed() {
+    final CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(30));
+    breaker.failure(0);
+    Assertions.assertTrue(breaker.allow(30_000));
+    Assertions.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+    Assertions.assertFalse(breaker.allow(30_000));
+    breaker.failure(31_000);
+    Assertions.assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    Assertions.assertFalse(breaker.allow(60_000));
+    Assertions.assertTrue(breaker.allow(61_000));
+    breaker.success();
+    Assertions.assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    Assertions.assertTrue(breaker.allow(61_000));
+    Assertions.assertTrue(breaker.allow(61_000));
+  }
+}
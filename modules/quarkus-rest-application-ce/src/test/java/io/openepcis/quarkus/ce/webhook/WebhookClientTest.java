@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class WebhookClientTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+  private static final String DOCUMENT = "{\"type\":\"EPCISQueryDocument\"}";
+
+  /**
+   * A request the mock destination received.
+   */
+  private record Received(String path, Map<String, String> headers, String body) {}
+
+  private final BlockingQueue<Received> received = new LinkedBlockingQueue<>();
+  private Vertx vertx;
+  private HttpServer server;
+  private WebhookClient client;
+  private volatile int status = 204;
+  private volatile String retryAfter;
+
+  @BeforeEach
+  void start() throws Exception {
+    vertx = Vertx.vertx();
+    server = vertx.createHttpServer()
+            .requestHandler(this::handle)
+            .listen(0, "localhost")
+            .toCompletionStage().toCompletableFuture().get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    client = new WebhookClient(vertx, WebhookConfigs.config(10, 1, 10, 5));
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    client.close();
+    vertx.close().toCompletionStage().toCompletableFuture().get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+  }
+
+  @Test
+  void postsSignedQueryDocuments() throws Exception {
+    final WebhookClient.Response response = client.post(target(), "secret", DOCUMENT).await().atMost(TIMEOUT);
+    Assertions.assertTrue(response.successful());
+    final Received request = received.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    Assertions.assertNotNull(request);
+    Assertions.assertEquals("/hook", request.path());
+    Assertions.assertEquals(DOCUMENT, request.body());
+    Assertions.assertEquals("application/json", request.headers().get("content-type"));
+    Assertions.assertEquals(WebhookClient.sign("secret", DOCUMENT), request.headers().get("gs1-signature"));
+  }
+
+  @Test
+  void leavesUnsignedDeliveriesWithoutSignature() throws Exception {
+    client.post(target(), null, DOCUMENT).await().atMost(TIMEOUT);
+    final Received request = received.poll(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    Assertions.assertNotNull(request);
+    Assertions.assertFalse(request.headers().containsKey("gs1-signature"));
+  }
+
+  @Test
+  void reportsStatusAndRetryAfter() {
+    status = 503;
+    retryAfter = "7";
+    final WebhookClient.Response response = client.post(target(), null, DOCUMENT).await().atMost(TIMEOUT);
+    Assertions.assertFalse(response.successful());
+    Assertions.assertEquals(503, response.status());
+    Assertions.assertTrue(WebhookDeliveries.retryable(response.status()));
+    Assertions.assertEquals(Duration.ofSeconds(7), WebhookDeliveries.retryAfter(response));
+  }
+
+  @Test
+  void failsForUnreachableDestinations() throws Exception {
+    final int port = server.actualPort();
+    server.close().toCompletionStage().toCompletableFuture().get(TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    final WebhookTarget unreachable = new WebhookTarget("s1", "q", "http://localhost:" + port + "/hook");
+    Assertions.assertThrows(Exception.class, () -> client.post(unreachable, null, DOCUMENT).await().atMost(TIMEOUT));
+  }
+
+  private WebhookTarget target() {
+    return new WebhookTarget("s1", "q", "http://localhost:" + server.actualPort() + "/hook");
+  }
+
+  private void handle(final HttpServerRequest request) {
+    request.body().onSuccess(body -> {
+      final Map<String, String> headers = new HashMap<>();
+      request.headers().forEach(header -> headers.put(header.getKey().toLowerCase(Locale.ROOT), header.getValue()));
+      received.add(new Received(request.path(), headers, body.toString()));
+      if (retryAfter != null) {
+        request.response().putHeader(WebhookClient.RETRY_AFTER, retryAfter);
+      }
+      request.response().setStatusCode(status).end();
+    });
+  }
+}
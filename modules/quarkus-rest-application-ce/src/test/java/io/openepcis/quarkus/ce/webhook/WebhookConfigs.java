@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import java.time.Duration;
+
+/**
+ * Webhook configurations for tests.
+ */
+final class WebhookConfigs {
+
+  private WebhookConfigs() {
+  }
+
+  static WebhookConfig config(
+          final int maxBatchEvents, final int maxConcurrency, final int maxQueuedBatches, final int failureThreshold) {
+    return new WebhookConfig() {
+      @Override
+      public boolean enabled() {
+        return true;
+      }
+
+      @Override
+      public String subscriptionIndex() {
+        return "epcis-webhook-subscription";
+      }
+
+      @Override
+      public Duration subscriptionRefresh() {
+        return Duration.ofSeconds(10);
+      }
+
+      @Override
+      public String retryIndex() {
+        return "epcis-webhook-retry";
+      }
+
+      @Override
+      public int maxBatchEvents() {
+        return maxBatchEvents;
+      }
+
+      @Override
+      public Duration linger() {
+        return Duration.ZERO;
+      }
+
+      @Override
+      public int maxConcurrency() {
+        return maxConcurrency;
+      }
+
+      @Override
+      public int maxQueuedBatches() {
+        return maxQueuedBatches;
+      }
+
+      @Override
+      public int maxConnections() {
+        return 1;
+      }
+
+      @Override
+      public Duration connectTimeout() {
+        return Duration.ofSeconds(5);
+      }
+
+      @Override
+      public Duration requestTimeout() {
+        return Duration.ofSeconds(30);
+      }
+
+      @Override
+      public Retry retry() {
+        return null;
+      }
+
+      @Override
+      public CircuitBreaker circuitBreaker() {
+        return new CircuitBreaker() {
+          @Override
+          public int failureThreshold() {
+            return failureThreshold;
+          }
+
+          @Override
+          public Duration openDuration() {
+            return Duration.ofSeconds(30);
+          }
+        };
+      }
+    };
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class WebhookDestinationTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final WebhookTarget TARGET = new WebhookTarget("s1", "q", "https://example.com/hook");
+
+  @Test
+  void collectsEventsIntoBatchesOfAtMostMaxBatchEvents() {
+    final WebhookDestination destination = new WebhookDestination(WebhookConfigs.config(3, 2, 10, 5));
+    Assertions.assertTrue(destination.collect(TARGET, events(4)).started());
+    Assertions.assertFalse(destination.collect(TARGET, events(1)).started());
+    Assertions.assertEquals(1, destination.queued());
+    Assertions.assertTrue(destination.seal(TARGET).isEmpty());
+    Assertions.assertEquals(2, destination.queued());
+    Assertions.assertEquals(3, destination.next(0).events().size());
+    Assertions.assertEquals(2, destination.next(0).events().size());
+    Assertions.assertNull(destination.next(0));
+    Assertions.assertTrue(destination.collect(TARGET, events(1)).started());
+  }
+
+  @Test
+  void limitsBatchesInFlightAndOverflowsAFullQueue() {
+    final WebhookDestination destination = new WebhookDestination(WebhookConfigs.config(1, 2, 3, 5));
+    final WebhookDestination.Collected collected = destination.collect(TARGET, events(4));
+    Assertions.assertEquals(1, collected.overflow().size());
+    Assertions.assertNotNull(destination.next(0));
+    Assertions.assertNotNull(destination.next(0));
+    Assertions.assertNull(destination.next(0));
+    destination.done();
+    Assertions.assertNotNull(destination.next(0));
+    Assertions.assertEquals(0, destination.queued());
+  }
+
+  @Test
+  void rejectsQueuedBatchesWhileTheCircuitIsOpen() {
+    final WebhookDestination destination = new WebhookDestination(WebhookConfigs.config(1, 1, 10, 1));
+    destination.collect(TARGET, events(3));
+    Assertions.assertTrue(destination.rejected().isEmpty());
+    destination.next(0);
+    destination.done();
+    destination.circuitBreaker().failure(0);
+    Assertions.assertNull(destination.next(1));
+    final List<WebhookBatch> rejected = destination.rejected();
+    Assertions.assertEquals(2, rejected.size());
+    Assertions.assertEquals(0, destination.queued());
+    Assertions.assertTrue(destination.offer(rejected.get(0)));
+    Assertions.assertNotNull(destination.next(Duration.ofSeconds(30).toMillis()));
+  }
+
+  private static List<ObjectNode> events(final int count) {
+    final List<ObjectNode> events = new ArrayList<>();
+    IntStream.range(0, count).forEach(i -> events.add(MAPPER.createObjectNode().put("eventID", "ni:///" + i)));
+    return events;
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import io.openepcis.quarkus.ce.query.EventFields;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class WebhookPushTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final WebhookSubscription admin =
+          new WebhookSubscription("s1", "shipping", "https://a.example.com/hook", "t1", EventAccess.ADMIN);
+  private final WebhookSubscription groupA = new WebhookSubscription(
+          "s2", "shipping", "https://b.example.com/hook", null, new EventAccess("a", Set.of("query"), "query"));
+  private final WebhookSubscription receiving = new WebhookSubscription(
+          "s3", "receiving", "https://b.example.com/hook", null, new EventAccess("a", Set.of("query"), "query"));
+
+  @Test
+  void deliversMatchedEventsTheSubscriberMaySeeWithoutAccessFields() {
+    final List<ObjectNode> found = List.of(event("e1", "a"), event("e2", "b"), event("e3", "a"));
+    final Map<Integer, Set<String>> matches = Map.of(0, Set.of("shipping"), 1, Set.of("shipping"), 2, Set.of("receiving"));
+
+    final Map<WebhookSubscription, List<ObjectNode>> matched =
+            WebhookPush.matched(found, matches, List.of(admin, groupA, receiving));
+
+    Assertions.assertEquals(List.of("e1", "e2"), eventIDs(matched.get(admin)));
+    Assertions.assertEquals(List.of("e1"), eventIDs(matched.get(groupA)));
+    Assertions.assertEquals(List.of("e3"), eventIDs(matched.get(receiving)));
+    matched.values().forEach(events -> events.forEach(event ->
+            EventFields.ACCESS.forEach(field -> Assertions.assertFalse(event.has(field), field))));
+    Assertions.assertTrue(found.get(0).has(EventFields.GROUP));
+  }
+
+  @Test
+  void skipsHiddenEventsAndUnmatchedSubscriptions() {
+    final ObjectNode hidden = event("e1", "a").put(EventFields.VISIBLE, false);
+    final Map<WebhookSubscription, List<ObjectNode>> matched =
+            WebhookPush.matched(List.of(hidden, event("e2", "a")), Map.of(0, Set.of("shipping")), List.of(admin, receiving));
+    Assertions.assertTrue(matched.isEmpty());
+  }
+
+  private static ObjectNode event(final String eventID, final String group) {
+    return MAPPER.createObjectNode().put(EventFields.EVENT_ID, eventID).put(EventFields.GROUP, group);
+  }
+
+  private static List<String> eventIDs(final List<ObjectNode> events) {
+    return events.stream().map(event -> event.path(EventFields.EVENT_ID).asText()).toList();
+  }
+}
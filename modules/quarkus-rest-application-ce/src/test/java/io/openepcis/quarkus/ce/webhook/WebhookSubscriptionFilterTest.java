@@ -0,0 +1,71 @@
+/*
+ * Copyright 2022-2025 benelog GmbH & Co. KG
+ *
+ *     Licensed under the Apache License, Version 2.0 (the "License");
+ *     you may not use this file except in compliance with the License.
+ *     You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *     Unless required by applicable law or agreed to in writing, software
+ *     distributed under the License is distributed on an "AS IS" BASIS,
+ *     WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *     See the License for the specific language governing permissions and
+ *     limitations under the License.
+ */
+package io.openepcis.quarkus.ce.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.openepcis.quarkus.ce.query.EventAccess;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+
+public class WebhookSubscriptionFilterTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void takesOverStreamingSubscriptionsToHttpEndpoints() throws Exception {
+    final JsonNode subscription = json("""
+            {"dest": "https://client.example.com/callback", "stream": true, "signatureToken": "secret"}""");
+    Assertions.assertTrue(WebhookSubscriptionFilter.streamed(subscription));
+    Assertions.assertTrue(WebhookSubscriptionFilter.implemented(subscription));
+    Assertions.assertFalse(WebhookSubscriptionFilter.streamed(json("""
+            {"dest": "https://client.example.com/callback", "schedule": {"minute": "0"}}""")));
+    Assertions.assertFalse(WebhookSubscriptionFilter.streamed(json("""
+            {"dest": "ws://client.example.com/callback", "stream": true}""")));
+  }
+
+  @Test
+  void leavesParametersItDoesNotImplementToTheEngine() throws Exception {
+    Assertions.assertFalse(WebhookSubscriptionFilter.implemented(json("""
+            {"dest": "https://client.example.com/callback", "stream": true,
+             "initialRecordTime": "2024-05-01T10:00:00Z"}""")));
+    Assertions.assertFalse(WebhookSubscriptionFilter.implemented(json("""
+            {"dest": "https://client.example.com/callback", "stream": true, "reportIfEmpty": true}""")));
+    Assertions.assertTrue(WebhookSubscriptionFilter.implemented(json("""
+            {"dest": "https://client.example.com/callback", "stream": true, "reportIfEmpty": false}""")));
+  }
+
+  @Test
+  void answersSubscriptionsWithoutTheirSecret() {
+    final WebhookSubscription webhook = new WebhookSubscription(
+            "s1", "myQuery", "https://client.example.com/callback", "secret", EventAccess.ADMIN);
+    final Map<String, Object> representation =
+            WebhookSubscriptionFilter.representation(webhook, Instant.parse("2024-05-01T10:00:00Z"));
+    Assertions.assertEquals("s1", representation.get(WebhookSubscriptionFilter.SUBSCRIPTION_ID));
+    Assertions.assertEquals(true, representation.get(WebhookSubscriptionFilter.STREAM));
+    Assertions.assertEquals("2024-05-01T10:00:00Z", representation.get(WebhookSubscriptionFilter.CREATED_AT));
+    Assertions.assertFalse(representation.containsKey(WebhookSubscriptionFilter.SIGNATURE_TOKEN));
+    Assertions.assertFalse(WebhookSubscriptionFilter.representation(webhook, null)
+            .containsKey(WebhookSubscriptionFilter.CREATED_AT));
+  }
+
+  private JsonNode json(final String json) throws Exception {
+    return objectMapper.readTree(json);
+  }
+}